@@ -0,0 +1,36 @@
+package bench;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.TestResult;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.UUID;
+
+/**
+ * Тест-кейс Allure, открытый на время итерации бенчмарка. Без него шаги {@code @Step} не к чему привязать,
+ * и аспект вместо записи шага пишет ошибку в лог, что искажает замер. Шаги копятся в тест-кейсе
+ * так же, как в обычном тесте, и сбрасываются на диск в конце итерации.
+ */
+@State(Scope.Thread)
+public class AllureTestCase {
+    private final AllureLifecycle lifecycle = Allure.getLifecycle();
+    private String uuid;
+
+    @Setup(Level.Iteration)
+    public void start() {
+        uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName("jmh"));
+        lifecycle.startTestCase(uuid);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import client.OrderClient;
+import client.UserClient;
+import client.UserSession;
+import client.TokenManager;
+import io.restassured.response.Response;
+import model.AuthResponse;
+import model.OrdersListResponse;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный вызов клиента через loopback к встроенной заглушке (-Dapi.target=stub): спецификация, шаг Allure,
+ * фильтры, пул соединений и разбор ответа. Разница с бенчмарками отдельных этапов показывает долю сети
+ * и сервера в задержке.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+    private final UserClient userClient = new UserClient();
+    private final OrderClient orderClient = new OrderClient();
+    private User user;
+    private UserSession session;
+
+    @Setup
+    public void setUp() {
+        user = User.generateUser();
+        session = TokenManager.shared().register(user);
+    }
+
+    @Benchmark
+    public int loginUser(AllureTestCase testCase) {
+        Response response = userClient.loginUser(user);
+        return response.path("user.email").hashCode();
+    }
+
+    @Benchmark
+    public int loginUserTyped(AllureTestCase testCase) {
+        AuthResponse response = userClient.loginUserTyped(user);
+        return response.getUser().getEmail().hashCode();
+    }
+
+    @Benchmark
+    public int ordersListTyped(AllureTestCase testCase) {
+        OrdersListResponse response = orderClient.getUserOrdersListWithTokenTyped(session.getAccessToken());
+        return response.getStatusCode();
+    }
+
+    @Benchmark
+    public int loginUserAsync() {
+        return userClient.loginUserAsync(user).join().getStatusCode();
+    }
+}
@@ -0,0 +1,70 @@
+package bench;
+
+import com.google.gson.Gson;
+import fixture.DataGenerator;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация {@link User} в JSON общим экземпляром Gson и новым экземпляром на каждый вызов,
+ * генерация пользователей и прямая запись тела регистрации генератором {@link DataGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final Gson GSON = new Gson();
+
+    private final DataGenerator generator = new DataGenerator(42);
+    private long sequence;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("bench-user@yandex.ru", "password123", "bench");
+    }
+
+    @Benchmark
+    public String sharedGson() {
+        return GSON.toJson(user);
+    }
+
+    @Benchmark
+    public String gsonPerCall() {
+        return new Gson().toJson(user);
+    }
+
+    @Benchmark
+    public User generateUser() {
+        return User.generateUser();
+    }
+
+    @Benchmark
+    public User generatorUser() {
+        return generator.user(sequence++);
+    }
+
+    @Benchmark
+    public String generatorUserJson() {
+        return generator.userJson(sequence++);
+    }
+
+    @Benchmark
+    public String generateAndSerializeWithGson() {
+        return GSON.toJson(generator.user(sequence++));
+    }
+}
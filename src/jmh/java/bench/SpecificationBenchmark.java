@@ -0,0 +1,65 @@
+package bench;
+
+import client.ApiClient;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Стоимость подготовки запроса без отправки: слияние с базовой спецификацией {@link ApiClient},
+ * заголовок авторизации и сериализация {@link User} в тело запроса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("bench-user@yandex.ru", "password123", "bench");
+        ApiClient.getBaseSpecification();
+    }
+
+    @Benchmark
+    public RequestSpecification sharedSpecification() {
+        return given().spec(ApiClient.getBaseSpecification());
+    }
+
+    // Так спецификация собиралась до пула соединений: заново на каждый запрос
+    @Benchmark
+    public RequestSpecification perCallSpecification() {
+        return given().spec(new RequestSpecBuilder()
+                .log(LogDetail.ALL)
+                .setContentType(ContentType.JSON)
+                .setBaseUri(ApiClient.getBaseUrl())
+                .build());
+    }
+
+    @Benchmark
+    public RequestSpecification sharedSpecificationWithUserBody() {
+        return given()
+                .spec(ApiClient.getBaseSpecification())
+                .header(ApiClient.AUTHORIZATION_HEADER, ApiClient.BEARER_PREFIX + "token")
+                .body(user);
+    }
+}
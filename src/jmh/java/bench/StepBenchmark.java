@@ -0,0 +1,47 @@
+package bench;
+
+import io.qameta.allure.Step;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы вплетённого AspectJ шага Allure по сравнению с тем же методом без {@code @Step}.
+ * Запускается с -javaagent aspectjweaver, как и тесты.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepBenchmark {
+    private String name = "bench";
+
+    @Benchmark
+    public String plainMethod() {
+        return plain(name);
+    }
+
+    @Benchmark
+    public String stepMethod(AllureTestCase testCase) {
+        return step(name);
+    }
+
+    private String plain(String value) {
+        return value;
+    }
+
+    @Step("Шаг бенчмарка {value}")
+    private String step(String value) {
+        return value;
+    }
+}
@@ -0,0 +1,136 @@
+package cassette;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кассета: HTTP-обмены одного теста в порядке выполнения. На диске это gzip-файл, первая строка которого —
+ * индекс «метод эндпоинт → номера строк», а каждая следующая строка — один обмен в JSON. При воспроизведении
+ * строка разбирается только тогда, когда обмен запрошен; повторные запросы с тем же ключом получают
+ * следующие записанные ответы, а после последнего ответы идут по кругу.
+ */
+public class Cassette {
+    private static final Gson GSON = new Gson();
+
+    private final List<RecordedExchange> recorded = new ArrayList<>();
+    private final Map<String, int[]> index;
+    private final String[] lines;
+    // Разобранные строки; потоки теста и фоновые потоки могут воспроизводить обмены одновременно
+    private final AtomicReferenceArray<RecordedExchange> parsed;
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+
+    public Cassette() {
+        this(new LinkedHashMap<>(), new String[0]);
+    }
+
+    private Cassette(Map<String, int[]> index, String[] lines) {
+        this.index = index;
+        this.lines = lines;
+        this.parsed = new AtomicReferenceArray<>(lines.length);
+    }
+
+    public synchronized void add(RecordedExchange exchange) {
+        recorded.add(exchange);
+    }
+
+    public synchronized boolean isEmpty() {
+        return recorded.isEmpty() && lines.length == 0;
+    }
+
+    public synchronized int size() {
+        return recorded.size() + lines.length;
+    }
+
+    // Следующий записанный обмен с этим ключом или null, если таких обменов в кассете нет
+    public RecordedExchange next(String method, String endpoint) {
+        String key = RecordedExchange.key(method, endpoint);
+        int[] positions = index.get(key);
+        if (positions == null) {
+            return null;
+        }
+        int ordinal = cursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return exchangeAt(positions[ordinal % positions.length]);
+    }
+
+    public synchronized void write(Path file) throws IOException {
+        Map<String, List<Integer>> keys = new LinkedHashMap<>();
+        for (int i = 0; i < recorded.size(); i++) {
+            keys.computeIfAbsent(recorded.get(i).getKey(), key -> new ArrayList<>()).add(i);
+        }
+        JsonObject header = new JsonObject();
+        keys.forEach((key, positions) -> {
+            JsonArray array = new JsonArray();
+            positions.forEach(array::add);
+            header.add(key, array);
+        });
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), "cassette", ".tmp");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temporary)),
+                StandardCharsets.UTF_8)) {
+            writer.write(GSON.toJson(header));
+            for (RecordedExchange exchange : recorded) {
+                writer.write('\n');
+                writer.write(GSON.toJson(exchange.toJson()));
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Cassette read(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new Cassette();
+            }
+            Map<String, int[]> index = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : JsonParser.parseString(header).getAsJsonObject().entrySet()) {
+                JsonArray positions = entry.getValue().getAsJsonArray();
+                int[] values = new int[positions.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = positions.get(i).getAsInt();
+                }
+                index.put(entry.getKey(), values);
+            }
+            List<String> lines = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+            return new Cassette(index, lines.toArray(new String[0]));
+        }
+    }
+
+    private RecordedExchange exchangeAt(int position) {
+        RecordedExchange exchange = parsed.get(position);
+        if (exchange == null) {
+            // Строку могут одновременно разобрать два потока, остаётся первый результат
+            parsed.compareAndSet(position, null,
+                    RecordedExchange.fromJson(JsonParser.parseString(lines[position]).getAsJsonObject()));
+            exchange = parsed.get(position);
+        }
+        return exchange;
+    }
+}
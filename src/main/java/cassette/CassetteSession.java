@@ -0,0 +1,170 @@
+package cassette;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Запись и воспроизведение HTTP-обменов {@code UserClient} и {@code OrderClient}. Режим задаётся свойством
+ * api.cassette: record пишет обмены каждого теста в отдельную кассету в api.cassette.directory,
+ * replay отвечает на запросы из этих кассет без обращения к сети. Обмены вне теста (фоновое пополнение пула
+ * пользователей, инициализация полей теста) попадают в общую кассету shared.cassette.gz.
+ * При api.cassette.timing=true воспроизведённый ответ приходит с исходной задержкой.
+ */
+public class CassetteSession {
+    public static final String MODE_PROPERTY = "api.cassette";
+    public static final String DIRECTORY_PROPERTY = "api.cassette.directory";
+    public static final String TIMING_PROPERTY = "api.cassette.timing";
+
+    private static final String EXTENSION = ".cassette.gz";
+    private static final String SHARED_CASSETTE = "shared" + EXTENSION;
+
+    public enum Mode {
+        OFF,
+        RECORD,
+        REPLAY
+    }
+
+    private static volatile CassetteSession shared;
+
+    private final Mode mode;
+    private final Path directory;
+    private final boolean timing;
+    private final Placeholders placeholders = new Placeholders();
+    private final Cassette sharedCassette;
+    private final ThreadLocal<TestCassette> current = new ThreadLocal<>();
+
+    public CassetteSession(Mode mode, Path directory, boolean timing) {
+        this.mode = mode;
+        this.directory = directory;
+        this.timing = timing;
+        this.sharedCassette = mode == Mode.REPLAY ? readOrEmpty(directory.resolve(SHARED_CASSETTE)) : new Cassette();
+    }
+
+    public static CassetteSession shared() {
+        if (shared == null) {
+            synchronized (CassetteSession.class) {
+                if (shared == null) {
+                    CassetteSession session = new CassetteSession(
+                            Mode.valueOf(System.getProperty(MODE_PROPERTY, "off").trim().toUpperCase()),
+                            Paths.get(System.getProperty(DIRECTORY_PROPERTY, "target/cassettes")),
+                            Boolean.getBoolean(TIMING_PROPERTY));
+                    if (session.isRecording()) {
+                        Runtime.getRuntime().addShutdownHook(new Thread(session::writeShared, "cassette-writer"));
+                    }
+                    shared = session;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isRecording() {
+        return mode == Mode.RECORD;
+    }
+
+    public boolean isReplaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    public void startTest(String className, String methodName) {
+        Path file = directory.resolve(sanitize(className)).resolve(sanitize(methodName) + EXTENSION);
+        current.set(new TestCassette(file, isReplaying() ? readOrEmpty(file) : new Cassette()));
+    }
+
+    public void finishTest() {
+        TestCassette test = current.get();
+        current.remove();
+        if (test == null || !isRecording() || test.cassette.isEmpty()) {
+            return;
+        }
+        try {
+            test.cassette.write(test.file);
+        } catch (IOException e) {
+            System.err.println("Не удалось записать кассету " + test.file + ": " + e.getMessage());
+        }
+    }
+
+    // Кассета, в которую пишутся обмены текущего потока: кассета теста или общая
+    public Cassette currentCassette() {
+        TestCassette test = current.get();
+        return test == null ? sharedCassette : test.cassette;
+    }
+
+    public void record(Cassette target, String method, String endpoint, String authorization, String request,
+                       int status, String contentType, String response, long nanos) {
+        target.add(new RecordedExchange(method, endpoint, placeholders.normalizeAuthorization(authorization),
+                placeholders.normalizeRequest(request), status, contentType, placeholders.normalizeResponse(response),
+                TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    // Ответ из кассеты текущего теста, а если в ней нет такого обмена — из общей кассеты
+    public RecordedExchange replay(String method, String endpoint, String authorization, String request) {
+        RecordedExchange recorded = currentCassette().next(method, endpoint);
+        if (recorded == null && currentCassette() != sharedCassette) {
+            recorded = sharedCassette.next(method, endpoint);
+        }
+        if (recorded == null) {
+            throw new IllegalStateException("В кассетах нет записанного обмена " + method + " " + endpoint);
+        }
+        placeholders.bindRequest(recorded.request, request);
+        placeholders.bindAuthorization(recorded.authorization, authorization);
+        return new RecordedExchange(method, endpoint, authorization, request, recorded.status, recorded.contentType,
+                placeholders.restoreResponse(recorded.response), recorded.micros);
+    }
+
+    public boolean isTimingEmulated() {
+        return timing;
+    }
+
+    // Выдерживает исходную задержку обмена, если включена эмуляция времени
+    public void emulateTiming(RecordedExchange exchange) {
+        if (timing && exchange.micros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(exchange.micros));
+        }
+    }
+
+    public void writeShared() {
+        if (sharedCassette.isEmpty()) {
+            return;
+        }
+        try {
+            sharedCassette.write(directory.resolve(SHARED_CASSETTE));
+        } catch (IOException e) {
+            System.err.println("Не удалось записать общую кассету: " + e.getMessage());
+        }
+    }
+
+    private static Cassette readOrEmpty(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new Cassette();
+        }
+        try {
+            return Cassette.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать кассету " + file, e);
+        }
+    }
+
+    private static String sanitize(String name) {
+        return name == null ? "unknown" : name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    private static final class TestCassette {
+        final Path file;
+        final Cassette cassette;
+
+        TestCassette(Path file, Cassette cassette) {
+            this.file = file;
+            this.cassette = cassette;
+        }
+    }
+}
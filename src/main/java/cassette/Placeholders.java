@@ -0,0 +1,254 @@
+package cassette;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нормализация случайных данных в кассетах. При записи email, пароли и имена из тел запросов, а также выданные
+ * сервером токены заменяются плейсхолдерами вида {{email3}}, и те же значения заменяются в ответах.
+ * При воспроизведении плейсхолдеры связываются с живыми значениями из запросов текущего прогона,
+ * а для выданных токенов генерируются новые значения. Email в ответах восстанавливается в нижнем регистре,
+ * как его возвращает сервер.
+ */
+public class Placeholders {
+    static final String EMAIL = "email";
+    static final String PASSWORD = "password";
+    static final String NAME = "name";
+    static final String ACCESS = "access";
+    static final String REFRESH = "refresh";
+
+    private static final String BEARER = "Bearer ";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{([a-z]+\\d+)}}");
+    private static final Map<String, String> REQUEST_FIELDS = Map.of(
+            "email", EMAIL, "password", PASSWORD, "name", NAME, "token", REFRESH);
+    private static final Gson GSON = new Gson();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Map<String, String> placeholderByValue = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final Map<String, String> valueByName = new ConcurrentHashMap<>();
+
+    public String normalizeRequest(String body) {
+        JsonElement json = parse(body);
+        if (json == null) {
+            return body;
+        }
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet()) {
+                String kind = REQUEST_FIELDS.get(field.getKey());
+                if (kind != null && isString(field.getValue())) {
+                    field.setValue(new JsonPrimitive(placeholderFor(kind, field.getValue().getAsString())));
+                }
+            }
+        }
+        return GSON.toJson(replaceKnown(json));
+    }
+
+    public String normalizeAuthorization(String header) {
+        if (header == null) {
+            return null;
+        }
+        String token = header.startsWith(BEARER) ? header.substring(BEARER.length()) : header;
+        return BEARER + placeholderFor(ACCESS, token);
+    }
+
+    public String normalizeResponse(String body) {
+        JsonElement json = parse(body);
+        if (json == null) {
+            return body;
+        }
+        if (json.isJsonObject()) {
+            JsonObject object = json.getAsJsonObject();
+            if (isString(object.get("accessToken"))) {
+                String token = object.get("accessToken").getAsString();
+                object.addProperty("accessToken", BEARER + placeholderFor(ACCESS,
+                        token.startsWith(BEARER) ? token.substring(BEARER.length()) : token));
+            }
+            if (isString(object.get("refreshToken"))) {
+                object.addProperty("refreshToken", placeholderFor(REFRESH, object.get("refreshToken").getAsString()));
+            }
+        }
+        return GSON.toJson(replaceKnown(json));
+    }
+
+    // Связывает плейсхолдеры записанного запроса со значениями живого запроса
+    public void bindRequest(String recordedBody, String liveBody) {
+        JsonElement recorded = parse(recordedBody);
+        JsonElement live = parse(liveBody);
+        if (recorded == null || live == null || !recorded.isJsonObject() || !live.isJsonObject()) {
+            return;
+        }
+        for (String field : REQUEST_FIELDS.keySet()) {
+            JsonElement recordedValue = recorded.getAsJsonObject().get(field);
+            JsonElement liveValue = live.getAsJsonObject().get(field);
+            if (isString(recordedValue) && isString(liveValue)) {
+                bind(recordedValue.getAsString(), liveValue.getAsString());
+            }
+        }
+    }
+
+    public void bindAuthorization(String recorded, String live) {
+        if (recorded != null && live != null) {
+            bind(recorded.substring(Math.min(BEARER.length(), recorded.length())),
+                    live.startsWith(BEARER) ? live.substring(BEARER.length()) : live);
+        }
+    }
+
+    // Подставляет живые значения; выданным в ответе токенам назначаются новые значения
+    public String restoreResponse(String body) {
+        JsonElement json = parse(body);
+        if (json == null) {
+            return body;
+        }
+        if (json.isJsonObject()) {
+            JsonObject object = json.getAsJsonObject();
+            if (isString(object.get("accessToken"))) {
+                String token = jwt();
+                valueByName.put(nameOf(object.get("accessToken").getAsString()), token);
+                object.addProperty("accessToken", BEARER + token);
+            }
+            if (isString(object.get("refreshToken"))) {
+                String token = randomHex(40);
+                valueByName.put(nameOf(object.get("refreshToken").getAsString()), token);
+                object.addProperty("refreshToken", token);
+            }
+        }
+        return GSON.toJson(restore(json));
+    }
+
+    private String placeholderFor(String kind, String value) {
+        if (value.startsWith("{{")) {
+            return value;
+        }
+        String placeholder = placeholderByValue.computeIfAbsent(value,
+                v -> "{{" + kind + counters.computeIfAbsent(kind, k -> new AtomicInteger()).incrementAndGet() + "}}");
+        // Сервер возвращает email в нижнем регистре
+        if (kind.equals(EMAIL)) {
+            placeholderByValue.putIfAbsent(value.toLowerCase(), placeholder);
+        }
+        return placeholder;
+    }
+
+    private JsonElement replaceKnown(JsonElement json) {
+        if (isString(json)) {
+            String placeholder = placeholderByValue.get(json.getAsString());
+            return placeholder == null ? json : new JsonPrimitive(placeholder);
+        }
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet()) {
+                field.setValue(replaceKnown(field.getValue()));
+            }
+        } else if (json.isJsonArray()) {
+            JsonArray array = json.getAsJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, replaceKnown(array.get(i)));
+            }
+        }
+        return json;
+    }
+
+    private JsonElement restore(JsonElement json) {
+        if (isString(json)) {
+            String value = json.getAsString();
+            return value.contains("{{") ? new JsonPrimitive(substitute(value)) : json;
+        }
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet()) {
+                field.setValue(restore(field.getValue()));
+            }
+        } else if (json.isJsonArray()) {
+            JsonArray array = json.getAsJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, restore(array.get(i)));
+            }
+        }
+        return json;
+    }
+
+    private String substitute(String value) {
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String live = valueByName.computeIfAbsent(matcher.group(1), Placeholders::synthesize);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(
+                    matcher.group(1).startsWith(EMAIL) ? live.toLowerCase() : live));
+        }
+        return matcher.appendTail(result).toString();
+    }
+
+    private void bind(String recorded, String live) {
+        Matcher matcher = PLACEHOLDER.matcher(recorded);
+        if (matcher.matches()) {
+            valueByName.put(matcher.group(1), live);
+        }
+    }
+
+    private static String nameOf(String placeholder) {
+        Matcher matcher = PLACEHOLDER.matcher(placeholder.startsWith(BEARER) ? placeholder.substring(BEARER.length()) : placeholder);
+        return matcher.matches() ? matcher.group(1) : placeholder;
+    }
+
+    // Значение для плейсхолдера, который в этом прогоне ещё не встречался в запросах
+    private static String synthesize(String name) {
+        if (name.startsWith(EMAIL)) {
+            return "replay-" + name + "@example.com";
+        }
+        if (name.startsWith(ACCESS)) {
+            return jwt();
+        }
+        if (name.startsWith(REFRESH)) {
+            return randomHex(40);
+        }
+        return "replay" + name;
+    }
+
+    private static String jwt() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = Instant.now().getEpochSecond();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"id\":\"" + randomHex(12) + "\",\"iat\":" + now + ",\"exp\":"
+                + (now + 20 * 60) + "}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + "." + randomHex(32);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] value = new byte[bytes];
+        RANDOM.nextBytes(value);
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        for (byte b : value) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static boolean isString(JsonElement json) {
+        return json != null && json.isJsonPrimitive() && json.getAsJsonPrimitive().isString();
+    }
+
+    private static JsonElement parse(String body) {
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement json = JsonParser.parseString(body);
+            return json.isJsonObject() || json.isJsonArray() ? json : null;
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cassette;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Один записанный HTTP-обмен. Тела и заголовок авторизации хранятся нормализованными:
+ * случайные email, пароли, имена и токены заменены плейсхолдерами {@link Placeholders}.
+ */
+public class RecordedExchange {
+    final String method;
+    final String endpoint;
+    final String authorization;
+    final String request;
+    final int status;
+    final String contentType;
+    final String response;
+    final long micros;
+
+    public RecordedExchange(String method, String endpoint, String authorization, String request, int status,
+                            String contentType, String response, long micros) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.authorization = authorization;
+        this.request = request;
+        this.status = status;
+        this.contentType = contentType;
+        this.response = response;
+        this.micros = micros;
+    }
+
+    public String getKey() {
+        return key(method, endpoint);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public long getMicros() {
+        return micros;
+    }
+
+    static String key(String method, String endpoint) {
+        return method + " " + endpoint;
+    }
+
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("m", method);
+        json.addProperty("e", endpoint);
+        if (authorization != null) {
+            json.addProperty("a", authorization);
+        }
+        if (request != null) {
+            json.addProperty("q", request);
+        }
+        json.addProperty("s", status);
+        if (contentType != null) {
+            json.addProperty("c", contentType);
+        }
+        if (response != null) {
+            json.addProperty("r", response);
+        }
+        json.addProperty("t", micros);
+        return json;
+    }
+
+    static RecordedExchange fromJson(JsonObject json) {
+        return new RecordedExchange(json.get("m").getAsString(), json.get("e").getAsString(), string(json, "a"),
+                string(json, "q"), json.get("s").getAsInt(), string(json, "c"), string(json, "r"),
+                json.get("t").getAsLong());
+    }
+
+    private static String string(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+}
@@ -0,0 +1,112 @@
+package client;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Последний фильтр цепочки, непосредственно перед отправкой: берёт место в лимите эндпоинта из
+ * {@link AdaptiveLimiter} и сообщает ему исход запроса. Идемпотентные запросы (GET, PUT, DELETE, HEAD, OPTIONS)
+ * при перегрузке повторяются до api.retry.attempts раз с экспоненциальной задержкой и полным джиттером,
+ * заголовок Retry-After задаёт нижнюю границу задержки. POST и PATCH не повторяются: повтор создал бы
+ * второй заказ или пользователя.
+ */
+public class AdaptiveLimitFilter implements Filter {
+    public static final String ATTEMPTS_PROPERTY = "api.retry.attempts";
+    public static final String BASE_DELAY_MS_PROPERTY = "api.retry.baseDelayMs";
+    public static final String MAX_DELAY_MS_PROPERTY = "api.retry.maxDelayMs";
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "PUT", "DELETE", "HEAD", "OPTIONS");
+
+    private final AdaptiveLimiter limiter;
+    private final int attempts = Integer.getInteger(ATTEMPTS_PROPERTY, 4);
+    private final long baseDelayMs = Long.getLong(BASE_DELAY_MS_PROPERTY, 50L);
+    private final long maxDelayMs = Long.getLong(MAX_DELAY_MS_PROPERTY, 2_000L);
+
+    public AdaptiveLimitFilter(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String method = requestSpec.getMethod();
+        AdaptiveLimiter.Endpoint endpoint = limiter.endpoint(method, TimingFilter.endpoint(requestSpec.getUserDefinedPath()));
+        int maxAttempts = IDEMPOTENT_METHODS.contains(method.toUpperCase()) ? Math.max(1, attempts) : 1;
+        for (int attempt = 1; ; attempt++) {
+            long permit = endpoint.acquire();
+            Response response;
+            try {
+                response = attempt == 1 ? ctx.next(requestSpec, responseSpec) : ctx.send(copyOf(requestSpec));
+            } catch (Throwable e) {
+                // RestAssured написан на Groovy и пробрасывает IOException без объявления
+                endpoint.onOverload(permit);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                endpoint.onRetry();
+                pause(attempt, null);
+                continue;
+            }
+            int status = response.statusCode();
+            if (status == 429) {
+                endpoint.onThrottled(permit);
+            } else if (isUnavailable(status)) {
+                endpoint.onOverload(permit);
+            } else {
+                endpoint.onSuccess(permit);
+                return response;
+            }
+            if (attempt >= maxAttempts) {
+                return response;
+            }
+            // Тело отброшенного ответа вычитывается, чтобы соединение вернулось в пул
+            response.asByteArray();
+            endpoint.onRetry();
+            pause(attempt, response.header("Retry-After"));
+        }
+    }
+
+    // Повторная отправка через ctx.next не поддерживается RestAssured: цепочка фильтров уже пройдена.
+    // ctx.send отправляет копию запроса без фильтров на тот же адрес тем же методом
+    private static RequestSpecification copyOf(FilterableRequestSpecification requestSpec) {
+        RequestSpecification copy = RestAssured.given()
+                .config(requestSpec.getConfig())
+                .headers(requestSpec.getHeaders());
+        Object body = requestSpec.getBody();
+        if (body != null) {
+            copy.body(body);
+        }
+        return copy;
+    }
+
+    static boolean isUnavailable(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private void pause(int attempt, String retryAfter) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (retryAfter != null) {
+            try {
+                delay = Math.max(delay, Math.min(maxDelayMs, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()))));
+            } catch (NumberFormatException e) {
+                // Retry-After в виде даты не поддерживается, остаётся джиттер
+            }
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestRejectedException("Повтор запроса прерван");
+        }
+    }
+}
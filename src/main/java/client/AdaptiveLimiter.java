@@ -0,0 +1,237 @@
+package client;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивный лимит параллельных запросов по эндпоинтам (AIMD): каждый успешный ответ поднимает лимит
+ * на 1/limit, то есть примерно на единицу за «круг» запросов, перегрузка (429, 502–504, обрыв соединения)
+ * умножает лимит на backoffRatio. Перегрузки запросов, начатых до последнего снижения, лимит повторно
+ * не снижают, поэтому одна волна отказов даёт одно снижение. На каждый эндпоинт есть {@link CircuitBreaker},
+ * который размыкается только от недоступности сервера (502–504, обрыв), но не от 429.
+ * Текущие лимиты и счётчики пишутся при завершении JVM в rate-limits.json рядом со сводкой задержек.
+ */
+public class AdaptiveLimiter {
+    public static final String MODE_PROPERTY = "api.limit";
+    public static final String INITIAL_PROPERTY = "api.limit.initial";
+    public static final String MAX_PROPERTY = "api.limit.max";
+    public static final String BACKOFF_RATIO_PROPERTY = "api.limit.backoffRatio";
+    public static final String ACQUIRE_TIMEOUT_MS_PROPERTY = "api.limit.acquireTimeoutMs";
+    public static final String BREAKER_FAILURES_PROPERTY = "api.breaker.failures";
+    public static final String BREAKER_OPEN_MS_PROPERTY = "api.breaker.openMs";
+
+    private static final int MIN_LIMIT = 1;
+
+    private static volatile AdaptiveLimiter shared;
+
+    private final double initialLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final long acquireTimeoutNanos;
+    private final int breakerFailures;
+    private final long breakerOpenMs;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public AdaptiveLimiter(int initialLimit, int maxLimit, double backoffRatio, long acquireTimeoutMs,
+                           int breakerFailures, long breakerOpenMs) {
+        this.initialLimit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        this.breakerFailures = breakerFailures;
+        this.breakerOpenMs = breakerOpenMs;
+    }
+
+    public static boolean isEnabled() {
+        return !"off".equalsIgnoreCase(System.getProperty(MODE_PROPERTY, "adaptive").trim());
+    }
+
+    public static AdaptiveLimiter shared() {
+        if (shared == null) {
+            synchronized (AdaptiveLimiter.class) {
+                if (shared == null) {
+                    AdaptiveLimiter limiter = new AdaptiveLimiter(
+                            Integer.getInteger(INITIAL_PROPERTY, 8),
+                            Integer.getInteger(MAX_PROPERTY, Integer.getInteger(PooledHttpClientFactory.MAX_PER_ROUTE_PROPERTY, 32)),
+                            Double.parseDouble(System.getProperty(BACKOFF_RATIO_PROPERTY, "0.7")),
+                            Long.getLong(ACQUIRE_TIMEOUT_MS_PROPERTY, 30_000L),
+                            Integer.getInteger(BREAKER_FAILURES_PROPERTY, 5),
+                            Long.getLong(BREAKER_OPEN_MS_PROPERTY, 5_000L));
+                    Runtime.getRuntime().addShutdownHook(new Thread(
+                            () -> limiter.writeSummary(RequestTimings.outputDirectory()), "rate-limits-writer"));
+                    shared = limiter;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public Endpoint endpoint(String method, String endpoint) {
+        return endpoints.computeIfAbsent(method + " " + endpoint, Endpoint::new);
+    }
+
+    public void writeSummary(Path directory) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        JsonArray json = new JsonArray();
+        for (Endpoint endpoint : new TreeMap<>(endpoints).values()) {
+            json.add(endpoint.toJson());
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("rate-limits.json"), StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось записать сводку лимитов запросов: " + e.getMessage());
+        }
+    }
+
+    public class Endpoint {
+        private final String name;
+        private final CircuitBreaker breaker = new CircuitBreaker(breakerFailures, breakerOpenMs);
+        private double limit = initialLimit;
+        private int inFlight;
+        private long lastDecreaseAt = Long.MIN_VALUE;
+        private long successes;
+        private long overloads;
+        private long decreases;
+        private long rejections;
+        private long retries;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        // Возвращает момент выдачи разрешения, его нужно передать в onSuccess или onOverload
+        public long acquire() {
+            if (!breaker.tryPass()) {
+                synchronized (this) {
+                    rejections++;
+                }
+                throw new RequestRejectedException("Запрос " + name + " отклонён: эндпоинт перегружен, автомат защиты разомкнут");
+            }
+            synchronized (this) {
+                long deadline = System.nanoTime() + acquireTimeoutNanos;
+                while (inFlight >= (int) limit) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) {
+                        rejections++;
+                        breaker.onCancel();
+                        throw new RequestRejectedException("Запрос " + name + " отклонён: нет места в лимите "
+                                + (int) limit + " параллельных запросов");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        breaker.onCancel();
+                        throw new RequestRejectedException("Ожидание места в лимите " + name + " прервано");
+                    }
+                }
+                inFlight++;
+                return System.nanoTime();
+            }
+        }
+
+        public void onSuccess(long acquiredAt) {
+            breaker.onSuccess();
+            synchronized (this) {
+                successes++;
+                // Лимит растёт, только когда он действительно используется
+                if (inFlight * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+                releasePermit();
+            }
+        }
+
+        // 429: сервер жив, но просит снизить темп — лимит снижается, автомат защиты считает запрос успешным
+        public void onThrottled(long acquiredAt) {
+            breaker.onSuccess();
+            decrease(acquiredAt);
+        }
+
+        // 502–504 или обрыв соединения: лимит снижается, автомат защиты считает отказ
+        public void onOverload(long acquiredAt) {
+            breaker.onFailure();
+            decrease(acquiredAt);
+        }
+
+        public synchronized void onRetry() {
+            retries++;
+        }
+
+        public synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        public synchronized int getInFlight() {
+            return inFlight;
+        }
+
+        public synchronized long getRejections() {
+            return rejections;
+        }
+
+        public synchronized long getDecreases() {
+            return decreases;
+        }
+
+        public synchronized long getRetries() {
+            return retries;
+        }
+
+        public CircuitBreaker.State getBreakerState() {
+            return breaker.getState();
+        }
+
+        private synchronized void decrease(long acquiredAt) {
+            overloads++;
+            if (acquiredAt > lastDecreaseAt) {
+                limit = Math.max(MIN_LIMIT, limit * backoffRatio);
+                lastDecreaseAt = System.nanoTime();
+                decreases++;
+            }
+            releasePermit();
+        }
+
+        private void releasePermit() {
+            inFlight--;
+            notifyAll();
+        }
+
+        private synchronized JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("endpoint", name);
+            json.addProperty("limit", (int) limit);
+            json.addProperty("inFlight", inFlight);
+            json.addProperty("successes", successes);
+            json.addProperty("overloads", overloads);
+            json.addProperty("decreases", decreases);
+            json.addProperty("retries", retries);
+            json.addProperty("rejections", rejections);
+            json.addProperty("breaker", breaker.getState().name());
+            json.addProperty("breakerOpenings", breaker.getOpenings());
+            return json;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%s: лимит %d, в работе %d, перегрузок %d, снижений %d, повторов %d, отклонено %d, автомат %s",
+                    name, (int) limit, inFlight, overloads, decreases, retries, rejections, breaker.getState());
+        }
+    }
+}
@@ -1,17 +1,130 @@
 package client;
 
+import cassette.CassetteSession;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import model.ApiResponse;
+import model.ResponseReader;
+import stub.StellarBurgersStub;
 
 public class ApiClient {
     public static final String BASE_URL = "https://stellarburgers.nomoreparties.site/api/";
+    public static final String FEED_URL = "wss://norma.nomoreparties.space/orders";
+    public static final String API_TARGET_PROPERTY = "api.target";
+    public static final String REMOTE_TARGET = "remote";
+    public static final String STUB_TARGET = "stub";
+    public static final String LOG_MODE_PROPERTY = "api.log";
+    public static final String LOG_ON_FAILURE = "onFailure";
+    public static final String LOG_ALL = "all";
+    public static final String LOG_NONE = "none";
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private static final boolean LIGHT_TRANSPORT = LightTransport.isEnabled();
+
     public static RequestSpecification getBaseSpecification() {
-        return new RequestSpecBuilder()
-                .log(LogDetail.ALL)
-                .setContentType(ContentType.JSON)
-                .setBaseUri(BASE_URL)
-                .build();
+        return Transport.BASE_SPECIFICATION;
+    }
+
+    public static RestAssuredConfig getRestAssuredConfig() {
+        return Transport.CONFIG;
+    }
+
+    public static PooledHttpClientFactory getHttpClientFactory() {
+        return Transport.HTTP_CLIENT_FACTORY;
+    }
+
+    public static AsyncHttpTransport getAsyncTransport() {
+        return AsyncTransport.INSTANCE;
+    }
+
+    public static LightTransport getLightTransport() {
+        return Light.INSTANCE;
+    }
+
+    // Типизированные методы клиентов идут через LightTransport, если задано api.transport=light
+    public static boolean isLightTransport() {
+        return LIGHT_TRANSPORT;
+    }
+
+    public static String getBaseUrl() {
+        if (isStubTarget()) {
+            return StellarBurgersStub.shared().getBaseUri();
+        }
+        return BASE_URL;
+    }
+
+    // Адрес WebSocket-ленты заказов без суффикса /all
+    public static String getFeedUrl() {
+        if (isStubTarget()) {
+            return StellarBurgersStub.shared().getFeedUri();
+        }
+        return FEED_URL;
+    }
+
+    // Токен передаётся заголовком запроса: auth().oauth2() вешает перехватчик на общий HTTP-клиент
+    // и при параллельных запросах подставляет чужой токен
+    protected static String bearer(String token) {
+        return BEARER_PREFIX + token;
+    }
+
+    // Тело уже вычитано BodyBufferingFilter, поэтому разбор идёт по готовому массиву байт за один проход
+    protected static <T extends ApiResponse> T typed(Response response, Class<T> type) {
+        return ResponseReader.read(response.statusCode(), response.asByteArray(), type);
+    }
+
+    public static boolean isStubTarget() {
+        return STUB_TARGET.equalsIgnoreCase(System.getProperty(API_TARGET_PROPERTY, REMOTE_TARGET).trim());
+    }
+
+    // Спецификация и пул соединений создаются один раз и переиспользуются всеми клиентами и потоками
+    private static class Transport {
+        static final PooledHttpClientFactory HTTP_CLIENT_FACTORY = PooledHttpClientFactory.fromSystemProperties();
+        static final RestAssuredConfig CONFIG = RestAssuredConfig.config()
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .reuseHttpClientInstance()
+                        .httpClientFactory(HTTP_CLIENT_FACTORY));
+        static final RequestSpecification BASE_SPECIFICATION = buildBaseSpecification();
+
+        // По умолчанию обмены не печатаются, а копятся в кольцевом буфере потока и выводятся только при падении теста
+        private static RequestSpecification buildBaseSpecification() {
+            String logMode = System.getProperty(LOG_MODE_PROPERTY, LOG_ON_FAILURE);
+            RequestSpecBuilder builder = new RequestSpecBuilder()
+                    .setConfig(CONFIG)
+                    .addFilter(new TimingFilter());
+            if (LOG_ALL.equalsIgnoreCase(logMode)) {
+                builder.log(LogDetail.ALL);
+            } else if (!LOG_NONE.equalsIgnoreCase(logMode)) {
+                builder.addFilter(new ExchangeCaptureFilter());
+            }
+            builder.addFilter(new BodyBufferingFilter());
+            if (SchemaValidationFilter.getMode() != SchemaValidationFilter.Mode.OFF) {
+                builder.addFilter(new SchemaValidationFilter());
+            }
+            CassetteSession cassettes = CassetteSession.shared();
+            if (cassettes.getMode() != CassetteSession.Mode.OFF) {
+                builder.addFilter(new CassetteFilter(cassettes));
+            }
+            if (AdaptiveLimiter.isEnabled()) {
+                builder.addFilter(new AdaptiveLimitFilter(AdaptiveLimiter.shared()));
+            }
+            return builder
+                    .setContentType(ContentType.JSON)
+                    .setBaseUri(getBaseUrl())
+                    .build();
+        }
+    }
+
+    private static class AsyncTransport {
+        static final AsyncHttpTransport INSTANCE = AsyncHttpTransport.fromSystemProperties(getBaseUrl());
+    }
+
+    private static class Light {
+        static final LightTransport INSTANCE = new LightTransport(getBaseUrl());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package client;
+
+import cassette.Cassette;
+import cassette.CassetteSession;
+import cassette.RecordedExchange;
+import com.google.gson.Gson;
+
+import javax.net.ssl.SSLContext;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Неблокирующий транспорт на {@link HttpClient} из JDK. Запросы сверх api.async.maxInFlight
+ * не блокируют вызывающий поток, а ждут в очереди и отправляются по мере завершения предыдущих,
+ * поэтому массовые операции обслуживаются парой потоков и ограниченным числом соединений.
+ * С api.http.version=2 для https-адресов клиент предлагает h2 по ALPN и мультиплексирует запросы в потоках
+ * одного соединения; если сервер h2 не выбрал, HttpClient сам остаётся на HTTP/1.1, а в {@link #getResponseCounts()}
+ * это видно по версиям полученных ответов. Обмены этого транспорта в {@link ExchangeLog} не попадают.
+ */
+public class AsyncHttpTransport {
+    public static final String THREADS_PROPERTY = "api.async.threads";
+    public static final String MAX_IN_FLIGHT_PROPERTY = "api.async.maxInFlight";
+    public static final String HTTP_VERSION_PROPERTY = "api.http.version";
+
+    private static final Gson GSON = new Gson();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final Map<HttpClient.Version, LongAdder> responseCounts = new EnumMap<>(HttpClient.Version.class);
+
+    public AsyncHttpTransport(String baseUrl, int threads, int maxInFlight) {
+        this(baseUrl, threads, maxInFlight, HttpClient.Version.HTTP_1_1, null);
+    }
+
+    // sslContext == null — контекст JDK по умолчанию (учитывает javax.net.ssl.trustStore)
+    public AsyncHttpTransport(String baseUrl, int threads, int maxInFlight, HttpClient.Version version,
+                              SSLContext sslContext) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "api-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = newHttpClient(version, sslContext).executor(executor).build();
+        this.baseUrl = baseUrl;
+        this.maxInFlight = maxInFlight;
+        for (HttpClient.Version each : HttpClient.Version.values()) {
+            responseCounts.put(each, new LongAdder());
+        }
+    }
+
+    public static AsyncHttpTransport fromSystemProperties(String baseUrl) {
+        return new AsyncHttpTransport(baseUrl,
+                Integer.getInteger(THREADS_PROPERTY, 4),
+                Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 64),
+                configuredVersion(baseUrl), null);
+    }
+
+    // HTTP/2 только поверх TLS: h2c сервис не поддерживает, а попытка Upgrade лишь добавляет заголовки к запросам
+    static HttpClient.Version configuredVersion(String baseUrl) {
+        String configured = System.getProperty(HTTP_VERSION_PROPERTY, "1.1").trim();
+        boolean http2 = "2".equals(configured) || "HTTP_2".equalsIgnoreCase(configured);
+        return http2 && baseUrl.startsWith("https:") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    }
+
+    static HttpClient.Builder newHttpClient(HttpClient.Version version, SSLContext sslContext) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(10));
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        return builder;
+    }
+
+    // Число ответов по версиям протокола, на которых они фактически получены
+    public Map<HttpClient.Version, Long> getResponseCounts() {
+        Map<HttpClient.Version, Long> counts = new EnumMap<>(HttpClient.Version.class);
+        responseCounts.forEach((version, count) -> counts.put(version, count.sum()));
+        return counts;
+    }
+
+    public CompletableFuture<AsyncResponse> send(String method, String endpoint, String token, Object body) {
+        CompletableFuture<AsyncResponse> response = exchange(method, endpoint, token, body);
+        if (SchemaValidationFilter.getMode() == SchemaValidationFilter.Mode.OFF) {
+            return response;
+        }
+        return response.thenApply(received -> {
+            SchemaValidationFilter.check(method, endpoint, received.statusCode(), null,
+                    received.body() == null ? new byte[0] : received.body().getBytes(StandardCharsets.UTF_8));
+            return received;
+        });
+    }
+
+    private CompletableFuture<AsyncResponse> exchange(String method, String endpoint, String token, Object body) {
+        String json = body == null ? null : body instanceof String ? (String) body : GSON.toJson(body);
+        CassetteSession cassettes = CassetteSession.shared();
+        if (cassettes.isReplaying()) {
+            return replay(cassettes, method, endpoint, token, json);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header(ApiClient.AUTHORIZATION_HEADER, ApiClient.bearer(token));
+        }
+        request.method(method, json == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(json));
+        CompletableFuture<AsyncResponse> response = enqueue(method, endpoint, request.build());
+        if (cassettes.isRecording()) {
+            Cassette target = cassettes.currentCassette();
+            long start = System.nanoTime();
+            return response.thenApply(recorded -> {
+                cassettes.record(target, method, endpoint, token == null ? null : ApiClient.bearer(token), json,
+                        recorded.statusCode(), "application/json", recorded.body(), System.nanoTime() - start);
+                return recorded;
+            });
+        }
+        return response;
+    }
+
+    // Ответ подбирается в потоке вызова, чтобы взять кассету текущего теста; задержка выдерживается асинхронно
+    private CompletableFuture<AsyncResponse> replay(CassetteSession cassettes, String method, String endpoint,
+                                                    String token, String json) {
+        RecordedExchange replayed = cassettes.replay(method, endpoint, token == null ? null : ApiClient.bearer(token), json);
+        AsyncResponse response = new AsyncResponse(replayed.getStatus(), replayed.getResponse());
+        if (!cassettes.isTimingEmulated()) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            cassettes.emulateTiming(replayed);
+            return response;
+        });
+    }
+
+    private CompletableFuture<AsyncResponse> enqueue(String method, String endpoint, HttpRequest request) {
+        CompletableFuture<AsyncResponse> result = new CompletableFuture<>();
+        waiting.offer(() -> {
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> sent;
+            try {
+                sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            } catch (RuntimeException e) {
+                // Запрос не ушёл (недопустимый заголовок, закрытый клиент): место освобождается сразу
+                inFlight.decrementAndGet();
+                drain();
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((response, error) -> {
+                RequestTimings.shared().record(method, endpoint, -1, -1, System.nanoTime() - start);
+                inFlight.decrementAndGet();
+                drain();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    responseCounts.get(response.version()).increment();
+                    result.complete(new AsyncResponse(response.statusCode(), response.body()));
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            next.run();
+        }
+    }
+}
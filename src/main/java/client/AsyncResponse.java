@@ -0,0 +1,70 @@
+package client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.ApiResponse;
+import model.ResponseReader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ответ асинхронного клиента: код ответа и тело, которое разбирается Gson только при первом обращении.
+ */
+public class AsyncResponse {
+    private static final Gson GSON = new Gson();
+
+    private final int statusCode;
+    private final String body;
+    private volatile JsonObject json;
+
+    public AsyncResponse(int statusCode, String body) {
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public String body() {
+        return body;
+    }
+
+    public JsonObject json() {
+        JsonObject parsed = json;
+        if (parsed == null) {
+            JsonElement element = body == null || body.isEmpty() ? null : parseOrNull(body);
+            parsed = element != null && element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+            json = parsed;
+        }
+        return parsed;
+    }
+
+    public <T> T as(Class<T> type) {
+        return GSON.fromJson(json(), type);
+    }
+
+    public <T extends ApiResponse> T typed(Class<T> type) {
+        return ResponseReader.read(statusCode, body == null ? null : body.getBytes(StandardCharsets.UTF_8), type);
+    }
+
+    public boolean isSuccess() {
+        JsonElement success = json().get("success");
+        return success != null && success.isJsonPrimitive() && success.getAsBoolean();
+    }
+
+    public String getString(String field) {
+        JsonElement value = json().get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    private static JsonElement parseOrNull(String body) {
+        try {
+            return JsonParser.parseString(body);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
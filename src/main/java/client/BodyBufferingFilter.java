@@ -0,0 +1,21 @@
+package client;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Сразу вычитывает тело ответа в память, чтобы соединение вернулось в пул,
+ * даже если тест не обращается к телу (например, в {@code @After} при удалении пользователя).
+ */
+public class BodyBufferingFilter implements Filter {
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        response.asByteArray();
+        return response;
+    }
+}
@@ -0,0 +1,58 @@
+package client;
+
+import cassette.Cassette;
+import cassette.CassetteSession;
+import cassette.RecordedExchange;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Стоит в конце цепочки перед {@link AdaptiveLimitFilter}: в режиме записи складывает обмен в кассету текущего
+ * теста, в режиме воспроизведения отвечает из кассеты, не отправляя запрос и не занимая лимит.
+ */
+public class CassetteFilter implements Filter {
+    private final CassetteSession session;
+
+    public CassetteFilter(CassetteSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String endpoint = TimingFilter.endpoint(requestSpec.getUserDefinedPath());
+        String authorization = requestSpec.getHeaders().getValue(ApiClient.AUTHORIZATION_HEADER);
+        String body = body(requestSpec.getBody());
+        if (session.isReplaying()) {
+            RecordedExchange replayed = session.replay(requestSpec.getMethod(), endpoint, authorization, body);
+            session.emulateTiming(replayed);
+            ResponseBuilder response = new ResponseBuilder()
+                    .setStatusCode(replayed.getStatus())
+                    .setStatusLine("HTTP/1.1 " + replayed.getStatus())
+                    .setBody(replayed.getResponse() == null ? "" : replayed.getResponse());
+            if (replayed.getContentType() != null) {
+                response.setContentType(replayed.getContentType());
+            }
+            return response.build();
+        }
+        Cassette target = session.currentCassette();
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        session.record(target, requestSpec.getMethod(), endpoint, authorization, body, response.statusCode(),
+                response.contentType(), response.asString(), System.nanoTime() - start);
+        return response;
+    }
+
+    private static String body(Object body) {
+        if (body == null) {
+            return null;
+        }
+        return body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : body.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package client;
+
+/**
+ * Отметки времени низкоуровневых фаз запроса для текущего потока. RestAssured выполняет запрос
+ * синхронно в вызывающем потоке, поэтому HTTP-клиент пишет отметки сюда, а {@link TimingFilter} их забирает.
+ */
+final class ConnectionTimings {
+    private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int CONNECT_NANOS = 0;
+    private static final int HEADERS_RECEIVED_AT = 1;
+
+    private ConnectionTimings() {
+    }
+
+    static void reset() {
+        long[] timings = CURRENT.get();
+        timings[CONNECT_NANOS] = -1;
+        timings[HEADERS_RECEIVED_AT] = -1;
+    }
+
+    static void connected(long nanos) {
+        CURRENT.get()[CONNECT_NANOS] = nanos;
+    }
+
+    static void headersReceived() {
+        CURRENT.get()[HEADERS_RECEIVED_AT] = System.nanoTime();
+    }
+
+    // -1, если соединение было взято из пула
+    static long connectNanos() {
+        return CURRENT.get()[CONNECT_NANOS];
+    }
+
+    // -1, если запрос шёл не через пул RestAssured
+    static long headersReceivedAt() {
+        return CURRENT.get()[HEADERS_RECEIVED_AT];
+    }
+}
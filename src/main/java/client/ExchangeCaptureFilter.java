@@ -0,0 +1,27 @@
+package client;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Складывает запрос и ответ в {@link ExchangeLog} текущего потока вместо немедленного вывода в консоль.
+ */
+public class ExchangeCaptureFilter implements Filter {
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            ExchangeLog.current().record(requestSpec.getMethod(), requestSpec.getBaseUri(),
+                    requestSpec.getUserDefinedPath(), requestSpec.getHeaders(), requestSpec.getBody(), response,
+                    System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package client;
+
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Кольцевой буфер последних HTTP-обменов текущего потока. Слоты выделяются один раз и перезаписываются,
+ * в них хранятся только ссылки на уже существующие объекты запроса и ответа, а текст формируется
+ * лишь при выгрузке, то есть когда тест упал. Журнал заполняет только {@link ExchangeCaptureFilter} основного
+ * транспорта на RestAssured: обмены {@link AsyncHttpTransport} завершаются не в потоке теста, а {@link LightTransport}
+ * не загружает классы RestAssured, поэтому запросы через эти транспорты к упавшему тесту не прикладываются.
+ */
+public final class ExchangeLog {
+    public static final String CAPACITY_PROPERTY = "api.log.capacity";
+
+    private static final int CAPACITY = Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, 16));
+    private static final ThreadLocal<ExchangeLog> CURRENT = ThreadLocal.withInitial(ExchangeLog::new);
+
+    private final Exchange[] ring = new Exchange[CAPACITY];
+    private int next;
+    private int size;
+
+    private ExchangeLog() {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Exchange();
+        }
+    }
+
+    public static ExchangeLog current() {
+        return CURRENT.get();
+    }
+
+    void record(String method, String baseUri, String path, Headers headers, Object body, Response response,
+                long totalNanos) {
+        Exchange exchange = ring[next];
+        exchange.method = method;
+        exchange.baseUri = baseUri;
+        exchange.path = path;
+        exchange.headers = headers;
+        exchange.body = body;
+        exchange.response = response;
+        exchange.totalNanos = totalNanos;
+        next = (next + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (Exchange exchange : ring) {
+            exchange.clear();
+        }
+        next = 0;
+        size = 0;
+    }
+
+    // Все сохранённые обмены от старого к новому в формате, близком к логу RestAssured
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            Exchange exchange = ring[(next - size + i + CAPACITY) % CAPACITY];
+            exchange.appendTo(out);
+        }
+        return out.toString();
+    }
+
+    private static final class Exchange {
+        String method;
+        String baseUri;
+        String path;
+        Headers headers;
+        Object body;
+        Response response;
+        long totalNanos;
+
+        void clear() {
+            method = null;
+            baseUri = null;
+            path = null;
+            headers = null;
+            body = null;
+            response = null;
+        }
+
+        void appendTo(StringBuilder out) {
+            out.append("Request method:\t").append(method).append('\n')
+                    .append("Request URI:\t").append(join(baseUri, path)).append('\n')
+                    .append("Headers:\t");
+            if (headers != null) {
+                for (Header header : headers) {
+                    out.append(header.getName()).append('=').append(header.getValue()).append("\n\t\t");
+                }
+            }
+            out.append('\n').append("Body:\n").append(body == null ? "<none>" : bodyText(body)).append("\n\n");
+            if (response != null) {
+                out.append(response.getStatusLine()).append(" (").append(totalNanos / 1_000_000).append(" ms)\n")
+                        .append(response.asString()).append('\n');
+            }
+            out.append("----------------------------------------\n");
+        }
+
+        private static String bodyText(Object body) {
+            return body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : String.valueOf(body);
+        }
+
+        private static String join(String baseUri, String path) {
+            if (baseUri == null) {
+                return path;
+            }
+            if (baseUri.endsWith("/") && path.startsWith("/")) {
+                return baseUri + path.substring(1);
+            }
+            return baseUri + path;
+        }
+    }
+}
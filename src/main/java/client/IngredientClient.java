@@ -0,0 +1,30 @@
+package client;
+
+import io.qameta.allure.Step;
+import io.restassured.response.Response;
+import model.IngredientsResponse;
+
+import static io.restassured.RestAssured.given;
+
+public class IngredientClient extends ApiClient {
+    private static final String INGREDIENTS_ENDPOINT = "ingredients";
+
+    @Step("Получение списка ингредиентов")
+    public Response getIngredients() {
+        return given()
+                .spec(getBaseSpecification())
+                .get(INGREDIENTS_ENDPOINT);
+    }
+
+    public IngredientsResponse getIngredientsTyped() {
+        if (isLightTransport()) {
+            return getLightTransport().send("GET", INGREDIENTS_ENDPOINT, null, null).typed(IngredientsResponse.class);
+        }
+        return typed(getIngredients(), IngredientsResponse.class);
+    }
+
+    // Запрос через лёгкий транспорт (api.transport=light) с необработанным телом ответа
+    public AsyncResponse getIngredientsLight() {
+        return getLightTransport().send("GET", INGREDIENTS_ENDPOINT, null, null);
+    }
+}
@@ -0,0 +1,90 @@
+package client;
+
+import cassette.CassetteSession;
+import cassette.RecordedExchange;
+import com.google.gson.Gson;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Синхронный транспорт типизированных методов клиентов на {@link HttpClient} из JDK и Gson, включается
+ * свойством api.transport=light. Не загружает RestAssured, Groovy и GPath и не требует AspectJ-агента,
+ * поэтому короткий smoke-прогон не платит за их загрузку при старте JVM. Замеры в {@link RequestTimings},
+ * проверка схем ответов и кассеты работают как в основном транспорте; шаги Allure, журнал обменов
+ * и адаптивный лимит доступны только в основном транспорте.
+ */
+public class LightTransport {
+    public static final String TRANSPORT_PROPERTY = "api.transport";
+    public static final String LIGHT = "light";
+
+    private static final Gson GSON = new Gson();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    public LightTransport(String baseUrl) {
+        this(baseUrl, AsyncHttpTransport.configuredVersion(baseUrl), null);
+    }
+
+    public LightTransport(String baseUrl, HttpClient.Version version, SSLContext sslContext) {
+        this.httpClient = AsyncHttpTransport.newHttpClient(version, sslContext).build();
+        this.baseUrl = baseUrl;
+    }
+
+    public static boolean isEnabled() {
+        return LIGHT.equalsIgnoreCase(System.getProperty(TRANSPORT_PROPERTY, "restassured").trim());
+    }
+
+    public AsyncResponse send(String method, String endpoint, String token, Object body) {
+        String json = body == null ? null : body instanceof String ? (String) body : GSON.toJson(body);
+        String authorization = token == null ? null : ApiClient.bearer(token);
+        CassetteSession cassettes = CassetteSession.shared();
+        if (cassettes.isReplaying()) {
+            RecordedExchange replayed = cassettes.replay(method, endpoint, authorization, json);
+            cassettes.emulateTiming(replayed);
+            return validated(method, endpoint, replayed.getStatus(), replayed.getResponse());
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (authorization != null) {
+            request.header(ApiClient.AUTHORIZATION_HEADER, authorization);
+        }
+        request.method(method, json == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(json));
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Запрос " + method + " " + endpoint + " не выполнен", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос " + method + " " + endpoint + " прерван", e);
+        }
+        long elapsed = System.nanoTime() - start;
+        RequestTimings.shared().record(method, endpoint, -1, -1, elapsed);
+        if (cassettes.isRecording()) {
+            cassettes.record(cassettes.currentCassette(), method, endpoint, authorization, json, response.statusCode(),
+                    response.headers().firstValue("Content-Type").orElse("application/json"), response.body(), elapsed);
+        }
+        return validated(method, endpoint, response.statusCode(), response.body());
+    }
+
+    private static AsyncResponse validated(String method, String endpoint, int status, String body) {
+        if (SchemaValidationFilter.getMode() != SchemaValidationFilter.Mode.OFF) {
+            SchemaValidationFilter.check(method, endpoint, status, null,
+                    body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8));
+        }
+        return new AsyncResponse(status, body);
+    }
+}
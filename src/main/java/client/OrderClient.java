@@ -2,17 +2,24 @@ package client;
 
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import model.OrderResponse;
+import model.OrdersListResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static io.restassured.RestAssured.given;
 
 public class OrderClient extends ApiClient {
     private static final String ORDERS_ENDPOINT = "orders";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
 
     @Step("Создание заказа с токеном")
     public Response createOrderWithToken(String token, String ingredient) {
         return given()
                 .spec(getBaseSpecification())
-                .auth().oauth2(token)
+                .header(AUTHORIZATION_HEADER, bearer(token))
                 .body(ingredient)
                 .post(ORDERS_ENDPOINT);
     }
@@ -29,10 +36,22 @@ public class OrderClient extends ApiClient {
     public Response getUserOrdersListWithToken(String token) {
         return given()
                 .spec(getBaseSpecification())
-                .auth().oauth2(token)
+                .header(AUTHORIZATION_HEADER, bearer(token))
                 .get(ORDERS_ENDPOINT);
     }
 
+    // etag == null — обычный запрос; с ETag прошлого ответа неизменившийся список приходит как 304 без тела
+    @Step("Получение списка заказов пользователя с токеном, если список изменился")
+    public Response getUserOrdersListWithTokenIfChanged(String token, String etag) {
+        RequestSpecification request = given()
+                .spec(getBaseSpecification())
+                .header(AUTHORIZATION_HEADER, bearer(token));
+        if (etag != null) {
+            request.header(IF_NONE_MATCH_HEADER, etag);
+        }
+        return request.get(ORDERS_ENDPOINT);
+    }
+
     @Step("Получение списка заказов пользователя без токена")
     public Response getUserOrdersListWithoutToken() {
         return given()
@@ -40,4 +59,74 @@ public class OrderClient extends ApiClient {
                 .get(ORDERS_ENDPOINT);
     }
 
+    public OrderResponse createOrderWithTokenTyped(String token, String ingredient) {
+        if (isLightTransport()) {
+            return getLightTransport().send("POST", ORDERS_ENDPOINT, token, ingredient).typed(OrderResponse.class);
+        }
+        return typed(createOrderWithToken(token, ingredient), OrderResponse.class);
+    }
+
+    public OrderResponse createOrderWithoutTokenTyped(String ingredient) {
+        if (isLightTransport()) {
+            return getLightTransport().send("POST", ORDERS_ENDPOINT, null, ingredient).typed(OrderResponse.class);
+        }
+        return typed(createOrderWithoutToken(ingredient), OrderResponse.class);
+    }
+
+    public OrdersListResponse getUserOrdersListWithTokenTyped(String token) {
+        if (isLightTransport()) {
+            return getLightTransport().send("GET", ORDERS_ENDPOINT, token, null).typed(OrdersListResponse.class);
+        }
+        return typed(getUserOrdersListWithToken(token), OrdersListResponse.class);
+    }
+
+    public OrdersListResponse getUserOrdersListWithoutTokenTyped() {
+        if (isLightTransport()) {
+            return getLightTransport().send("GET", ORDERS_ENDPOINT, null, null).typed(OrdersListResponse.class);
+        }
+        return typed(getUserOrdersListWithoutToken(), OrdersListResponse.class);
+    }
+
+    public OrderResponse createOrderTyped(UserSession session, String ingredient) {
+        return session.authorized(token -> createOrderWithTokenTyped(token, ingredient));
+    }
+
+    public OrdersListResponse getUserOrdersListTyped(UserSession session) {
+        return session.authorized(this::getUserOrdersListWithTokenTyped);
+    }
+
+    @Step("Подписка на ленту всех заказов")
+    public OrderFeed subscribeAllOrdersFeed() {
+        return OrderFeed.allOrders(getFeedUrl());
+    }
+
+    // Поставщик токена вызывается при каждом переподключении, поэтому подходит и обновляемый токен сессии
+    @Step("Подписка на ленту заказов пользователя")
+    public OrderFeed subscribeUserOrdersFeed(Supplier<String> token) {
+        return OrderFeed.userOrders(getFeedUrl(), token);
+    }
+
+    public OrderFeed subscribeUserOrdersFeed(UserSession session) {
+        return subscribeUserOrdersFeed(session::getAccessToken);
+    }
+
+    public CompletableFuture<OrderResponse> createOrderWithTokenAsync(String token, String ingredient) {
+        return getAsyncTransport().send("POST", ORDERS_ENDPOINT, token, ingredient)
+                .thenApply(response -> response.typed(OrderResponse.class));
+    }
+
+    public CompletableFuture<OrderResponse> createOrderWithoutTokenAsync(String ingredient) {
+        return getAsyncTransport().send("POST", ORDERS_ENDPOINT, null, ingredient)
+                .thenApply(response -> response.typed(OrderResponse.class));
+    }
+
+    public CompletableFuture<OrdersListResponse> getUserOrdersListWithTokenAsync(String token) {
+        return getAsyncTransport().send("GET", ORDERS_ENDPOINT, token, null)
+                .thenApply(response -> response.typed(OrdersListResponse.class));
+    }
+
+    public CompletableFuture<OrdersListResponse> getUserOrdersListWithoutTokenAsync() {
+        return getAsyncTransport().send("GET", ORDERS_ENDPOINT, null, null)
+                .thenApply(response -> response.typed(OrdersListResponse.class));
+    }
 }
@@ -0,0 +1,353 @@
+package client;
+
+import model.Order;
+import model.OrdersListResponse;
+import model.ResponseReader;
+
+import javax.net.ssl.SSLContext;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Подписка на WebSocket-ленту заказов сервиса (orders/all или orders?token=) как {@link Flow.Publisher} заказов.
+ * Каждое сообщение ленты — снимок последних заказов; подписчикам уходят только заказы, которых ещё не было,
+ * и заказы со сменившимся статусом, по возрастанию номера. Фрагменты сообщения собираются по мере прихода,
+ * снимок разбирается {@link ResponseReader} за один проход. Следующее сообщение запрашивается у сокета только
+ * после того, как заказы предыдущего приняты в буферы подписчиков (bufferSize на подписчика), поэтому медленный
+ * подписчик останавливает чтение из сети, а не копит очередь в памяти. После обрыва соединение восстанавливается
+ * с экспоненциальной задержкой; снимок нового соединения сверяется с уже выданными заказами, так что пропущенные
+ * за время обрыва заказы приходят, а повторов нет. Токен берётся из поставщика при каждом подключении.
+ */
+public class OrderFeed implements Flow.Publisher<Order>, AutoCloseable {
+    public static final String BUFFER_SIZE_PROPERTY = "api.feed.bufferSize";
+    public static final String RECONNECT_DELAY_MS_PROPERTY = "api.feed.reconnectDelayMs";
+    public static final String MAX_RECONNECTS_PROPERTY = "api.feed.maxReconnects";
+
+    private static final long MAX_RECONNECT_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+    // Сколько выданных заказов помнить для сверки снимков; с запасом больше размера снимка ленты (50)
+    private static final int SEEN_LIMIT = 1000;
+
+    private final String uri;
+    private final Supplier<String> token;
+    private final long reconnectDelayMs;
+    private final int maxReconnects;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService feedThread;
+    private final ExecutorService subscriberExecutor;
+    private final SubmissionPublisher<Order> publisher;
+    private final int bufferSize;
+    private final Object space = new Object();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicInteger activeSubscribers = new AtomicInteger();
+    // Доступ только из потока ленты
+    private final Map<String, String> seen = new LinkedHashMap<String, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > SEEN_LIMIT;
+        }
+    };
+    private volatile WebSocket webSocket;
+    private volatile boolean closed;
+    private volatile String lastError;
+    private int failures;
+
+    // token == null — лента всех заказов, иначе лента заказов пользователя с токеном доступа без префикса Bearer
+    public OrderFeed(String feedUrl, Supplier<String> token, int bufferSize, long reconnectDelayMs, int maxReconnects,
+                     SSLContext sslContext) {
+        this.uri = token == null ? feedUrl + "/all" : feedUrl;
+        this.token = token;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.maxReconnects = maxReconnects;
+        this.httpClient = AsyncHttpTransport.newHttpClient(HttpClient.Version.HTTP_1_1, sslContext).build();
+        this.feedThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.subscriberExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher = new SubmissionPublisher<>(subscriberExecutor, bufferSize);
+        this.bufferSize = bufferSize;
+    }
+
+    public static OrderFeed allOrders(String feedUrl) {
+        return fromSystemProperties(feedUrl, null);
+    }
+
+    public static OrderFeed userOrders(String feedUrl, Supplier<String> token) {
+        return fromSystemProperties(feedUrl, token);
+    }
+
+    private static OrderFeed fromSystemProperties(String feedUrl, Supplier<String> token) {
+        return new OrderFeed(feedUrl, token,
+                Integer.getInteger(BUFFER_SIZE_PROPERTY, 256),
+                Long.getLong(RECONNECT_DELAY_MS_PROPERTY, 100),
+                Integer.getInteger(MAX_RECONNECTS_PROPERTY, 10),
+                null);
+    }
+
+    // Подключение откладывается до первого подписчика: SubmissionPublisher без подписчиков заказы отбрасывает
+    @Override
+    public void subscribe(Flow.Subscriber<? super Order> subscriber) {
+        activeSubscribers.incrementAndGet();
+        publisher.subscribe(new SpaceSignalingSubscriber(subscriber));
+        if (started.compareAndSet(false, true)) {
+            feedThread.execute(this::connect);
+        }
+    }
+
+    // Полученные сообщения ленты (снимки), включая сообщения об ошибке
+    public long getMessages() {
+        return messages.get();
+    }
+
+    // Заказы, выданные подписчикам
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    // Наибольшее число заказов, ожидающих в буфере самого медленного подписчика
+    public int getLag() {
+        return publisher.estimateMaximumLag();
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    // Подписчики получают onComplete после того, как заберут уже принятые заказы; потоки подписчиков
+    // останавливаются, когда последний из них завершится или отменит подписку
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(error -> null);
+        }
+        feedThread.execute(() -> {
+            publisher.close();
+            shutdownSubscriberExecutorIfIdle();
+        });
+        feedThread.shutdown();
+    }
+
+    // До завершения подписчиков пул нужен: отставший подписчик забирает остаток буфера уже после publisher.close
+    private void shutdownSubscriberExecutorIfIdle() {
+        if (publisher.isClosed() && activeSubscribers.get() == 0) {
+            subscriberExecutor.shutdown();
+        }
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        URI target = URI.create(token == null ? uri
+                : uri + "?token=" + URLEncoder.encode(token.get(), StandardCharsets.UTF_8));
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(target, new Listener())
+                .whenComplete((socket, error) -> {
+                    if (error != null) {
+                        connectionLost(error.getMessage());
+                    }
+                });
+    }
+
+    private void connectionLost(String reason) {
+        webSocket = null;
+        if (closed) {
+            return;
+        }
+        feedThread.execute(() -> {
+            failures++;
+            if (reason != null) {
+                lastError = reason;
+            }
+            if (failures > maxReconnects) {
+                publisher.closeExceptionally(new IllegalStateException("Лента заказов " + uri + " недоступна после "
+                        + maxReconnects + " переподключений: " + lastError));
+                shutdownSubscriberExecutorIfIdle();
+                return;
+            }
+            reconnects.incrementAndGet();
+            long delay = Math.min(reconnectDelayMs << Math.min(failures - 1, 20), MAX_RECONNECT_DELAY_MS);
+            feedThread.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // Выполняется в потоке ленты. Места в буферах ждёт сам поток ленты: блокирующий submit держит блокировку
+    // SubmissionPublisher, и на время ожидания зависли бы subscribe, getLag и close
+    private void handle(String message) {
+        messages.incrementAndGet();
+        OrdersListResponse snapshot = ResponseReader.read(200, new StringReader(message), OrdersListResponse.class);
+        if (!snapshot.isSuccess() || snapshot.getOrders() == null) {
+            lastError = snapshot.getMessage();
+            return;
+        }
+        failures = 0;
+        List<Order> changed = new ArrayList<>();
+        for (Order order : snapshot.getOrders()) {
+            String version = order.getStatus() + "|" + order.getUpdatedAt();
+            if (!version.equals(seen.put(order.getId(), version))) {
+                changed.add(order);
+            }
+        }
+        changed.sort(Comparator.comparing(Order::getNumber, Comparator.nullsLast(Comparator.naturalOrder())));
+        for (Order order : changed) {
+            if (closed) {
+                return;
+            }
+            awaitSpace();
+            publisher.submit(order);
+            delivered.incrementAndGet();
+        }
+    }
+
+    // Ожидание с таймаутом: отмена подписки освобождает место без вызова onNext
+    private void awaitSpace() {
+        synchronized (space) {
+            while (!closed && publisher.estimateMaximumLag() >= bufferSize) {
+                try {
+                    space.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Каждый полученный подписчиком заказ освобождает место в его буфере и будит поток ленты
+    private final class SpaceSignalingSubscriber implements Flow.Subscriber<Order> {
+        private final Flow.Subscriber<? super Order> delegate;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        SpaceSignalingSubscriber(Flow.Subscriber<? super Order> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    finish();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(Order order) {
+            delegate.onNext(order);
+            synchronized (space) {
+                space.notifyAll();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            try {
+                delegate.onError(error);
+            } finally {
+                finish();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                delegate.onComplete();
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                activeSubscribers.decrementAndGet();
+                shutdownSubscriberExecutorIfIdle();
+            }
+        }
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder fragments = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket socket) {
+            webSocket = socket;
+            socket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            if (closed) {
+                return null;
+            }
+            fragments.append(data);
+            if (!last) {
+                socket.request(1);
+                return null;
+            }
+            String message = fragments.toString();
+            fragments.setLength(0);
+            feedThread.execute(() -> {
+                handle(message);
+                socket.request(1);
+            });
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            connectionLost(null);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            connectionLost(error.getMessage());
+        }
+    }
+}
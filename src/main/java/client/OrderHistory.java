@@ -0,0 +1,220 @@
+package client;
+
+import io.restassured.response.Response;
+import model.Order;
+import model.OrdersListResponse;
+import model.ResponseReader;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
+
+/**
+ * Инкрементальный просмотр истории заказов для мониторов, которые опрашивают GET orders в цикле. Для каждого
+ * токена хранится последний список заказов по _id, ETag и SHA-256 тела ответа. Запрос уходит с If-None-Match:
+ * ответ 304, как и тело, совпавшее с предыдущим (сервис без ETag, воспроизведение кассеты), не разбирается.
+ * Изменившийся список разбирается и сверяется с кешем, и {@link #poll} возвращает только новые заказы и заказы
+ * со сменившимся статусом или updatedAt. Память ограничена числом заказов в кеше (api.orderHistory.maxOrders):
+ * при превышении целиком вытесняются истории токенов, которые дольше всех не опрашивались.
+ */
+public class OrderHistory {
+    public static final String MAX_ORDERS_PROPERTY = "api.orderHistory.maxOrders";
+
+    private final OrderClient client;
+    private final int maxOrders;
+    // Порядок доступа: первыми идут истории, которые дольше всех не опрашивались
+    private final LinkedHashMap<String, History> histories = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int cachedOrders;
+
+    public OrderHistory(OrderClient client, int maxOrders) {
+        this.client = client;
+        this.maxOrders = maxOrders;
+    }
+
+    public static OrderHistory fromSystemProperties() {
+        return new OrderHistory(new OrderClient(), Integer.getInteger(MAX_ORDERS_PROPERTY, 10_000));
+    }
+
+    // Опросы одного токена выполняются по очереди, разных токенов — параллельно
+    public Changes poll(String token) {
+        History history = history(token);
+        synchronized (history) {
+            Response response = client.getUserOrdersListWithTokenIfChanged(token, history.etag);
+            int status = response.statusCode();
+            if (status == SC_NOT_MODIFIED) {
+                hits.increment();
+                notModified.increment();
+                return Changes.unchanged(status);
+            }
+            if (status != SC_OK) {
+                return Changes.unchanged(status);
+            }
+            byte[] body = response.asByteArray();
+            byte[] digest = sha256(body);
+            history.etag = response.getHeader("ETag");
+            if (Arrays.equals(digest, history.digest)) {
+                hits.increment();
+                return Changes.unchanged(status);
+            }
+            misses.increment();
+            OrdersListResponse list = ResponseReader.read(status, body, OrdersListResponse.class);
+            Map<String, Order> orders = new LinkedHashMap<>();
+            List<Order> added = new ArrayList<>();
+            List<Order> changed = new ArrayList<>();
+            for (Order order : list.getOrders() == null ? Collections.<Order>emptyList() : list.getOrders()) {
+                String key = order.getId() != null ? order.getId() : "#" + order.getNumber();
+                Order previous = history.orders.get(key);
+                if (previous == null) {
+                    added.add(order);
+                } else if (!Objects.equals(previous.getStatus(), order.getStatus())
+                        || !Objects.equals(previous.getUpdatedAt(), order.getUpdatedAt())) {
+                    changed.add(order);
+                }
+                orders.put(key, order);
+            }
+            // Кеш повторяет последний ответ: заказы, пропавшие из окна ответа, из него уходят
+            history.orders = orders;
+            history.digest = digest;
+            resized(token, history);
+            return new Changes(status, false, added, changed);
+        }
+    }
+
+    // Последний полученный список заказов токена без запроса к сервису
+    public List<Order> getOrders(String token) {
+        History history;
+        synchronized (this) {
+            history = histories.get(token);
+        }
+        if (history == null) {
+            return Collections.emptyList();
+        }
+        synchronized (history) {
+            return new ArrayList<>(history.orders.values());
+        }
+    }
+
+    public synchronized void forget(String token) {
+        History history = histories.remove(token);
+        if (history != null) {
+            cachedOrders -= history.counted;
+        }
+    }
+
+    // Ответ 304 или тело без изменений: ничего не разбиралось
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int getCachedOrders() {
+        return cachedOrders;
+    }
+
+    public synchronized int getCachedTokens() {
+        return histories.size();
+    }
+
+    private synchronized History history(String token) {
+        return histories.computeIfAbsent(token, key -> new History());
+    }
+
+    // Учёт ведётся только для историй, ещё лежащих в кеше: вытесненная во время опроса история не учитывается
+    private synchronized void resized(String token, History history) {
+        if (histories.get(token) != history) {
+            return;
+        }
+        cachedOrders += history.orders.size() - history.counted;
+        history.counted = history.orders.size();
+        Iterator<History> eldest = histories.values().iterator();
+        while (cachedOrders > maxOrders && eldest.hasNext()) {
+            History candidate = eldest.next();
+            if (candidate == history) {
+                continue;
+            }
+            eldest.remove();
+            cachedOrders -= candidate.counted;
+            evictions.increment();
+        }
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class History {
+        String etag;
+        byte[] digest;
+        Map<String, Order> orders = Collections.emptyMap();
+        // Размер истории, учтённый в cachedOrders; меняется под блокировкой OrderHistory
+        int counted;
+    }
+
+    /**
+     * Результат опроса: новые и изменившиеся заказы; пустые списки, если список не изменился или запрос
+     * не удался (код ответа в {@link #getStatusCode()}).
+     */
+    public static final class Changes {
+        private final int statusCode;
+        private final boolean unchanged;
+        private final List<Order> added;
+        private final List<Order> changed;
+
+        Changes(int statusCode, boolean unchanged, List<Order> added, List<Order> changed) {
+            this.statusCode = statusCode;
+            this.unchanged = unchanged;
+            this.added = added;
+            this.changed = changed;
+        }
+
+        static Changes unchanged(int statusCode) {
+            return new Changes(statusCode, true, Collections.emptyList(), Collections.emptyList());
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public boolean isUnchanged() {
+            return unchanged;
+        }
+
+        public List<Order> getAdded() {
+            return added;
+        }
+
+        public List<Order> getChanged() {
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package client;
+
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фабрика HTTP-клиента для RestAssured с общим пулом keep-alive соединений.
+ * RestAssured умеет работать только с {@link org.apache.http.impl.client.AbstractHttpClient},
+ * поэтому используется {@link DefaultHttpClient} поверх {@link PoolingClientConnectionManager}.
+ * Параметры пула задаются системными свойствами api.pool.*.
+ */
+@SuppressWarnings("deprecation")
+public class PooledHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+    public static final String MAX_TOTAL_PROPERTY = "api.pool.maxTotal";
+    public static final String MAX_PER_ROUTE_PROPERTY = "api.pool.maxPerRoute";
+    public static final String KEEP_ALIVE_MS_PROPERTY = "api.pool.keepAliveMs";
+    public static final String IDLE_EVICTION_MS_PROPERTY = "api.pool.idleEvictionMs";
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long keepAliveMs;
+    private final long idleEvictionMs;
+    private PoolingClientConnectionManager connectionManager;
+    private ScheduledExecutorService evictor;
+    private DefaultHttpClient client;
+
+    public PooledHttpClientFactory(int maxTotal, int maxPerRoute, long keepAliveMs, long idleEvictionMs) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.keepAliveMs = keepAliveMs;
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    public static PooledHttpClientFactory fromSystemProperties() {
+        return new PooledHttpClientFactory(
+                Integer.getInteger(MAX_TOTAL_PROPERTY, 64),
+                Integer.getInteger(MAX_PER_ROUTE_PROPERTY, 32),
+                Long.getLong(KEEP_ALIVE_MS_PROPERTY, 30_000L),
+                Long.getLong(IDLE_EVICTION_MS_PROPERTY, 15_000L));
+    }
+
+    // RestAssured создаёт клиент без синхронизации и может вызвать фабрику повторно из копий конфигурации,
+    // поэтому фабрика сама гарантирует единственный экземпляр клиента и пула
+    @Override
+    public synchronized HttpClient createHttpClient() {
+        if (client != null) {
+            return client;
+        }
+        PoolingClientConnectionManager manager = new TimedConnectionManager();
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+        startIdleEviction(manager);
+        connectionManager = manager;
+
+        client = new DefaultHttpClient(manager) {
+            @Override
+            protected HttpRequestExecutor createRequestExecutor() {
+                return new TimedRequestExecutor();
+            }
+        };
+        client.setKeepAliveStrategy(new BoundedKeepAliveStrategy(keepAliveMs));
+        return client;
+    }
+
+    public synchronized PoolStats getPoolStats() {
+        return connectionManager == null ? new PoolStats(0, 0, 0, maxTotal) : connectionManager.getTotalStats();
+    }
+
+    public synchronized void shutdown() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+            connectionManager = null;
+        }
+        client = null;
+    }
+
+    private void startIdleEviction(PoolingClientConnectionManager manager) {
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000L, idleEvictionMs / 2);
+        evictor.scheduleWithFixedDelay(() -> {
+            manager.closeExpiredConnections();
+            manager.closeIdleConnections(idleEvictionMs, TimeUnit.MILLISECONDS);
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Замеряет установку нового соединения (TCP и TLS); соединения из пула эту фазу пропускают.
+    // Общий срок жизни соединений не ограничен: живое соединение не закрывается посреди серии запросов,
+    // а простаивающие закрывают BoundedKeepAliveStrategy и фоновая очистка
+    private static class TimedConnectionManager extends PoolingClientConnectionManager {
+        TimedConnectionManager() {
+            super(SchemeRegistryFactory.createDefault(), -1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+            return new DefaultClientConnectionOperator(schemeRegistry) {
+                @Override
+                public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    long start = System.nanoTime();
+                    super.openConnection(connection, target, local, context, params);
+                    ConnectionTimings.connected(System.nanoTime() - start);
+                }
+            };
+        }
+    }
+
+    // Отмечает момент получения заголовков ответа, то есть время до первого байта
+    private static class TimedRequestExecutor extends HttpRequestExecutor {
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection connection,
+                                                 HttpContext context) throws HttpException, IOException {
+            HttpResponse response = super.doReceiveResponse(request, connection, context);
+            ConnectionTimings.headersReceived();
+            return response;
+        }
+    }
+
+    private static class BoundedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long maxKeepAliveMs;
+
+        BoundedKeepAliveStrategy(long maxKeepAliveMs) {
+            this.maxKeepAliveMs = maxKeepAliveMs;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAliveMs) : maxKeepAliveMs;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package client;
+
+/**
+ * Запрос не отправлен: автомат защиты эндпоинта разомкнут или не удалось дождаться свободного места
+ * в лимите параллельных запросов.
+ */
+public class RequestRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RequestRejectedException(String message) {
+        super(message);
+    }
+}
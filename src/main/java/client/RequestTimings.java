@@ -0,0 +1,153 @@
+package client;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сводка задержек запросов по эндпоинтам и HTTP-методам за прогон. При завершении JVM пишется
+ * в request-timings.json и request-timings.csv рядом с каталогом allure-results.
+ */
+public class RequestTimings {
+    public static final String OUTPUT_DIRECTORY_PROPERTY = "request.timings.directory";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private static volatile RequestTimings shared;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public static RequestTimings shared() {
+        if (shared == null) {
+            synchronized (RequestTimings.class) {
+                if (shared == null) {
+                    RequestTimings timings = new RequestTimings();
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> timings.writeSummary(outputDirectory()),
+                            "request-timings-writer"));
+                    shared = timings;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public void record(String method, String endpoint, long connectNanos, long ttfbNanos, long totalNanos) {
+        Endpoint stats = endpoints.computeIfAbsent(method + " " + endpoint, key -> new Endpoint(method, endpoint));
+        stats.total.recordValue(micros(totalNanos));
+        if (ttfbNanos >= 0) {
+            stats.ttfb.recordValue(micros(ttfbNanos));
+        }
+        if (connectNanos >= 0) {
+            stats.connect.recordValue(micros(connectNanos));
+        }
+        stats.count.increment();
+    }
+
+    public void writeSummary(Path directory) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        JsonArray json = new JsonArray();
+        StringBuilder csv = new StringBuilder("method,endpoint,count,new_connections,connect_mean_ms,"
+                + "ttfb_mean_ms,ttfb_p95_ms,total_mean_ms,total_p50_ms,total_p95_ms,total_p99_ms,total_max_ms\n");
+        for (Endpoint stats : new TreeMap<>(endpoints).values()) {
+            Histogram total = stats.total.copy();
+            Histogram ttfb = stats.ttfb.copy();
+            Histogram connect = stats.connect.copy();
+
+            JsonObject row = new JsonObject();
+            row.addProperty("method", stats.method);
+            row.addProperty("endpoint", stats.endpoint);
+            row.addProperty("count", stats.count.sum());
+            row.addProperty("newConnections", connect.getTotalCount());
+            row.addProperty("connectMeanMs", mean(connect));
+            row.add("ttfbMs", distribution(ttfb));
+            row.add("totalMs", distribution(total));
+            json.add(row);
+
+            csv.append(String.join(",", stats.method, stats.endpoint, String.valueOf(stats.count.sum()),
+                    String.valueOf(connect.getTotalCount()), format(mean(connect)), format(mean(ttfb)),
+                    format(millis(ttfb.getValueAtPercentile(95))), format(mean(total)),
+                    format(millis(total.getValueAtPercentile(50))), format(millis(total.getValueAtPercentile(95))),
+                    format(millis(total.getValueAtPercentile(99))), format(millis(total.getMaxValue()))))
+                    .append('\n');
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("request-timings.json"), StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+            }
+            Files.write(directory.resolve("request-timings.csv"), csv.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Не удалось записать сводку задержек запросов: " + e.getMessage());
+        }
+    }
+
+    static Path outputDirectory() {
+        String configured = System.getProperty(OUTPUT_DIRECTORY_PROPERTY);
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        String allureResults = System.getProperty("allure.results.directory");
+        if (allureResults != null && Paths.get(allureResults).toAbsolutePath().getParent() != null) {
+            return Paths.get(allureResults).toAbsolutePath().getParent();
+        }
+        return Paths.get("target");
+    }
+
+    private static JsonObject distribution(Histogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("mean", mean(histogram));
+        for (double percentile : PERCENTILES) {
+            json.addProperty("p" + (int) percentile, millis(histogram.getValueAtPercentile(percentile)));
+        }
+        json.addProperty("max", millis(histogram.getMaxValue()));
+        return json;
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static double mean(Histogram histogram) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1000.0;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static class Endpoint {
+        final String method;
+        final String endpoint;
+        final ConcurrentHistogram total = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final ConcurrentHistogram ttfb = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final ConcurrentHistogram connect = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder count = new LongAdder();
+
+        Endpoint(String method, String endpoint) {
+            this.method = method;
+            this.endpoint = endpoint;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package client;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import schema.JsonSchema;
+import schema.SchemaRegistry;
+import schema.SchemaValidator;
+import schema.SchemaViolation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Проверяет каждый JSON-ответ по схеме из {@link SchemaRegistry}. Стоит после {@link BodyBufferingFilter}
+ * и перед {@link CassetteFilter}, поэтому проверяются и живые, и воспроизведённые ответы. Режим задаётся
+ * свойством api.schema: strict (по умолчанию) валит тест при нарушении контракта, report только печатает
+ * нарушения, off отключает проверку. Ответы не в формате JSON (HTML-страница ошибки 500) не проверяются.
+ */
+public class SchemaValidationFilter implements Filter {
+    public static final String MODE_PROPERTY = "api.schema";
+
+    public enum Mode {
+        STRICT,
+        REPORT,
+        OFF
+    }
+
+    // Разбирается при первой проверке, а не при загрузке класса: опечатка в api.schema иначе дала бы
+    // ExceptionInInitializerError, а все следующие запросы — NoClassDefFoundError без причины
+    private static volatile Mode mode;
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        check(requestSpec.getMethod(), TimingFilter.endpoint(requestSpec.getUserDefinedPath()), response.statusCode(),
+                response.contentType(), response.asByteArray());
+        return response;
+    }
+
+    public static Mode getMode() {
+        Mode current = mode;
+        if (current == null) {
+            current = parseMode(System.getProperty(MODE_PROPERTY, "strict"));
+            mode = current;
+        }
+        return current;
+    }
+
+    public static Mode parseMode(String value) {
+        List<String> allowed = new ArrayList<>();
+        for (Mode candidate : Mode.values()) {
+            if (candidate.name().equalsIgnoreCase(value.trim())) {
+                return candidate;
+            }
+            allowed.add(candidate.name().toLowerCase(Locale.ROOT));
+        }
+        throw new IllegalArgumentException("Неизвестный режим проверки схем " + MODE_PROPERTY + "=" + value
+                + ", допустимые значения: " + String.join(", ", allowed));
+    }
+
+    // Тип содержимого может быть неизвестен (асинхронный транспорт), тогда JSON определяется по первому символу
+    static void check(String method, String endpoint, int status, String contentType, byte[] body) {
+        Mode current = getMode();
+        if (current == Mode.OFF || !isJson(contentType, body)) {
+            return;
+        }
+        Optional<JsonSchema> schema = SchemaRegistry.shared().find(method, endpoint, status);
+        if (schema.isEmpty()) {
+            return;
+        }
+        List<String> violations = SchemaValidator.validate(schema.get(), body);
+        if (violations.isEmpty()) {
+            return;
+        }
+        SchemaViolation violation = new SchemaViolation(method + " " + endpoint, status, schema.get().getName(),
+                violations);
+        if (current == Mode.STRICT) {
+            throw violation;
+        }
+        System.err.println(violation.getMessage());
+    }
+
+    private static boolean isJson(String contentType, byte[] body) {
+        if (contentType != null && !contentType.isEmpty()) {
+            return contentType.toLowerCase(Locale.ROOT).contains("json");
+        }
+        for (byte b : body) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+package client;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Parameter;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Замеряет каждый запрос: установку соединения (если понадобилось новое), время до первого байта
+ * и полное время с чтением тела. Замеры складываются в {@link RequestTimings} и добавляются параметрами
+ * к текущему шагу Allure, то есть к шагу, созданному {@code @Step}-методом клиента.
+ */
+public class TimingFilter implements Filter {
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        ConnectionTimings.reset();
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long total = System.nanoTime() - start;
+
+        long headersReceivedAt = ConnectionTimings.headersReceivedAt();
+        long ttfb = headersReceivedAt < 0 ? -1 : headersReceivedAt - start;
+        long connect = ConnectionTimings.connectNanos();
+        String endpoint = endpoint(requestSpec.getUserDefinedPath());
+        RequestTimings.shared().record(requestSpec.getMethod(), endpoint, connect, ttfb, total);
+        attachToCurrentStep(requestSpec.getMethod() + " " + endpoint, connect, ttfb, total);
+        return response;
+    }
+
+    private static void attachToCurrentStep(String request, long connect, long ttfb, long total) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        Optional<String> current = lifecycle.getCurrentTestCaseOrStep();
+        if (!current.isPresent() || current.equals(lifecycle.getCurrentTestCase())) {
+            return;
+        }
+        lifecycle.updateStep(step -> {
+            step.getParameters().add(parameter("request", request));
+            if (connect >= 0) {
+                step.getParameters().add(parameter("connect, ms", millis(connect)));
+            }
+            if (ttfb >= 0) {
+                step.getParameters().add(parameter("ttfb, ms", millis(ttfb)));
+            }
+            step.getParameters().add(parameter("total, ms", millis(total)));
+        });
+    }
+
+    static String endpoint(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static Parameter parameter(String name, String value) {
+        return new Parameter().setName(name).setValue(value);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,252 @@
+package client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.ApiResponse;
+import model.AuthResponse;
+import model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранит пары токенов пользователей, полученные через {@link UserClient} при регистрации и входе, и обновляет
+ * токен доступа через auth/token до его истечения. Фоновый поток раз в checkIntervalMs обновляет токены,
+ * до истечения которых осталось меньше refreshAheadMs, поэтому длительные прогоны не упираются в 403 jwt expired.
+ * Обновление одного пользователя выполняется не более чем одним потоком; повторный вход по паролю делается,
+ * только если refresh-токен отвергнут. Клиенты принимают {@link UserSession} вместо токена: если сервер отверг
+ * токен раньше срока (401, 403 jwt ...), он обновляется и запрос повторяется один раз.
+ */
+public class TokenManager {
+    public static final String REFRESH_AHEAD_MS_PROPERTY = "auth.token.refreshAheadMs";
+    public static final String CHECK_INTERVAL_MS_PROPERTY = "auth.token.checkIntervalMs";
+
+    // Срок жизни токена доступа Stellar Burgers; используется, если exp не удалось прочитать из токена
+    private static final long DEFAULT_TOKEN_TTL_MS = TimeUnit.MINUTES.toMillis(20);
+
+    private static volatile TokenManager shared;
+
+    private final UserClient userClient;
+    private final long refreshAheadMs;
+    private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher;
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong relogins = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public TokenManager(UserClient userClient, long refreshAheadMs, long checkIntervalMs) {
+        this.userClient = userClient;
+        this.refreshAheadMs = refreshAheadMs;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshExpiring, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static TokenManager shared() {
+        if (shared == null) {
+            synchronized (TokenManager.class) {
+                if (shared == null) {
+                    shared = new TokenManager(new UserClient(),
+                            Long.getLong(REFRESH_AHEAD_MS_PROPERTY, TimeUnit.MINUTES.toMillis(2)),
+                            Long.getLong(CHECK_INTERVAL_MS_PROPERTY, TimeUnit.SECONDS.toMillis(15)));
+                }
+            }
+        }
+        return shared;
+    }
+
+    // Регистрирует пользователя и берёт его токены под управление; при ошибке регистрации возвращает null
+    public UserSession register(User user) {
+        return track(user, userClient.createNewUserTyped(user));
+    }
+
+    public UserSession login(User user) {
+        return track(user, userClient.loginUserTyped(user));
+    }
+
+    public UserSession track(User user, AuthResponse response) {
+        if (!response.isSuccess() || response.getAccessToken() == null) {
+            return null;
+        }
+        String accessToken = response.getRawAccessToken();
+        JsonObject claims = claims(accessToken);
+        String userId = claims != null && claims.has("id") ? claims.get("id").getAsString() : user.getEmail().toLowerCase();
+        UserSession session = new UserSession(this, userId, user, accessToken, response.getRefreshToken(),
+                expiresAt(claims));
+        UserSession existing = sessions.putIfAbsent(userId, session);
+        if (existing == null) {
+            return session;
+        }
+        // Пользователь уже под управлением: новые токены переходят в ту же сессию, чтобы её держатели
+        // и фоновое обновление продолжали работать с одним объектом
+        existing.refreshLock.lock();
+        try {
+            existing.setCredentials(user);
+            existing.update(accessToken, response.getRefreshToken(), expiresAt(claims));
+        } finally {
+            existing.refreshLock.unlock();
+        }
+        // Сессию могли снять с учёта после неудачного обновления, пока ждали блокировку
+        sessions.putIfAbsent(userId, existing);
+        return existing;
+    }
+
+    public void forget(UserSession session) {
+        if (session != null) {
+            sessions.remove(session.getUserId(), session);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(sessions.size(), refreshes.get(), relogins.get(), failures.get());
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    String ensureFresh(UserSession session) {
+        UserSession.Tokens current = session.tokens();
+        if (System.currentTimeMillis() < current.expiresAt) {
+            return current.accessToken;
+        }
+        session.refreshLock.lock();
+        try {
+            // Пока ждали блокировку, токен мог обновить другой поток
+            if (System.currentTimeMillis() >= session.getExpiresAt()) {
+                refresh(session);
+            }
+        } finally {
+            session.refreshLock.unlock();
+        }
+        return session.tokens().accessToken;
+    }
+
+    // Токен отвергнут сервером: обновляется, если его ещё не заменил другой поток
+    String renewRejected(UserSession session, String rejectedToken) {
+        session.refreshLock.lock();
+        try {
+            if (rejectedToken.equals(session.tokens().accessToken)) {
+                refresh(session);
+            }
+        } finally {
+            session.refreshLock.unlock();
+        }
+        return session.tokens().accessToken;
+    }
+
+    // 401 без токена не бывает у запросов сессии; 403 с сообщением jwt ... — истёкший или отозванный токен
+    static boolean isTokenRejected(ApiResponse response) {
+        int status = response.getStatusCode();
+        return status == 401 || status == 403 && response.getMessage() != null && response.getMessage().startsWith("jwt");
+    }
+
+    private void refreshExpiring() {
+        long threshold = System.currentTimeMillis() + refreshAheadMs;
+        for (UserSession session : sessions.values()) {
+            if (session.getExpiresAt() > threshold || !session.refreshLock.tryLock()) {
+                continue;
+            }
+            try {
+                if (session.getExpiresAt() <= threshold) {
+                    refresh(session);
+                }
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            } finally {
+                session.refreshLock.unlock();
+            }
+        }
+    }
+
+    private void refresh(UserSession session) {
+        String refreshToken = session.tokens().refreshToken;
+        AuthResponse response = refreshToken == null ? null : userClient.refreshTokenTyped(refreshToken);
+        if (response != null && response.isSuccess() && response.getAccessToken() != null) {
+            refreshes.incrementAndGet();
+        } else {
+            response = userClient.loginUserTyped(session.getCredentials());
+            if (!response.isSuccess() || response.getAccessToken() == null) {
+                failures.incrementAndGet();
+                sessions.remove(session.getUserId(), session);
+                return;
+            }
+            relogins.incrementAndGet();
+        }
+        String accessToken = response.getRawAccessToken();
+        session.update(accessToken, response.getRefreshToken(), expiresAt(claims(accessToken)));
+    }
+
+    private static long expiresAt(JsonObject claims) {
+        JsonElement exp = claims == null ? null : claims.get("exp");
+        if (exp == null || !exp.isJsonPrimitive()) {
+            return System.currentTimeMillis() + DEFAULT_TOKEN_TTL_MS;
+        }
+        return TimeUnit.SECONDS.toMillis(exp.getAsLong());
+    }
+
+    // Полезная нагрузка JWT без проверки подписи: нужны только id пользователя и срок действия
+    private static JsonObject claims(String accessToken) {
+        String[] parts = accessToken.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonElement claims = JsonParser.parseString(payload);
+            return claims.isJsonObject() ? claims.getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static class Stats {
+        private final int sessions;
+        private final long refreshes;
+        private final long relogins;
+        private final long failures;
+
+        Stats(int sessions, long refreshes, long relogins, long failures) {
+            this.sessions = sessions;
+            this.refreshes = refreshes;
+            this.relogins = relogins;
+            this.failures = failures;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public long getRefreshes() {
+            return refreshes;
+        }
+
+        public long getRelogins() {
+            return relogins;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Токены: сессий %d, обновлено через auth/token %d, повторных входов %d, ошибок %d",
+                    sessions, refreshes, relogins, failures);
+        }
+    }
+}
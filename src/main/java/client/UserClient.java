@@ -2,7 +2,13 @@ package client;
 
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
+import model.AuthResponse;
+import model.ErrorResponse;
 import model.User;
+import model.UserResponse;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static io.restassured.RestAssured.get;
 import static io.restassured.RestAssured.given;
@@ -11,6 +17,7 @@ public class UserClient extends ApiClient {
     private static final String USER_CREATE_ENDPOINT = "auth/register";
     private static final String USER_DATA_ENDPOINT = "auth/user";
     private static final String USER_LOGIN_ENDPOINT = "auth/login";
+    private static final String TOKEN_REFRESH_ENDPOINT = "auth/token";
 
     @Step("Создание нового пользователя")
     public Response createNewUser(User user) {
@@ -24,7 +31,7 @@ public class UserClient extends ApiClient {
     public Response deleteUser(String token) {
         return given()
                 .spec(getBaseSpecification())
-                .auth().oauth2(token)
+                .header(AUTHORIZATION_HEADER, bearer(token))
                 .delete(USER_DATA_ENDPOINT);
     }
 
@@ -36,11 +43,19 @@ public class UserClient extends ApiClient {
                 .post(USER_LOGIN_ENDPOINT);
     }
 
+    @Step("Обновление токена доступа")
+    public Response refreshToken(String refreshToken) {
+        return given()
+                .spec(getBaseSpecification())
+                .body(Map.of("token", refreshToken))
+                .post(TOKEN_REFRESH_ENDPOINT);
+    }
+
     @Step("Изменение данных о пользователе с токеном")
     public Response changeUserDataWithToken(String token, User user) {
         return given()
                 .spec(getBaseSpecification())
-                .auth().oauth2(token)
+                .header(AUTHORIZATION_HEADER, bearer(token))
                 .body(user)
                 .patch(USER_DATA_ENDPOINT);
     }
@@ -53,4 +68,74 @@ public class UserClient extends ApiClient {
                 .patch(USER_DATA_ENDPOINT);
     }
 
+    public AuthResponse createNewUserTyped(User user) {
+        if (isLightTransport()) {
+            return getLightTransport().send("POST", USER_CREATE_ENDPOINT, null, user).typed(AuthResponse.class);
+        }
+        return typed(createNewUser(user), AuthResponse.class);
+    }
+
+    public ErrorResponse deleteUserTyped(String token) {
+        if (isLightTransport()) {
+            return getLightTransport().send("DELETE", USER_DATA_ENDPOINT, token, null).typed(ErrorResponse.class);
+        }
+        return typed(deleteUser(token), ErrorResponse.class);
+    }
+
+    public AuthResponse loginUserTyped(User user) {
+        if (isLightTransport()) {
+            return getLightTransport().send("POST", USER_LOGIN_ENDPOINT, null, user).typed(AuthResponse.class);
+        }
+        return typed(loginUser(user), AuthResponse.class);
+    }
+
+    public AuthResponse refreshTokenTyped(String refreshToken) {
+        if (isLightTransport()) {
+            return getLightTransport().send("POST", TOKEN_REFRESH_ENDPOINT, null, Map.of("token", refreshToken)).typed(AuthResponse.class);
+        }
+        return typed(refreshToken(refreshToken), AuthResponse.class);
+    }
+
+    public UserResponse changeUserDataWithTokenTyped(String token, User user) {
+        if (isLightTransport()) {
+            return getLightTransport().send("PATCH", USER_DATA_ENDPOINT, token, user).typed(UserResponse.class);
+        }
+        return typed(changeUserDataWithToken(token, user), UserResponse.class);
+    }
+
+    public UserResponse changeUserDataTyped(UserSession session, User user) {
+        return session.authorized(token -> changeUserDataWithTokenTyped(token, user));
+    }
+
+    public UserResponse changeUserDataWithoutTokenTyped(User user) {
+        if (isLightTransport()) {
+            return getLightTransport().send("PATCH", USER_DATA_ENDPOINT, null, user).typed(UserResponse.class);
+        }
+        return typed(changeUserDataWithoutToken(user), UserResponse.class);
+    }
+
+    public CompletableFuture<AuthResponse> createNewUserAsync(User user) {
+        return getAsyncTransport().send("POST", USER_CREATE_ENDPOINT, null, user)
+                .thenApply(response -> response.typed(AuthResponse.class));
+    }
+
+    public CompletableFuture<ErrorResponse> deleteUserAsync(String token) {
+        return getAsyncTransport().send("DELETE", USER_DATA_ENDPOINT, token, null)
+                .thenApply(response -> response.typed(ErrorResponse.class));
+    }
+
+    public CompletableFuture<AuthResponse> loginUserAsync(User user) {
+        return getAsyncTransport().send("POST", USER_LOGIN_ENDPOINT, null, user)
+                .thenApply(response -> response.typed(AuthResponse.class));
+    }
+
+    public CompletableFuture<UserResponse> changeUserDataWithTokenAsync(String token, User user) {
+        return getAsyncTransport().send("PATCH", USER_DATA_ENDPOINT, token, user)
+                .thenApply(response -> response.typed(UserResponse.class));
+    }
+
+    public CompletableFuture<UserResponse> changeUserDataWithoutTokenAsync(User user) {
+        return getAsyncTransport().send("PATCH", USER_DATA_ENDPOINT, null, user)
+                .thenApply(response -> response.typed(UserResponse.class));
+    }
 }
@@ -0,0 +1,80 @@
+package client;
+
+import model.ApiResponse;
+import model.User;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Пара токенов одного пользователя под управлением {@link TokenManager}. Токен доступа хранится
+ * без префикса "Bearer " вместе с моментом истечения, разобранным из JWT один раз при получении.
+ * Токены и срок публикуются одним неизменяемым снимком, поэтому читатель не увидит новый токен со старым сроком.
+ */
+public class UserSession {
+    private final TokenManager manager;
+    private final String userId;
+    final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile User credentials;
+    private volatile Tokens tokens;
+
+    UserSession(TokenManager manager, String userId, User credentials, String accessToken, String refreshToken,
+                long expiresAt) {
+        this.manager = manager;
+        this.userId = userId;
+        setCredentials(credentials);
+        update(accessToken, refreshToken, expiresAt);
+    }
+
+    // Действующий токен доступа без префикса "Bearer "; истёкший токен обновляется до возврата
+    public String getAccessToken() {
+        return manager.ensureFresh(this);
+    }
+
+    // Запрос с токеном сессии; отвергнутый сервером токен обновляется, и запрос повторяется один раз
+    public <T extends ApiResponse> T authorized(Function<String, T> request) {
+        String token = getAccessToken();
+        T response = request.apply(token);
+        if (!TokenManager.isTokenRejected(response)) {
+            return response;
+        }
+        String renewed = manager.renewRejected(this, token);
+        return renewed.equals(token) ? response : request.apply(renewed);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public long getExpiresAt() {
+        return tokens.expiresAt;
+    }
+
+    Tokens tokens() {
+        return tokens;
+    }
+
+    User getCredentials() {
+        return credentials;
+    }
+
+    void setCredentials(User credentials) {
+        this.credentials = new User(credentials.getEmail(), credentials.getPassword(), credentials.getName());
+    }
+
+    void update(String accessToken, String refreshToken, long expiresAt) {
+        this.tokens = new Tokens(accessToken, refreshToken, expiresAt);
+    }
+
+    static final class Tokens {
+        final String accessToken;
+        final String refreshToken;
+        final long expiresAt;
+
+        Tokens(String accessToken, String refreshToken, long expiresAt) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
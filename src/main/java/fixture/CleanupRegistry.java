@@ -0,0 +1,248 @@
+package fixture;
+
+import cassette.CassetteSession;
+import client.ApiClient;
+import client.UserClient;
+import model.ApiResponse;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновое удаление созданных тестами пользователей. {@link #deleteLater} только ставит пользователя в очередь
+ * и сразу возвращает управление, поэтому удаление не входит во время теста; отдельный поток разбирает очередь
+ * пачками и держит не больше cleanup.concurrency асинхронных запросов удаления одновременно.
+ * {@link #flush} в конце прогона дожидается очереди с таймаутом и возвращает отчёт с пользователями, которых
+ * удалить не удалось. Заказы API удалить не позволяет, они только учитываются в отчёте.
+ */
+public class CleanupRegistry {
+    public static final String CONCURRENCY_PROPERTY = "cleanup.concurrency";
+    public static final String TIMEOUT_MS_PROPERTY = "cleanup.timeoutMs";
+
+    private static final int BATCH_SIZE = 64;
+
+    private static volatile CleanupRegistry shared;
+
+    private final UserClient userClient = new UserClient();
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<Resource> queue = new LinkedBlockingQueue<>();
+    private final Set<Resource> unfinished = ConcurrentHashMap.newKeySet();
+    private final Queue<String> leaks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong absent = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong orders = new AtomicLong();
+
+    public CleanupRegistry(int concurrency) {
+        this.permits = new Semaphore(concurrency);
+        Thread dispatcher = new Thread(this::dispatch, "cleanup-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public static CleanupRegistry shared() {
+        if (shared == null) {
+            synchronized (CleanupRegistry.class) {
+                if (shared == null) {
+                    CleanupRegistry registry = new CleanupRegistry(Integer.getInteger(CONCURRENCY_PROPERTY, 4));
+                    long timeoutMs = Long.getLong(TIMEOUT_MS_PROPERTY, 30_000L);
+                    // Запасной вариант для запусков без CleanupListener; заглушка к этому моменту может быть уже остановлена
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        if (!ApiClient.isStubTarget() && registry.hasPending()) {
+                            System.out.println(registry.flush(timeoutMs));
+                        }
+                    }, "cleanup-shutdown"));
+                    shared = registry;
+                }
+            }
+        }
+        return shared;
+    }
+
+    // Пользователь с известным токеном доступа удаляется в фоне
+    public void deleteLater(String accessToken) {
+        if (accessToken != null) {
+            submit(new Resource("пользователь с токеном " + abbreviate(accessToken), accessToken, null));
+        }
+    }
+
+    // Пользователь, токен которого тест не сохранил: перед удалением выполняется вход
+    public void deleteLater(User user) {
+        if (user != null && user.getEmail() != null) {
+            submit(new Resource("пользователь " + user.getEmail(), null,
+                    new User(user.getEmail(), user.getPassword(), user.getName())));
+        }
+    }
+
+    public void trackOrder(Integer number) {
+        if (number != null) {
+            orders.incrementAndGet();
+        }
+    }
+
+    public boolean hasPending() {
+        return !unfinished.isEmpty();
+    }
+
+    // Дожидается удаления всего, что поставлено в очередь; не удалённое за timeoutMs попадает в утечки
+    public Report flush(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!unfinished.isEmpty() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Resource resource : new ArrayList<>(unfinished)) {
+            if (unfinished.remove(resource)) {
+                leaks.add(resource.description + ": не удалён за " + timeoutMs + " мс");
+            }
+        }
+        return new Report(deleted.get(), absent.get(), skipped.get(), orders.get(), new ArrayList<>(leaks));
+    }
+
+    private void submit(Resource resource) {
+        unfinished.add(resource);
+        queue.offer(resource);
+    }
+
+    private void dispatch() {
+        List<Resource> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Resource resource : batch) {
+                    permits.acquire();
+                    delete(resource).whenComplete((outcome, error) -> {
+                        permits.release();
+                        finish(resource, error != null ? "ошибка " + error : outcome);
+                    });
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Завершается null при успешном удалении или текстом причины, по которой пользователь остался на сервере
+    private CompletableFuture<String> delete(Resource resource) {
+        // При воспроизведении кассет пользователей на сервере нет
+        if (CassetteSession.shared().isReplaying()) {
+            skipped.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            if (resource.accessToken != null) {
+                return userClient.deleteUserAsync(resource.accessToken).thenApply(this::deletionOutcome);
+            }
+            return userClient.loginUserAsync(resource.user).thenCompose(login -> {
+                if (login.getStatusCode() == 401) {
+                    // Регистрация не состоялась: удалять некого
+                    absent.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (login.getStatusCode() != 200) {
+                    return CompletableFuture.completedFuture("вход перед удалением вернул " + login.getStatusCode());
+                }
+                String token = login.getRawAccessToken();
+                return userClient.deleteUserAsync(token).thenApply(this::deletionOutcome);
+            });
+        } catch (RuntimeException | AssertionError e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private String deletionOutcome(ApiResponse response) {
+        if (response.getStatusCode() / 100 == 2) {
+            deleted.incrementAndGet();
+            return null;
+        }
+        return "удаление вернуло " + response.getStatusCode();
+    }
+
+    private void finish(Resource resource, String failure) {
+        if (unfinished.remove(resource) && failure != null) {
+            leaks.add(resource.description + ": " + failure);
+        }
+    }
+
+    private static String abbreviate(String token) {
+        return token.length() <= 12 ? token : token.substring(0, 12) + "…";
+    }
+
+    private static final class Resource {
+        final String description;
+        final String accessToken;
+        final User user;
+
+        Resource(String description, String accessToken, User user) {
+            this.description = description;
+            this.accessToken = accessToken;
+            this.user = user;
+        }
+    }
+
+    public static class Report {
+        private final long deleted;
+        private final long absent;
+        private final long skipped;
+        private final long orders;
+        private final List<String> leaks;
+
+        Report(long deleted, long absent, long skipped, long orders, List<String> leaks) {
+            this.deleted = deleted;
+            this.absent = absent;
+            this.skipped = skipped;
+            this.orders = orders;
+            this.leaks = leaks;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+
+        public long getAbsent() {
+            return absent;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public List<String> getLeaks() {
+            return leaks;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format(
+                    "Очистка: удалено пользователей %d, не были зарегистрированы %d, пропущено при воспроизведении %d, "
+                            + "создано заказов %d (API не удаляет заказы), осталось на сервере %d",
+                    deleted, absent, skipped, orders, leaks.size()));
+            for (String leak : leaks) {
+                report.append("\n  ").append(leak);
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package fixture;
+
+import model.Ingredient;
+import model.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Воспроизводимые тестовые данные: пользователь и тело заказа под номером sequence — чистая функция
+ * от (seed, sequence), поэтому упавший тест воспроизводится запуском с тем же -Ddata.seed. Email содержит
+ * метку сида и номер в base36 ({@code name.tag-seq@gmail.com}), так что внутри одного сида совпадения
+ * исключены построением, а не проверкой. Номера выдаются атомарным счётчиком, генератор можно вызывать
+ * из любого числа потоков. Символы берутся из SplitMix64 без {@link java.util.Random} и промежуточных массивов.
+ */
+public class DataGenerator {
+    public static final String SEED_PROPERTY = "data.seed";
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String DOMAIN = "@gmail.com";
+    private static final int MIN_NAME_LENGTH = 3;
+    private static final int MAX_NAME_LENGTH = 12;
+    private static final int PASSWORD_LENGTH = 12;
+
+    private static volatile DataGenerator shared;
+
+    private final long seed;
+    private final String tag;
+    private final Supplier<IngredientCatalog> catalog;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public DataGenerator(long seed) {
+        this(seed, IngredientCatalog::shared);
+    }
+
+    // Каталог нужен только для заказов и запрашивается при первом заказе
+    public DataGenerator(long seed, Supplier<IngredientCatalog> catalog) {
+        this.seed = seed;
+        this.tag = Long.toString(mix(seed) >>> 24, 36);
+        this.catalog = catalog;
+    }
+
+    public static DataGenerator shared() {
+        if (shared == null) {
+            synchronized (DataGenerator.class) {
+                if (shared == null) {
+                    String configured = System.getProperty(SEED_PROPERTY);
+                    long seed = configured != null ? Long.parseLong(configured.trim()) : new SecureRandom().nextLong();
+                    System.out.println("Генератор тестовых данных: seed " + seed + ", воспроизведение: -D"
+                            + SEED_PROPERTY + "=" + seed);
+                    shared = new DataGenerator(seed);
+                }
+            }
+        }
+        return shared;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    public User nextUser() {
+        return user(nextSequence());
+    }
+
+    public User user(long sequence) {
+        StringBuilder buffer = new StringBuilder(64);
+        long state = start(sequence);
+        int nameLength = MIN_NAME_LENGTH + (int) Long.remainderUnsigned(mix(state), MAX_NAME_LENGTH - MIN_NAME_LENGTH + 1);
+        appendName(buffer, state, nameLength);
+        String name = buffer.toString();
+        buffer.setLength(0);
+        appendEmail(buffer, state, nameLength, sequence);
+        String email = buffer.toString();
+        buffer.setLength(0);
+        appendPassword(buffer, state);
+        return new User(email, buffer.toString(), name);
+    }
+
+    // То же, что Gson.toJson(user(sequence)), без модели и сериализатора
+    public String userJson(long sequence) {
+        StringBuilder json = new StringBuilder(96);
+        appendUserJson(json, sequence);
+        return json.toString();
+    }
+
+    public void appendUserJson(StringBuilder json, long sequence) {
+        long state = start(sequence);
+        int nameLength = MIN_NAME_LENGTH + (int) Long.remainderUnsigned(mix(state), MAX_NAME_LENGTH - MIN_NAME_LENGTH + 1);
+        json.append("{\"email\":\"");
+        appendEmail(json, state, nameLength, sequence);
+        json.append("\",\"password\":\"");
+        appendPassword(json, state);
+        json.append("\",\"name\":\"");
+        appendName(json, state, nameLength);
+        json.append("\"}");
+    }
+
+    // Бургер под номером sequence: одна булка, до двух соусов и от одной до трёх начинок
+    public String orderJson(long sequence) {
+        IngredientCatalog ingredients = catalog.get();
+        long state = start(sequence) ^ 0x5DEECE66DL;
+        long shape = mix(state);
+        int sauces = (int) Long.remainderUnsigned(shape, 3);
+        int mains = 1 + (int) Long.remainderUnsigned(shape >>> 8, 3);
+        StringBuilder json = new StringBuilder(20 + (1 + sauces + mains) * 27).append("{\"ingredients\": [");
+        state = appendIds(json, ingredients.getBuns(), 1, state, false);
+        state = appendIds(json, ingredients.getSauces(), sauces, state, true);
+        appendIds(json, ingredients.getMains(), mains, state, true);
+        return json.append("]}").toString();
+    }
+
+    // Пакетный режим: тела регистрации пользователей from..from+count-1, заранее сериализованные в байты
+    public byte[][] preSerializeUsers(long from, int count) {
+        byte[][] payloads = new byte[count][];
+        IntStream.range(0, count).parallel().forEach(i -> payloads[i] = ascii(userJson(from + i)));
+        return payloads;
+    }
+
+    public byte[][] preSerializeOrders(long from, int count) {
+        byte[][] payloads = new byte[count][];
+        IntStream.range(0, count).parallel().forEach(i -> payloads[i] = ascii(orderJson(from + i)));
+        return payloads;
+    }
+
+    // Потоковая запись пользователей в формате JSON Lines с одним переиспользуемым буфером
+    public void writeUsers(OutputStream out, long from, long count) throws IOException {
+        StringBuilder json = new StringBuilder(128);
+        byte[] bytes = new byte[128];
+        for (long sequence = from; sequence < from + count; sequence++) {
+            json.setLength(0);
+            appendUserJson(json, sequence);
+            json.append('\n');
+            if (bytes.length < json.length()) {
+                bytes = new byte[json.length() * 2];
+            }
+            for (int i = 0; i < json.length(); i++) {
+                bytes[i] = (byte) json.charAt(i);
+            }
+            out.write(bytes, 0, json.length());
+        }
+    }
+
+    private long start(long sequence) {
+        return mix(seed ^ mix(sequence * GOLDEN_GAMMA + GOLDEN_GAMMA));
+    }
+
+    private static void appendName(StringBuilder out, long state, int length) {
+        state += GOLDEN_GAMMA;
+        for (int i = 0; i < length; i++) {
+            state += GOLDEN_GAMMA;
+            char letter = LETTERS.charAt((int) Long.remainderUnsigned(mix(state), LETTERS.length()));
+            out.append(i == 0 ? Character.toUpperCase(letter) : letter);
+        }
+    }
+
+    // Имя в нижнем регистре, затем метка сида и номер: уникальность обеспечивает суффикс после последней точки
+    private void appendEmail(StringBuilder out, long state, int nameLength, long sequence) {
+        int start = out.length();
+        appendName(out, state, nameLength);
+        out.setCharAt(start, Character.toLowerCase(out.charAt(start)));
+        out.append('.').append(tag).append('-').append(Long.toString(sequence, 36)).append(DOMAIN);
+    }
+
+    private static void appendPassword(StringBuilder out, long state) {
+        state ^= 0xC2B2AE3D27D4EB4FL;
+        for (int i = 0; i < PASSWORD_LENGTH; i++) {
+            state += GOLDEN_GAMMA;
+            out.append(ALPHANUMERIC.charAt((int) Long.remainderUnsigned(mix(state), ALPHANUMERIC.length())));
+        }
+    }
+
+    private static long appendIds(StringBuilder json, List<Ingredient> from, int count, long state, boolean separate) {
+        if (count > 0 && from.isEmpty()) {
+            throw new IllegalStateException("В каталоге нет ингредиентов нужного типа");
+        }
+        for (int i = 0; i < count; i++) {
+            state += GOLDEN_GAMMA;
+            if (separate || i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(from.get((int) Long.remainderUnsigned(mix(state), from.size())).getId()).append('"');
+        }
+        return state;
+    }
+
+    private static byte[] ascii(String json) {
+        byte[] bytes = new byte[json.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) json.charAt(i);
+        }
+        return bytes;
+    }
+
+    // Финализатор SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,206 @@
+package fixture;
+
+import cassette.CassetteSession;
+import client.ApiClient;
+import client.AsyncResponse;
+import client.IngredientClient;
+import io.restassured.response.Response;
+import model.Ingredient;
+import model.IngredientsResponse;
+import model.ResponseReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Каталог ингредиентов. Список запрашивается у API один раз и хранится в памяти и в файле на диске
+ * с ограниченным сроком жизни, поэтому тестам и нагрузочным прогонам не нужно заново узнавать ингредиенты.
+ * Кэш с диска и ответ API проверяются перед использованием: испорченный или устаревший файл
+ * заменяется свежим ответом.
+ */
+public class IngredientCatalog {
+    public static final String CACHE_FILE_PROPERTY = "ingredients.cache.file";
+    public static final String TTL_MS_PROPERTY = "ingredients.cache.ttlMs";
+
+    private static final Pattern OBJECT_ID = Pattern.compile("[0-9a-f]{24}");
+    private static final List<String> TYPES = List.of(Ingredient.BUN, Ingredient.SAUCE, Ingredient.MAIN);
+
+    private static volatile IngredientCatalog shared;
+
+    private final IngredientClient ingredientClient = new IngredientClient();
+    private final Path cacheFile;
+    private final long ttlMs;
+    private volatile Snapshot snapshot;
+
+    public IngredientCatalog(Path cacheFile, long ttlMs) {
+        this.cacheFile = cacheFile;
+        this.ttlMs = ttlMs;
+    }
+
+    public static IngredientCatalog shared() {
+        if (shared == null) {
+            synchronized (IngredientCatalog.class) {
+                if (shared == null) {
+                    // Заглушка и реальный сервис кэшируются в разные файлы
+                    String target = ApiClient.isStubTarget() ? ApiClient.STUB_TARGET : ApiClient.REMOTE_TARGET;
+                    shared = new IngredientCatalog(
+                            Paths.get(System.getProperty(CACHE_FILE_PROPERTY, "target/ingredients-" + target + ".json")),
+                            Long.getLong(TTL_MS_PROPERTY, 6 * 60 * 60 * 1000L));
+                }
+            }
+        }
+        return shared;
+    }
+
+    public List<Ingredient> getAll() {
+        return current().all;
+    }
+
+    public List<Ingredient> getBuns() {
+        return byType(Ingredient.BUN);
+    }
+
+    public List<Ingredient> getSauces() {
+        return byType(Ingredient.SAUCE);
+    }
+
+    public List<Ingredient> getMains() {
+        return byType(Ingredient.MAIN);
+    }
+
+    public List<Ingredient> byType(String type) {
+        return current().byType.getOrDefault(type, Collections.emptyList());
+    }
+
+    public boolean contains(String id) {
+        return current().ids.contains(id);
+    }
+
+    // Сбрасывает кэш в памяти и на диске и запрашивает список заново
+    public synchronized void refresh() {
+        snapshot = fetch();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMs)) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null || snapshot.isExpired(ttlMs)) {
+                // При записи кассет список запрашивается у API, чтобы его можно было воспроизвести без кэша на диске
+                Snapshot cached = CassetteSession.shared().isRecording() ? null : readCache();
+                snapshot = cached != null ? cached : fetch();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot readCache() {
+        try {
+            if (!Files.isRegularFile(cacheFile)) {
+                return null;
+            }
+            long loadedAt = Files.getLastModifiedTime(cacheFile).toMillis();
+            if (System.currentTimeMillis() - loadedAt > ttlMs) {
+                return null;
+            }
+            IngredientsResponse cached = ResponseReader.read(200, Files.readAllBytes(cacheFile), IngredientsResponse.class);
+            return validate(cached) == null ? new Snapshot(cached.getData(), loadedAt) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Snapshot fetch() {
+        int statusCode;
+        byte[] body;
+        // Тело нужно целиком для файлового кэша, поэтому ответ читается без типизированных методов клиента
+        if (ApiClient.isLightTransport()) {
+            AsyncResponse response = ingredientClient.getIngredientsLight();
+            statusCode = response.statusCode();
+            body = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+        } else {
+            Response response = ingredientClient.getIngredients();
+            statusCode = response.statusCode();
+            body = response.asByteArray();
+        }
+        IngredientsResponse ingredients = ResponseReader.read(statusCode, body, IngredientsResponse.class);
+        String problem = validate(ingredients);
+        if (problem != null) {
+            throw new IllegalStateException("Некорректный список ингредиентов: " + problem);
+        }
+        writeCache(body);
+        return new Snapshot(ingredients.getData(), System.currentTimeMillis());
+    }
+
+    private void writeCache(byte[] body) {
+        try {
+            Path directory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "ingredients", ".tmp");
+            Files.write(temporary, body);
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Не удалось сохранить кэш ингредиентов: " + e.getMessage());
+        }
+    }
+
+    // Возвращает описание проблемы или null, если список пригоден для сборки заказов
+    static String validate(IngredientsResponse response) {
+        if (response.getStatusCode() != 200 || !response.isSuccess()) {
+            return "код ответа " + response.getStatusCode() + ", success=" + response.isSuccess();
+        }
+        if (response.getData() == null || response.getData().isEmpty()) {
+            return "пустой список";
+        }
+        Set<String> ids = new HashSet<>();
+        for (Ingredient ingredient : response.getData()) {
+            if (ingredient.getId() == null || !OBJECT_ID.matcher(ingredient.getId()).matches()) {
+                return "неверный идентификатор " + ingredient.getId();
+            }
+            if (!ids.add(ingredient.getId())) {
+                return "повторяющийся идентификатор " + ingredient.getId();
+            }
+            if (!TYPES.contains(ingredient.getType())) {
+                return "неизвестный тип " + ingredient.getType() + " у " + ingredient.getId();
+            }
+        }
+        boolean hasBun = response.getData().stream().anyMatch(ingredient -> Ingredient.BUN.equals(ingredient.getType()));
+        boolean hasFilling = response.getData().stream().anyMatch(ingredient -> !Ingredient.BUN.equals(ingredient.getType()));
+        return hasBun && hasFilling ? null : "нет булок или начинок";
+    }
+
+    private static class Snapshot {
+        final List<Ingredient> all;
+        final Map<String, List<Ingredient>> byType = new LinkedHashMap<>();
+        final Set<String> ids = new HashSet<>();
+        final long loadedAt;
+
+        Snapshot(List<Ingredient> ingredients, long loadedAt) {
+            this.all = Collections.unmodifiableList(new ArrayList<>(ingredients));
+            this.loadedAt = loadedAt;
+            for (Ingredient ingredient : ingredients) {
+                byType.computeIfAbsent(ingredient.getType(), type -> new ArrayList<>()).add(ingredient);
+                ids.add(ingredient.getId());
+            }
+            byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+        }
+
+        boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - loadedAt > ttlMs;
+        }
+    }
+}
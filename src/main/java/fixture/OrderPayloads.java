@@ -0,0 +1,120 @@
+package fixture;
+
+import model.Ingredient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Тела запросов на создание заказа, собранные из {@link IngredientCatalog}: корректные бургеры с разным
+ * числом булок, соусов и начинок, большие заказы, а также заведомо неверные и пограничные варианты.
+ * Тело собирается строкой без сериализатора, поэтому генератор можно вызывать на каждый запрос нагрузки.
+ */
+public class OrderPayloads {
+    private static final String HEX = "0123456789abcdef";
+
+    private final IngredientCatalog catalog;
+
+    public OrderPayloads() {
+        this(IngredientCatalog.shared());
+    }
+
+    public OrderPayloads(IngredientCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // Случайный бургер: одна булка, до двух соусов и от одной до трёх начинок
+    public String burger() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return of(1, random.nextInt(3), 1 + random.nextInt(3));
+    }
+
+    public String of(int buns, int sauces, int mains) {
+        List<String> ids = new ArrayList<>(buns + sauces + mains);
+        pick(catalog.getBuns(), buns, ids);
+        pick(catalog.getSauces(), sauces, ids);
+        pick(catalog.getMains(), mains, ids);
+        return toJson(ids);
+    }
+
+    // Заказ из size случайных ингредиентов каталога, с повторами
+    public String large(int size) {
+        List<String> ids = new ArrayList<>(size);
+        pick(catalog.getAll(), size, ids);
+        return toJson(ids);
+    }
+
+    public String empty() {
+        return toJson(Collections.emptyList());
+    }
+
+    public String withoutIngredients() {
+        return "{}";
+    }
+
+    // Идентификаторы не в формате ObjectId: сервис отвечает 500
+    public String malformedIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add("somerandomletters" + i);
+        }
+        return toJson(ids);
+    }
+
+    // Идентификаторы в формате ObjectId, которых нет в каталоге: сервис отвечает 400
+    public String unknownIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            String id = randomObjectId();
+            if (!catalog.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return toJson(ids);
+    }
+
+    // Корректный бургер, к которому добавлен один неизвестный идентификатор
+    public String withOneUnknownId() {
+        List<String> ids = new ArrayList<>();
+        pick(catalog.getBuns(), 1, ids);
+        pick(catalog.getMains(), 1, ids);
+        String unknown;
+        do {
+            unknown = randomObjectId();
+        } while (catalog.contains(unknown));
+        ids.add(ThreadLocalRandom.current().nextInt(ids.size() + 1), unknown);
+        return toJson(ids);
+    }
+
+    public static String toJson(List<String> ids) {
+        StringBuilder json = new StringBuilder(20 + ids.size() * 27).append("{\"ingredients\": [");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(ids.get(i)).append('"');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void pick(List<Ingredient> from, int count, List<String> into) {
+        if (count > 0 && from.isEmpty()) {
+            throw new IllegalStateException("В каталоге нет ингредиентов нужного типа");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            into.add(from.get(random.nextInt(from.size())).getId());
+        }
+    }
+
+    private static String randomObjectId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] id = new char[24];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = HEX.charAt(random.nextInt(HEX.length()));
+        }
+        return new String(id);
+    }
+}
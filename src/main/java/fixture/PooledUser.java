@@ -0,0 +1,59 @@
+package fixture;
+
+import client.UserSession;
+import model.User;
+
+/**
+ * Пользователь, выданный тесту из {@link UserPool} в монопольное пользование.
+ * Тест получает собственную копию {@link User}, которую может свободно менять;
+ * исходные данные пул хранит отдельно, чтобы вернуть их на сервер при возврате пользователя.
+ */
+public class PooledUser {
+    private final User original;
+    private final UserSession session;
+    private volatile User user;
+    private volatile boolean modified;
+
+    PooledUser(User original, UserSession session) {
+        this.original = copy(original);
+        this.user = copy(original);
+        this.session = session;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    // Действующий токен без префикса "Bearer ", его обновлением занимается TokenManager
+    public String getAccessToken() {
+        return session.getAccessToken();
+    }
+
+    // Сессия для методов клиентов, которые сами обновляют отвергнутый сервером токен
+    public UserSession getSession() {
+        return session;
+    }
+
+    // Отмечает, что тест изменил данные пользователя на сервере и при возврате их нужно восстановить
+    public void markModified() {
+        modified = true;
+    }
+
+    User getOriginal() {
+        return original;
+    }
+
+    boolean isModified() {
+        return modified;
+    }
+
+
+    void reset() {
+        user = copy(original);
+        modified = false;
+    }
+
+    private static User copy(User user) {
+        return new User(user.getEmail(), user.getPassword(), user.getName());
+    }
+}
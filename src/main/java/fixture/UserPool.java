@@ -0,0 +1,254 @@
+package fixture;
+
+import cassette.CassetteSession;
+import client.ApiClient;
+import client.TokenManager;
+import client.UserClient;
+import client.UserSession;
+import model.AuthResponse;
+import model.ErrorResponse;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул заранее зарегистрированных пользователей. Пользователи регистрируются пачками в фоне,
+ * выдаются тестам по одному в монопольное пользование и возвращаются в пул после теста,
+ * поэтому тесту, которому нужен просто «какой-то валидный пользователь», не приходится ждать
+ * регистрации и удаления. Все пользователи пула удаляются одной асинхронной пачкой при завершении JVM.
+ */
+public class UserPool {
+    public static final String SIZE_PROPERTY = "user.pool.size";
+    public static final String THREADS_PROPERTY = "user.pool.threads";
+    public static final String SHUTDOWN_TIMEOUT_MS_PROPERTY = "user.pool.shutdownTimeoutMs";
+
+    private static volatile UserPool shared;
+
+    private final UserClient userClient = new UserClient();
+    private final TokenManager tokenManager;
+    private final int size;
+    private final ExecutorService provisioner;
+    private final ConcurrentLinkedQueue<PooledUser> ready = new ConcurrentLinkedQueue<>();
+    private final Set<PooledUser> provisioned = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong provisionCount = new AtomicLong();
+    private final AtomicLong provisionNanos = new AtomicLong();
+    private final AtomicLong maxProvisionNanos = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    public UserPool(int size, int threads, TokenManager tokenManager) {
+        this.size = size;
+        this.tokenManager = tokenManager;
+        this.provisioner = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-pool-provisioner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        topUp();
+    }
+
+    public static UserPool shared() {
+        if (shared == null) {
+            synchronized (UserPool.class) {
+                if (shared == null) {
+                    UserPool pool = new UserPool(
+                            Integer.getInteger(SIZE_PROPERTY, 16),
+                            Integer.getInteger(THREADS_PROPERTY, 8),
+                            TokenManager.shared());
+                    long timeoutMs = Long.getLong(SHUTDOWN_TIMEOUT_MS_PROPERTY, 30_000L);
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        // Заглушка хранит пользователей в памяти и останавливается своим shutdown hook,
+                        // а при воспроизведении кассет пользователей на сервере нет
+                        if (!ApiClient.isStubTarget() && !CassetteSession.shared().isReplaying()) {
+                            pool.deleteAll(timeoutMs);
+                        }
+                        System.out.println(pool.getStats());
+                        System.out.println(TokenManager.shared().getStats());
+                    }, "user-pool-shutdown"));
+                    shared = pool;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public PooledUser acquire() {
+        PooledUser pooledUser = ready.poll();
+        if (pooledUser != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            pooledUser = provision();
+        }
+        topUp();
+        return pooledUser;
+    }
+
+    public void release(PooledUser pooledUser) {
+        if (pooledUser == null) {
+            return;
+        }
+        if (pooledUser.isModified() && !restore(pooledUser)) {
+            discard(pooledUser);
+            return;
+        }
+        pooledUser.reset();
+        ready.offer(pooledUser);
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), provisionCount.get(), provisionNanos.get(),
+                maxProvisionNanos.get(), discarded.get(), ready.size());
+    }
+
+    public void deleteAll(long timeoutMs) {
+        provisioner.shutdownNow();
+        List<CompletableFuture<ErrorResponse>> deletions = new ArrayList<>();
+        for (PooledUser pooledUser : new ArrayList<>(provisioned)) {
+            if (provisioned.remove(pooledUser)) {
+                deletions.add(deleteAsync(pooledUser));
+            }
+        }
+        try {
+            CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0])).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Не все пользователи пула удалены: " + e.getMessage());
+        }
+        ready.clear();
+    }
+
+    private void topUp() {
+        while (ready.size() + pending.get() < size) {
+            pending.incrementAndGet();
+            provisioner.execute(() -> {
+                try {
+                    ready.offer(provision());
+                } catch (RuntimeException e) {
+                    System.err.println("Не удалось зарегистрировать пользователя для пула: " + e.getMessage());
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private PooledUser provision() {
+        User user = User.generateUser();
+        long start = System.nanoTime();
+        AuthResponse response = userClient.createNewUserTyped(user);
+        long elapsed = System.nanoTime() - start;
+        UserSession session = tokenManager.track(user, response);
+        if (session == null) {
+            throw new IllegalStateException("Регистрация пользователя вернула " + response.getStatusCode() + ": "
+                    + response.getMessage());
+        }
+        provisionCount.incrementAndGet();
+        provisionNanos.addAndGet(elapsed);
+        maxProvisionNanos.accumulateAndGet(elapsed, Math::max);
+
+        PooledUser pooledUser = new PooledUser(user, session);
+        provisioned.add(pooledUser);
+        return pooledUser;
+    }
+
+    private boolean restore(PooledUser pooledUser) {
+        return userClient.changeUserDataWithTokenTyped(pooledUser.getAccessToken(), pooledUser.getOriginal()).getStatusCode() == 200;
+    }
+
+    private CompletableFuture<ErrorResponse> deleteAsync(PooledUser pooledUser) {
+        tokenManager.forget(pooledUser.getSession());
+        return userClient.deleteUserAsync(pooledUser.getAccessToken());
+    }
+
+    private void discard(PooledUser pooledUser) {
+        discarded.incrementAndGet();
+        delete(pooledUser);
+    }
+
+    private void delete(PooledUser pooledUser) {
+        if (!provisioned.remove(pooledUser)) {
+            return;
+        }
+        tokenManager.forget(pooledUser.getSession());
+        CleanupRegistry.shared().deleteLater(pooledUser.getAccessToken());
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long provisioned;
+        private final long provisionNanos;
+        private final long maxProvisionNanos;
+        private final long discarded;
+        private final int ready;
+
+        Stats(long hits, long misses, long provisioned, long provisionNanos, long maxProvisionNanos,
+              long discarded, int ready) {
+            this.hits = hits;
+            this.misses = misses;
+            this.provisioned = provisioned;
+            this.provisionNanos = provisionNanos;
+            this.maxProvisionNanos = maxProvisionNanos;
+            this.discarded = discarded;
+            this.ready = ready;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public long getProvisioned() {
+            return provisioned;
+        }
+
+        public double getAverageProvisionMillis() {
+            return provisioned == 0 ? 0 : provisionNanos / 1_000_000.0 / provisioned;
+        }
+
+        public double getMaxProvisionMillis() {
+            return maxProvisionNanos / 1_000_000.0;
+        }
+
+        public long getDiscarded() {
+            return discarded;
+        }
+
+        public int getReady() {
+            return ready;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Пул пользователей: выдано из пула %d, зарегистрировано по запросу %d (hit rate %.1f%%), "
+                            + "всего зарегистрировано %d, регистрация в среднем %.1f мс, максимум %.1f мс, "
+                            + "отброшено %d, готово %d",
+                    hits, misses, getHitRate() * 100, provisioned, getAverageProvisionMillis(),
+                    getMaxProvisionMillis(), discarded, ready);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package load;
+
+import client.IngredientClient;
+import client.OrderClient;
+import client.UserClient;
+import fixture.DataGenerator;
+import io.restassured.response.Response;
+import model.AuthResponse;
+import model.ResponseReader;
+import model.User;
+
+import java.util.List;
+
+/**
+ * Типовые пути пользователей сервиса, собранные из методов клиентов. Пользователи и тела заказов
+ * берутся из {@link DataGenerator}, созданный пользователь удаляется завершающим шагом при любом исходе.
+ */
+public final class Journeys {
+    private static final UserClient USER_CLIENT = new UserClient();
+    private static final OrderClient ORDER_CLIENT = new OrderClient();
+    private static final IngredientClient INGREDIENT_CLIENT = new IngredientClient();
+
+    private Journeys() {
+    }
+
+    // Смесь, близкая к реальному трафику: покупатели, вернувшиеся пользователи и гости в пропорции 3:1:2
+    public static List<Scenario> mixed() {
+        return List.of(buyer(), returningUser(), guest());
+    }
+
+    // Регистрация, вход, изменение профиля, несколько заказов, список заказов
+    public static Scenario buyer() {
+        DataGenerator data = DataGenerator.shared();
+        return Scenario.named("Покупатель").weight(3)
+                .feed("user", data::nextUser)
+                .step("Регистрация", session -> USER_CLIENT.createNewUser(session.get("user")))
+                .save(Journeys::saveTokens)
+                .thinkTime(100, 500)
+                .step("Вход", session -> USER_CLIENT.loginUser(session.get("user")))
+                .save(Journeys::saveTokens)
+                .thinkTime(100, 500)
+                .step("Изменение профиля", session -> {
+                    User user = session.get("user");
+                    user.setName(user.getName() + "Soak");
+                    return USER_CLIENT.changeUserDataWithToken(session.getAccessToken(), user);
+                })
+                .thinkTime(200, 1000)
+                .step("Создание заказа", session -> ORDER_CLIENT.createOrderWithToken(session.getAccessToken(),
+                        data.orderJson(data.nextSequence())))
+                .repeat(1, 3)
+                .thinkTime(200, 1000)
+                .step("Список заказов", session -> ORDER_CLIENT.getUserOrdersListWithToken(session.getAccessToken()))
+                .finallyStep("Удаление пользователя", Journeys::deleteUser)
+                .expectStatus(202);
+    }
+
+    // Регистрация, повторный вход и обновление токена доступа
+    public static Scenario returningUser() {
+        return Scenario.named("Вернувшийся пользователь").weight(1)
+                .feed("user", DataGenerator.shared()::nextUser)
+                .step("Регистрация", session -> USER_CLIENT.createNewUser(session.get("user")))
+                .save(Journeys::saveTokens)
+                .thinkTime(500, 2000)
+                .step("Вход", session -> USER_CLIENT.loginUser(session.get("user")))
+                .save(Journeys::saveTokens)
+                .repeat(1, 2)
+                .thinkTime(500, 2000)
+                .step("Обновление токена", session -> USER_CLIENT.refreshToken(session.get("refreshToken")))
+                .save(Journeys::saveTokens)
+                .step("Список заказов", session -> ORDER_CLIENT.getUserOrdersListWithToken(session.getAccessToken()))
+                .finallyStep("Удаление пользователя", Journeys::deleteUser)
+                .expectStatus(202);
+    }
+
+    // Просмотр каталога без входа: список заказов без токена должен быть недоступен
+    public static Scenario guest() {
+        return Scenario.named("Гость").weight(2)
+                .step("Каталог ингредиентов", session -> INGREDIENT_CLIENT.getIngredients())
+                .thinkTime(500, 3000)
+                .step("Список заказов без входа", session -> ORDER_CLIENT.getUserOrdersListWithoutToken())
+                .expectStatus(401);
+    }
+
+    private static void saveTokens(ScenarioSession session, Response response) {
+        AuthResponse auth = ResponseReader.read(response.statusCode(), response.asByteArray(), AuthResponse.class);
+        session.setAccessToken(auth.getRawAccessToken());
+        session.put("refreshToken", auth.getRefreshToken());
+    }
+
+    private static Response deleteUser(ScenarioSession session) {
+        // Регистрация не прошла, удалять некого
+        return session.getAccessToken() == null ? null : USER_CLIENT.deleteUser(session.getAccessToken());
+    }
+}
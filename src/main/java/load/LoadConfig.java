@@ -0,0 +1,81 @@
+package load;
+
+/**
+ * Параметры нагрузочного прогона. Значения по умолчанию читаются из системных свойств load.*.
+ */
+public class LoadConfig {
+    public enum Model {
+        // Фиксированное число виртуальных пользователей, каждый шлёт следующий запрос после ответа на предыдущий
+        CLOSED,
+        // Запросы поступают с заданной частотой независимо от того, успевает ли сервер отвечать
+        OPEN
+    }
+
+    private Model model = Model.valueOf(System.getProperty("load.model", "closed").toUpperCase());
+    private long durationSeconds = Long.getLong("load.duration", 30L);
+    private int concurrency = Integer.getInteger("load.concurrency", 16);
+    private double ratePerSecond = Double.parseDouble(System.getProperty("load.rate", "50"));
+    private double loginShare = Double.parseDouble(System.getProperty("load.loginShare", "0.2"));
+    // Если тело заказа не задано, на каждый запрос собирается случайный бургер из каталога ингредиентов
+    private String ingredients = System.getProperty("load.ingredients");
+
+    public Model getModel() {
+        return model;
+    }
+
+    public LoadConfig setModel(Model model) {
+        this.model = model;
+        return this;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public LoadConfig setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        return this;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public LoadConfig setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public LoadConfig setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+        return this;
+    }
+
+    public double getLoginShare() {
+        return loginShare;
+    }
+
+    public LoadConfig setLoginShare(double loginShare) {
+        this.loginShare = loginShare;
+        return this;
+    }
+
+    public String getIngredients() {
+        return ingredients;
+    }
+
+    public LoadConfig setIngredients(String ingredients) {
+        this.ingredients = ingredients;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "model=" + model + ", duration=" + durationSeconds + "s, concurrency=" + concurrency
+                + (model == Model.OPEN ? ", rate=" + ratePerSecond + "/s" : "") + ", loginShare=" + loginShare;
+    }
+}
@@ -0,0 +1,158 @@
+package load;
+
+import client.OrderClient;
+import client.UserClient;
+import fixture.DataGenerator;
+import fixture.IngredientCatalog;
+import fixture.PooledUser;
+import fixture.UserPool;
+import io.restassured.response.Response;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки поверх {@link OrderClient#createOrderWithToken} и {@link UserClient#loginUser}.
+ * Поддерживает закрытую модель (фиксированное число пользователей) и открытую модель (фиксированная частота
+ * поступления запросов). В открытой модели задержка отсчитывается от запланированного момента отправки,
+ * поэтому очередь перед перегруженным сервером попадает в перцентили.
+ * Запуск: mvn compile exec:java -Dexec.mainClass=load.LoadGenerator -Dload.model=open -Dload.rate=200 -Dload.duration=60
+ */
+public class LoadGenerator {
+    public static final String ORDERS_ENDPOINT = "POST orders";
+    public static final String LOGIN_ENDPOINT = "POST auth/login";
+
+    // Сколько после окончания прогона ждать ответов на уже отправленные запросы
+    static final long COMPLETION_GRACE_SECONDS = 30;
+
+    private final LoadConfig config;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final OrderClient orderClient = new OrderClient();
+    private final UserClient userClient = new UserClient();
+    private final DataGenerator data = DataGenerator.shared();
+
+    public LoadGenerator(LoadConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        LoadConfig config = new LoadConfig();
+        System.out.println("Нагрузочный прогон: " + config);
+        LoadGenerator generator = new LoadGenerator(config);
+        long elapsed = generator.run();
+        generator.getRecorder().report(System.out, elapsed);
+        System.exit(0);
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    // Возвращает фактическую длительность прогона в наносекундах
+    public long run() {
+        if (config.getIngredients() == null) {
+            // Каталог ингредиентов загружается до начала замеров
+            IngredientCatalog.shared().getAll();
+        }
+        List<PooledUser> users = new ArrayList<>();
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            users.add(UserPool.shared().acquire());
+        }
+        try {
+            return config.getModel() == LoadConfig.Model.OPEN ? runOpen(users) : runClosed(users);
+        } finally {
+            users.forEach(UserPool.shared()::release);
+        }
+    }
+
+    private long runClosed(List<PooledUser> users) {
+        ExecutorService workers = newWorkerExecutor(config.getConcurrency());
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        for (PooledUser user : users) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    execute(user, System.nanoTime());
+                }
+            });
+        }
+        awaitCompletion(workers, deadline);
+        return System.nanoTime() - start;
+    }
+
+    private long runOpen(List<PooledUser> users) {
+        ExecutorService workers = newWorkerExecutor(config.getConcurrency());
+        // При частоте выше 10^9 в секунду период округлился бы до нуля и цикл отправки не продвигался бы
+        long periodNanos = Math.max(1L, (long) (1_000_000_000L / config.getRatePerSecond()));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        AtomicInteger next = new AtomicInteger();
+        for (long intended = start; intended < deadline; intended += periodNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduledAt = intended;
+            PooledUser user = users.get(Math.floorMod(next.getAndIncrement(), users.size()));
+            workers.execute(() -> execute(user, scheduledAt));
+        }
+        awaitCompletion(workers, deadline);
+        return System.nanoTime() - start;
+    }
+
+    private void execute(PooledUser user, long scheduledAt) {
+        boolean login = ThreadLocalRandom.current().nextDouble() < config.getLoginShare();
+        String endpoint = login ? LOGIN_ENDPOINT : ORDERS_ENDPOINT;
+        boolean success;
+        try {
+            Response response = login
+                    ? userClient.loginUser(user.getUser())
+                    : orderClient.createOrderWithToken(user.getAccessToken(), orderBody());
+            success = response.statusCode() == 200;
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        recorder.record(endpoint, System.nanoTime() - scheduledAt, success);
+    }
+
+    private String orderBody() {
+        return config.getIngredients() != null ? config.getIngredients() : data.orderJson(data.nextSequence());
+    }
+
+    // Воркеры сами останавливаются на deadline, поэтому ожидание длится до него и ещё COMPLETION_GRACE_SECONDS;
+    // прерываются только запросы, не получившие ответа за это время
+    static void awaitCompletion(ExecutorService workers, long deadline) {
+        workers.shutdown();
+        try {
+            long timeout = deadline - System.nanoTime() + TimeUnit.SECONDS.toNanos(COMPLETION_GRACE_SECONDS);
+            if (!workers.awaitTermination(timeout, TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // На JDK 21+ каждый запрос выполняется в виртуальном потоке; на более старых JDK используется пул
+    // из concurrency платформенных потоков
+    static ExecutorService newWorkerExecutor(int concurrency) {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "load-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
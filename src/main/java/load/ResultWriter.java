@@ -0,0 +1,167 @@
+package load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потоковая запись результатов шагов сценария в CSV отдельным потоком. Очередь между виртуальными
+ * пользователями и диском ограничена, поэтому многочасовой прогон держит в памяти не больше
+ * {@code capacity} строк; если диск не успевает, строки отбрасываются и считаются, а не тормозят нагрузку.
+ * Файл сбрасывается на диск раз в секунду, так что при аварийном завершении теряется не больше секунды.
+ */
+public class ResultWriter implements AutoCloseable {
+    static final String HEADER = "timestamp_ms,scenario,step,iteration,status,latency_us,ok,message";
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Result END = new Result(0, "", "", 0, 0, 0, true, null);
+
+    private final Path file;
+    private final BlockingQueue<Result> queue;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile IOException failure;
+
+    public ResultWriter(Path file, int capacity) throws IOException {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        out.write(HEADER);
+        out.newLine();
+        this.writer = new Thread(() -> drain(out), "scenario-result-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void write(String scenario, String step, long iteration, int status, long latencyNanos, boolean ok,
+                      String message) {
+        Result result = new Result(System.currentTimeMillis(), scenario, step, iteration, status,
+                TimeUnit.NANOSECONDS.toMicros(latencyNanos), ok, message);
+        if (!queue.offer(result)) {
+            dropped.increment();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // Дописывает всё, что уже в очереди, и закрывает файл
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer.isAlive()) {
+                queue.put(END);
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain(BufferedWriter out) {
+        List<Result> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(128);
+        long lastFlush = System.nanoTime();
+        try (BufferedWriter target = out) {
+            while (true) {
+                Result first = queue.poll(FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, DRAIN_BATCH - 1);
+                }
+                for (Result result : batch) {
+                    if (result == END) {
+                        return;
+                    }
+                    line.setLength(0);
+                    result.appendTo(line);
+                    target.append(line).append('\n');
+                    written.increment();
+                }
+                batch.clear();
+                if (System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    target.flush();
+                    lastFlush = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Не удалось записать результаты сценариев в " + file + ": " + e.getMessage());
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Result {
+        final long timestampMillis;
+        final String scenario;
+        final String step;
+        final long iteration;
+        final int status;
+        final long latencyMicros;
+        final boolean ok;
+        final String message;
+
+        Result(long timestampMillis, String scenario, String step, long iteration, int status, long latencyMicros,
+               boolean ok, String message) {
+            this.timestampMillis = timestampMillis;
+            this.scenario = scenario;
+            this.step = step;
+            this.iteration = iteration;
+            this.status = status;
+            this.latencyMicros = latencyMicros;
+            this.ok = ok;
+            this.message = message;
+        }
+
+        void appendTo(StringBuilder line) {
+            line.append(timestampMillis).append(',');
+            appendQuoted(line, scenario).append(',');
+            appendQuoted(line, step).append(',');
+            line.append(iteration).append(',').append(status).append(',').append(latencyMicros).append(',').append(ok)
+                    .append(',');
+            if (message != null) {
+                appendQuoted(line, message);
+            }
+        }
+
+        private static StringBuilder appendQuoted(StringBuilder line, String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append("\"\"");
+                } else {
+                    line.append(c == '\n' || c == '\r' ? ' ' : c);
+                }
+            }
+            return line.append('"');
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package load;
+
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Пользовательский путь для {@link ScenarioRunner}: последовательность вызовов клиентов с проверками ответа,
+ * паузами на «размышление» и повторами, плюс завершающие шаги, которые выполняются всегда, даже после
+ * проваленной проверки (удаление созданного пользователя). Каждая итерация получает свою
+ * {@link ScenarioSession}, заполненную из источников данных {@link #feed}. Вес задаёт долю итераций
+ * этого пути в смешанной нагрузке.
+ * <pre>
+ * Scenario.named("Покупатель").weight(3)
+ *         .feed("user", DataGenerator.shared()::nextUser)
+ *         .step("Регистрация", session -&gt; userClient.createNewUser(session.get("user")))
+ *         .save((session, response) -&gt; session.setAccessToken(...))
+ *         .thinkTime(200, 800)
+ *         .step("Заказ", session -&gt; orderClient.createOrderWithToken(session.getAccessToken(), ...)).repeat(1, 3)
+ *         .finallyStep("Удаление", session -&gt; userClient.deleteUser(session.getAccessToken()));
+ * </pre>
+ */
+public class Scenario {
+    private final String name;
+    private final List<Step> steps = new ArrayList<>();
+    private final List<Step> finallySteps = new ArrayList<>();
+    private final Map<String, Supplier<?>> feeds = new LinkedHashMap<>();
+    private int weight = 1;
+    private Step last;
+
+    private Scenario(String name) {
+        this.name = name;
+    }
+
+    public static Scenario named(String name) {
+        return new Scenario(name);
+    }
+
+    public Scenario weight(int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Вес сценария должен быть положительным: " + weight);
+        }
+        this.weight = weight;
+        return this;
+    }
+
+    // Перед первым шагом в сессию кладётся следующее значение источника под именем key
+    public Scenario feed(String key, Supplier<?> feed) {
+        feeds.put(key, feed);
+        return this;
+    }
+
+    // Шаг по умолчанию ожидает ответ 200, другие ожидания задаются через expect. Действие, вернувшее null,
+    // считается пропущенным и в результаты не попадает
+    public Scenario step(String name, Function<ScenarioSession, Response> action) {
+        last = new Step(name, action);
+        steps.add(last);
+        return this;
+    }
+
+    // Завершающие шаги выполняются всегда, в том числе после проваленной проверки, и не прерывают друг друга
+    public Scenario finallyStep(String name, Function<ScenarioSession, Response> action) {
+        last = new Step(name, action);
+        finallySteps.add(last);
+        return this;
+    }
+
+    // Заменяет ожидание последнего добавленного шага
+    public Scenario expect(String description, Predicate<Response> check) {
+        lastStep().description = description;
+        lastStep().check = check;
+        return this;
+    }
+
+    public Scenario expectStatus(int statusCode) {
+        return expect("статус " + statusCode, response -> response.statusCode() == statusCode);
+    }
+
+    // Выполняется после успешной проверки последнего шага, например сохраняет токен в сессию
+    public Scenario save(BiConsumer<ScenarioSession, Response> extractor) {
+        lastStep().extractor = extractor;
+        return this;
+    }
+
+    // Пауза после последнего шага, равномерно распределённая в [minMillis, maxMillis]
+    public Scenario thinkTime(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Некорректная пауза " + minMillis + ".." + maxMillis + " мс");
+        }
+        lastStep().thinkMinMillis = minMillis;
+        lastStep().thinkMaxMillis = maxMillis;
+        return this;
+    }
+
+    // Последний шаг выполняется случайное число раз в [min, max]
+    public Scenario repeat(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Некорректное число повторов " + min + ".." + max);
+        }
+        lastStep().repeatMin = min;
+        lastStep().repeatMax = max;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    List<Step> getFinallySteps() {
+        return Collections.unmodifiableList(finallySteps);
+    }
+
+    ScenarioSession newSession(long iteration) {
+        ScenarioSession session = new ScenarioSession(this, iteration);
+        feeds.forEach((key, feed) -> session.put(key, feed.get()));
+        return session;
+    }
+
+    private Step lastStep() {
+        if (last == null) {
+            throw new IllegalStateException("В сценарии " + name + " ещё нет шагов");
+        }
+        return last;
+    }
+
+    static final class Step {
+        final String name;
+        final Function<ScenarioSession, Response> action;
+        String description = "статус 200";
+        Predicate<Response> check = response -> response.statusCode() == 200;
+        BiConsumer<ScenarioSession, Response> extractor;
+        long thinkMinMillis;
+        long thinkMaxMillis;
+        int repeatMin = 1;
+        int repeatMax = 1;
+
+        Step(String name, Function<ScenarioSession, Response> action) {
+            this.name = name;
+            this.action = action;
+        }
+    }
+}
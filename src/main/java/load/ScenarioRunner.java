@@ -0,0 +1,213 @@
+package load;
+
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Смешанная длительная нагрузка из сценариев {@link Scenario}: load.concurrency виртуальных пользователей
+ * в течение load.duration секунд выбирают сценарий случайно пропорционально весам и проходят его целиком.
+ * Задержка каждого шага попадает в {@link LatencyRecorder} с ключом «сценарий / шаг», каждый результат
+ * потоком пишется в CSV через {@link ResultWriter}, поэтому память не зависит от длительности прогона.
+ * Раз в load.reportInterval секунд в консоль выводится ход прогона.
+ * Запуск: mvn compile exec:java -Dexec.mainClass=load.ScenarioRunner -Dload.duration=14400 -Dload.concurrency=32
+ */
+public class ScenarioRunner {
+    public static final String RESULTS_FILE_PROPERTY = "load.results";
+    public static final String RESULTS_BUFFER_PROPERTY = "load.results.buffer";
+    public static final String REPORT_INTERVAL_PROPERTY = "load.reportInterval";
+
+    private final LoadConfig config;
+    private final List<Scenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicLong iterationSequence = new AtomicLong();
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder failedIterations = new LongAdder();
+    private volatile ResultWriter results;
+
+    public ScenarioRunner(LoadConfig config, List<Scenario> scenarios) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("Не задано ни одного сценария");
+        }
+        this.config = config;
+        this.scenarios = new ArrayList<>(scenarios);
+        this.cumulativeWeights = new int[scenarios.size()];
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += scenarios.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadConfig config = new LoadConfig();
+        List<Scenario> scenarios = Journeys.mixed();
+        System.out.println("Прогон сценариев: " + config + ", сценарии " + describe(scenarios));
+        ScenarioRunner runner = new ScenarioRunner(config, scenarios);
+        long elapsed = runner.run(Paths.get(System.getProperty(RESULTS_FILE_PROPERTY, "target/scenario-results.csv")));
+        runner.getRecorder().report(System.out, elapsed);
+        System.exit(0);
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    public long getIterations() {
+        return iterations.sum();
+    }
+
+    public long getFailedIterations() {
+        return failedIterations.sum();
+    }
+
+    // Возвращает фактическую длительность прогона в наносекундах
+    public long run(Path resultsFile) throws IOException {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scenario-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ResultWriter writer = new ResultWriter(resultsFile, Integer.getInteger(RESULTS_BUFFER_PROPERTY, 65_536))) {
+            results = writer;
+            long interval = Long.getLong(REPORT_INTERVAL_PROPERTY, 60L);
+            reporter.scheduleAtFixedRate(this::printProgress, interval, interval, TimeUnit.SECONDS);
+
+            ExecutorService workers = LoadGenerator.newWorkerExecutor(config.getConcurrency());
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+            for (int i = 0; i < config.getConcurrency(); i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        iterate(pickScenario(), iterationSequence.getAndIncrement(), deadline);
+                    }
+                });
+            }
+            LoadGenerator.awaitCompletion(workers, deadline);
+            long elapsed = System.nanoTime() - start;
+            printProgress();
+            return elapsed;
+        } finally {
+            reporter.shutdownNow();
+            results = null;
+        }
+    }
+
+    private Scenario pickScenario() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        throw new IllegalStateException("Вес вне диапазона: " + point);
+    }
+
+    // Сценарий, начатый до окончания прогона, проходится до конца, пропускаются только паузы
+    private void iterate(Scenario scenario, long iteration, long deadline) {
+        ScenarioSession session;
+        try {
+            session = scenario.newSession(iteration);
+        } catch (RuntimeException e) {
+            results.write(scenario.getName(), "источник данных", iteration, 0, 0, false, e.toString());
+            failedIterations.increment();
+            iterations.increment();
+            return;
+        }
+        boolean ok = true;
+        for (Scenario.Step step : scenario.getSteps()) {
+            int times = ThreadLocalRandom.current().nextInt(step.repeatMin, step.repeatMax + 1);
+            for (int i = 0; i < times && ok; i++) {
+                ok = execute(scenario, step, session);
+            }
+            if (!ok) {
+                break;
+            }
+            think(step, deadline);
+        }
+        for (Scenario.Step step : scenario.getFinallySteps()) {
+            execute(scenario, step, session);
+        }
+        if (!ok) {
+            failedIterations.increment();
+        }
+        iterations.increment();
+    }
+
+    private boolean execute(Scenario scenario, Scenario.Step step, ScenarioSession session) {
+        long start = System.nanoTime();
+        int status = 0;
+        boolean ok;
+        String message = null;
+        long elapsed;
+        try {
+            Response response = step.action.apply(session);
+            if (response == null) {
+                return true;
+            }
+            elapsed = System.nanoTime() - start;
+            status = response.statusCode();
+            ok = step.check.test(response);
+            if (!ok) {
+                message = "ожидался " + step.description + ", получен ответ " + status;
+            } else if (step.extractor != null) {
+                step.extractor.accept(session, response);
+            }
+        } catch (Exception | AssertionError e) {
+            // RestAssured пробрасывает IOException без объявления, проверка схемы бросает AssertionError
+            elapsed = System.nanoTime() - start;
+            ok = false;
+            message = e.toString();
+        }
+        recorder.record(scenario.getName() + " / " + step.name, elapsed, ok);
+        results.write(scenario.getName(), step.name, session.getIteration(), status, elapsed, ok, message);
+        return ok;
+    }
+
+    private static void think(Scenario.Step step, long deadline) {
+        if (step.thinkMaxMillis == 0) {
+            return;
+        }
+        long pause = TimeUnit.MILLISECONDS.toNanos(
+                ThreadLocalRandom.current().nextLong(step.thinkMinMillis, step.thinkMaxMillis + 1));
+        pause = Math.min(pause, deadline - System.nanoTime());
+        if (pause <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printProgress() {
+        ResultWriter writer = results;
+        System.out.printf("Сценарии: итераций %d, провалено %d, записано результатов %d, отброшено %d%n",
+                iterations.sum(), failedIterations.sum(), writer == null ? 0 : writer.getWritten(),
+                writer == null ? 0 : writer.getDropped());
+    }
+
+    private static String describe(List<Scenario> scenarios) {
+        StringBuilder description = new StringBuilder();
+        for (Scenario scenario : scenarios) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(scenario.getName()).append(" x").append(scenario.getWeight());
+        }
+        return description.toString();
+    }
+}
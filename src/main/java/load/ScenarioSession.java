@@ -0,0 +1,50 @@
+package load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Состояние одной итерации сценария: значения из источников данных, токен доступа и всё, что шаги
+ * сохранили через {@link Scenario#save}. Живёт одну итерацию, поэтому память прогона не растёт
+ * с его длительностью. Используется одним виртуальным пользователем и не синхронизирована.
+ */
+public class ScenarioSession {
+    private final Scenario scenario;
+    private final long iteration;
+    private final Map<String, Object> values = new HashMap<>();
+    private String accessToken;
+
+    ScenarioSession(Scenario scenario, long iteration) {
+        this.scenario = scenario;
+        this.iteration = iteration;
+    }
+
+    public String getScenarioName() {
+        return scenario.getName();
+    }
+
+    public long getIteration() {
+        return iteration;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        if (!values.containsKey(key)) {
+            throw new IllegalStateException("В сессии сценария " + scenario.getName() + " нет значения " + key);
+        }
+        return (T) values.get(key);
+    }
+
+    public ScenarioSession put(String key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+}
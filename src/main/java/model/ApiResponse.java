@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Общая часть всех ответов Stellar Burgers API: код ответа, признак success и текст ошибки.
+ */
+public class ApiResponse {
+    int statusCode;
+    boolean success;
+    String message;
+    // Заполняется только ResponseReader; transient, чтобы Gson не искал такое поле в теле
+    transient boolean malformed;
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Тело не JSON-объект, оборвано или содержит значение не того типа: поля модели не заполнены
+    public boolean isMalformed() {
+        return malformed;
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+public class AuthResponse extends ApiResponse {
+    UserProfile user;
+    String accessToken;
+    String refreshToken;
+
+    public UserProfile getUser() {
+        return user;
+    }
+
+    // Токен в том виде, в котором его возвращает API: "Bearer ..."
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    // Токен без префикса "Bearer ", в том виде, в котором его принимают методы клиентов
+    public String getRawAccessToken() {
+        return accessToken == null || !accessToken.startsWith("Bearer ") ? accessToken : accessToken.substring(7);
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
@@ -0,0 +1,28 @@
+package model;
+
+public class Ingredient {
+    public static final String BUN = "bun";
+    public static final String SAUCE = "sauce";
+    public static final String MAIN = "main";
+
+    String id;
+    String name;
+    String type;
+    Integer price;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+}
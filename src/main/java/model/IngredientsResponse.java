@@ -0,0 +1,11 @@
+package model;
+
+import java.util.List;
+
+public class IngredientsResponse extends ApiResponse {
+    List<Ingredient> data;
+
+    public List<Ingredient> getData() {
+        return data;
+    }
+}
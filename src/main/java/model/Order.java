@@ -0,0 +1,52 @@
+package model;
+
+import java.util.List;
+
+public class Order {
+    String id;
+    Integer number;
+    String name;
+    String status;
+    String createdAt;
+    String updatedAt;
+    Integer price;
+    List<String> ingredients;
+    UserProfile owner;
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+
+    // Идентификаторы ингредиентов; в ответе на создание заказа API отдаёт ингредиенты целиком, здесь остаются только id
+    public List<String> getIngredients() {
+        return ingredients;
+    }
+
+    public UserProfile getOwner() {
+        return owner;
+    }
+}
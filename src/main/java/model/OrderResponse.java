@@ -0,0 +1,18 @@
+package model;
+
+public class OrderResponse extends ApiResponse {
+    String name;
+    Order order;
+
+    public String getName() {
+        return name;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Integer getOrderNumber() {
+        return order == null ? null : order.getNumber();
+    }
+}
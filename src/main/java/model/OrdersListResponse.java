@@ -0,0 +1,21 @@
+package model;
+
+import java.util.List;
+
+public class OrdersListResponse extends ApiResponse {
+    List<Order> orders;
+    Integer total;
+    Integer totalToday;
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public Integer getTotalToday() {
+        return totalToday;
+    }
+}
@@ -0,0 +1,333 @@
+package model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор ответов API в типизированные модели за один потоковый проход {@link JsonReader} без промежуточного
+ * дерева JSON и без рефлексии. Неизвестные поля пропускаются. Пустое тело (304) даёт модель только с кодом
+ * ответа; тело не в формате JSON (например, HTML-страница ошибки 500), оборванное тело или значение не того типа
+ * дают модель только с кодом ответа и признаком {@link ApiResponse#isMalformed()}, а не частично заполненную.
+ */
+public final class ResponseReader {
+    private ResponseReader() {
+    }
+
+    public static <T extends ApiResponse> T read(int statusCode, byte[] body, Class<T> type) {
+        return read(statusCode, new ByteArrayInputStream(body == null ? new byte[0] : body), type);
+    }
+
+    public static <T extends ApiResponse> T read(int statusCode, InputStream body, Class<T> type) {
+        return read(statusCode, new InputStreamReader(body, StandardCharsets.UTF_8), type);
+    }
+
+    // Текстовые сообщения уже декодированы (например, кадры WebSocket), поэтому читаются без перекодирования в байты
+    public static <T extends ApiResponse> T read(int statusCode, Reader body, Class<T> type) {
+        T response = newInstance(type);
+        response.statusCode = statusCode;
+        try (JsonReader reader = new JsonReader(body)) {
+            JsonToken first;
+            try {
+                first = reader.peek();
+            } catch (EOFException empty) {
+                return response;
+            }
+            if (first != JsonToken.BEGIN_OBJECT) {
+                return malformed(statusCode, type);
+            }
+            readResponse(reader, response);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return malformed(statusCode, type);
+        }
+        return response;
+    }
+
+    private static <T extends ApiResponse> T malformed(int statusCode, Class<T> type) {
+        T response = newInstance(type);
+        response.statusCode = statusCode;
+        response.malformed = true;
+        return response;
+    }
+
+    private static void readResponse(JsonReader reader, ApiResponse response) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (!readCommonField(reader, field, response) && !readSpecificField(reader, field, response)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static boolean readCommonField(JsonReader reader, String field, ApiResponse response) throws IOException {
+        switch (field) {
+            case "success":
+                response.success = nextBoolean(reader);
+                return true;
+            case "message":
+                response.message = nextString(reader);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean readSpecificField(JsonReader reader, String field, ApiResponse response) throws IOException {
+        if (response instanceof AuthResponse) {
+            AuthResponse auth = (AuthResponse) response;
+            switch (field) {
+                case "user":
+                    auth.user = readUser(reader);
+                    return true;
+                case "accessToken":
+                    auth.accessToken = nextString(reader);
+                    return true;
+                case "refreshToken":
+                    auth.refreshToken = nextString(reader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if (response instanceof UserResponse && field.equals("user")) {
+            ((UserResponse) response).user = readUser(reader);
+            return true;
+        }
+        if (response instanceof OrderResponse) {
+            OrderResponse order = (OrderResponse) response;
+            switch (field) {
+                case "name":
+                    order.name = nextString(reader);
+                    return true;
+                case "order":
+                    order.order = readOrder(reader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if (response instanceof OrdersListResponse) {
+            OrdersListResponse list = (OrdersListResponse) response;
+            switch (field) {
+                case "orders":
+                    list.orders = readOrders(reader);
+                    return true;
+                case "total":
+                    list.total = nextInteger(reader);
+                    return true;
+                case "totalToday":
+                    list.totalToday = nextInteger(reader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if (response instanceof IngredientsResponse && field.equals("data")) {
+            ((IngredientsResponse) response).data = readIngredients(reader);
+            return true;
+        }
+        return false;
+    }
+
+    private static List<Ingredient> readIngredients(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<Ingredient> ingredients = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Ingredient ingredient = new Ingredient();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "_id":
+                        ingredient.id = nextString(reader);
+                        break;
+                    case "name":
+                        ingredient.name = nextString(reader);
+                        break;
+                    case "type":
+                        ingredient.type = nextString(reader);
+                        break;
+                    case "price":
+                        ingredient.price = nextInteger(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            ingredients.add(ingredient);
+        }
+        reader.endArray();
+        return ingredients;
+    }
+
+    private static List<Order> readOrders(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<Order> orders = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            orders.add(readOrder(reader));
+        }
+        reader.endArray();
+        return orders;
+    }
+
+    private static Order readOrder(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Order order = new Order();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "_id":
+                    order.id = nextString(reader);
+                    break;
+                case "number":
+                    order.number = nextInteger(reader);
+                    break;
+                case "name":
+                    order.name = nextString(reader);
+                    break;
+                case "status":
+                    order.status = nextString(reader);
+                    break;
+                case "createdAt":
+                    order.createdAt = nextString(reader);
+                    break;
+                case "updatedAt":
+                    order.updatedAt = nextString(reader);
+                    break;
+                case "price":
+                    order.price = nextInteger(reader);
+                    break;
+                case "ingredients":
+                    order.ingredients = readIngredientIds(reader);
+                    break;
+                case "owner":
+                    order.owner = readUser(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return order;
+    }
+
+    // Элемент массива ингредиентов бывает строкой-идентификатором или объектом ингредиента с полем _id
+    private static List<String> readIngredientIds(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<String> ids = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                String id = null;
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("_id")) {
+                        id = nextString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                ids.add(id);
+            } else {
+                ids.add(nextString(reader));
+            }
+        }
+        reader.endArray();
+        return ids;
+    }
+
+    private static UserProfile readUser(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        UserProfile user = new UserProfile();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "email":
+                    user.email = nextString(reader);
+                    break;
+                case "name":
+                    user.name = nextString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return user;
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static Integer nextInteger(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextInt();
+    }
+
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return false;
+        }
+        return reader.nextBoolean();
+    }
+
+    private static <T extends ApiResponse> T newInstance(Class<T> type) {
+        if (type == AuthResponse.class) {
+            return type.cast(new AuthResponse());
+        }
+        if (type == UserResponse.class) {
+            return type.cast(new UserResponse());
+        }
+        if (type == OrderResponse.class) {
+            return type.cast(new OrderResponse());
+        }
+        if (type == OrdersListResponse.class) {
+            return type.cast(new OrdersListResponse());
+        }
+        if (type == IngredientsResponse.class) {
+            return type.cast(new IngredientsResponse());
+        }
+        if (type == ErrorResponse.class || type == ApiResponse.class) {
+            return type.cast(new ErrorResponse());
+        }
+        throw new IllegalArgumentException("Неизвестный тип ответа " + type.getName());
+    }
+}
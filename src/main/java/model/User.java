@@ -1,6 +1,6 @@
 package model;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import fixture.DataGenerator;
 
 public class User {
     private String email;
@@ -13,12 +13,9 @@ public class User {
         this.name = name;
     }
 
+    // Следующий пользователь общего генератора: уникальный email, воспроизводимый по -Ddata.seed
     public static User generateUser() {
-        String email = RandomStringUtils.randomAlphabetic(3,12) + "@gmail.com";
-        String password = RandomStringUtils.randomAlphabetic(12);
-        String name = RandomStringUtils.randomAlphabetic(3,12);
-
-        return new User(email, password, name);
+        return DataGenerator.shared().nextUser();
     }
 
     public String getEmail() {
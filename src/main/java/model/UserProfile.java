@@ -0,0 +1,14 @@
+package model;
+
+public class UserProfile {
+    String email;
+    String name;
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
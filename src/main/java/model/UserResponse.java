@@ -0,0 +1,9 @@
+package model;
+
+public class UserResponse extends ApiResponse {
+    UserProfile user;
+
+    public UserProfile getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,367 @@
+package report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriteException;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Приёмник результатов Allure, который вместо отдельного файла на каждый результат, контейнер и вложение
+ * дописывает записи в один сегментный файл (segment-NNNNN.dat) через буфер и {@link FileChannel}. Рядом ведётся
+ * индекс (segment-NNNNN.idx) из записей фиксированной длины: тип, статус, смещение, длина, start и stop, поэтому
+ * сводку по прогону можно построить, не читая сами результаты. Сегмент закрывается и начинается следующий,
+ * когда превышает allure.compact.segmentBytes. JSON результатов совпадает с файлами allure-results: поля без null,
+ * перечисления модели строчными буквами; вложения от 1 КБ сжимаются deflate; {@link ResultSummarizer} выгружает всё обратно в формат allure-results.
+ * Включается свойством allure.results.sink=compact; данные в буферах сбрасываются на диск при заполнении,
+ * при смене сегмента и в {@link #close()}.
+ */
+public class CompactResultsWriter implements AllureResultsWriter, AutoCloseable {
+    public static final String SINK_PROPERTY = "allure.results.sink";
+    public static final String COMPACT = "compact";
+    public static final String DIRECTORY_PROPERTY = "allure.compact.directory";
+    public static final String SEGMENT_BYTES_PROPERTY = "allure.compact.segmentBytes";
+
+    static final byte RESULT = 1;
+    static final byte CONTAINER = 2;
+    static final byte ATTACHMENT = 3;
+    // Старший бит типа записи в сегменте: содержимое сжато deflate
+    static final int DEFLATED = 0x80;
+    // Тип (1), статус (1), смещение (8), длина записи (4), start (8), stop (8)
+    static final int INDEX_ENTRY_BYTES = 30;
+    static final String DATA_SUFFIX = ".dat";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final Pattern SEGMENT_NAME = Pattern.compile(SEGMENT_PREFIX + "\\d{5}" + Pattern.quote(DATA_SUFFIX));
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int INDEX_BUFFER_BYTES = INDEX_ENTRY_BYTES * 2048;
+    private static final int COMPRESS_THRESHOLD = 1024;
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new LowerCaseModelEnums())
+            .disableHtmlEscaping()
+            .create();
+
+    private static CompactResultsWriter installed;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer data = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer index = ByteBuffer.allocateDirect(INDEX_BUFFER_BYTES);
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private int segment;
+    private long segmentOffset;
+    private long records;
+    private long rawBytes;
+    private long storedBytes;
+    private boolean closed;
+
+    public CompactResultsWriter(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            // Как у allure-results: результаты прошлых прогонов остаются, новые сегменты нумеруются после них
+            this.segment = lastSegment(directory);
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Не удалось подготовить каталог " + directory, e);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return COMPACT.equalsIgnoreCase(System.getProperty(SINK_PROPERTY, "files").trim());
+    }
+
+    // Подменяет приёмник общего AllureLifecycle; вызывать до создания AllureJunit4, который запоминает lifecycle
+    public static synchronized CompactResultsWriter installIfEnabled() {
+        if (installed == null && isEnabled()) {
+            CompactResultsWriter writer = new CompactResultsWriter(defaultDirectory(),
+                    Long.getLong(SEGMENT_BYTES_PROPERTY, 256L << 20));
+            Allure.setLifecycle(new AllureLifecycle(writer));
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "allure-compact-close"));
+            installed = writer;
+        }
+        return installed;
+    }
+
+    public static synchronized CompactResultsWriter getInstalled() {
+        return installed;
+    }
+
+    // По умолчанию рядом с allure-results: target/allure-compact
+    static Path defaultDirectory() {
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        String allureResults = System.getProperty("allure.results.directory");
+        if (allureResults != null && Paths.get(allureResults).toAbsolutePath().getParent() != null) {
+            return Paths.get(allureResults).toAbsolutePath().getParent().resolve("allure-compact");
+        }
+        return Paths.get("target", "allure-compact");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    // Объём результатов и вложений до сжатия и в сегментах
+    public synchronized long getRawBytes() {
+        return rawBytes;
+    }
+
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        append(RESULT, testResult.getUuid() + "-result.json", json(testResult), testResult.getStatus(),
+                testResult.getStart(), testResult.getStop());
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        append(CONTAINER, testResultContainer.getUuid() + "-container.json", json(testResultContainer), null,
+                testResultContainer.getStart(), testResultContainer.getStop());
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        byte[] content;
+        try (InputStream stream = attachment) {
+            content = stream.readAllBytes();
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Не удалось прочитать вложение " + source, e);
+        }
+        append(ATTACHMENT, source, content, null, null, null);
+    }
+
+    public synchronized void flush() {
+        if (closed || dataChannel == null) {
+            return;
+        }
+        try {
+            drain(data, dataChannel);
+            drain(index, indexChannel);
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Не удалось записать сегмент " + segment, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closeSegment();
+        deflater.end();
+        closed = true;
+    }
+
+    private static byte[] json(Object value) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(1024);
+        try (Writer writer = new OutputStreamWriter(json, StandardCharsets.UTF_8)) {
+            GSON.toJson(value, writer);
+        } catch (IOException | RuntimeException e) {
+            throw new AllureResultsWriteException("Не удалось сериализовать результат Allure", e);
+        }
+        return json.toByteArray();
+    }
+
+    private synchronized void append(byte type, String name, byte[] content, Status status, Long start, Long stop) {
+        if (closed) {
+            throw new AllureResultsWriteException("Приёмник результатов Allure закрыт: " + name, null);
+        }
+        int kind = type;
+        byte[] payload = content;
+        if (type == ATTACHMENT && content.length >= COMPRESS_THRESHOLD) {
+            byte[] compressed = deflate(content);
+            if (compressed.length < content.length) {
+                payload = compressed;
+                kind |= DEFLATED;
+            }
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int recordLength = 1 + 2 + nameBytes.length + 4 + payload.length;
+        try {
+            if (dataChannel == null || segmentOffset > 0 && segmentOffset + recordLength > segmentBytes) {
+                roll();
+            }
+            if (data.remaining() < 1 + 2 + nameBytes.length + 4) {
+                drain(data, dataChannel);
+            }
+            data.put((byte) kind).putShort((short) nameBytes.length).put(nameBytes).putInt(payload.length);
+            if (payload.length <= data.remaining()) {
+                data.put(payload);
+            } else {
+                // Крупное вложение идёт мимо буфера, чтобы не копировать его лишний раз
+                drain(data, dataChannel);
+                ByteBuffer direct = ByteBuffer.wrap(payload);
+                while (direct.hasRemaining()) {
+                    dataChannel.write(direct);
+                }
+            }
+            if (index.remaining() < INDEX_ENTRY_BYTES) {
+                drain(index, indexChannel);
+            }
+            index.put(type)
+                    .put((byte) (status == null ? 0 : status.ordinal() + 1))
+                    .putLong(segmentOffset)
+                    .putInt(recordLength)
+                    .putLong(start == null ? 0 : start)
+                    .putLong(stop == null ? 0 : stop);
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Не удалось записать " + name + " в сегмент " + segment, e);
+        }
+        segmentOffset += recordLength;
+        records++;
+        rawBytes += content.length;
+        storedBytes += recordLength;
+    }
+
+    private byte[] deflate(byte[] content) {
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return compressed.toByteArray();
+    }
+
+    private void roll() throws IOException {
+        if (dataChannel != null) {
+            drain(data, dataChannel);
+            drain(index, indexChannel);
+            closeSegment();
+        }
+        segment++;
+        String name = SEGMENT_PREFIX + String.format("%05d", segment);
+        dataChannel = FileChannel.open(directory.resolve(name + DATA_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve(name + INDEX_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        segmentOffset = 0;
+    }
+
+    private void closeSegment() {
+        try {
+            if (dataChannel != null) {
+                dataChannel.close();
+                indexChannel.close();
+            }
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Не удалось закрыть сегмент " + segment, e);
+        } finally {
+            dataChannel = null;
+            indexChannel = null;
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static Stream<Path> segments(Path directory) throws IOException {
+        return Files.list(directory)
+                .filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                .sorted();
+    }
+
+    static Path indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    // Status, Stage и Parameter.Mode в allure-results пишутся строчными буквами: "passed", "finished", "masked"
+    private static final class LowerCaseModelEnums implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> raw = type.getRawType();
+            if (!raw.isEnum() || !raw.getName().startsWith(Status.class.getPackage().getName() + ".")) {
+                return null;
+            }
+            Object[] constants = raw.getEnumConstants();
+            return (TypeAdapter<T>) new TypeAdapter<Object>() {
+                @Override
+                public void write(JsonWriter out, Object value) throws IOException {
+                    if (value == null) {
+                        out.nullValue();
+                    } else {
+                        out.value(((Enum<?>) value).name().toLowerCase(Locale.ROOT));
+                    }
+                }
+
+                @Override
+                public Object read(JsonReader in) throws IOException {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        return null;
+                    }
+                    String value = in.nextString();
+                    for (Object constant : constants) {
+                        if (((Enum<?>) constant).name().equalsIgnoreCase(value)) {
+                            return constant;
+                        }
+                    }
+                    throw new JsonParseException("Неизвестное значение " + value + " для " + raw.getSimpleName());
+                }
+            };
+        }
+    }
+
+    private static int lastSegment(Path directory) throws IOException {
+        try (Stream<Path> segments = segments(directory)) {
+            return segments
+                    .map(path -> path.getFileName().toString())
+                    .mapToInt(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - DATA_SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
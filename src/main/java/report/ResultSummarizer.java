@@ -0,0 +1,246 @@
+package report;
+
+import io.qameta.allure.model.Status;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Чтение сегментов {@link CompactResultsWriter} потоком, по одной записи: сводка по статусам и длительностям
+ * строится только по индексам, выгрузка в формат allure-results пишет каждую запись в отдельный файл, как это
+ * сделал бы {@link io.qameta.allure.FileSystemResultsWriter}, после чего отчёт строится обычным allure:report.
+ * Память не зависит от числа результатов: в ней только буфер чтения, текущая запись и гистограмма длительностей.
+ * Запуск: mvn exec:java -Dexec.mainClass=report.ResultSummarizer -Dexec.args="summary target/allure-compact"
+ * или -Dexec.args="export target/allure-compact target/allure-results"
+ */
+public final class ResultSummarizer {
+    private static final int READ_BUFFER_BYTES = CompactResultsWriter.INDEX_ENTRY_BYTES * 4096;
+    private static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    private ResultSummarizer() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("summary")) {
+            summarize(Paths.get(args[1])).print(System.out);
+        } else if (args.length == 3 && args[0].equals("export")) {
+            Summary summary = summarize(Paths.get(args[1]));
+            int files = export(Paths.get(args[1]), Paths.get(args[2]));
+            summary.print(System.out);
+            System.out.println("Выгружено файлов в " + args[2] + ": " + files);
+        } else {
+            System.err.println("Использование: summary <каталог сегментов> | export <каталог сегментов> <allure-results>");
+            System.exit(2);
+        }
+    }
+
+    public static Summary summarize(Path directory) {
+        Summary summary = new Summary();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        for (Path segment : segments(directory)) {
+            try (FileChannel index = FileChannel.open(CompactResultsWriter.indexOf(segment), StandardOpenOption.READ)) {
+                buffer.clear();
+                // Оборванная запись в конце индекса (прогон завершился аварийно) остаётся в буфере и не учитывается
+                while (index.read(buffer) >= 0) {
+                    buffer.flip();
+                    while (buffer.remaining() >= CompactResultsWriter.INDEX_ENTRY_BYTES) {
+                        byte type = buffer.get();
+                        byte status = buffer.get();
+                        buffer.getLong();
+                        int length = buffer.getInt();
+                        summary.add(type, status, length, buffer.getLong(), buffer.getLong());
+                    }
+                    buffer.compact();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать индекс сегмента " + segment, e);
+            }
+            summary.segments++;
+        }
+        return summary;
+    }
+
+    // Возвращает число записанных файлов; существующие файлы с теми же именами перезаписываются
+    public static int export(Path directory, Path target) {
+        int files = 0;
+        Inflater inflater = new Inflater();
+        try {
+            Files.createDirectories(target);
+            for (Path segment : segments(directory)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        Files.newInputStream(segment), 1 << 16))) {
+                    while (true) {
+                        int kind;
+                        try {
+                            kind = in.readUnsignedByte();
+                        } catch (EOFException end) {
+                            break;
+                        }
+                        byte[] name = new byte[in.readUnsignedShort()];
+                        in.readFully(name);
+                        byte[] payload = new byte[in.readInt()];
+                        in.readFully(payload);
+                        if ((kind & CompactResultsWriter.DEFLATED) != 0) {
+                            payload = inflate(inflater, payload);
+                        }
+                        Files.write(target.resolve(new String(name, StandardCharsets.UTF_8)), payload);
+                        files++;
+                    }
+                } catch (EOFException e) {
+                    // Последняя запись сегмента оборвана: выгружено всё, что было записано целиком
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось выгрузить результаты из " + directory + " в " + target, e);
+        } finally {
+            inflater.end();
+        }
+        return files;
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] compressed) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        ByteArrayOutputStream content = new ByteArrayOutputStream(compressed.length * 4);
+        byte[] chunk = new byte[8192];
+        try {
+            while (!inflater.finished()) {
+                int length = inflater.inflate(chunk);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Сжатое вложение оборвано");
+                }
+                content.write(chunk, 0, length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Сжатое вложение повреждено", e);
+        }
+        return content.toByteArray();
+    }
+
+    private static List<Path> segments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> segments = CompactResultsWriter.segments(directory)) {
+            return segments.collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать каталог " + directory, e);
+        }
+    }
+
+    /**
+     * Сводка по прогону: число тестов по статусам, длительности тестов (HDR-гистограмма в миллисекундах),
+     * границы прогона и объём сегментов.
+     */
+    public static final class Summary {
+        private final Map<Status, Long> statuses = new EnumMap<>(Status.class);
+        private final Histogram durations = new Histogram(HIGHEST_TRACKABLE_MILLIS, 3);
+        private long results;
+        private long unknown;
+        private long containers;
+        private long attachments;
+        private long storedBytes;
+        private long firstStart = Long.MAX_VALUE;
+        private long lastStop;
+        private int segments;
+
+        private void add(byte type, byte status, int length, long start, long stop) {
+            storedBytes += length;
+            if (type == CompactResultsWriter.CONTAINER) {
+                containers++;
+                return;
+            }
+            if (type == CompactResultsWriter.ATTACHMENT) {
+                attachments++;
+                return;
+            }
+            results++;
+            if (status == 0) {
+                unknown++;
+            } else {
+                statuses.merge(Status.values()[status - 1], 1L, Long::sum);
+            }
+            if (start > 0 && stop >= start) {
+                durations.recordValue(Math.min(stop - start, HIGHEST_TRACKABLE_MILLIS));
+                firstStart = Math.min(firstStart, start);
+                lastStop = Math.max(lastStop, stop);
+            }
+        }
+
+        public long getResults() {
+            return results;
+        }
+
+        public long getCount(Status status) {
+            return statuses.getOrDefault(status, 0L);
+        }
+
+        // Результаты без статуса (тест не завершился); Allure показывает их как unknown
+        public long getUnknown() {
+            return unknown;
+        }
+
+        public long getContainers() {
+            return containers;
+        }
+
+        public long getAttachments() {
+            return attachments;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public long getStoredBytes() {
+            return storedBytes;
+        }
+
+        // Суммарная длительность тестов, мс
+        public long getTotalDurationMillis() {
+            return Math.round(durations.getMean() * durations.getTotalCount());
+        }
+
+        public long getDurationAtPercentile(double percentile) {
+            return durations.getValueAtPercentile(percentile);
+        }
+
+        // От начала первого теста до конца последнего, мс
+        public long getWallClockMillis() {
+            return lastStop == 0 ? 0 : lastStop - firstStart;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("Тестов %d: passed %d, failed %d, broken %d, skipped %d, unknown %d%n", results,
+                    getCount(Status.PASSED), getCount(Status.FAILED), getCount(Status.BROKEN), getCount(Status.SKIPPED),
+                    unknown);
+            out.printf("Длительность тестов: сумма %.1f с, p50 %d мс, p95 %d мс, p99 %d мс, max %d мс; прогон %.1f с%n",
+                    getTotalDurationMillis() / 1000.0, getDurationAtPercentile(50), getDurationAtPercentile(95),
+                    getDurationAtPercentile(99), durations.getMaxValue(), getWallClockMillis() / 1000.0);
+            out.printf("Контейнеров %d, вложений %d, сегментов %d, %.1f МБ%n", containers, attachments, segments,
+                    storedBytes / (1024.0 * 1024.0));
+        }
+    }
+}
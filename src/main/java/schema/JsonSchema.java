@@ -0,0 +1,117 @@
+package schema;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Скомпилированная JSON-схема. Поддерживается подмножество JSON Schema, которого хватает для контрактов
+ * Stellar Burgers API: type, properties, required, items, enum, const, pattern, minLength, minItems и $ref
+ * на соседний файл схемы. Дополнительные поля в ответах допускаются. Регулярные выражения компилируются
+ * один раз, обязательные поля пронумерованы, поэтому проверка не создаёт промежуточных структур.
+ */
+public class JsonSchema {
+    enum Type {
+        OBJECT, ARRAY, STRING, INTEGER, NUMBER, BOOLEAN, NULL
+    }
+
+    final String name;
+    final Set<Type> types;
+    final Map<String, JsonSchema> properties;
+    final Map<String, Integer> requiredIndex;
+    final String[] required;
+    final JsonSchema items;
+    final Set<String> enumValues;
+    final String constValue;
+    final Pattern pattern;
+    final int minLength;
+    final int minItems;
+
+    private JsonSchema(String name, Set<Type> types, Map<String, JsonSchema> properties, String[] required, JsonSchema items,
+                       Set<String> enumValues, String constValue, Pattern pattern, int minLength, int minItems) {
+        this.name = name;
+        this.types = types;
+        this.properties = properties;
+        this.required = required;
+        this.requiredIndex = new HashMap<>();
+        for (int i = 0; i < required.length; i++) {
+            requiredIndex.put(required[i], i);
+        }
+        this.items = items;
+        this.enumValues = enumValues;
+        this.constValue = constValue;
+        this.pattern = pattern;
+        this.minLength = minLength;
+        this.minItems = minItems;
+    }
+
+    // refs возвращает скомпилированную схему по имени файла из $ref
+    public static JsonSchema compile(String name, JsonObject json, Function<String, JsonSchema> refs) {
+        if (json.has("$ref")) {
+            return refs.apply(json.get("$ref").getAsString());
+        }
+        Map<String, JsonSchema> properties = new HashMap<>();
+        if (json.has("properties")) {
+            for (Map.Entry<String, JsonElement> property : json.getAsJsonObject("properties").entrySet()) {
+                properties.put(property.getKey(), compile(name, property.getValue().getAsJsonObject(), refs));
+            }
+        }
+        List<String> required = new ArrayList<>();
+        if (json.has("required")) {
+            json.getAsJsonArray("required").forEach(field -> required.add(field.getAsString()));
+        }
+        Set<String> enumValues = null;
+        if (json.has("enum")) {
+            enumValues = new HashSet<>();
+            for (JsonElement value : json.getAsJsonArray("enum")) {
+                enumValues.add(value.getAsString());
+            }
+        }
+        return new JsonSchema(
+                name,
+                types(json),
+                properties,
+                required.toArray(new String[0]),
+                json.has("items") ? compile(name, json.getAsJsonObject("items"), refs) : null,
+                enumValues,
+                json.has("const") ? json.get("const").getAsString() : null,
+                json.has("pattern") ? Pattern.compile(json.get("pattern").getAsString()) : null,
+                json.has("minLength") ? json.get("minLength").getAsInt() : 0,
+                json.has("minItems") ? json.get("minItems").getAsInt() : 0);
+    }
+
+    // Имя файла, из которого скомпилирована схема
+    public String getName() {
+        return name;
+    }
+
+    private static Set<Type> types(JsonObject json) {
+        Set<Type> types = EnumSet.noneOf(Type.class);
+        JsonElement type = json.get("type");
+        if (type == null) {
+            return EnumSet.allOf(Type.class);
+        }
+        if (type.isJsonArray()) {
+            for (JsonElement value : (JsonArray) type) {
+                types.add(Type.valueOf(value.getAsString().toUpperCase()));
+            }
+        } else {
+            types.add(Type.valueOf(type.getAsString().toUpperCase()));
+        }
+        // Целое число подходит и под тип number
+        if (types.contains(Type.NUMBER)) {
+            types.add(Type.INTEGER);
+        }
+        return types;
+    }
+}
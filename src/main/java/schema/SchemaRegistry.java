@@ -0,0 +1,76 @@
+package schema;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Схемы ответов API из ресурсов schemas/. Файл схемы называется по запросу и коду ответа:
+ * {@code post_auth_login_200.json} для 200 на POST auth/login. Для ответов 4xx без собственной схемы
+ * применяется общая error.json. Каждая схема компилируется один раз при первом обращении и дальше
+ * берётся из потокобезопасного кэша; отсутствие схемы тоже кэшируется.
+ */
+public class SchemaRegistry {
+    public static final String ERROR_SCHEMA = "error.json";
+
+    private static final String RESOURCE_DIRECTORY = "schemas/";
+    private static final SchemaRegistry SHARED = new SchemaRegistry();
+
+    private final Map<String, Optional<JsonSchema>> schemas = new ConcurrentHashMap<>();
+
+    public static SchemaRegistry shared() {
+        return SHARED;
+    }
+
+    public Optional<JsonSchema> find(String method, String endpoint, int status) {
+        Optional<JsonSchema> schema = byName(fileName(method, endpoint, status));
+        if (schema.isEmpty() && status >= 400 && status < 500) {
+            return byName(ERROR_SCHEMA);
+        }
+        return schema;
+    }
+
+    public Optional<JsonSchema> byName(String fileName) {
+        Optional<JsonSchema> cached = schemas.get(fileName);
+        if (cached != null) {
+            return cached;
+        }
+        // computeIfAbsent не подходит: $ref компилирует соседнюю схему и рекурсивно обращается к этой же карте
+        Optional<JsonSchema> compiled = load(fileName);
+        Optional<JsonSchema> previous = schemas.putIfAbsent(fileName, compiled);
+        return previous != null ? previous : compiled;
+    }
+
+    static String fileName(String method, String endpoint, int status) {
+        int query = endpoint.indexOf('?');
+        String path = query < 0 ? endpoint : endpoint.substring(0, query);
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return method.toLowerCase(Locale.ROOT) + "_" + path.replace('/', '_') + "_" + status + ".json";
+    }
+
+    private Optional<JsonSchema> load(String fileName) {
+        InputStream resource = SchemaRegistry.class.getClassLoader().getResourceAsStream(RESOURCE_DIRECTORY + fileName);
+        if (resource == null) {
+            return Optional.empty();
+        }
+        try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+            JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+            return Optional.of(JsonSchema.compile(fileName, json, ref -> byName(ref)
+                    .orElseThrow(() -> new IllegalStateException("Не найдена схема " + ref + " из " + fileName))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать схему " + fileName, e);
+        }
+    }
+}
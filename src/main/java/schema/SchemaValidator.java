@@ -0,0 +1,181 @@
+package schema;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковая проверка JSON по {@link JsonSchema}: документ читается одним проходом {@link JsonReader}
+ * без построения дерева, поэтому длинный список заказов проверяется по элементу за раз с постоянным
+ * расходом памяти. Путь до поля собирается в строку только при нарушении.
+ */
+public final class SchemaValidator {
+    private static final int MAX_ERRORS = 10;
+
+    private SchemaValidator() {
+    }
+
+    // Возвращает нарушения контракта; пустой список означает, что документ соответствует схеме
+    public static List<String> validate(JsonSchema schema, byte[] body) {
+        return validate(schema, new ByteArrayInputStream(body));
+    }
+
+    public static List<String> validate(JsonSchema schema, InputStream body) {
+        Context context = new Context();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            validate(reader, schema, context);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                context.error("лишние данные после документа");
+            }
+        } catch (IOException | IllegalStateException e) {
+            context.error("некорректный JSON: " + e.getMessage());
+        }
+        return context.errors;
+    }
+
+    private static void validate(JsonReader reader, JsonSchema schema, Context context) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                if (expect(schema, JsonSchema.Type.OBJECT, token, context)) {
+                    validateObject(reader, schema, context);
+                } else {
+                    reader.skipValue();
+                }
+                return;
+            case BEGIN_ARRAY:
+                if (expect(schema, JsonSchema.Type.ARRAY, token, context)) {
+                    validateArray(reader, schema, context);
+                } else {
+                    reader.skipValue();
+                }
+                return;
+            case STRING: {
+                String value = reader.nextString();
+                if (expect(schema, JsonSchema.Type.STRING, token, context)) {
+                    if (value.length() < schema.minLength) {
+                        context.error("строка короче " + schema.minLength);
+                    }
+                    if (schema.pattern != null && !schema.pattern.matcher(value).find()) {
+                        context.error("значение \"" + value + "\" не соответствует " + schema.pattern.pattern());
+                    }
+                    checkValue(schema, value, context);
+                }
+                return;
+            }
+            case NUMBER: {
+                String value = reader.nextString();
+                boolean integer = value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0;
+                if (expect(schema, integer ? JsonSchema.Type.INTEGER : JsonSchema.Type.NUMBER, token, context)) {
+                    checkValue(schema, value, context);
+                }
+                return;
+            }
+            case BOOLEAN: {
+                boolean value = reader.nextBoolean();
+                if (expect(schema, JsonSchema.Type.BOOLEAN, token, context)) {
+                    checkValue(schema, String.valueOf(value), context);
+                }
+                return;
+            }
+            case NULL:
+                reader.nextNull();
+                expect(schema, JsonSchema.Type.NULL, token, context);
+                return;
+            default:
+                throw new IllegalStateException("неожиданный токен " + token);
+        }
+    }
+
+    private static void validateObject(JsonReader reader, JsonSchema schema, Context context) throws IOException {
+        long seen = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            Integer index = schema.requiredIndex.get(name);
+            if (index != null && index < Long.SIZE) {
+                seen |= 1L << index;
+            }
+            JsonSchema property = schema.properties.get(name);
+            if (property == null) {
+                reader.skipValue();
+                continue;
+            }
+            context.path.add(name);
+            validate(reader, property, context);
+            context.path.remove(context.path.size() - 1);
+        }
+        reader.endObject();
+        for (int i = 0; i < schema.required.length && i < Long.SIZE; i++) {
+            if ((seen & (1L << i)) == 0) {
+                context.error("нет обязательного поля " + schema.required[i]);
+            }
+        }
+    }
+
+    private static void validateArray(JsonReader reader, JsonSchema schema, Context context) throws IOException {
+        int size = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (schema.items == null) {
+                reader.skipValue();
+            } else {
+                context.path.add(size);
+                validate(reader, schema.items, context);
+                context.path.remove(context.path.size() - 1);
+            }
+            size++;
+        }
+        reader.endArray();
+        if (size < schema.minItems) {
+            context.error("в массиве меньше " + schema.minItems + " элементов");
+        }
+    }
+
+    private static boolean expect(JsonSchema schema, JsonSchema.Type type, JsonToken token, Context context) {
+        if (schema.types.contains(type)) {
+            return true;
+        }
+        context.error("ожидался тип " + schema.types + ", получен " + token);
+        return false;
+    }
+
+    private static void checkValue(JsonSchema schema, String value, Context context) {
+        if (schema.constValue != null && !schema.constValue.equals(value)) {
+            context.error("ожидалось значение " + schema.constValue + ", получено " + value);
+        }
+        if (schema.enumValues != null && !schema.enumValues.contains(value)) {
+            context.error("значение " + value + " не входит в " + schema.enumValues);
+        }
+    }
+
+    private static final class Context {
+        final List<Object> path = new ArrayList<>();
+        final List<String> errors = new ArrayList<>(0);
+
+        void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(path() + ": " + message);
+            }
+        }
+
+        private String path() {
+            StringBuilder result = new StringBuilder("$");
+            for (Object segment : path) {
+                if (segment instanceof Integer) {
+                    result.append('[').append(segment).append(']');
+                } else {
+                    result.append('.').append(segment);
+                }
+            }
+            return result.toString();
+        }
+    }
+}
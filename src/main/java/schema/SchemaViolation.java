@@ -0,0 +1,23 @@
+package schema;
+
+import java.util.List;
+
+/**
+ * Ответ API не соответствует контракту. Наследует {@link AssertionError}, поэтому в отчёте тест
+ * помечается упавшим, а не сломанным.
+ */
+public class SchemaViolation extends AssertionError {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> violations;
+
+    public SchemaViolation(String request, int status, String schema, List<String> violations) {
+        super("Ответ " + status + " на " + request + " не соответствует схеме " + schema + ":\n  "
+                + String.join("\n  ", violations));
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<String> getViolations() {
+        return violations;
+    }
+}
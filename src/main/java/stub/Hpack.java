@@ -0,0 +1,237 @@
+package stub;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Минимальный HPACK (RFC 7541) для HTTP/2 в {@link TlsStubServer}: декодер заголовков запроса с динамической
+ * таблицей и кодами Хаффмана и кодировщик заголовков ответа литералами без индексации.
+ */
+final class Hpack {
+    private static final int DEFAULT_TABLE_SIZE = 4096;
+    private static final int ENTRY_OVERHEAD = 32;
+    private static final int EOS = 256;
+
+    private static final String[][] STATIC_TABLE = {
+            {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"}, {":path", "/index.html"},
+            {":scheme", "http"}, {":scheme", "https"}, {":status", "200"}, {":status", "204"}, {":status", "206"},
+            {":status", "304"}, {":status", "400"}, {":status", "404"}, {":status", "500"}, {"accept-charset", ""},
+            {"accept-encoding", "gzip, deflate"}, {"accept-language", ""}, {"accept-ranges", ""}, {"accept", ""},
+            {"access-control-allow-origin", ""}, {"age", ""}, {"allow", ""}, {"authorization", ""},
+            {"cache-control", ""}, {"content-disposition", ""}, {"content-encoding", ""}, {"content-language", ""},
+            {"content-length", ""}, {"content-location", ""}, {"content-range", ""}, {"content-type", ""},
+            {"cookie", ""}, {"date", ""}, {"etag", ""}, {"expect", ""}, {"expires", ""}, {"from", ""}, {"host", ""},
+            {"if-match", ""}, {"if-modified-since", ""}, {"if-none-match", ""}, {"if-range", ""},
+            {"if-unmodified-since", ""}, {"last-modified", ""}, {"link", ""}, {"location", ""}, {"max-forwards", ""},
+            {"proxy-authenticate", ""}, {"proxy-authorization", ""}, {"range", ""}, {"referer", ""}, {"refresh", ""},
+            {"retry-after", ""}, {"server", ""}, {"set-cookie", ""}, {"strict-transport-security", ""},
+            {"transfer-encoding", ""}, {"user-agent", ""}, {"vary", ""}, {"via", ""}, {"www-authenticate", ""}
+    };
+    private static final int STATUS_INDEX = 8;
+    private static final int CONTENT_LENGTH_INDEX = 28;
+    private static final int CONTENT_TYPE_INDEX = 31;
+    private static final int ETAG_INDEX = 34;
+    private static final int RETRY_AFTER_INDEX = 53;
+
+    // Код Хаффмана из RFC 7541 (приложение B) канонический, поэтому таблицу задают длины кодов символов 0..255 и EOS
+    private static final int[] HUFFMAN_LENGTHS = {
+            13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 30, 28,
+            28, 28, 28, 28, 28, 28, 28, 28, 6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6, 5, 5, 5,
+            6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10, 13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+            7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6, 15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+            6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28, 20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23,
+            23, 23, 23, 24, 23, 24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24, 22, 21, 20,
+            22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23, 21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22,
+            22, 23, 22, 22, 23, 26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25, 19, 21, 26,
+            27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27, 20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25,
+            25, 24, 24, 26, 23, 26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26, 30
+    };
+    private static final int MAX_CODE_LENGTH = 30;
+    private static final int[] FIRST_CODE = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] FIRST_SYMBOL = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] CODE_COUNT = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] SYMBOLS = new int[HUFFMAN_LENGTHS.length];
+
+    static {
+        int position = 0;
+        int code = 0;
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            FIRST_CODE[length] = code;
+            FIRST_SYMBOL[length] = position;
+            for (int symbol = 0; symbol < HUFFMAN_LENGTHS.length; symbol++) {
+                if (HUFFMAN_LENGTHS[symbol] == length) {
+                    SYMBOLS[position++] = symbol;
+                    CODE_COUNT[length]++;
+                }
+            }
+            code = (code + CODE_COUNT[length]) << 1;
+        }
+    }
+
+    private Hpack() {
+    }
+
+    // Заголовки ответа: имена берутся из статической таблицы, значения передаются литералами без сжатия
+    static byte[] encodeResponse(int status, String contentType, int contentLength, String retryAfter, String etag) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream(64);
+        literal(block, STATUS_INDEX, String.valueOf(status));
+        literal(block, CONTENT_TYPE_INDEX, contentType);
+        literal(block, CONTENT_LENGTH_INDEX, String.valueOf(contentLength));
+        if (retryAfter != null) {
+            literal(block, RETRY_AFTER_INDEX, retryAfter);
+        }
+        if (etag != null) {
+            literal(block, ETAG_INDEX, etag);
+        }
+        return block.toByteArray();
+    }
+
+    private static void literal(ByteArrayOutputStream block, int nameIndex, String value) {
+        writeInteger(block, 0x00, 4, nameIndex);
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        writeInteger(block, 0x00, 7, bytes.length);
+        block.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInteger(ByteArrayOutputStream block, int flags, int prefixBits, int value) {
+        int max = (1 << prefixBits) - 1;
+        if (value < max) {
+            block.write(flags | value);
+            return;
+        }
+        block.write(flags | max);
+        value -= max;
+        while (value >= 0x80) {
+            block.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block.write(value);
+    }
+
+    /**
+     * Декодер одного соединения: динамическая таблица общая для всех блоков заголовков соединения,
+     * поэтому блоки нужно декодировать в порядке получения.
+     */
+    static final class Decoder {
+        private final List<String[]> dynamicTable = new ArrayList<>();
+        private int tableSize;
+        private int maxTableSize = DEFAULT_TABLE_SIZE;
+        private byte[] block;
+        private int position;
+
+        // Имена заголовков HTTP/2 приходят в нижнем регистре; повторяющиеся заголовки склеиваются через запятую
+        Map<String, String> decode(byte[] block) {
+            this.block = block;
+            this.position = 0;
+            Map<String, String> headers = new LinkedHashMap<>();
+            while (position < block.length) {
+                int first = block[position] & 0xFF;
+                String[] field;
+                if ((first & 0x80) != 0) {
+                    field = entry(readInteger(7));
+                } else if ((first & 0x40) != 0) {
+                    field = readLiteral(6);
+                    insert(field);
+                } else if ((first & 0x20) != 0) {
+                    maxTableSize = readInteger(5);
+                    evict(0);
+                    continue;
+                } else {
+                    field = readLiteral(4);
+                }
+                headers.merge(field[0], field[1], (previous, next) -> previous + ", " + next);
+            }
+            return headers;
+        }
+
+        private String[] readLiteral(int prefixBits) {
+            int nameIndex = readInteger(prefixBits);
+            String name = nameIndex == 0 ? readString() : entry(nameIndex)[0];
+            return new String[]{name, readString()};
+        }
+
+        private String[] entry(int index) {
+            if (index >= 1 && index <= STATIC_TABLE.length) {
+                return STATIC_TABLE[index - 1];
+            }
+            int dynamicIndex = index - STATIC_TABLE.length - 1;
+            if (dynamicIndex < 0 || dynamicIndex >= dynamicTable.size()) {
+                throw new IllegalArgumentException("HPACK: нет записи с индексом " + index);
+            }
+            return dynamicTable.get(dynamicIndex);
+        }
+
+        private void insert(String[] field) {
+            int size = entrySize(field);
+            evict(size);
+            if (size <= maxTableSize) {
+                dynamicTable.add(0, field);
+                tableSize += size;
+            }
+        }
+
+        private void evict(int required) {
+            while (!dynamicTable.isEmpty() && tableSize + required > maxTableSize) {
+                tableSize -= entrySize(dynamicTable.remove(dynamicTable.size() - 1));
+            }
+        }
+
+        private int readInteger(int prefixBits) {
+            int max = (1 << prefixBits) - 1;
+            int value = block[position++] & max;
+            if (value < max) {
+                return value;
+            }
+            int shift = 0;
+            int next;
+            do {
+                next = block[position++] & 0xFF;
+                value += (next & 0x7F) << shift;
+                shift += 7;
+            } while ((next & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            boolean huffman = (block[position] & 0x80) != 0;
+            int length = readInteger(7);
+            int start = position;
+            position += length;
+            return huffman ? decodeHuffman(block, start, length) : new String(block, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static String decodeHuffman(byte[] data, int offset, int length) {
+        StringBuilder decoded = new StringBuilder(length * 8 / 5);
+        int code = 0;
+        int codeLength = 0;
+        for (int i = offset; i < offset + length; i++) {
+            for (int bit = 7; bit >= 0; bit--) {
+                code = (code << 1) | ((data[i] >> bit) & 1);
+                codeLength++;
+                int index = code - FIRST_CODE[codeLength];
+                if (index >= 0 && index < CODE_COUNT[codeLength]) {
+                    int symbol = SYMBOLS[FIRST_SYMBOL[codeLength] + index];
+                    if (symbol == EOS) {
+                        throw new IllegalArgumentException("HPACK: EOS внутри строки");
+                    }
+                    decoded.append((char) symbol);
+                    code = 0;
+                    codeLength = 0;
+                } else if (codeLength == MAX_CODE_LENGTH) {
+                    throw new IllegalArgumentException("HPACK: некорректный код Хаффмана");
+                }
+            }
+        }
+        // Остаток меньше байта — дополнение единичными битами (префикс EOS)
+        return decoded.toString();
+    }
+
+    private static int entrySize(String[] field) {
+        return field[0].length() + field[1].length() + ENTRY_OVERHEAD;
+    }
+}
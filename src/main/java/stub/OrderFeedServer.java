@@ -0,0 +1,304 @@
+package stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket-лента заказов встраиваемой заглушки, как у сервиса: /orders/all — последние заказы всех пользователей,
+ * /orders?token=&lt;токен доступа без Bearer&gt; — заказы пользователя. Сразу после подключения и после каждого
+ * нового заказа клиенту уходит снимок ленты в формате ответа GET orders/all или GET orders. Снимки одного
+ * соединения не копятся в очереди: пока предыдущий не отправлен, новые события склеиваются в один снимок.
+ * Сообщения длиннее {@value #FRAGMENT_SIZE} байт делятся на фрагменты, чтобы клиент собирал их по частям.
+ */
+public class OrderFeedServer {
+    static final String FEED_PATH = "/orders";
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int FRAGMENT_SIZE = 4096;
+    private static final int CONTINUATION = 0x0;
+    private static final int TEXT = 0x1;
+    private static final int CLOSE = 0x8;
+    private static final int PING = 0x9;
+    private static final int PONG = 0xA;
+    private static final int NORMAL_CLOSURE = 1000;
+    private static final int POLICY_VIOLATION = 1008;
+
+    private final StellarBurgersStub backend;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<Connection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong messages = new AtomicLong();
+    private volatile boolean stopped;
+
+    private OrderFeedServer(StellarBurgersStub backend) throws IOException {
+        this.backend = backend;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        backend.addOrderListener(this::orderCreated);
+    }
+
+    static OrderFeedServer start(StellarBurgersStub backend) {
+        try {
+            OrderFeedServer server = new OrderFeedServer(backend);
+            Thread acceptor = new Thread(server::accept, "order-feed-stub-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось запустить ленту заказов заглушки", e);
+        }
+    }
+
+    // Адрес без суффикса: лента всех заказов — getFeedUri() + "/all", лента пользователя — getFeedUri() + "?token="
+    public String getFeedUri() {
+        return "ws://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort() + FEED_PATH;
+    }
+
+    // Принятые WebSocket-подключения, включая переподключения клиентов
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getActiveConnections() {
+        return active.size();
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    // Обрыв всех соединений без закрывающего кадра — так выглядит для клиента сбой сети или перезапуск сервиса
+    public void dropConnections() {
+        active.forEach(connection -> TlsStubServer.closeQuietly(connection.socket));
+    }
+
+    public void stop() {
+        stopped = true;
+        TlsStubServer.closeQuietly(serverSocket);
+        dropConnections();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!stopped) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!stopped) {
+                    System.err.println("Лента заказов заглушки: ошибка приёма соединения: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void orderCreated(String ownerId) {
+        for (Connection connection : active) {
+            if (connection.token == null || ownerId != null && ownerId.equals(connection.accountId)) {
+                connection.schedulePush();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection connection = null;
+        try {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            String requestLine = TlsStubServer.readLine(in);
+            if (requestLine == null) {
+                return;
+            }
+            Map<String, String> headers = new HashMap<>();
+            for (String line = TlsStubServer.readLine(in); line != null && !line.isEmpty(); line = TlsStubServer.readLine(in)) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+                }
+            }
+            String[] parts = requestLine.split(" ");
+            String key = headers.get("sec-websocket-key");
+            String path = parts.length > 1 ? parts[1] : "";
+            boolean allOrders = path.equals(FEED_PATH + "/all");
+            if (!parts[0].equals("GET") || key == null || !allOrders && !path.startsWith(FEED_PATH + "?")) {
+                out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                return;
+            }
+            out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            connections.incrementAndGet();
+
+            String token = allOrders ? null : queryParameter(path, "token");
+            connection = new Connection(socket, out, token, token == null ? null : backend.accountId(token));
+            if (!allOrders && connection.accountId == null) {
+                // Как у сервиса: сообщение об ошибке и закрытие соединения
+                connection.push();
+                connection.close(POLICY_VIOLATION);
+                return;
+            }
+            active.add(connection);
+            connection.push();
+            connection.read(new DataInputStream(in));
+        } catch (IOException | RuntimeException e) {
+            // Клиент закрыл соединение, соединение оборвано или нарушен протокол: соединение просто закрывается
+        } finally {
+            if (connection != null) {
+                active.remove(connection);
+            }
+            TlsStubServer.closeQuietly(socket);
+        }
+    }
+
+    private static String queryParameter(String path, String name) {
+        for (String pair : path.substring(path.indexOf('?') + 1).split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final OutputStream out;
+        private final String token;
+        private final String accountId;
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        Connection(Socket socket, OutputStream out, String token, String accountId) {
+            this.socket = socket;
+            this.out = out;
+            this.token = token;
+            this.accountId = accountId;
+        }
+
+        // Флаг снимается до построения снимка: событие, пришедшее во время отправки, даст ещё один снимок
+        void schedulePush() {
+            if (pending.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    pending.set(false);
+                    try {
+                        push();
+                    } catch (IOException e) {
+                        TlsStubServer.closeQuietly(socket);
+                    }
+                });
+            }
+        }
+
+        void push() throws IOException {
+            byte[] message = backend.feedMessage(token).getBytes(StandardCharsets.UTF_8);
+            synchronized (out) {
+                int offset = 0;
+                do {
+                    int length = Math.min(FRAGMENT_SIZE, message.length - offset);
+                    boolean last = offset + length == message.length;
+                    writeFrame(offset == 0 ? TEXT : CONTINUATION, last, message, offset, length);
+                    offset += length;
+                } while (offset < message.length);
+                out.flush();
+            }
+            messages.incrementAndGet();
+        }
+
+        // Кадры клиента замаскированы; данные от клиента ленте не нужны, обрабатываются только ping и close
+        void read(DataInputStream in) throws IOException {
+            while (!stopped) {
+                int first = in.readUnsignedByte();
+                int second = in.readUnsignedByte();
+                long length = second & 0x7F;
+                if (length == 126) {
+                    length = in.readUnsignedShort();
+                } else if (length == 127) {
+                    length = in.readLong();
+                }
+                byte[] mask = new byte[4];
+                if ((second & 0x80) != 0) {
+                    in.readFully(mask);
+                }
+                byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+                int opcode = first & 0x0F;
+                if (opcode == CLOSE) {
+                    close(NORMAL_CLOSURE);
+                    return;
+                }
+                if (opcode == PING) {
+                    synchronized (out) {
+                        writeFrame(PONG, true, payload, 0, payload.length);
+                        out.flush();
+                    }
+                }
+            }
+        }
+
+        void close(int code) throws IOException {
+            byte[] payload = {(byte) (code >> 8), (byte) code};
+            synchronized (out) {
+                writeFrame(CLOSE, true, payload, 0, payload.length);
+                out.flush();
+            }
+        }
+
+        private void writeFrame(int opcode, boolean last, byte[] payload, int offset, int length) throws IOException {
+            out.write((last ? 0x80 : 0) | opcode);
+            if (length < 126) {
+                out.write(length);
+            } else if (length <= 0xFFFF) {
+                out.write(126);
+                out.write(length >> 8);
+                out.write(length);
+            } else {
+                out.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) ((long) length >> shift));
+                }
+            }
+            out.write(payload, offset, length);
+        }
+    }
+}
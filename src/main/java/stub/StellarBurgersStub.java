@@ -0,0 +1,725 @@
+package stub;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Встраиваемая заглушка Stellar Burgers API: повторяет эндпоинты auth/register, auth/login, auth/token,
+ * auth/user, ingredients и orders с теми же кодами ответа и сообщениями, что и реальный сервис.
+ * Всё состояние хранится в памяти в конкурентных коллекциях.
+ */
+public class StellarBurgersStub {
+    public static final String API_PATH = "/api/";
+
+    static final String REQUIRED_FIELDS_MISSING_MESSAGE = "Email, password and name are required fields";
+    static final String USER_EXISTS_MESSAGE = "User already exists";
+    static final String WRONG_LOGIN_DATA_MESSAGE = "email or password are incorrect";
+    static final String UNAUTHORIZED_MESSAGE = "You should be authorised";
+    static final String EMAIL_EXISTS_MESSAGE = "User with such email already exists";
+    static final String USER_REMOVED_MESSAGE = "User successfully removed";
+    static final String INGREDIENTS_MISSING_MESSAGE = "Ingredient ids must be provided";
+    static final String INCORRECT_IDS_MESSAGE = "One or more ids provided are incorrect";
+    static final String JWT_MALFORMED_MESSAGE = "jwt malformed";
+    static final String JWT_EXPIRED_MESSAGE = "jwt expired";
+    static final String INVALID_REFRESH_TOKEN_MESSAGE = "Token is invalid";
+    static final String TOO_MANY_REQUESTS_MESSAGE = "Too many requests";
+    static final String INVALID_FEED_TOKEN_MESSAGE = "Invalid or missing token";
+
+    private static final long ACCESS_TOKEN_TTL_SECONDS = 20 * 60;
+    // Как у сервиса: GET orders/all и GET orders отдают не больше 50 последних заказов
+    private static final int ORDERS_LIMIT = 50;
+    private static final Pattern OBJECT_ID = Pattern.compile("[0-9a-f]{24}");
+    private static final Gson GSON = new Gson();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile StellarBurgersStub shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, JsonObject> ingredients;
+    private final JsonArray ingredientsList;
+    private final ConcurrentHashMap<String, Account> accountsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Session> sessionsByToken = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Account> accountsByRefreshToken = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Order> orders = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger orderNumber = new AtomicInteger(10000);
+    private final AtomicLong idSequence = new AtomicLong(System.currentTimeMillis());
+    private final List<Consumer<String>> orderListeners = new CopyOnWriteArrayList<>();
+    private volatile Overload overload;
+    private volatile OrderFeedServer feedServer;
+
+    private StellarBurgersStub(int port) throws IOException {
+        this.ingredientsList = loadIngredients();
+        this.ingredients = new LinkedHashMap<>();
+        for (JsonElement ingredient : ingredientsList) {
+            ingredients.put(ingredient.getAsJsonObject().get("_id").getAsString(), ingredient.getAsJsonObject());
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stellar-burgers-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext(API_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public static StellarBurgersStub start(int port) {
+        // Без TCP_NODELAY встроенный HttpServer на keep-alive соединениях ловит задержку Nagle + delayed ACK (~40 мс)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            StellarBurgersStub stub = new StellarBurgersStub(port);
+            stub.server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось запустить заглушку Stellar Burgers API", e);
+        }
+    }
+
+    public static StellarBurgersStub shared() {
+        if (shared == null) {
+            synchronized (StellarBurgersStub.class) {
+                if (shared == null) {
+                    StellarBurgersStub stub = start(0);
+                    Runtime.getRuntime().addShutdownHook(new Thread(stub::stop, "stellar-burgers-stub-shutdown"));
+                    shared = stub;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public String getBaseUri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + API_PATH;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Лента заказов по WebSocket (orders/all и orders?token=) запускается при первом обращении
+    public String getFeedUri() {
+        return getFeedServer().getFeedUri();
+    }
+
+    public OrderFeedServer getFeedServer() {
+        if (feedServer == null) {
+            synchronized (this) {
+                if (feedServer == null) {
+                    feedServer = OrderFeedServer.start(this);
+                }
+            }
+        }
+        return feedServer;
+    }
+
+    public void stop() {
+        if (feedServer != null) {
+            feedServer.stop();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Эмуляция перегруженного эндпоинта (например, "GET ingredients"): каждый его запрос обрабатывается
+    // serviceMillis, запросы сверх capacity одновременных получают 429. null снимает ограничение
+    public void setOverload(String route, int capacity, long serviceMillis) {
+        this.overload = route == null ? null : new Overload(route, capacity, serviceMillis);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream stream = exchange.getRequestBody()) {
+            body = stream.readAllBytes();
+        }
+        Reply reply = dispatch(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                exchange.getRequestHeaders().getFirst("Authorization"),
+                exchange.getRequestHeaders().getFirst("If-None-Match"), body);
+        try {
+            send(exchange, reply);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Обработка запроса без привязки к HttpServer: её же вызывает TLS-фронт TlsStubServer для HTTP/2 и HTTP/1.1
+    Reply dispatch(String method, String requestPath, String authorization, String ifNoneMatch, byte[] body) {
+        int query = requestPath.indexOf('?');
+        String fullPath = query < 0 ? requestPath : requestPath.substring(0, query);
+        if (!fullPath.startsWith(API_PATH)) {
+            return Reply.error(404, "Not found");
+        }
+        Overload overload = this.overload;
+        String path = fullPath.substring(API_PATH.length());
+        boolean limited = overload != null && overload.route.equals(method + " " + path);
+        try {
+            if (limited && overload.inFlight.incrementAndGet() > overload.capacity) {
+                return Reply.error(429, TOO_MANY_REQUESTS_MESSAGE).retryAfter("0");
+            }
+            if (limited) {
+                Thread.sleep(overload.serviceMillis);
+            }
+            Reply reply = route(method, path, authorization, body);
+            return method.equals("GET") ? conditional(reply, ifNoneMatch) : reply;
+        } catch (RuntimeException e) {
+            return Reply.html(500, "Internal Server Error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Reply.html(500, "Internal Server Error");
+        } finally {
+            // Место освобождается до отправки ответа: иначе следующий запрос клиента, пришедший сразу
+            // после ответа, получает 429 при фактически свободном эндпоинте
+            if (limited) {
+                overload.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Как у сервиса на Express: успешные ответы на GET получают слабый ETag по телу, совпавший If-None-Match даёт 304
+    private static Reply conditional(Reply reply, String ifNoneMatch) {
+        if (reply.status != 200) {
+            return reply;
+        }
+        String etag = weakEtag(reply.bytes());
+        return etag.equals(ifNoneMatch) ? Reply.notModified(etag) : reply.etag(etag);
+    }
+
+    private Reply route(String method, String path, String authorization, byte[] body) {
+        switch (method + " " + path) {
+            case "POST auth/register":
+                return register(readBody(body));
+            case "POST auth/login":
+                return login(readBody(body));
+            case "POST auth/token":
+                return refreshToken(readBody(body));
+            case "GET auth/user":
+                return getUser(authorization);
+            case "PATCH auth/user":
+                return updateUser(authorization, readBody(body));
+            case "DELETE auth/user":
+                return deleteUser(authorization);
+            case "GET ingredients":
+                return ingredientsList();
+            case "POST orders":
+                return createOrder(authorization, readBody(body));
+            case "GET orders":
+                return userOrders(authorization);
+            case "GET orders/all":
+                return allOrders();
+            default:
+                return Reply.error(404, "Not found");
+        }
+    }
+
+    private Reply register(JsonObject body) {
+        String email = string(body, "email");
+        String password = string(body, "password");
+        String name = string(body, "name");
+        if (email == null || password == null || name == null) {
+            return Reply.error(403, REQUIRED_FIELDS_MISSING_MESSAGE);
+        }
+        Account account = new Account(nextId(), email.toLowerCase(), password, name);
+        if (accountsByEmail.putIfAbsent(account.email, account) != null) {
+            return Reply.error(403, USER_EXISTS_MESSAGE);
+        }
+        return Reply.ok(200, authBody(account));
+    }
+
+    private Reply login(JsonObject body) {
+        String email = string(body, "email");
+        String password = string(body, "password");
+        Account account = email == null ? null : accountsByEmail.get(email.toLowerCase());
+        if (account == null || !account.password.equals(password)) {
+            return Reply.error(401, WRONG_LOGIN_DATA_MESSAGE);
+        }
+        return Reply.ok(200, authBody(account));
+    }
+
+    // Refresh-токен одноразовый: при обновлении выдаётся новая пара, старый refresh-токен перестаёт действовать
+    private Reply refreshToken(JsonObject body) {
+        String token = string(body, "token");
+        Account account = token == null ? null : accountsByRefreshToken.remove(token);
+        if (account == null || account.removed) {
+            return Reply.error(401, INVALID_REFRESH_TOKEN_MESSAGE);
+        }
+        account.refreshTokens.remove(token);
+        JsonObject reply = authBody(account);
+        reply.remove("user");
+        return Reply.ok(200, reply);
+    }
+
+    private Reply getUser(String authorization) {
+        Auth auth = authenticate(authorization);
+        if (auth.reply != null) {
+            return auth.reply;
+        }
+        JsonObject body = success();
+        body.add("user", userJson(auth.account));
+        return Reply.ok(200, body);
+    }
+
+    private Reply updateUser(String authorization, JsonObject body) {
+        Auth auth = authenticate(authorization);
+        if (auth.reply != null) {
+            return auth.reply;
+        }
+        Account account = auth.account;
+        synchronized (account) {
+            String email = string(body, "email");
+            if (email != null && !email.toLowerCase().equals(account.email)) {
+                String newEmail = email.toLowerCase();
+                if (accountsByEmail.putIfAbsent(newEmail, account) != null) {
+                    return Reply.error(403, EMAIL_EXISTS_MESSAGE);
+                }
+                accountsByEmail.remove(account.email, account);
+                account.email = newEmail;
+            }
+            String password = string(body, "password");
+            if (password != null) {
+                account.password = password;
+            }
+            String name = string(body, "name");
+            if (name != null) {
+                account.name = name;
+            }
+            account.updatedAt = Instant.now().toString();
+        }
+        JsonObject reply = success();
+        reply.add("user", userJson(account));
+        return Reply.ok(200, reply);
+    }
+
+    private Reply deleteUser(String authorization) {
+        Auth auth = authenticate(authorization);
+        if (auth.reply != null) {
+            return auth.reply;
+        }
+        Account account = auth.account;
+        synchronized (account) {
+            accountsByEmail.remove(account.email, account);
+            account.removed = true;
+        }
+        for (String token : account.tokens) {
+            sessionsByToken.remove(token);
+        }
+        for (String token : account.refreshTokens) {
+            accountsByRefreshToken.remove(token);
+        }
+        JsonObject body = success();
+        body.addProperty("message", USER_REMOVED_MESSAGE);
+        return Reply.ok(202, body);
+    }
+
+    private Reply ingredientsList() {
+        JsonObject body = success();
+        body.add("data", ingredientsList);
+        return Reply.ok(200, body);
+    }
+
+    private Reply createOrder(String authorization, JsonObject body) {
+        JsonElement requested = body.get("ingredients");
+        if (requested == null || !requested.isJsonArray() || requested.getAsJsonArray().size() == 0) {
+            return Reply.error(400, INGREDIENTS_MISSING_MESSAGE);
+        }
+        List<JsonObject> resolved = new ArrayList<>();
+        for (JsonElement id : requested.getAsJsonArray()) {
+            String value = id.isJsonPrimitive() ? id.getAsString() : "";
+            if (!OBJECT_ID.matcher(value).matches()) {
+                return Reply.html(500, "Internal Server Error");
+            }
+            JsonObject ingredient = ingredients.get(value);
+            if (ingredient == null) {
+                return Reply.error(400, INCORRECT_IDS_MESSAGE);
+            }
+            resolved.add(ingredient);
+        }
+        Auth auth = authenticate(authorization);
+        Order order = new Order(nextId(), orderNumber.incrementAndGet(), burgerName(resolved), resolved,
+                auth.account);
+        orders.addFirst(order);
+        if (auth.account != null) {
+            auth.account.orders.addFirst(order);
+        }
+        String ownerId = auth.account == null ? null : auth.account.id;
+        orderListeners.forEach(listener -> listener.accept(ownerId));
+
+        JsonObject reply = success();
+        reply.addProperty("name", order.name);
+        reply.add("order", auth.account == null ? numberOnly(order) : fullOrderJson(order));
+        return Reply.ok(200, reply);
+    }
+
+    private Reply userOrders(String authorization) {
+        Auth auth = authenticate(authorization);
+        if (auth.reply != null) {
+            return auth.reply;
+        }
+        // Заказы хранятся от новых к старым; как и сервис, отдаём последние ORDERS_LIMIT по возрастанию
+        List<Order> recent = new ArrayList<>(ORDERS_LIMIT);
+        for (Order order : auth.account.orders) {
+            if (recent.size() == ORDERS_LIMIT) {
+                break;
+            }
+            recent.add(order);
+        }
+        JsonArray list = new JsonArray();
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            list.add(feedOrderJson(recent.get(i)));
+        }
+        return Reply.ok(200, feed(list));
+    }
+
+    private Reply allOrders() {
+        JsonArray list = new JsonArray();
+        for (Order order : orders) {
+            if (list.size() == ORDERS_LIMIT) {
+                break;
+            }
+            list.add(feedOrderJson(order));
+        }
+        return Reply.ok(200, feed(list));
+    }
+
+    // Слушатель получает идентификатор владельца нового заказа (null для заказа без авторизации)
+    void addOrderListener(Consumer<String> listener) {
+        orderListeners.add(listener);
+    }
+
+    String accountId(String token) {
+        Auth auth = authenticate(token);
+        return auth.account == null ? null : auth.account.id;
+    }
+
+    // Сообщение ленты: те же поля, что у GET orders/all и GET orders; token == null — лента всех заказов
+    String feedMessage(String token) {
+        Reply reply = token == null ? allOrders() : userOrders(token);
+        return reply.status == 200 ? reply.body : Reply.error(401, INVALID_FEED_TOKEN_MESSAGE).body;
+    }
+
+    private JsonObject feed(JsonArray list) {
+        JsonObject body = success();
+        body.add("orders", list);
+        body.addProperty("total", orderNumber.get() - 10000);
+        body.addProperty("totalToday", orderNumber.get() - 10000);
+        return body;
+    }
+
+    private Auth authenticate(String header) {
+        if (header == null || header.isEmpty()) {
+            return new Auth(null, Reply.error(401, UNAUTHORIZED_MESSAGE));
+        }
+        String token = header.startsWith("Bearer ") ? header.substring(7) : header;
+        Session session = sessionsByToken.get(token);
+        if (session == null || session.account.removed) {
+            return new Auth(null, Reply.error(403, JWT_MALFORMED_MESSAGE));
+        }
+        if (Instant.now().getEpochSecond() >= session.expiresAt) {
+            sessionsByToken.remove(token);
+            return new Auth(null, Reply.error(403, JWT_EXPIRED_MESSAGE));
+        }
+        return new Auth(session.account, null);
+    }
+
+    private JsonObject authBody(Account account) {
+        long issuedAt = Instant.now().getEpochSecond();
+        String accessToken = jwt(account.id, issuedAt, issuedAt + ACCESS_TOKEN_TTL_SECONDS);
+        sessionsByToken.put(accessToken, new Session(account, issuedAt + ACCESS_TOKEN_TTL_SECONDS));
+        account.tokens.add(accessToken);
+
+        JsonObject body = success();
+        body.add("user", userJson(account));
+        body.addProperty("accessToken", "Bearer " + accessToken);
+        String refreshToken = randomHex(40);
+        accountsByRefreshToken.put(refreshToken, account);
+        account.refreshTokens.add(refreshToken);
+        body.addProperty("refreshToken", refreshToken);
+        return body;
+    }
+
+    private static JsonObject userJson(Account account) {
+        JsonObject user = new JsonObject();
+        user.addProperty("email", account.email);
+        user.addProperty("name", account.name);
+        return user;
+    }
+
+    private static JsonObject numberOnly(Order order) {
+        JsonObject json = new JsonObject();
+        json.addProperty("number", order.number);
+        return json;
+    }
+
+    private static JsonObject fullOrderJson(Order order) {
+        JsonObject json = new JsonObject();
+        JsonArray ingredients = new JsonArray();
+        order.ingredients.forEach(ingredients::add);
+        json.add("ingredients", ingredients);
+        json.addProperty("_id", order.id);
+        JsonObject owner = new JsonObject();
+        owner.addProperty("name", order.owner.name);
+        owner.addProperty("email", order.owner.email);
+        owner.addProperty("createdAt", order.owner.createdAt);
+        owner.addProperty("updatedAt", order.owner.updatedAt);
+        json.add("owner", owner);
+        json.addProperty("status", order.status);
+        json.addProperty("name", order.name);
+        json.addProperty("createdAt", order.createdAt);
+        json.addProperty("updatedAt", order.createdAt);
+        json.addProperty("number", order.number);
+        json.addProperty("price", order.price);
+        return json;
+    }
+
+    private static JsonObject feedOrderJson(Order order) {
+        JsonObject json = new JsonObject();
+        JsonArray ingredients = new JsonArray();
+        order.ingredients.forEach(ingredient -> ingredients.add(ingredient.get("_id")));
+        json.add("ingredients", ingredients);
+        json.addProperty("_id", order.id);
+        json.addProperty("status", order.status);
+        json.addProperty("name", order.name);
+        json.addProperty("createdAt", order.createdAt);
+        json.addProperty("updatedAt", order.createdAt);
+        json.addProperty("number", order.number);
+        return json;
+    }
+
+    private static String burgerName(List<JsonObject> ingredients) {
+        StringBuilder name = new StringBuilder();
+        ingredients.stream()
+                .map(ingredient -> ingredient.get("name").getAsString().split(" ")[0])
+                .distinct()
+                .forEach(word -> name.append(word).append(' '));
+        return name.append("бургер").toString();
+    }
+
+    private static JsonObject success() {
+        JsonObject body = new JsonObject();
+        body.addProperty("success", true);
+        return body;
+    }
+
+    private String nextId() {
+        return String.format("%024x", idSequence.incrementAndGet());
+    }
+
+    private static String jwt(String id, long issuedAt, long expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"id\":\"" + id + "\",\"iat\":" + issuedAt + ",\"exp\":" + expiresAt
+                + ",\"jti\":\"" + randomHex(8) + "\"}").getBytes(StandardCharsets.UTF_8));
+        byte[] signature = new byte[32];
+        RANDOM.nextBytes(signature);
+        return header + "." + payload + "." + encoder.encodeToString(signature);
+    }
+
+    private static String weakEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(body);
+            return "W/\"" + Integer.toHexString(body.length) + "-"
+                    + Base64.getEncoder().encodeToString(digest).substring(0, 27) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] value = new byte[bytes];
+        RANDOM.nextBytes(value);
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        for (byte b : value) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String string(JsonObject body, String field) {
+        JsonElement value = body.get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    private static JsonObject readBody(byte[] bytes) {
+        JsonElement body = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+        return body.isJsonObject() ? body.getAsJsonObject() : new JsonObject();
+    }
+
+    private static JsonArray loadIngredients() throws IOException {
+        try (InputStream stream = StellarBurgersStub.class.getResourceAsStream("/stub/ingredients.json")) {
+            if (stream == null) {
+                throw new IOException("Не найден каталог ингредиентов заглушки /stub/ingredients.json");
+            }
+            return JsonParser.parseReader(new InputStreamReader(stream, StandardCharsets.UTF_8)).getAsJsonArray();
+        }
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) throws IOException {
+        byte[] bytes = reply.bytes();
+        exchange.getResponseHeaders().set("Content-Type", reply.contentType);
+        if (reply.retryAfter != null) {
+            exchange.getResponseHeaders().set("Retry-After", reply.retryAfter);
+        }
+        if (reply.etag != null) {
+            exchange.getResponseHeaders().set("ETag", reply.etag);
+        }
+        // -1: ответ без тела (304)
+        exchange.sendResponseHeaders(reply.status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static final class Overload {
+        final String route;
+        final int capacity;
+        final long serviceMillis;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        Overload(String route, int capacity, long serviceMillis) {
+            this.route = route;
+            this.capacity = capacity;
+            this.serviceMillis = serviceMillis;
+        }
+    }
+
+    static final class Reply {
+        final int status;
+        final String contentType;
+        final String body;
+        String retryAfter;
+        String etag;
+
+        private Reply(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        Reply retryAfter(String seconds) {
+            this.retryAfter = seconds;
+            return this;
+        }
+
+        Reply etag(String value) {
+            this.etag = value;
+            return this;
+        }
+
+        byte[] bytes() {
+            return body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        static Reply ok(int status, JsonObject body) {
+            return new Reply(status, "application/json; charset=utf-8", GSON.toJson(body));
+        }
+
+        static Reply notModified(String etag) {
+            return new Reply(304, "application/json; charset=utf-8", "").etag(etag);
+        }
+
+        static Reply error(int status, String message) {
+            JsonObject body = new JsonObject();
+            body.addProperty("success", false);
+            body.addProperty("message", message);
+            return ok(status, body);
+        }
+
+        static Reply html(int status, String message) {
+            return new Reply(status, "text/html; charset=utf-8", "<!DOCTYPE html><html><body><pre>" + message
+                    + "</pre></body></html>");
+        }
+    }
+
+    private static final class Auth {
+        final Account account;
+        final Reply reply;
+
+        Auth(Account account, Reply reply) {
+            this.account = account;
+            this.reply = reply;
+        }
+    }
+
+    private static final class Session {
+        final Account account;
+        final long expiresAt;
+
+        Session(Account account, long expiresAt) {
+            this.account = account;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Account {
+        final String id;
+        final String createdAt = Instant.now().toString();
+        final Set<String> tokens = ConcurrentHashMap.newKeySet();
+        final Set<String> refreshTokens = ConcurrentHashMap.newKeySet();
+        final ConcurrentLinkedDeque<Order> orders = new ConcurrentLinkedDeque<>();
+        volatile String email;
+        volatile String password;
+        volatile String name;
+        volatile String updatedAt = createdAt;
+        volatile boolean removed;
+
+        Account(String id, String email, String password, String name) {
+            this.id = id;
+            this.email = email;
+            this.password = password;
+            this.name = name;
+        }
+    }
+
+    private static final class Order {
+        final String id;
+        final int number;
+        final String name;
+        final List<JsonObject> ingredients;
+        final Account owner;
+        final String status = "done";
+        final String createdAt = Instant.now().toString();
+        final int price;
+
+        Order(String id, int number, String name, List<JsonObject> ingredients, Account owner) {
+            this.id = id;
+            this.number = number;
+            this.name = name;
+            this.ingredients = ingredients;
+            this.owner = owner;
+            this.price = ingredients.stream().mapToInt(ingredient -> ingredient.get("price").getAsInt()).sum();
+        }
+    }
+}
@@ -0,0 +1,590 @@
+package stub;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TLS-фронт встраиваемой заглушки для проверки HTTP/2: принимает TLS-соединения на loopback, по ALPN договаривается
+ * о h2 или http/1.1 и передаёт запросы в {@link StellarBurgersStub}. По HTTP/2 запросы одного соединения
+ * обрабатываются параллельно (мультиплексирование потоков), по HTTP/1.1 — по очереди на keep-alive соединении.
+ * Без h2 в ALPN сервер ведёт себя как сервис, не поддерживающий HTTP/2, и клиент должен перейти на HTTP/1.1.
+ * Сертификат самоподписанный, создаётся keytool один раз за JVM; клиенту нужен {@link #clientSslContext()}.
+ * Счётчики показывают, сколько соединений и TLS-рукопожатий потребовалось клиенту на обслуженные запросы.
+ */
+public class TlsStubServer {
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+    private static final int END_STREAM = 0x1;
+    private static final int ACK = 0x1;
+    private static final int END_HEADERS = 0x4;
+    private static final int PADDED = 0x8;
+    private static final int PRIORITY = 0x20;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    private static final int MAX_CONCURRENT_STREAMS = 256;
+    private static final int MAX_FRAME_SIZE = 16_384;
+    private static final int DEFAULT_WINDOW = 65_535;
+    private static final char[] KEYSTORE_PASSWORD = "stellar-burgers-stub".toCharArray();
+
+    private static volatile KeyMaterial keyMaterial;
+
+    private final StellarBurgersStub backend;
+    private final SSLServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger http2Connections = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private volatile boolean stopped;
+
+    private TlsStubServer(StellarBurgersStub backend, boolean http2) throws IOException {
+        this.backend = backend;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "tls-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.serverSocket = (SSLServerSocket) keyMaterial().server.getServerSocketFactory()
+                .createServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        SSLParameters parameters = serverSocket.getSSLParameters();
+        parameters.setApplicationProtocols(http2 ? new String[]{"h2", "http/1.1"} : new String[]{"http/1.1"});
+        serverSocket.setSSLParameters(parameters);
+    }
+
+    // http2=false — сервер без h2 в ALPN для проверки перехода клиента на HTTP/1.1
+    public static TlsStubServer start(StellarBurgersStub backend, boolean http2) {
+        try {
+            TlsStubServer server = new TlsStubServer(backend, http2);
+            Thread acceptor = new Thread(server::accept, "tls-stub-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось запустить TLS-фронт заглушки", e);
+        }
+    }
+
+    // Контекст клиента, доверяющий самоподписанному сертификату заглушки
+    public static SSLContext clientSslContext() {
+        return keyMaterial().client;
+    }
+
+    public String getBaseUri() {
+        String host = serverSocket.getInetAddress().getHostAddress();
+        return "https://" + (host.contains(":") ? "[" + host + "]" : host) + ":" + serverSocket.getLocalPort()
+                + StellarBurgersStub.API_PATH;
+    }
+
+    // Принятые TCP-соединения; на каждое приходится одно полное TLS-рукопожатие
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getHttp2Connections() {
+        return http2Connections.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public void stop() {
+        stopped = true;
+        closeQuietly(serverSocket);
+        sockets.forEach(TlsStubServer::closeQuietly);
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!stopped) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                executor.execute(() -> serve((SSLSocket) socket));
+            } catch (IOException e) {
+                if (!stopped) {
+                    System.err.println("TLS-фронт заглушки: ошибка приёма соединения: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(SSLSocket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            socket.startHandshake();
+            if ("h2".equals(socket.getApplicationProtocol())) {
+                http2Connections.incrementAndGet();
+                new Http2Connection(socket).run();
+            } else {
+                serveHttp1(socket);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Клиент закрыл соединение или нарушил протокол: соединение просто закрывается
+        } finally {
+            sockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void serveHttp1(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+        while (!stopped) {
+            String requestLine = readLine(in);
+            if (requestLine == null || requestLine.isEmpty()) {
+                return;
+            }
+            String[] parts = requestLine.split(" ");
+            Map<String, String> headers = new HashMap<>();
+            for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+                }
+            }
+            byte[] body = in.readNBytes(Integer.parseInt(headers.getOrDefault("content-length", "0")));
+            requests.incrementAndGet();
+            StellarBurgersStub.Reply reply = backend.dispatch(parts[0], parts[1], headers.get("authorization"),
+                    headers.get("if-none-match"), body);
+            byte[] bytes = reply.bytes();
+            StringBuilder head = new StringBuilder("HTTP/1.1 ").append(reply.status).append(" \r\n")
+                    .append("Content-Type: ").append(reply.contentType).append("\r\n")
+                    .append("Content-Length: ").append(bytes.length).append("\r\n");
+            if (reply.retryAfter != null) {
+                head.append("Retry-After: ").append(reply.retryAfter).append("\r\n");
+            }
+            if (reply.etag != null) {
+                head.append("ETag: ").append(reply.etag).append("\r\n");
+            }
+            out.write(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+            out.write(bytes);
+            out.flush();
+            if ("close".equalsIgnoreCase(headers.get("connection"))) {
+                return;
+            }
+        }
+    }
+
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int next = in.read();
+        if (next < 0) {
+            return null;
+        }
+        while (next >= 0 && next != '\n') {
+            if (next != '\r') {
+                line.write(next);
+            }
+            next = in.read();
+        }
+        return line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Одно HTTP/2-соединение: поток чтения разбирает кадры и декодирует заголовки по порядку, готовые запросы
+     * выполняются параллельно в пуле, ответы пишутся кадрами под общей блокировкой с учётом окон управления потоком.
+     */
+    private final class Http2Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final Hpack.Decoder decoder = new Hpack.Decoder();
+        private final Map<Integer, Stream> streams = new ConcurrentHashMap<>();
+        private final Object windows = new Object();
+        private int connectionWindow = DEFAULT_WINDOW;
+        private int initialStreamWindow = DEFAULT_WINDOW;
+        private boolean closed;
+
+        Http2Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new BufferedOutputStream(socket.getOutputStream(), MAX_FRAME_SIZE + 9);
+        }
+
+        void run() throws IOException {
+            byte[] preface = new byte[PREFACE.length];
+            in.readFully(preface);
+            if (!Arrays.equals(preface, PREFACE)) {
+                return;
+            }
+            byte[] settings = new byte[6];
+            settings[1] = SETTINGS_MAX_CONCURRENT_STREAMS;
+            writeInt(settings, 2, MAX_CONCURRENT_STREAMS);
+            writeFrame(SETTINGS, 0, 0, settings, 0, settings.length);
+            try {
+                readFrames();
+            } catch (EOFException e) {
+                // Клиент закрыл соединение
+            } finally {
+                synchronized (windows) {
+                    closed = true;
+                    windows.notifyAll();
+                }
+            }
+        }
+
+        private void readFrames() throws IOException {
+            byte[] header = new byte[9];
+            while (!stopped) {
+                in.readFully(header);
+                int length = ((header[0] & 0xFF) << 16) | ((header[1] & 0xFF) << 8) | (header[2] & 0xFF);
+                int type = header[3] & 0xFF;
+                int flags = header[4] & 0xFF;
+                int streamId = readInt(header, 5) & 0x7FFFFFFF;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                switch (type) {
+                    case DATA:
+                        onData(streamId, flags, payload);
+                        break;
+                    case HEADERS:
+                        onHeaders(streamId, flags, payload);
+                        break;
+                    case SETTINGS:
+                        if ((flags & ACK) == 0) {
+                            onSettings(payload);
+                            writeFrame(SETTINGS, ACK, 0, new byte[0], 0, 0);
+                        }
+                        break;
+                    case PING:
+                        if ((flags & ACK) == 0) {
+                            writeFrame(PING, ACK, 0, payload, 0, payload.length);
+                        }
+                        break;
+                    case WINDOW_UPDATE:
+                        onWindowUpdate(streamId, readInt(payload, 0) & 0x7FFFFFFF);
+                        break;
+                    case RST_STREAM:
+                        Stream reset = streams.remove(streamId);
+                        if (reset != null) {
+                            synchronized (windows) {
+                                reset.reset = true;
+                                windows.notifyAll();
+                            }
+                        }
+                        break;
+                    case GOAWAY:
+                        return;
+                    default:
+                        // PRIORITY и неизвестные типы кадров игнорируются
+                        break;
+                }
+            }
+        }
+
+        private void onHeaders(int streamId, int flags, byte[] payload) throws IOException {
+            int offset = 0;
+            int padding = 0;
+            if ((flags & PADDED) != 0) {
+                padding = payload[0] & 0xFF;
+                offset = 1;
+            }
+            if ((flags & PRIORITY) != 0) {
+                offset += 5;
+            }
+            ByteArrayOutputStream block = new ByteArrayOutputStream(payload.length);
+            block.write(payload, offset, payload.length - offset - padding);
+            int headerFlags = flags;
+            byte[] header = new byte[9];
+            while ((headerFlags & END_HEADERS) == 0) {
+                in.readFully(header);
+                int length = ((header[0] & 0xFF) << 16) | ((header[1] & 0xFF) << 8) | (header[2] & 0xFF);
+                if ((header[3] & 0xFF) != CONTINUATION) {
+                    throw new IOException("HTTP/2: после HEADERS без END_HEADERS ожидался CONTINUATION");
+                }
+                headerFlags = header[4] & 0xFF;
+                byte[] continuation = new byte[length];
+                in.readFully(continuation);
+                block.write(continuation);
+            }
+            Map<String, String> headers = decoder.decode(block.toByteArray());
+            Stream stream;
+            synchronized (windows) {
+                stream = new Stream(streamId, headers.get(":method"), headers.get(":path"),
+                        headers.get("authorization"), headers.get("if-none-match"), initialStreamWindow);
+            }
+            streams.put(streamId, stream);
+            if ((flags & END_STREAM) != 0) {
+                dispatch(stream);
+            }
+        }
+
+        private void onData(int streamId, int flags, byte[] payload) throws IOException {
+            int offset = 0;
+            int padding = 0;
+            if ((flags & PADDED) != 0) {
+                padding = payload[0] & 0xFF;
+                offset = 1;
+            }
+            Stream stream = streams.get(streamId);
+            if (stream != null) {
+                stream.body.write(payload, offset, payload.length - offset - padding);
+            }
+            // Принятые данные сразу возвращаются в окна клиента, запросы заглушки небольшие
+            if (payload.length > 0) {
+                windowUpdate(0, payload.length);
+                if ((flags & END_STREAM) == 0) {
+                    windowUpdate(streamId, payload.length);
+                }
+            }
+            if (stream != null && (flags & END_STREAM) != 0) {
+                dispatch(stream);
+            }
+        }
+
+        private void onSettings(byte[] payload) {
+            for (int i = 0; i + 6 <= payload.length; i += 6) {
+                int id = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+                int value = readInt(payload, i + 2);
+                if (id == SETTINGS_INITIAL_WINDOW_SIZE) {
+                    synchronized (windows) {
+                        int delta = value - initialStreamWindow;
+                        initialStreamWindow = value;
+                        streams.values().forEach(stream -> stream.window += delta);
+                        windows.notifyAll();
+                    }
+                }
+            }
+        }
+
+        private void onWindowUpdate(int streamId, int increment) {
+            synchronized (windows) {
+                if (streamId == 0) {
+                    connectionWindow += increment;
+                } else {
+                    Stream stream = streams.get(streamId);
+                    if (stream != null) {
+                        stream.window += increment;
+                    }
+                }
+                windows.notifyAll();
+            }
+        }
+
+        private void dispatch(Stream stream) {
+            requests.incrementAndGet();
+            executor.execute(() -> {
+                StellarBurgersStub.Reply reply = backend.dispatch(stream.method, stream.path, stream.authorization,
+                        stream.ifNoneMatch, stream.body.toByteArray());
+                try {
+                    respond(stream, reply);
+                } catch (IOException | InterruptedException e) {
+                    closeQuietly(socket);
+                } finally {
+                    streams.remove(stream.id);
+                }
+            });
+        }
+
+        private void respond(Stream stream, StellarBurgersStub.Reply reply) throws IOException, InterruptedException {
+            byte[] body = reply.bytes();
+            byte[] headers = Hpack.encodeResponse(reply.status, reply.contentType, body.length, reply.retryAfter,
+                    reply.etag);
+            writeFrame(HEADERS, body.length == 0 ? END_HEADERS | END_STREAM : END_HEADERS, stream.id,
+                    headers, 0, headers.length);
+            int offset = 0;
+            while (offset < body.length) {
+                int chunk = acquireWindow(stream, Math.min(MAX_FRAME_SIZE, body.length - offset));
+                if (chunk < 0) {
+                    return;
+                }
+                writeFrame(DATA, offset + chunk == body.length ? END_STREAM : 0, stream.id, body, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        // Ждёт, пока окна соединения и потока позволят отправить хотя бы байт; -1, если отправлять уже некуда
+        private int acquireWindow(Stream stream, int wanted) throws InterruptedException {
+            synchronized (windows) {
+                while (!closed && !stream.reset && (connectionWindow <= 0 || stream.window <= 0)) {
+                    windows.wait();
+                }
+                if (closed || stream.reset) {
+                    return -1;
+                }
+                int granted = Math.min(wanted, Math.min(connectionWindow, stream.window));
+                connectionWindow -= granted;
+                stream.window -= granted;
+                return granted;
+            }
+        }
+
+        private void windowUpdate(int streamId, int increment) throws IOException {
+            byte[] payload = new byte[4];
+            writeInt(payload, 0, increment);
+            writeFrame(WINDOW_UPDATE, 0, streamId, payload, 0, payload.length);
+        }
+
+        private void writeFrame(int type, int flags, int streamId, byte[] payload, int offset, int length)
+                throws IOException {
+            byte[] header = new byte[9];
+            header[0] = (byte) (length >>> 16);
+            header[1] = (byte) (length >>> 8);
+            header[2] = (byte) length;
+            header[3] = (byte) type;
+            header[4] = (byte) flags;
+            writeInt(header, 5, streamId);
+            synchronized (out) {
+                out.write(header);
+                out.write(payload, offset, length);
+                out.flush();
+            }
+        }
+    }
+
+    private static final class Stream {
+        final int id;
+        final String method;
+        final String path;
+        final String authorization;
+        final String ifNoneMatch;
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int window;
+        boolean reset;
+
+        Stream(int id, String method, String path, String authorization, String ifNoneMatch, int window) {
+            this.id = id;
+            this.method = method;
+            this.path = path;
+            this.authorization = authorization;
+            this.ifNoneMatch = ifNoneMatch;
+            this.window = window;
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Закрытие при остановке, ошибка не важна
+        }
+    }
+
+    private static KeyMaterial keyMaterial() {
+        if (keyMaterial == null) {
+            synchronized (TlsStubServer.class) {
+                if (keyMaterial == null) {
+                    keyMaterial = KeyMaterial.generate();
+                }
+            }
+        }
+        return keyMaterial;
+    }
+
+    // Самоподписанный сертификат для адреса loopback: keytool из текущего JDK, хранилище удаляется сразу после загрузки
+    private static final class KeyMaterial {
+        final SSLContext server;
+        final SSLContext client;
+
+        private KeyMaterial(SSLContext server, SSLContext client) {
+            this.server = server;
+            this.client = client;
+        }
+
+        static KeyMaterial generate() {
+            Path directory = null;
+            Path keystore = null;
+            try {
+                directory = Files.createTempDirectory("tls-stub");
+                keystore = directory.resolve("stub.p12");
+                String address = InetAddress.getLoopbackAddress().getHostAddress();
+                Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString(),
+                        "-genkeypair", "-alias", "stub", "-keyalg", "EC", "-groupname", "secp256r1",
+                        "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:" + address, "-validity", "2",
+                        "-storetype", "PKCS12", "-keystore", keystore.toString(),
+                        "-storepass", new String(KEYSTORE_PASSWORD), "-keypass", new String(KEYSTORE_PASSWORD))
+                        .redirectErrorStream(true)
+                        .start();
+                String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                if (keytool.waitFor() != 0) {
+                    throw new IllegalStateException("keytool не создал сертификат заглушки: " + output);
+                }
+                KeyStore keys = KeyStore.getInstance("PKCS12");
+                try (InputStream stream = Files.newInputStream(keystore)) {
+                    keys.load(stream, KEYSTORE_PASSWORD);
+                }
+                KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagers.init(keys, KEYSTORE_PASSWORD);
+                SSLContext server = SSLContext.getInstance("TLS");
+                server.init(keyManagers.getKeyManagers(), null, null);
+
+                KeyStore trusted = KeyStore.getInstance("PKCS12");
+                trusted.load(null, null);
+                trusted.setCertificateEntry("stub", keys.getCertificate("stub"));
+                TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                trustManagers.init(trusted);
+                SSLContext client = SSLContext.getInstance("TLS");
+                client.init(null, trustManagers.getTrustManagers(), null);
+                return new KeyMaterial(server, client);
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalStateException("Не удалось подготовить сертификат TLS-фронта заглушки", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Создание сертификата TLS-фронта заглушки прервано", e);
+            } finally {
+                try {
+                    if (keystore != null) {
+                        Files.deleteIfExists(keystore);
+                    }
+                    if (directory != null) {
+                        Files.deleteIfExists(directory);
+                    }
+                } catch (IOException e) {
+                    // Временный каталог останется, на работу заглушки это не влияет
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import cassette.CassetteSession;
+import client.AdaptiveLimiter;
+import client.ApiClient;
+import client.CircuitBreaker;
+import client.IngredientClient;
+import client.RequestRejectedException;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import stub.StellarBurgersStub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThrows;
+
+public class AdaptiveLimitTest {
+    private static final int THREADS = 8;
+    private static final int REQUESTS = 60;
+    private static final int CAPACITY = 2;
+    // Обслуживание на заглушке заметно дольше обработки ответа клиентом: иначе лимит считает занятыми места,
+    // которые сервер уже освободил, и под нагрузкой держится выше ёмкости
+    private static final long SERVICE_MILLIS = 100;
+
+    @After
+    public void removeOverload() {
+        if (ApiClient.isStubTarget()) {
+            StellarBurgersStub.shared().setOverload(null, 0, 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Волна перегрузок снижает лимит один раз, успешные ответы поднимают его обратно")
+    public void shouldDecreaseLimitOncePerOverloadWaveAndGrowBack() {
+        AdaptiveLimiter.Endpoint endpoint = new AdaptiveLimiter(8, 16, 0.5, 1000, 100, 1000).endpoint("GET", "orders");
+        List<Long> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(endpoint.acquire());
+        }
+        permits.forEach(endpoint::onOverload);
+
+        assertThat("Ошибка лимита: волна перегрузок не снизила лимит вдвое один раз", endpoint.getLimit(), equalTo(4));
+        assertThat("Ошибка лимита: неверное число снижений", endpoint.getDecreases(), equalTo(1L));
+
+        for (int round = 0; round < 50; round++) {
+            List<Long> wave = new ArrayList<>();
+            for (int i = 0; i < endpoint.getLimit(); i++) {
+                wave.add(endpoint.acquire());
+            }
+            wave.forEach(endpoint::onSuccess);
+        }
+        assertThat("Ошибка лимита: лимит не вырос до максимума", endpoint.getLimit(), equalTo(16));
+    }
+
+    @Test
+    @DisplayName("Автомат защиты размыкается после серии перегрузок и пропускает пробный запрос")
+    public void shouldOpenBreakerAndProbeAfterTimeout() throws InterruptedException {
+        AdaptiveLimiter.Endpoint endpoint = new AdaptiveLimiter(4, 4, 0.5, 1000, 3, 100).endpoint("GET", "orders");
+        for (int i = 0; i < 3; i++) {
+            endpoint.onOverload(endpoint.acquire());
+        }
+
+        assertThat("Ошибка автомата защиты: не разомкнут", endpoint.getBreakerState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThrows("Ошибка автомата защиты: запрос пропущен", RequestRejectedException.class, endpoint::acquire);
+
+        Thread.sleep(150);
+        long probe = endpoint.acquire();
+        assertThrows("Ошибка автомата защиты: пропущено больше одной пробы", RequestRejectedException.class, endpoint::acquire);
+        endpoint.onSuccess(probe);
+        assertThat("Ошибка автомата защиты: не замкнут после пробы", endpoint.getBreakerState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    @DisplayName("При ответах 429 идемпотентные запросы повторяются, лимит подстраивается под сервер")
+    public void shouldAdaptToOverloadedEndpoint() throws Exception {
+        Assume.assumeTrue(ApiClient.isStubTarget() && CassetteSession.shared().getMode() == CassetteSession.Mode.OFF
+                && AdaptiveLimiter.isEnabled());
+        StellarBurgersStub.shared().setOverload("GET ingredients", CAPACITY, SERVICE_MILLIS);
+        IngredientClient ingredientClient = new IngredientClient();
+        AdaptiveLimiter.Endpoint endpoint = AdaptiveLimiter.shared().endpoint("GET", "ingredients");
+        AtomicInteger tickets = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger saturatedLimit = new AtomicInteger(-1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int ticket = tickets.getAndIncrement(); ticket < REQUESTS; ticket = tickets.getAndIncrement()) {
+                        // Последний замер, пока заняты все потоки: дальше нагрузка спадает и лимит растёт без отказов
+                        if (ticket == REQUESTS - THREADS) {
+                            saturatedLimit.set(endpoint.getLimit());
+                        }
+                        try {
+                            if (ingredientClient.getIngredients().statusCode() != 200) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (RequestRejectedException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat("Ошибка адаптивного лимита: не было повторов", endpoint.getRetries(), greaterThan(0L));
+        assertThat("Ошибка адаптивного лимита: лимит не снижался", endpoint.getDecreases(), greaterThan(0L));
+        assertThat("Ошибка адаптивного лимита: лимит под нагрузкой не сошёлся к ёмкости сервера",
+                saturatedLimit.get(), lessThanOrEqualTo(CAPACITY + 1));
+        assertThat("Ошибка адаптивного лимита: слишком много запросов не прошло после повторов",
+                failed.get(), lessThanOrEqualTo(REQUESTS / 10));
+    }
+}
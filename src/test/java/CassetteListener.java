@@ -0,0 +1,26 @@
+import cassette.CassetteSession;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Привязывает кассету к потоку выполняемого теста: при api.cassette=record обмены теста пишутся
+ * в его кассету, при api.cassette=replay ответы берутся из неё.
+ */
+@RunListener.ThreadSafe
+public class CassetteListener extends RunListener {
+    @Override
+    public void testStarted(Description description) {
+        CassetteSession session = CassetteSession.shared();
+        if (session.getMode() != CassetteSession.Mode.OFF) {
+            session.startTest(description.getClassName(), description.getMethodName());
+        }
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        CassetteSession session = CassetteSession.shared();
+        if (session.getMode() != CassetteSession.Mode.OFF) {
+            session.finishTest();
+        }
+    }
+}
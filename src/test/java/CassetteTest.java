@@ -0,0 +1,157 @@
+import cassette.Cassette;
+import cassette.CassetteSession;
+import cassette.RecordedExchange;
+import client.ApiClient;
+import client.OrderClient;
+import client.UserClient;
+import fixture.IngredientCatalog;
+import fixture.OrderPayloads;
+import io.qameta.allure.junit4.DisplayName;
+import model.AuthResponse;
+import model.OrderResponse;
+import model.OrdersListResponse;
+import model.User;
+import model.UserResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CassetteTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final String REGISTER_REQUEST = "{\"email\":\"Recorded@gmail.com\",\"password\":\"recordedPassword\",\"name\":\"Recorded\"}";
+    private final String REGISTER_RESPONSE = "{\"success\":true,\"user\":{\"email\":\"recorded@gmail.com\",\"name\":\"Recorded\"},"
+            + "\"accessToken\":\"Bearer recorded.access.token\",\"refreshToken\":\"recordedrefresh\"}";
+
+    @Test
+    @DisplayName("Кассета не содержит случайных данных пользователя и токенов")
+    public void shouldNormalizeUserDataAndTokensOnRecord() throws IOException {
+        record();
+
+        String cassette = new String(Files.readAllBytes(folder.getRoot().toPath().resolve("CassetteTest").resolve("record.cassette.gz")));
+        Cassette recorded = Cassette.read(folder.getRoot().toPath().resolve("CassetteTest").resolve("record.cassette.gz"));
+        RecordedExchange register = recorded.next("POST", "auth/register");
+
+        assertThat("Ошибка записи кассеты: в кассете не два обмена", recorded.size(), equalTo(2));
+        assertThat("Ошибка записи кассеты: ответ содержит исходный email", register.getResponse(), not(containsString("recorded@gmail.com")));
+        assertThat("Ошибка записи кассеты: ответ содержит исходный токен", register.getResponse(), not(containsString("recorded.access.token")));
+        assertThat("Ошибка записи кассеты: файл не сжат", cassette, not(containsString("auth/register")));
+    }
+
+    @Test
+    @DisplayName("Воспроизведение подставляет данные текущего прогона")
+    public void shouldRestoreLiveValuesOnReplay() throws IOException {
+        record();
+        CassetteSession replay = new CassetteSession(CassetteSession.Mode.REPLAY, folder.getRoot().toPath(), false);
+        replay.startTest("CassetteTest", "record");
+
+        RecordedExchange register = replay.replay("POST", "auth/register", null,
+                "{\"email\":\"Live@gmail.com\",\"password\":\"livePassword\",\"name\":\"Live\"}");
+        String token = register.getResponse().replaceAll(".*\"accessToken\":\"Bearer ([^\"]+)\".*", "$1");
+        RecordedExchange update = replay.replay("PATCH", "auth/user", "Bearer " + token,
+                "{\"email\":\"Live@gmail.com\",\"password\":\"livePassword\",\"name\":\"Renamed\"}");
+
+        assertThat("Ошибка воспроизведения: неверный код ответа", register.getStatus(), equalTo(200));
+        assertThat("Ошибка воспроизведения: ответ не содержит email текущего прогона", register.getResponse(), containsString("\"email\":\"live@gmail.com\""));
+        assertThat("Ошибка воспроизведения: ответ содержит записанный токен", token, not(containsString("{{")));
+        assertThat("Ошибка воспроизведения: ответ не содержит новое имя", update.getResponse(), containsString("\"name\":\"Renamed\""));
+    }
+
+    @Test
+    @DisplayName("Путь пользователя, записанный на заглушке, воспроизводится без сети")
+    public void shouldReplayRecordedJourneyWithoutNetwork() throws Exception {
+        Path cassettes = folder.getRoot().toPath().resolve("journey");
+
+        int recorded = runJourney("record", "stub", cassettes);
+        int replayed = runJourney("replay", "remote", cassettes);
+
+        assertThat("Ошибка записи кассеты: путь пользователя не прошёл на заглушке", recorded, equalTo(0));
+        assertThat("Ошибка записи кассеты: кассета пути не записана",
+                Files.isRegularFile(cassettes.resolve("CassetteTest_Journey").resolve("userJourney.cassette.gz")), is(true));
+        assertThat("Ошибка воспроизведения: путь пользователя не прошёл без сети", replayed, equalTo(0));
+    }
+
+    // Режим кассет и цель задаются один раз на JVM, поэтому запись и воспроизведение идут в отдельных процессах
+    private int runJourney(String mode, String target, Path cassettes) throws Exception {
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-D" + CassetteSession.MODE_PROPERTY + "=" + mode,
+                "-D" + CassetteSession.DIRECTORY_PROPERTY + "=" + cassettes,
+                "-D" + ApiClient.API_TARGET_PROPERTY + "=" + target,
+                "-D" + IngredientCatalog.CACHE_FILE_PROPERTY + "=" + cassettes.resolveSibling("ingredients-" + mode + ".json"),
+                "-Dapi.log=none",
+                JourneyRun.class.getName(), mode)
+                .inheritIO()
+                .start();
+        assertThat("Ошибка кассет: процесс " + mode + " не завершился", process.waitFor(120, TimeUnit.SECONDS), is(true));
+        return process.exitValue();
+    }
+
+    private void record() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        CassetteSession session = new CassetteSession(CassetteSession.Mode.RECORD, directory, false);
+        session.startTest("CassetteTest", "record");
+        session.record(session.currentCassette(), "POST", "auth/register", null, REGISTER_REQUEST, 200,
+                "application/json", REGISTER_RESPONSE, 1_000_000);
+        session.record(session.currentCassette(), "PATCH", "auth/user", "Bearer recorded.access.token",
+                "{\"email\":\"Recorded@gmail.com\",\"password\":\"recordedPassword\",\"name\":\"Renamed\"}", 200,
+                "application/json", "{\"success\":true,\"user\":{\"email\":\"recorded@gmail.com\",\"name\":\"Renamed\"}}",
+                1_000_000);
+        session.finishTest();
+    }
+
+    public static class JourneyRun {
+        public static void main(String[] args) throws IOException {
+            if (args[0].equals("replay")) {
+                // Любая попытка открыть сокет при воспроизведении проваливает путь
+                Socket.setSocketImplFactory(() -> {
+                    throw new IllegalStateException("Сеть недоступна при воспроизведении кассет");
+                });
+            }
+            JUnitCore core = new JUnitCore();
+            core.addListener(new CassetteListener());
+            Result result = core.run(Journey.class);
+            result.getFailures().forEach(failure -> System.err.println(failure.getTrace()));
+            System.exit(result.wasSuccessful() ? 0 : 1);
+        }
+    }
+
+    // Запускается только из JourneyRun: surefire не берёт вложенные классы
+    public static class Journey {
+        @Test
+        public void userJourney() {
+            UserClient userClient = new UserClient();
+            OrderClient orderClient = new OrderClient();
+            IngredientCatalog catalog = IngredientCatalog.shared();
+            User user = User.generateUser();
+
+            AuthResponse registered = userClient.createNewUserTyped(user);
+            assertThat("Регистрация не прошла", registered.getStatusCode(), equalTo(200));
+            String token = registered.getRawAccessToken();
+            OrderResponse order = orderClient.createOrderWithTokenTyped(token, OrderPayloads.toJson(
+                    List.of(catalog.getBuns().get(0).getId(), catalog.getMains().get(0).getId())));
+            assertThat("Заказ не создан", order.getStatusCode(), equalTo(200));
+            OrdersListResponse orders = orderClient.getUserOrdersListWithTokenTyped(token);
+            assertThat("Заказа нет в списке", orders.getOrders().get(0).getNumber(), equalTo(order.getOrderNumber()));
+            user.setName("Renamed");
+            UserResponse renamed = userClient.changeUserDataWithTokenTyped(token, user);
+            assertThat("Имя не изменено", renamed.getUser().getName(), equalTo("Renamed"));
+            assertThat("Email не совпадает", renamed.getUser().getEmail(), equalTo(user.getEmail().toLowerCase()));
+            assertThat("Вход не прошёл", userClient.loginUserTyped(user).isSuccess(), is(true));
+            assertThat("Пользователь не удалён", userClient.deleteUserTyped(token).isSuccess(), is(true));
+        }
+    }
+}
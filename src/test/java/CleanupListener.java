@@ -0,0 +1,16 @@
+import fixture.CleanupRegistry;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * В конце прогона дожидается фонового удаления созданных тестами пользователей и выводит отчёт
+ * {@link CleanupRegistry} с пользователями, оставшимися на сервере.
+ */
+@RunListener.ThreadSafe
+public class CleanupListener extends RunListener {
+    @Override
+    public void testRunFinished(Result result) {
+        CleanupRegistry registry = CleanupRegistry.shared();
+        System.out.println(registry.flush(Long.getLong(CleanupRegistry.TIMEOUT_MS_PROPERTY, 30_000L)));
+    }
+}
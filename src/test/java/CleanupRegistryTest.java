@@ -0,0 +1,50 @@
+import cassette.CassetteSession;
+import client.UserClient;
+import fixture.CleanupRegistry;
+import io.qameta.allure.junit4.DisplayName;
+import model.User;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.http.HttpStatus.SC_UNAUTHORIZED;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+public class CleanupRegistryTest {
+    private static final int USERS = 6;
+
+    private final UserClient userClient = new UserClient();
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(!CassetteSession.shared().isReplaying());
+    }
+
+    @Test
+    @DisplayName("Пользователи удаляются в фоне, в том числе без сохранённого токена")
+    public void shouldDeleteUsersInBackground() {
+        CleanupRegistry registry = new CleanupRegistry(2);
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = User.generateUser();
+            String token = userClient.createNewUserTyped(users[i]).getRawAccessToken();
+            if (i % 2 == 0) {
+                registry.deleteLater(token);
+            } else {
+                registry.deleteLater(users[i]);
+            }
+        }
+        registry.deleteLater(User.generateUser());
+
+        CleanupRegistry.Report report = registry.flush(30_000);
+
+        assertThat("Ошибка очистки: остались неудалённые пользователи " + report.getLeaks(), report.getLeaks(), empty());
+        assertThat("Ошибка очистки: удалены не все пользователи", report.getDeleted(), equalTo((long) USERS));
+        assertThat("Ошибка очистки: незарегистрированный пользователь не распознан", report.getAbsent(), equalTo(1L));
+        for (User user : users) {
+            assertThat("Ошибка очистки: удалённый пользователь может войти", userClient.loginUserTyped(user).getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        }
+    }
+}
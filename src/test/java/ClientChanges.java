@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Методы {@code OrderClient} и {@code UserClient}, изменившиеся с прошлого прогона. Каждый метод исходника
+ * хэшируется вместе с сигнатурой, хэши сохраняются в client-methods.properties каталога истории тестов
+ * и сравниваются при следующем запуске. Варианты Typed и Async считаются тем же методом, что и базовый шаг.
+ */
+public class ClientChanges {
+    public static final String SOURCES_PROPERTY = "test.sources.directory";
+
+    static final String FINGERPRINT_FILE = "client-methods.properties";
+    static final String[] CLIENTS = {"client/OrderClient.java", "client/UserClient.java"};
+
+    private static final Pattern STEP = Pattern.compile("@Step\\(\"([^\"]*)\"\\)");
+    private static final Pattern METHOD_NAME = Pattern.compile("(\\w+)\\s*\\([^()]*\\)\\s*(throws [\\w., ]+)?\\s*$");
+    private static final Pattern VARIANT = Pattern.compile("(Typed|Async)$");
+
+    private final Map<String, String> fingerprints;
+    private final Set<String> changedMethods = new HashSet<>();
+    private final Set<String> changedSteps = new HashSet<>();
+
+    ClientChanges(Map<String, String> previous, Map<String, String> fingerprints, Map<String, String> steps) {
+        this.fingerprints = fingerprints;
+        // Без сохранённых хэшей (первый прогон) изменений нет
+        if (previous.isEmpty()) {
+            return;
+        }
+        fingerprints.forEach((method, hash) -> {
+            if (!hash.equals(previous.get(method))) {
+                changedMethods.add(method);
+            }
+        });
+        previous.keySet().stream().filter(method -> !fingerprints.containsKey(method)).forEach(changedMethods::add);
+        steps.forEach((method, step) -> {
+            if (changedMethods.contains(method)) {
+                changedSteps.add(step);
+            }
+        });
+    }
+
+    public static ClientChanges detect(Path historyDirectory) {
+        Path sources = Paths.get(System.getProperty(SOURCES_PROPERTY, "src/main/java"));
+        Map<String, String> fingerprints = new TreeMap<>();
+        Map<String, String> steps = new LinkedHashMap<>();
+        for (String client : CLIENTS) {
+            try {
+                fingerprint(Files.readString(sources.resolve(client)), fingerprints, steps);
+            } catch (IOException e) {
+                // без исходников клиентов изменения не определяются
+            }
+        }
+        return new ClientChanges(readProperties(historyDirectory.resolve(FINGERPRINT_FILE)), fingerprints, steps);
+    }
+
+    public Set<String> getChangedMethods() {
+        return changedMethods;
+    }
+
+    public boolean isEmpty() {
+        return changedMethods.isEmpty();
+    }
+
+    // steps — шаги Allure теста из истории; если их нет, тест ищет вызовы по исходнику своего класса
+    public boolean touches(Set<String> steps, String testSource) {
+        if (changedMethods.isEmpty()) {
+            return false;
+        }
+        if (!steps.isEmpty()) {
+            for (String step : steps) {
+                if (changedSteps.contains(step)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (testSource == null) {
+            return false;
+        }
+        for (String method : changedMethods) {
+            if (Pattern.compile("\\b" + method + "(Typed|Async)?\\s*\\(").matcher(testSource).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void save(Path historyDirectory) {
+        Properties properties = new Properties();
+        properties.putAll(fingerprints);
+        try {
+            Files.createDirectories(historyDirectory);
+            try (Writer writer = Files.newBufferedWriter(historyDirectory.resolve(FINGERPRINT_FILE), StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось сохранить хэши методов клиентов: " + e.getMessage());
+        }
+    }
+
+    // Разбирает методы верхнего уровня класса: заголовок до '{' на глубине 1 и тело до парной '}'
+    static void fingerprint(String source, Map<String, String> fingerprints, Map<String, String> steps) {
+        Map<String, StringBuilder> bodies = new TreeMap<>();
+        int depth = 0;
+        int headerStart = 0;
+        int bodyStart = -1;
+        String method = null;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i, c);
+                continue;
+            }
+            if (c == '/' && i + 1 < source.length() && (source.charAt(i + 1) == '/' || source.charAt(i + 1) == '*')) {
+                i = source.charAt(i + 1) == '/' ? source.indexOf('\n', i) : source.indexOf("*/", i) + 1;
+                if (i <= 0) {
+                    break;
+                }
+                continue;
+            }
+            if (c == '{') {
+                if (depth == 1) {
+                    String header = source.substring(headerStart, i);
+                    Matcher name = METHOD_NAME.matcher(header.trim());
+                    method = name.find() ? baseName(name.group(1)) : null;
+                    bodyStart = headerStart;
+                    Matcher step = STEP.matcher(header);
+                    if (method != null && step.find()) {
+                        steps.put(method, step.group(1));
+                    }
+                }
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 1) {
+                    if (method != null) {
+                        bodies.computeIfAbsent(method, key -> new StringBuilder())
+                                .append(source.substring(bodyStart, i + 1).replaceAll("\\s+", " ").trim());
+                    }
+                    method = null;
+                    headerStart = i + 1;
+                }
+            } else if (c == ';' && depth == 1) {
+                headerStart = i + 1;
+            } else if (depth == 0 && c != '{') {
+                headerStart = i + 1;
+            }
+        }
+        bodies.forEach((name, body) -> fingerprints.put(name, hash(body.toString())));
+    }
+
+    private static String baseName(String method) {
+        return VARIANT.matcher(method).replaceFirst("");
+    }
+
+    private static int skipLiteral(String source, int start, char quote) {
+        for (int i = start + 1; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return source.length();
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> readProperties(Path file) {
+        Map<String, String> values = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return values;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            return values;
+        }
+        properties.forEach((key, value) -> values.put(key.toString(), value.toString()));
+        return values;
+    }
+}
@@ -0,0 +1,126 @@
+import com.google.gson.JsonParser;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.junit4.DisplayName;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import report.CompactResultsWriter;
+import report.ResultSummarizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class CompactResultsTest {
+    Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("allure-compact");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Сводка по сегментам считает тесты по статусам, контейнеры и вложения")
+    public void shouldSummarizeResultsFromIndexes() {
+        Status[] statuses = {Status.PASSED, Status.PASSED, Status.FAILED, Status.BROKEN, Status.SKIPPED};
+        try (CompactResultsWriter writer = new CompactResultsWriter(directory, 16 * 1024)) {
+            for (int i = 0; i < 500; i++) {
+                writer.write(result("test-" + i, statuses[i % statuses.length], 1000L * i, 1000L * i + i % 100));
+                writer.write("attachment-" + i + ".txt", new ByteArrayInputStream(body(i)));
+            }
+            TestResultContainer container = new TestResultContainer().setUuid("container").setStart(1L).setStop(2L);
+            writer.write(container);
+            writer.write(result("unfinished", null, 0L, 0L));
+        }
+
+        ResultSummarizer.Summary summary = ResultSummarizer.summarize(directory);
+        assertThat("Ошибка сводки: неверное число тестов", summary.getResults(), equalTo(501L));
+        assertThat("Ошибка сводки: неверное число passed", summary.getCount(Status.PASSED), equalTo(200L));
+        assertThat("Ошибка сводки: неверное число failed", summary.getCount(Status.FAILED), equalTo(100L));
+        assertThat("Ошибка сводки: неверное число broken", summary.getCount(Status.BROKEN), equalTo(100L));
+        assertThat("Ошибка сводки: неверное число skipped", summary.getCount(Status.SKIPPED), equalTo(100L));
+        assertThat("Ошибка сводки: тест без статуса не учтён", summary.getUnknown(), equalTo(1L));
+        assertThat("Ошибка сводки: неверное число контейнеров", summary.getContainers(), equalTo(1L));
+        assertThat("Ошибка сводки: неверное число вложений", summary.getAttachments(), equalTo(500L));
+        assertThat("Ошибка сводки: сегмент не сменился по размеру", summary.getSegments(), greaterThan(1));
+        assertThat("Ошибка сводки: неверная максимальная длительность", summary.getDurationAtPercentile(100), equalTo(99L));
+    }
+
+    @Test
+    @DisplayName("Выгрузка из сегментов восстанавливает файлы allure-results")
+    public void shouldExportAllureResults() throws IOException {
+        byte[] large = body(7);
+        TestResult exported = result("exported", Status.PASSED, 10L, 20L)
+                .setStage(Stage.FINISHED)
+                .setStatusDetails(new StatusDetails().setMessage("ok"))
+                .setParameters(Collections.singletonList(new Parameter().setName("token").setValue("secret")
+                        .setMode(Parameter.Mode.MASKED)));
+        long rawBytes;
+        long storedBytes;
+        try (CompactResultsWriter writer = new CompactResultsWriter(directory, 64 * 1024)) {
+            writer.write(exported);
+            writer.write("exported-attachment.txt", new ByteArrayInputStream(large));
+            writer.write("small-attachment.txt", new ByteArrayInputStream("ok".getBytes(StandardCharsets.UTF_8)));
+            rawBytes = writer.getRawBytes();
+            storedBytes = writer.getStoredBytes();
+        }
+        Path target = directory.resolve("allure-results");
+
+        int files = ResultSummarizer.export(directory, target);
+
+        assertThat("Ошибка выгрузки: неверное число файлов", files, equalTo(3));
+        String json = new String(Files.readAllBytes(target.resolve("exported-result.json")), StandardCharsets.UTF_8);
+        assertThat("Ошибка выгрузки: в результате нет uuid", json, containsString("\"uuid\":\"exported\""));
+        assertThat("Ошибка выгрузки: в результате нет статуса", json, containsString("\"status\":\"passed\""));
+        Path reference = directory.resolve("reference");
+        new FileSystemResultsWriter(reference).write(exported);
+        assertThat("Ошибка выгрузки: результат отличается от записанного самим Allure",
+                JsonParser.parseString(json),
+                equalTo(JsonParser.parseString(new String(Files.readAllBytes(reference.resolve("exported-result.json")),
+                        StandardCharsets.UTF_8))));
+        assertThat("Ошибка выгрузки: сжатое вложение восстановлено неверно",
+                Arrays.equals(Files.readAllBytes(target.resolve("exported-attachment.txt")), large), is(true));
+        assertThat("Ошибка выгрузки: вложение восстановлено неверно",
+                new String(Files.readAllBytes(target.resolve("small-attachment.txt")), StandardCharsets.UTF_8), equalTo("ok"));
+        assertThat("Ошибка записи: вложение не сжато", storedBytes, lessThan(rawBytes));
+    }
+
+    private static TestResult result(String uuid, Status status, long start, long stop) {
+        return new TestResult().setUuid(uuid).setName(uuid).setFullName("CompactResultsTest." + uuid)
+                .setStatus(status).setStart(start).setStop(stop);
+    }
+
+    // Тело ответа, похожее на вложение allure-rest-assured
+    private static byte[] body(int seed) {
+        StringBuilder body = new StringBuilder("{\"success\":true,\"orders\":[");
+        for (int i = 0; i < 40; i++) {
+            body.append("{\"_id\":\"").append(seed).append('-').append(i)
+                    .append("\",\"status\":\"done\",\"name\":\"Бессмертный бургер\",\"number\":").append(i).append("},");
+        }
+        return body.append("{}]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
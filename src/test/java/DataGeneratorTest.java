@@ -0,0 +1,60 @@
+import com.google.gson.Gson;
+import fixture.DataGenerator;
+import io.qameta.allure.junit4.DisplayName;
+import model.User;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DataGeneratorTest {
+    private static final int USERS = 200_000;
+
+    @Test
+    @DisplayName("Один и тот же seed даёт тех же пользователей")
+    public void shouldReproduceUsersFromSeed() {
+        User first = new DataGenerator(20261017L).user(12_345);
+        User second = new DataGenerator(20261017L).user(12_345);
+        User otherSeed = new DataGenerator(20261018L).user(12_345);
+
+        assertThat("Ошибка генерации: email не воспроизводится по seed", second.getEmail(), equalTo(first.getEmail()));
+        assertThat("Ошибка генерации: пароль не воспроизводится по seed", second.getPassword(), equalTo(first.getPassword()));
+        assertThat("Ошибка генерации: имя не воспроизводится по seed", second.getName(), equalTo(first.getName()));
+        assertThat("Ошибка генерации: разные seed дали одинаковый email", otherSeed.getEmail(), not(equalTo(first.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Пользователи, созданные параллельно, не повторяют email")
+    public void shouldGenerateUniqueEmailsConcurrently() {
+        DataGenerator generator = new DataGenerator(7L);
+        Set<String> emails = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, USERS).parallel().forEach(i -> emails.add(generator.nextUser().getEmail()));
+
+        assertThat("Ошибка генерации: найдены повторяющиеся email", emails.size(), equalTo(USERS));
+        assertThat("Ошибка генерации: номера пользователей выданы с пропусками", generator.nextSequence(), equalTo((long) USERS));
+    }
+
+    @Test
+    @DisplayName("Заранее сериализованные тела совпадают с сериализацией Gson")
+    public void shouldPreSerializeSameJsonAsGson() throws Exception {
+        DataGenerator generator = new DataGenerator(99L);
+        byte[][] payloads = generator.preSerializeUsers(1_000, 64);
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        generator.writeUsers(lines, 1_000, 64);
+        String[] written = lines.toString(StandardCharsets.UTF_8.name()).split("\n");
+
+        for (int i = 0; i < payloads.length; i++) {
+            String expected = new Gson().toJson(generator.user(1_000 + i));
+            assertThat("Ошибка генерации: тело регистрации отличается от сериализации модели",
+                    new String(payloads[i], StandardCharsets.UTF_8), equalTo(expected));
+            assertThat("Ошибка генерации: потоковая запись отличается от сериализации модели", written[i], equalTo(expected));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import client.ExchangeLog;
+import io.qameta.allure.Allure;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Выводит в консоль и прикладывает к отчёту Allure последние HTTP-обмены упавшего теста.
+ * Должен стоять в списке слушателей surefire перед AllureJunit4, чтобы тест в Allure ещё не был закрыт.
+ */
+@RunListener.ThreadSafe
+public class ExchangeLogListener extends RunListener {
+    @Override
+    public void testStarted(Description description) {
+        ExchangeLog.current().clear();
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+        ExchangeLog log = ExchangeLog.current();
+        if (log.isEmpty()) {
+            return;
+        }
+        String exchanges = log.format();
+        System.out.println("Последние HTTP-запросы упавшего теста " + failure.getDescription().getDisplayName()
+                + ":\n" + exchanges);
+        Allure.addAttachment("HTTP-запросы", "text/plain", exchanges, ".txt");
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        ExchangeLog.current().clear();
+    }
+}
@@ -0,0 +1,105 @@
+import client.IngredientClient;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.junit4.AllureJunit4;
+import io.qameta.allure.junit4.DisplayName;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+public class ExchangeLogTest {
+
+    @Test
+    @DisplayName("К упавшему тесту прикладываются его HTTP-обмены, к прошедшему — нет")
+    public void shouldAttachExchangesOnlyToFailedTest() {
+        MemoryResultsWriter writer = new MemoryResultsWriter();
+        AllureLifecycle lifecycle = new AllureLifecycle(writer);
+        AllureLifecycle original = Allure.getLifecycle();
+        Allure.setLifecycle(lifecycle);
+        Result result;
+        try {
+            JUnitCore core = new JUnitCore();
+            core.addListener(new ExchangeLogListener());
+            core.addListener(new AllureJunit4(lifecycle));
+            result = core.run(Request.aClass(Scenarios.class));
+        } finally {
+            Allure.setLifecycle(original);
+        }
+
+        assertThat("Ошибка журнала обменов: упал не один тест", result.getFailureCount(), equalTo(1));
+        TestResult failed = writer.result("failingAfterRequest");
+        TestResult passed = writer.result("passingAfterRequest");
+        assertThat("Ошибка журнала обменов: к прошедшему тесту приложены обмены", passed.getAttachments(), hasSize(0));
+        assertThat("Ошибка журнала обменов: к упавшему тесту не приложены обмены", failed.getAttachments(), hasSize(1));
+        String exchanges = writer.attachment(failed.getAttachments().get(0));
+        assertThat("Ошибка журнала обменов: нет запроса", exchanges, containsString("Request method:\tGET"));
+        assertThat("Ошибка журнала обменов: нет адреса запроса", exchanges, containsString("ingredients"));
+        assertThat("Ошибка журнала обменов: нет ответа", exchanges, containsString("200"));
+        assertThat("Ошибка журнала обменов: приложены обмены прошедшего теста", exchanges.split("Request method:").length - 1, equalTo(1));
+    }
+
+    // Запускаются только из ExchangeLogTest: surefire не берёт вложенные классы
+    public static class Scenarios {
+        @Test
+        public void passingAfterRequest() {
+            new IngredientClient().getIngredients();
+        }
+
+        @Test
+        public void failingAfterRequest() {
+            new IngredientClient().getIngredients();
+            fail("Тест падает намеренно");
+        }
+    }
+
+    static class MemoryResultsWriter implements AllureResultsWriter {
+        private final List<TestResult> results = new CopyOnWriteArrayList<>();
+        private final Map<String, byte[]> attachments = new ConcurrentHashMap<>();
+
+        @Override
+        public void write(TestResult testResult) {
+            results.add(testResult);
+        }
+
+        @Override
+        public void write(TestResultContainer testResultContainer) {
+        }
+
+        @Override
+        public void write(String source, InputStream attachment) {
+            try (InputStream stream = attachment) {
+                attachments.put(source, stream.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        TestResult result(String method) {
+            return results.stream().filter(result -> result.getName().equals(method)).findFirst()
+                    .orElseThrow(() -> new AssertionError("Нет результата Allure для " + method));
+        }
+
+        String attachment(Attachment attachment) {
+            return new String(attachments.get(attachment.getSource()), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import client.AsyncHttpTransport;
+import client.AsyncResponse;
+import model.AuthResponse;
+import model.IngredientsResponse;
+import stub.StellarBurgersStub;
+import stub.TlsStubServer;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Массовое создание заказов через TLS-фронт заглушки по HTTP/1.1 и по HTTP/2: время, число TCP-соединений
+ * и TLS-рукопожатий на сервере и версии, на которых фактически получены ответы.
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=Http2Benchmark
+ * -Dbenchmark.orders=2000 -Dbenchmark.concurrency=64
+ */
+public class Http2Benchmark {
+    public static void main(String[] args) {
+        int orders = Integer.getInteger("benchmark.orders", 2000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+        int rounds = Integer.getInteger("benchmark.rounds", 3);
+        StellarBurgersStub backend = StellarBurgersStub.start(0);
+
+        System.out.printf("Заказов %d, одновременно %d%n", orders, concurrency);
+        for (int round = 1; round <= rounds; round++) {
+            for (HttpClient.Version version : new HttpClient.Version[]{HttpClient.Version.HTTP_1_1, HttpClient.Version.HTTP_2}) {
+                TlsStubServer server = TlsStubServer.start(backend, true);
+                AsyncHttpTransport transport = new AsyncHttpTransport(server.getBaseUri(), 4, concurrency, version,
+                        TlsStubServer.clientSslContext());
+                long elapsed = run(transport, orders);
+                System.out.printf("Круг %d, %-8s %6d мс, %7.0f заказов/с, соединений и TLS-рукопожатий %d, ответы %s%n",
+                        round, version, elapsed / 1_000_000, orders * 1e9 / elapsed, server.getConnections(),
+                        transport.getResponseCounts());
+                server.stop();
+            }
+        }
+        backend.stop();
+        System.exit(0);
+    }
+
+    private static long run(AsyncHttpTransport transport, int orders) {
+        String token = transport.send("POST", "auth/register", null,
+                "{\"email\":\"" + System.nanoTime() + "@gmail.com\",\"password\":\"secret\",\"name\":\"Benchmark\"}")
+                .join().typed(AuthResponse.class).getRawAccessToken();
+        String ingredient = transport.send("GET", "ingredients", null, null).join()
+                .typed(IngredientsResponse.class).getData().get(0).getId();
+        String body = "{\"ingredients\":[\"" + ingredient + "\"]}";
+
+        long start = System.nanoTime();
+        List<CompletableFuture<AsyncResponse>> responses = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            responses.add(transport.send("POST", "orders", token, body));
+        }
+        for (CompletableFuture<AsyncResponse> response : responses) {
+            if (response.join().statusCode() != 200) {
+                throw new IllegalStateException("Заказ не создан: " + response.join().body());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,96 @@
+import client.AsyncHttpTransport;
+import client.AsyncResponse;
+import io.qameta.allure.junit4.DisplayName;
+import model.AuthResponse;
+import model.IngredientsResponse;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import stub.StellarBurgersStub;
+import stub.TlsStubServer;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class Http2TransportTest {
+    private static final int ORDERS = 200;
+    private static final int FALLBACK_ORDERS = 20;
+
+    private static StellarBurgersStub backend;
+
+    @BeforeClass
+    public static void startBackend() {
+        backend = StellarBurgersStub.start(0);
+    }
+
+    @AfterClass
+    public static void stopBackend() {
+        backend.stop();
+    }
+
+    @Test
+    @DisplayName("Параллельные заказы по HTTP/2 мультиплексируются в одном соединении")
+    public void shouldMultiplexConcurrentOrdersOverSingleConnection() {
+        TlsStubServer server = TlsStubServer.start(backend, true);
+        try {
+            AsyncHttpTransport transport = new AsyncHttpTransport(server.getBaseUri(), 4, ORDERS,
+                    HttpClient.Version.HTTP_2, TlsStubServer.clientSslContext());
+
+            Map<HttpClient.Version, Long> counts = createOrders(transport, ORDERS);
+
+            assertThat("Ошибка HTTP/2: ответы получены не по HTTP/2", counts.get(HttpClient.Version.HTTP_2), equalTo(ORDERS + 2L));
+            assertThat("Ошибка HTTP/2: клиент открыл лишние соединения", server.getConnections(), lessThanOrEqualTo(2));
+            assertThat("Ошибка HTTP/2: сервер не согласовал h2", server.getHttp2Connections(), equalTo(server.getConnections()));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Без h2 в ALPN клиент HTTP/2 переходит на HTTP/1.1")
+    public void shouldFallBackToHttp1WhenServerDoesNotNegotiateH2() {
+        TlsStubServer server = TlsStubServer.start(backend, false);
+        try {
+            AsyncHttpTransport transport = new AsyncHttpTransport(server.getBaseUri(), 4, 4,
+                    HttpClient.Version.HTTP_2, TlsStubServer.clientSslContext());
+
+            Map<HttpClient.Version, Long> counts = createOrders(transport, FALLBACK_ORDERS);
+
+            assertThat("Ошибка перехода на HTTP/1.1: ответы получены не по HTTP/1.1", counts.get(HttpClient.Version.HTTP_1_1), equalTo(FALLBACK_ORDERS + 2L));
+            assertThat("Ошибка перехода на HTTP/1.1: сервер согласовал h2", server.getHttp2Connections(), equalTo(0));
+        } finally {
+            server.stop();
+        }
+    }
+
+    // Регистрация и каталог идут первыми запросами, затем count заказов с токеном отправляются одновременно
+    private static Map<HttpClient.Version, Long> createOrders(AsyncHttpTransport transport, int count) {
+        AuthResponse user = transport.send("POST", "auth/register", null,
+                "{\"email\":\"" + System.nanoTime() + "@gmail.com\",\"password\":\"secret\",\"name\":\"Http2\"}")
+                .join().typed(AuthResponse.class);
+        String ingredient = transport.send("GET", "ingredients", null, null).join()
+                .typed(IngredientsResponse.class).getData().get(0).getId();
+        String order = "{\"ingredients\":[\"" + ingredient + "\"]}";
+
+        List<CompletableFuture<AsyncResponse>> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(transport.send("POST", "orders", user.getRawAccessToken(), order));
+        }
+        for (CompletableFuture<AsyncResponse> created : orders) {
+            AsyncResponse response = created.join();
+            assertThat("Ошибка создания заказа: вернулся код ответа, отличный от ожидаемого 200 ok", response.statusCode(), equalTo(SC_OK));
+            // Владелец в ответе есть только у авторизованного заказа: заголовок Authorization дошёл до заглушки
+            assertThat("Ошибка создания заказа: заказ создан без авторизации",
+                    response.json().getAsJsonObject("order").has("owner"), is(true));
+        }
+        return transport.getResponseCounts();
+    }
+}
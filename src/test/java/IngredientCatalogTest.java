@@ -0,0 +1,92 @@
+import fixture.IngredientCatalog;
+import io.qameta.allure.junit4.DisplayName;
+import model.Ingredient;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class IngredientCatalogTest {
+    static final String BUN_ID = "aaaaaaaaaaaaaaaaaaaaaa01";
+    static final String SAUCE_ID = "aaaaaaaaaaaaaaaaaaaaaa02";
+    static final String MAIN_ID = "aaaaaaaaaaaaaaaaaaaaaa03";
+    private static final long TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Каталог из трёх ингредиентов, которых нет в ответе API: по ним видно, что список взят из файла
+    static String catalogJson(String bunType) {
+        return "{\"success\":true,\"data\":["
+                + "{\"_id\":\"" + BUN_ID + "\",\"name\":\"Булка\",\"type\":\"" + bunType + "\",\"price\":10},"
+                + "{\"_id\":\"" + SAUCE_ID + "\",\"name\":\"Соус\",\"type\":\"sauce\",\"price\":20},"
+                + "{\"_id\":\"" + MAIN_ID + "\",\"name\":\"Котлета\",\"type\":\"main\",\"price\":30}]}";
+    }
+
+    static Path writeCache(Path file, String json) throws IOException {
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Свежий файл кэша используется без запроса к API")
+    public void shouldUseFreshCacheFile() throws IOException {
+        Path cache = writeCache(folder.getRoot().toPath().resolve("ingredients.json"), catalogJson(Ingredient.BUN));
+        IngredientCatalog catalog = new IngredientCatalog(cache, TTL_MS);
+
+        assertThat("Ошибка кэша ингредиентов: список взят не из файла", ids(catalog.getAll()), equalTo(List.of(BUN_ID, SAUCE_ID, MAIN_ID)));
+        assertThat("Ошибка кэша ингредиентов: неверные булки", ids(catalog.getBuns()), equalTo(List.of(BUN_ID)));
+        assertThat("Ошибка кэша ингредиентов: неверные начинки", ids(catalog.getMains()), equalTo(List.of(MAIN_ID)));
+        assertThat("Ошибка кэша ингредиентов: ингредиент не найден", catalog.contains(SAUCE_ID), is(true));
+    }
+
+    @Test
+    @DisplayName("Устаревший файл кэша заменяется ответом API")
+    public void shouldRefetchExpiredCacheFile() throws IOException {
+        Path cache = writeCache(folder.getRoot().toPath().resolve("ingredients.json"), catalogJson(Ingredient.BUN));
+        Files.setLastModifiedTime(cache, FileTime.fromMillis(System.currentTimeMillis() - 2 * TTL_MS));
+        IngredientCatalog catalog = new IngredientCatalog(cache, TTL_MS);
+
+        List<Ingredient> ingredients = catalog.getAll();
+
+        assertThat("Ошибка кэша ингредиентов: использован устаревший файл", catalog.contains(BUN_ID), is(false));
+        assertThat("Ошибка кэша ингредиентов: список не получен от API", ingredients.size(), greaterThan(3));
+        assertThat("Ошибка кэша ингредиентов: файл не обновлён", Files.getLastModifiedTime(cache).toMillis(),
+                greaterThan(System.currentTimeMillis() - TTL_MS));
+        assertThat("Ошибка кэша ингредиентов: в файл записан не ответ API",
+                new String(Files.readAllBytes(cache), StandardCharsets.UTF_8), containsString(ingredients.get(0).getId()));
+    }
+
+    @Test
+    @DisplayName("Испорченный файл кэша отвергается и заменяется ответом API")
+    public void shouldRejectInvalidCacheFile() throws IOException {
+        Path unknownType = writeCache(folder.getRoot().toPath().resolve("unknown-type.json"), catalogJson("drink"));
+        Path truncated = writeCache(folder.getRoot().toPath().resolve("truncated.json"), catalogJson(Ingredient.BUN).substring(0, 80));
+        Path duplicated = writeCache(folder.getRoot().toPath().resolve("duplicated.json"),
+                catalogJson(Ingredient.BUN).replace(SAUCE_ID, BUN_ID));
+
+        for (Path cache : List.of(unknownType, truncated, duplicated)) {
+            IngredientCatalog catalog = new IngredientCatalog(cache, TTL_MS);
+
+            assertThat("Ошибка кэша ингредиентов: принят испорченный файл " + cache.getFileName(), catalog.contains(MAIN_ID), is(false));
+            assertThat("Ошибка кэша ингредиентов: испорченный файл не заменён " + cache.getFileName(),
+                    new String(Files.readAllBytes(cache), StandardCharsets.UTF_8), not(containsString(MAIN_ID)));
+        }
+    }
+
+    private static List<String> ids(List<Ingredient> ingredients) {
+        return ingredients.stream().map(Ingredient::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,50 @@
+import io.qameta.allure.junit4.DisplayName;
+import load.LatencyRecorder;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+public class LatencyRecorderTest {
+
+    @Test
+    @DisplayName("Перцентили задержек считаются по HDR-гистограмме в микросекундах")
+    public void shouldReportPercentilesInMicros() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int millis = 1; millis <= 100; millis++) {
+            recorder.record("GET ingredients", TimeUnit.MILLISECONDS.toNanos(millis), true);
+        }
+
+        Histogram histogram = recorder.getHistogram("GET ingredients");
+
+        assertThat("Ошибка гистограммы: записаны не все значения", histogram.getTotalCount(), equalTo(100L));
+        assertThat("Ошибка гистограммы: неверный p50", (double) histogram.getValueAtPercentile(50), closeTo(50_000, 50));
+        assertThat("Ошибка гистограммы: неверный p99", (double) histogram.getValueAtPercentile(99), closeTo(99_000, 100));
+        assertThat("Ошибка гистограммы: неверный максимум", (double) histogram.getMaxValue(), closeTo(100_000, 100));
+    }
+
+    @Test
+    @DisplayName("Задержки и ошибки учитываются отдельно по каждому эндпоинту")
+    public void shouldKeepEndpointsSeparate() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("POST orders", TimeUnit.MILLISECONDS.toNanos(5), true);
+        recorder.record("POST orders", TimeUnit.MILLISECONDS.toNanos(7), false);
+        recorder.record("POST auth/login", TimeUnit.MILLISECONDS.toNanos(3), false);
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+        recorder.report(new PrintStream(report, true, StandardCharsets.UTF_8), TimeUnit.SECONDS.toNanos(1));
+
+        assertThat("Ошибка учёта: неверное число запросов заказов", recorder.getHistogram("POST orders").getTotalCount(), equalTo(2L));
+        assertThat("Ошибка учёта: неверное число ошибок заказов", recorder.getErrors("POST orders"), equalTo(1L));
+        assertThat("Ошибка учёта: неверное число ошибок входа", recorder.getErrors("POST auth/login"), equalTo(1L));
+        assertThat("Ошибка учёта: появился эндпоинт без запросов", recorder.getHistogram("GET orders"), nullValue());
+        assertThat("Ошибка учёта: эндпоинта нет в отчёте", report.toString(StandardCharsets.UTF_8), containsString("POST auth/login"));
+    }
+}
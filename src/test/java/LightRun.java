@@ -0,0 +1,38 @@
+import org.junit.internal.TextListener;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Точка входа профиля light: короткий smoke-прогон без surefire и AspectJ-агента. Классы тестов передаются
+ * аргументами и запускаются через {@link JUnitCore} со слушателями кассет и очистки; код выхода 1, если
+ * есть упавшие тесты. В конце выводится время прогона и время от старта JVM.
+ * Запуск: java -Xshare:auto -XX:SharedArchiveFile=target/light/app-cds.jsa -Dapi.transport=light -cp ... LightRun UserLoginTest
+ */
+public class LightRun {
+    public static void main(String[] args) throws ClassNotFoundException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Не заданы классы тестов для прогона");
+        }
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : args) {
+            classes.add(Class.forName(name));
+        }
+        JUnitCore core = new JUnitCore();
+        core.addListener(new TextListener(System.out));
+        core.addListener(new CassetteListener());
+        core.addListener(new CleanupListener());
+        Result result = core.run(classes.toArray(new Class<?>[0]));
+
+        long sinceStart = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+        System.out.printf("Лёгкий прогон: тестов %d, упало %d, прогон %d мс, от старта JVM %d мс%n",
+                result.getRunCount(), result.getFailureCount(), result.getRunTime(), sinceStart);
+        System.exit(result.wasSuccessful() ? 0 : 1);
+    }
+}
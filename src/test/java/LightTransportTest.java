@@ -0,0 +1,50 @@
+import client.ApiClient;
+import client.LightTransport;
+import client.UserClient;
+import fixture.CleanupRegistry;
+import io.qameta.allure.junit4.DisplayName;
+import model.AuthResponse;
+import model.IngredientsResponse;
+import model.User;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.apache.http.HttpStatus.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LightTransportTest {
+    private final LightTransport transport = new LightTransport(ApiClient.getBaseUrl());
+    private String authToken;
+
+    @After
+    public void cleanUp() {
+        CleanupRegistry.shared().deleteLater(authToken);
+    }
+
+    @Test
+    @DisplayName("Лёгкий транспорт возвращает те же типизированные ответы, что и основной")
+    public void shouldReturnSameTypedResponsesAsRestAssured() {
+        User user = User.generateUser();
+        AuthResponse created = transport.send("POST", "auth/register", null, user).typed(AuthResponse.class);
+        authToken = created.getRawAccessToken();
+
+        assertThat("Ошибка лёгкого транспорта: пользователь не создан", created.getStatusCode(), equalTo(SC_OK));
+        AuthResponse login = new UserClient().loginUserTyped(user);
+        assertThat("Ошибка лёгкого транспорта: созданный пользователь не может войти через основной транспорт",
+                login.getUser().getEmail(), equalTo(created.getUser().getEmail()));
+
+        IngredientsResponse ingredients = transport.send("GET", "ingredients", null, null).typed(IngredientsResponse.class);
+        assertThat("Ошибка лёгкого транспорта: список ингредиентов пуст", ingredients.getData().isEmpty(), is(false));
+    }
+
+    @Test
+    @DisplayName("Лёгкий транспорт передаёт коды и сообщения ошибок")
+    public void shouldReturnErrorStatusAndMessage() {
+        AuthResponse response = transport.send("PATCH", "auth/user", null, User.generateUser()).typed(AuthResponse.class);
+
+        assertThat("Ошибка лёгкого транспорта: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка лёгкого транспорта: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка лёгкого транспорта: тело ответа не содержит сообщение об ошибке", response.getMessage(), notNullValue());
+    }
+}
@@ -0,0 +1,57 @@
+import io.qameta.allure.junit4.DisplayName;
+import load.LatencyRecorder;
+import load.LoadConfig;
+import load.LoadGenerator;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Закрытая модель: пользователи шлют запросы друг за другом без ошибок")
+    public void shouldRunClosedModelWithoutErrors() {
+        LoadGenerator generator = new LoadGenerator(new LoadConfig()
+                .setModel(LoadConfig.Model.CLOSED).setConcurrency(2).setDurationSeconds(1).setLoginShare(0.5));
+
+        long elapsed = generator.run();
+
+        LatencyRecorder recorder = generator.getRecorder();
+        long orders = count(recorder, LoadGenerator.ORDERS_ENDPOINT);
+        long logins = count(recorder, LoadGenerator.LOGIN_ENDPOINT);
+        assertThat("Ошибка закрытой модели: не отправлено ни одного заказа", orders, greaterThan(0L));
+        assertThat("Ошибка закрытой модели: не выполнено ни одного входа", logins, greaterThan(0L));
+        assertThat("Ошибка закрытой модели: есть ошибки заказов", recorder.getErrors(LoadGenerator.ORDERS_ENDPOINT), equalTo(0L));
+        assertThat("Ошибка закрытой модели: есть ошибки входа", recorder.getErrors(LoadGenerator.LOGIN_ENDPOINT), equalTo(0L));
+        assertThat("Ошибка закрытой модели: прогон закончился раньше срока", elapsed, greaterThan(TimeUnit.SECONDS.toNanos(1)));
+        assertThat("Ошибка закрытой модели: прогон затянулся после срока", elapsed, lessThan(TimeUnit.SECONDS.toNanos(5)));
+    }
+
+    @Test
+    @DisplayName("Открытая модель: запросы поступают с заданной частотой")
+    public void shouldKeepRequestedRateInOpenModel() {
+        double rate = 20;
+        LoadGenerator generator = new LoadGenerator(new LoadConfig()
+                .setModel(LoadConfig.Model.OPEN).setConcurrency(4).setDurationSeconds(2).setRatePerSecond(rate).setLoginShare(0));
+
+        long elapsed = generator.run();
+
+        LatencyRecorder recorder = generator.getRecorder();
+        long orders = count(recorder, LoadGenerator.ORDERS_ENDPOINT);
+        double achieved = orders / (elapsed / 1_000_000_000.0);
+        assertThat("Ошибка открытой модели: отправлено не столько запросов, сколько запланировано", orders, equalTo(40L));
+        assertThat("Ошибка открытой модели: фактическая частота отличается от заданной", achieved, closeTo(rate, rate * 0.25));
+        assertThat("Ошибка открытой модели: есть ошибки заказов", recorder.getErrors(LoadGenerator.ORDERS_ENDPOINT), equalTo(0L));
+        assertThat("Ошибка открытой модели: выполнены входы при нулевой доле", recorder.getHistogram(LoadGenerator.LOGIN_ENDPOINT), nullValue());
+    }
+
+    private static long count(LatencyRecorder recorder, String endpoint) {
+        return recorder.getHistogram(endpoint) == null ? 0 : recorder.getHistogram(endpoint).getTotalCount();
+    }
+}
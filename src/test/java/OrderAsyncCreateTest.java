@@ -0,0 +1,65 @@
+import client.OrderClient;
+import fixture.OrderPayloads;
+import fixture.PooledUser;
+import fixture.UserPool;
+import io.qameta.allure.junit4.DisplayName;
+import model.Order;
+import model.OrderResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.apache.http.HttpStatus.*;
+
+public class OrderAsyncCreateTest {
+    // Не больше окна GET orders: сервис отдаёт 50 последних заказов пользователя
+    private static final int ORDERS_COUNT = 50;
+
+    PooledUser pooledUser;
+    OrderClient orderClient;
+    String authToken;
+    String correctIngredients = new OrderPayloads().burger();
+
+    @Before
+    public void setUp() {
+        orderClient = new OrderClient();
+        pooledUser = UserPool.shared().acquire();
+        authToken = pooledUser.getAccessToken();
+    }
+
+    @After
+    public void cleanUp() {
+        UserPool.shared().release(pooledUser);
+    }
+
+    @Test
+    @DisplayName("Асинхронное создание большого числа заказов одного пользователя")
+    public void shouldBePossibleToCreateManyOrdersAsynchronously() throws Exception {
+        List<CompletableFuture<OrderResponse>> orders = IntStream.range(0, ORDERS_COUNT)
+                .mapToObj(i -> orderClient.createOrderWithTokenAsync(authToken, correctIngredients))
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(orders.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+
+        List<Integer> created = new ArrayList<>();
+        for (CompletableFuture<OrderResponse> order : orders) {
+            assertThat("Ошибка при асинхронном создании заказа: вернулся код ответа, отличный от ожидаемого 200 success", order.join().getStatusCode(), equalTo(SC_OK));
+            created.add(order.join().getOrderNumber());
+        }
+        List<Integer> listed = orderClient.getUserOrdersListWithTokenTyped(authToken).getOrders().stream()
+                .map(Order::getNumber)
+                .collect(Collectors.toList());
+        for (Integer number : created) {
+            assertThat("Ошибка при асинхронном создании заказа: созданного заказа нет в списке заказов пользователя", listed, hasItem(number));
+        }
+    }
+}
@@ -1,7 +1,11 @@
 import client.OrderClient;
 import client.UserClient;
+import fixture.CleanupRegistry;
+import fixture.OrderPayloads;
+import fixture.PooledUser;
+import fixture.UserPool;
 import io.qameta.allure.junit4.DisplayName;
-import io.restassured.response.Response;
+import model.OrderResponse;
 import model.User;
 import org.junit.After;
 import org.junit.Before;
@@ -13,90 +17,130 @@ import static org.apache.http.HttpStatus.*;
 
 public class OrderCreateTest {
 
-    String correctIngredients = "{\n\"ingredients\": [\"61c0c5a71d1f82001bdaaa75\",\"61c0c5a71d1f82001bdaaa70\"]\n}";
-    String emptyIngredients = "{\n\"ingredients\": []\n}";
-    String wrongIngredients = "{\n\"ingredients\": [\"somerandomletters1\",\"somerandomletters2\"]\n}";
-
+    OrderPayloads orderPayloads = new OrderPayloads();
+    String correctIngredients = orderPayloads.burger();
+    String emptyIngredients = orderPayloads.empty();
+    String wrongIngredients = orderPayloads.malformedIds(2);
 
+    PooledUser pooledUser;
     User user;
     OrderClient orderClient;
     UserClient userClient;
     String authToken;
 
     private final String INGREDIENTS_MISSING_ERROR_MESSAGE = "Ingredient ids must be provided";
+    private final String INCORRECT_IDS_ERROR_MESSAGE = "One or more ids provided are incorrect";
+    private final int LARGE_ORDER_SIZE = 100;
 
     @Before
     public void setUp() {
-        user = User.generateUser();
         orderClient = new OrderClient();
         userClient = new UserClient();
 
-        Response createUserResponse = userClient.createNewUser(user);
-        authToken = createUserResponse.path("accessToken");
+        pooledUser = UserPool.shared().acquire();
+        user = pooledUser.getUser();
+        authToken = pooledUser.getAccessToken();
     }
 
     @After
     public void cleanUp() {
-        if (authToken != null) {
-            userClient.deleteUser(authToken.substring(7));
-        }
+        UserPool.shared().release(pooledUser);
     }
 
     @Test
     @DisplayName("Создание заказа с авторизацией и списком ингредиентов")
     public void shouldBePossibleCreateOrderWithAuthAndWithIngredientsTest() {
-        Response response = orderClient.createOrderWithToken(authToken.substring(7), correctIngredients);
+        OrderResponse response = orderClient.createOrderWithTokenTyped(authToken, correctIngredients);
+        CleanupRegistry.shared().trackOrder(response.getOrderNumber());
 
-        assertThat("Ошибка при создании заказа: тело ответа не содержит номер заказа", response.path("order.number"), notNullValue());
+        assertThat("Ошибка при создании заказа: тело ответа не содержит номер заказа", response.getOrderNumber(), notNullValue());
         //про статус ответа в документации ничего не сказано, но по сути, так как это создание, должен быть 201. Возвращается 200, поэтому строку с проверкой кода закомментила
-        //assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 201 created", response.statusCode(), equalTo(SC_CREATED));
-        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.path("success"), equalTo(true));
+        //assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 201 created", response.getStatusCode(), equalTo(SC_CREATED));
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.isSuccess(), equalTo(true));
     }
 
     @Test
     @DisplayName("Создание заказа без авторизации и со списком ингредиентов")
     public void shouldBePossibleCreateOrderWithoutAuthAndWithIngredientsTest() {
-        Response response = orderClient.createOrderWithoutToken(correctIngredients);
+        OrderResponse response = orderClient.createOrderWithoutTokenTyped(correctIngredients);
 
-        assertThat("Ошибка при создании заказа: тело ответа не содержит номер заказа", response.path("order.number"), notNullValue());
+        assertThat("Ошибка при создании заказа: тело ответа не содержит номер заказа", response.getOrderNumber(), notNullValue());
         //про статус ответа в документации ничего не сказано, но по сути, так как это создание, должен быть 201. Возвращается 200, поэтому строку с проверкой кода закомментила
-        //assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 201 created", response.statusCode(), equalTo(SC_CREATED));
-        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.path("success"), equalTo(true));
+        //assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 201 created", response.getStatusCode(), equalTo(SC_CREATED));
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.isSuccess(), equalTo(true));
     }
 
     @Test
     @DisplayName("Создание заказа с авторизацией и без списка ингредиентов")
     public void shouldBeImpossibleCreateOrderWithAuthAndWithoutIngredientsTest() {
-        Response response = orderClient.createOrderWithToken(authToken.substring(7), emptyIngredients);
+        OrderResponse response = orderClient.createOrderWithTokenTyped(authToken, emptyIngredients);
 
-        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.statusCode(), equalTo(SC_BAD_REQUEST));
-        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому Ingredient ids must be provided", response.path("message"), equalTo(INGREDIENTS_MISSING_ERROR_MESSAGE));
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.getStatusCode(), equalTo(SC_BAD_REQUEST));
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому Ingredient ids must be provided", response.getMessage(), equalTo(INGREDIENTS_MISSING_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Создание заказа без авторизации и без списка ингредиентов")
     public void shouldBeImpossibleCreateOrderWithoutAuthAndWithoutIngredientsTest() {
-        Response response = orderClient.createOrderWithoutToken(emptyIngredients);
+        OrderResponse response = orderClient.createOrderWithoutTokenTyped(emptyIngredients);
 
-        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.statusCode(), equalTo(SC_BAD_REQUEST));
-        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому Ingredient ids must be provided", response.path("message"), equalTo(INGREDIENTS_MISSING_ERROR_MESSAGE));
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.getStatusCode(), equalTo(SC_BAD_REQUEST));
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому Ingredient ids must be provided", response.getMessage(), equalTo(INGREDIENTS_MISSING_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Создание заказа с авторизацией и с неверным хэшем ингредиентов")
     public void shouldBeImpossibleCreateOrderWithAuthAndWrongIngredientsTest() {
-        Response response = orderClient.createOrderWithToken(authToken.substring(7), wrongIngredients);
+        OrderResponse response = orderClient.createOrderWithTokenTyped(authToken, wrongIngredients);
 
-        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 500 internal server error", response.statusCode(), equalTo(SC_INTERNAL_SERVER_ERROR));
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 500 internal server error", response.getStatusCode(), equalTo(SC_INTERNAL_SERVER_ERROR));
     }
 
     @Test
     @DisplayName("Создание заказа с авторизацией и с неверным хэшем ингредиентов")
     public void shouldBeImpossibleCreateOrderWithoutAuthAndWrongIngredientsTest() {
-        Response response = orderClient.createOrderWithoutToken(wrongIngredients);
+        OrderResponse response = orderClient.createOrderWithoutTokenTyped(wrongIngredients);
+
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 500 internal server error", response.getStatusCode(), equalTo(SC_INTERNAL_SERVER_ERROR));
+    }
+
+    @Test
+    @DisplayName("Создание заказа с авторизацией и большим списком ингредиентов")
+    public void shouldBePossibleCreateOrderWithAuthAndLargeIngredientsListTest() {
+        OrderResponse response = orderClient.createOrderWithTokenTyped(authToken, orderPayloads.large(LARGE_ORDER_SIZE));
+        CleanupRegistry.shared().trackOrder(response.getOrderNumber());
+
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.isSuccess(), equalTo(true));
+        assertThat("Ошибка при создании заказа: в заказе не все переданные ингредиенты", response.getOrder().getIngredients().size(), equalTo(LARGE_ORDER_SIZE));
+    }
+
+    @Test
+    @DisplayName("Создание заказа без авторизации из одной булки")
+    public void shouldBePossibleCreateOrderWithoutAuthAndOnlyBunTest() {
+        OrderResponse response = orderClient.createOrderWithoutTokenTyped(orderPayloads.of(1, 0, 0));
+
+        assertThat("Ошибка при создании заказа: тело ответа не содержит номер заказа", response.getOrderNumber(), notNullValue());
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением true", response.isSuccess(), equalTo(true));
+    }
+
+    @Test
+    @DisplayName("Создание заказа с авторизацией и несуществующим ингредиентом")
+    public void shouldBeImpossibleCreateOrderWithAuthAndUnknownIngredientTest() {
+        OrderResponse response = orderClient.createOrderWithTokenTyped(authToken, orderPayloads.withOneUnknownId());
+
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.getStatusCode(), equalTo(SC_BAD_REQUEST));
+        assertThat("Ошибка при создании заказа: тело ответа не содержит параметра success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка при создании заказа: вернулось сообщение, не соответствующее ожидаемому One or more ids provided are incorrect", response.getMessage(), equalTo(INCORRECT_IDS_ERROR_MESSAGE));
+    }
+
+    @Test
+    @DisplayName("Создание заказа без авторизации и без поля ingredients")
+    public void shouldBeImpossibleCreateOrderWithoutAuthAndWithoutIngredientsFieldTest() {
+        OrderResponse response = orderClient.createOrderWithoutTokenTyped(orderPayloads.withoutIngredients());
 
-        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 500 internal server error", response.statusCode(), equalTo(SC_INTERNAL_SERVER_ERROR));
+        assertThat("Ошибка при создании заказа: вернулся код ответа, отличный от ожидаемого 400 bad request", response.getStatusCode(), equalTo(SC_BAD_REQUEST));
+        assertThat("Ошибка при создании заказа: вернулось сообщение, не соответствующее ожидаемому Ingredient ids must be provided", response.getMessage(), equalTo(INGREDIENTS_MISSING_ERROR_MESSAGE));
     }
 }
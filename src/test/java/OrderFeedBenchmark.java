@@ -0,0 +1,99 @@
+import client.ApiClient;
+import client.LightTransport;
+import client.OrderClient;
+import client.OrderFeed;
+import load.LatencyRecorder;
+import model.AuthResponse;
+import model.IngredientsResponse;
+import model.Order;
+import model.OrderResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Задержка от отправки заказа до его появления в WebSocket-ленте пользователя — без опроса GET orders:
+ * кроме самих заказов, HTTP-запросов нет. Отдельно выводится время ответа на POST orders для сравнения.
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=OrderFeedBenchmark -Dapi.target=stub
+ * -Dbenchmark.orders=500 -Dbenchmark.intervalMs=10
+ */
+public class OrderFeedBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int orders = Integer.getInteger("benchmark.orders", 500);
+        long intervalMs = Long.getLong("benchmark.intervalMs", 10);
+        LightTransport transport = new LightTransport(ApiClient.getBaseUrl());
+        String token = transport.send("POST", "auth/register", null,
+                "{\"email\":\"" + System.nanoTime() + "@gmail.com\",\"password\":\"secret\",\"name\":\"Benchmark\"}")
+                .typed(AuthResponse.class).getRawAccessToken();
+        String ingredient = transport.send("GET", "ingredients", null, null).typed(IngredientsResponse.class)
+                .getData().get(0).getId();
+        String body = "{\"ingredients\":[\"" + ingredient + "\"]}";
+
+        Map<Integer, Long> visibleAt = new ConcurrentHashMap<>();
+        AtomicReference<Throwable> feedError = new AtomicReference<>();
+        OrderFeed feed = new OrderClient().subscribeUserOrdersFeed(() -> token);
+        feed.subscribe(new Flow.Subscriber<Order>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Order order) {
+                visibleAt.put(order.getNumber(), System.nanoTime());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                feedError.set(error);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        while (feed.getMessages() == 0) {
+            checkFeed(feedError);
+            Thread.sleep(10);
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        Map<Integer, Long> sentAt = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            long sent = System.nanoTime();
+            OrderResponse created = transport.send("POST", "orders", token, body).typed(OrderResponse.class);
+            recorder.record("POST orders", System.nanoTime() - sent, created.getStatusCode() == 200);
+            sentAt.put(created.getOrder().getNumber(), sent);
+            Thread.sleep(intervalMs);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (visibleAt.size() < orders && System.nanoTime() < deadline) {
+            checkFeed(feedError);
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+        sentAt.forEach((number, sent) -> {
+            Long visible = visibleAt.get(number);
+            recorder.record("feed visibility", visible == null ? elapsed : visible - sent, visible != null);
+        });
+
+        System.out.printf("Лента: %s, заказов %d с интервалом %d мс%n", ApiClient.getFeedUrl(), orders, intervalMs);
+        recorder.report(System.out, elapsed);
+        System.out.printf("Сообщений ленты %d, выдано заказов %d, переподключений %d%n",
+                feed.getMessages(), feed.getDelivered(), feed.getReconnects());
+        feed.close();
+        System.exit(0);
+    }
+
+    // Лента, оборвавшаяся с ошибкой, сделала бы замер бессмысленным: задержка видимости упёрлась бы в таймаут
+    private static void checkFeed(AtomicReference<Throwable> feedError) {
+        Throwable error = feedError.get();
+        if (error != null) {
+            throw new IllegalStateException("Лента заказов завершилась с ошибкой: " + error.getMessage(), error);
+        }
+    }
+}
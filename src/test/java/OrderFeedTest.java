@@ -0,0 +1,197 @@
+import client.LightTransport;
+import client.OrderFeed;
+import io.qameta.allure.junit4.DisplayName;
+import model.AuthResponse;
+import model.IngredientsResponse;
+import model.Order;
+import model.OrderResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import stub.StellarBurgersStub;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class OrderFeedTest {
+    private static final long WAIT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private StellarBurgersStub backend;
+    private LightTransport transport;
+    private String order;
+    private OrderFeed feed;
+
+    @Before
+    public void setUp() {
+        backend = StellarBurgersStub.start(0);
+        transport = new LightTransport(backend.getBaseUri());
+        String ingredient = transport.send("GET", "ingredients", null, null).typed(IngredientsResponse.class)
+                .getData().get(0).getId();
+        order = "{\"ingredients\":[\"" + ingredient + "\"]}";
+    }
+
+    @After
+    public void tearDown() {
+        if (feed != null) {
+            feed.close();
+        }
+        backend.stop();
+    }
+
+    @Test
+    @DisplayName("Лента всех заказов выдаёт каждый новый заказ один раз по возрастанию номера")
+    public void shouldDeliverEachNewOrderOnceInOrder() {
+        feed = new OrderFeed(backend.getFeedUri(), null, 256, 50, 5, null);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        feed.subscribe(collector);
+        awaitConnected();
+
+        // Больше размера снимка ленты (50): сообщения приходят фрагментами и сдвигают окно последних заказов
+        List<Integer> created = createOrders(null, 60);
+        awaitReceived(collector, created.size());
+
+        assertThat("Ошибка ленты заказов: получены не те заказы или не в том порядке", collector.numbers(), equalTo(created));
+    }
+
+    @Test
+    @DisplayName("После обрыва лента пользователя переподключается и досылает пропущенные заказы без повторов")
+    public void shouldResumeUserFeedAfterConnectionDrop() {
+        String token = transport.send("POST", "auth/register", null,
+                "{\"email\":\"" + System.nanoTime() + "@gmail.com\",\"password\":\"secret\",\"name\":\"Feed\"}")
+                .typed(AuthResponse.class).getRawAccessToken();
+        feed = new OrderFeed(backend.getFeedUri(), () -> token, 256, 50, 5, null);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        feed.subscribe(collector);
+        awaitConnected();
+        createOrders(null, 3);
+        List<Integer> created = new ArrayList<>(createOrders(token, 3));
+        awaitReceived(collector, created.size());
+
+        backend.getFeedServer().dropConnections();
+        created.addAll(createOrders(token, 3));
+        awaitReceived(collector, created.size());
+
+        assertThat("Ошибка ленты заказов: лента не переподключилась", feed.getReconnects(), greaterThanOrEqualTo(1L));
+        assertThat("Ошибка ленты заказов: получены чужие, повторные или не все заказы", collector.numbers(), equalTo(created));
+    }
+
+    @Test
+    @DisplayName("Медленный подписчик ограничивает число заказов в буфере ленты")
+    public void shouldKeepBufferedOrdersWithinCapacityForSlowSubscriber() {
+        feed = new OrderFeed(backend.getFeedUri(), null, 4, 50, 5, null);
+        Collector collector = new Collector(0);
+        feed.subscribe(collector);
+        awaitConnected();
+
+        List<Integer> created = createOrders(null, 20);
+        await(() -> feed.getLag() == 4);
+        assertThat("Ошибка ленты заказов: подписчик получил заказы без запроса", collector.received.isEmpty(), is(true));
+        assertThat("Ошибка ленты заказов: буфер подписчика превысил заданный размер", feed.getLag(), lessThanOrEqualTo(4));
+        assertThat("Ошибка ленты заказов: лента продолжила выдачу сверх буфера", feed.getDelivered(), lessThanOrEqualTo(4L));
+
+        collector.subscription.request(Long.MAX_VALUE);
+        awaitReceived(collector, created.size());
+        assertThat("Ошибка ленты заказов: после запроса получены не все заказы", collector.numbers(), equalTo(created));
+    }
+
+    @Test
+    @DisplayName("После закрытия ленты медленный подписчик дочитывает буфер, потоки подписчиков останавливаются")
+    public void shouldDrainBufferAndStopSubscriberThreadsAfterClose() {
+        feed = new OrderFeed(backend.getFeedUri(), null, 4, 50, 5, null);
+        Collector collector = new Collector(0);
+        feed.subscribe(collector);
+        awaitConnected();
+
+        List<Integer> created = createOrders(null, 4);
+        await(() -> feed.getLag() == 4);
+        feed.close();
+        collector.subscription.request(Long.MAX_VALUE);
+        awaitReceived(collector, created.size());
+        await(() -> collector.completed);
+        assertThat("Ошибка ленты заказов: после закрытия получены не все заказы", collector.numbers(), equalTo(created));
+        await(() -> Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("order-feed-subscriber")));
+    }
+
+    private List<Integer> createOrders(String token, int count) {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(transport.send("POST", "orders", token, order).typed(OrderResponse.class).getOrder().getNumber());
+        }
+        return numbers;
+    }
+
+    // Первый снимок ленты означает, что соединение установлено и последующие заказы придут в ленту
+    private void awaitConnected() {
+        await(() -> feed.getMessages() > 0);
+    }
+
+    private void awaitReceived(Collector collector, int count) {
+        await(() -> collector.received.size() >= count);
+        assertThat("Ошибка ленты заказов: подписчик получил лишние заказы", collector.received.size(), equalTo(count));
+        assertThat("Ошибка ленты заказов: заказы повторяются", new HashSet<>(collector.numbers()).size(), equalTo(count));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat("Ошибка ленты заказов: не дождались события за " + WAIT_MILLIS + " мс",
+                    System.currentTimeMillis() < deadline, is(true));
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class Collector implements Flow.Subscriber<Order> {
+        private final long initialDemand;
+        private final List<Order> received = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+
+        Collector(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(Order order) {
+            received.add(order);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        List<Integer> numbers() {
+            List<Integer> numbers = new ArrayList<>();
+            received.forEach(order -> numbers.add(order.getNumber()));
+            return numbers;
+        }
+    }
+}
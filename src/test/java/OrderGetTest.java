@@ -1,61 +1,94 @@
+import cassette.CassetteSession;
+import client.ApiClient;
 import client.OrderClient;
 import client.UserClient;
+import fixture.CleanupRegistry;
+import fixture.OrderPayloads;
+import fixture.PooledUser;
+import fixture.UserPool;
 import io.qameta.allure.junit4.DisplayName;
-import io.restassured.response.Response;
+import model.Order;
+import model.OrdersListResponse;
 import model.User;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.apache.http.HttpStatus.*;
 
 public class OrderGetTest {
+    PooledUser pooledUser;
     User user;
     OrderClient orderClient;
     UserClient userClient;
     String authToken;
-    String correctIngredients = "{\n\"ingredients\": [\"61c0c5a71d1f82001bdaaa75\",\"61c0c5a71d1f82001bdaaa70\"]\n}";
+    String correctIngredients = new OrderPayloads().burger();
 
     private final String UNAUTHORIZED_ERROR_MESSAGE = "You should be authorised";
+    // Сервис отдаёт не больше 50 последних заказов пользователя
+    private static final int ORDERS_LIMIT = 50;
 
     @Before
     public void setUp() {
-        user = User.generateUser();
         orderClient = new OrderClient();
         userClient = new UserClient();
 
-        Response createUserResponse = userClient.createNewUser(user);
-        authToken = createUserResponse.path("accessToken");
-        orderClient.createOrderWithToken(authToken.substring(7), correctIngredients);
+        pooledUser = UserPool.shared().acquire();
+        user = pooledUser.getUser();
+        authToken = pooledUser.getAccessToken();
+        CleanupRegistry.shared().trackOrder(orderClient.createOrderWithTokenTyped(authToken, correctIngredients).getOrderNumber());
     }
 
     @After
     public void cleanUp() {
-        if (authToken != null) {
-            userClient.deleteUser(authToken.substring(7));
-        }
+        UserPool.shared().release(pooledUser);
     }
 
     @Test
     @DisplayName("Получение заказов пользователя с авторизацией")
     public void shouldBePossibleToGetOrdersFromUserWithAuth(){
-        Response response = orderClient.getUserOrdersListWithToken(authToken.substring(7));
+        OrdersListResponse response = orderClient.getUserOrdersListWithTokenTyped(authToken);
 
-        assertThat("Ошибка при получении списка заказов: тело ответа не содержит параметра success со значением true", response.path("success"), equalTo(true));
+        assertThat("Ошибка при получении списка заказов: тело ответа не содержит параметра success со значением true", response.isSuccess(), equalTo(true));
         //про статус ответа в документации ничего не сказано, но по сути, так как это get-запрос должен быть 200
-        assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 200 success", response.statusCode(), equalTo(SC_OK));
+        assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 200 success", response.getStatusCode(), equalTo(SC_OK));
+    }
+
+    @Test
+    @DisplayName("Список заказов пользователя содержит последние 50 заказов по возрастанию номера")
+    public void shouldReturnLatestOrdersInAscendingOrder() {
+        Assume.assumeTrue(ApiClient.isStubTarget() && CassetteSession.shared().getMode() == CassetteSession.Mode.OFF);
+        int last = 0;
+        for (int i = 0; i <= ORDERS_LIMIT; i++) {
+            last = orderClient.createOrderWithTokenTyped(authToken, correctIngredients).getOrderNumber();
+            CleanupRegistry.shared().trackOrder(last);
+        }
+
+        List<Integer> numbers = orderClient.getUserOrdersListWithTokenTyped(authToken).getOrders().stream()
+                .map(Order::getNumber).collect(Collectors.toList());
+        List<Integer> sorted = new ArrayList<>(numbers);
+        sorted.sort(null);
+
+        assertThat("Ошибка при получении списка заказов: вернулось не 50 заказов", numbers.size(), equalTo(ORDERS_LIMIT));
+        assertThat("Ошибка при получении списка заказов: заказы не по возрастанию номера", numbers, equalTo(sorted));
+        assertThat("Ошибка при получении списка заказов: в списке нет последнего заказа", numbers.get(ORDERS_LIMIT - 1), equalTo(last));
     }
 
     @Test
     @DisplayName("Получение заказов пользователя без авторизации")
     public void shouldBeImpossibleToGetOrdersFromUserWithoutAuth(){
-        Response response = orderClient.getUserOrdersListWithoutToken();
+        OrdersListResponse response = orderClient.getUserOrdersListWithoutTokenTyped();
 
-        assertThat("Ошибка при получении списка заказов: тело ответа содержит номер заказа", response.path("order.number"), nullValue());
-        assertThat("Ошибка при получении списка заказов: тело ответа не содержит параметра success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.statusCode(), equalTo(SC_UNAUTHORIZED));
-        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому You should be authorised", response.path("message"), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
+        assertThat("Ошибка при получении списка заказов: тело ответа содержит номер заказа", response.getOrders(), nullValue());
+        assertThat("Ошибка при получении списка заказов: тело ответа не содержит параметра success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка при получении списка заказов: вернулось сообщение, не соответствующее ожидаемому You should be authorised", response.getMessage(), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
     }
 }
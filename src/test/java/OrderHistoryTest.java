@@ -0,0 +1,83 @@
+import client.OrderClient;
+import client.OrderHistory;
+import fixture.OrderPayloads;
+import fixture.PooledUser;
+import fixture.UserPool;
+import io.qameta.allure.junit4.DisplayName;
+import model.Order;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class OrderHistoryTest {
+    OrderClient orderClient;
+    PooledUser firstUser;
+    PooledUser secondUser;
+    String correctIngredients = new OrderPayloads().burger();
+
+    @Before
+    public void setUp() {
+        orderClient = new OrderClient();
+        firstUser = UserPool.shared().acquire();
+        secondUser = UserPool.shared().acquire();
+    }
+
+    @After
+    public void cleanUp() {
+        UserPool.shared().release(firstUser);
+        UserPool.shared().release(secondUser);
+    }
+
+    @Test
+    @DisplayName("Повторный опрос истории заказов возвращает только новые заказы")
+    public void shouldReturnOnlyNewOrdersOnRepeatedPoll() {
+        String token = firstUser.getAccessToken();
+        orderClient.createOrderWithTokenTyped(token, correctIngredients);
+        OrderHistory history = new OrderHistory(orderClient, 1000);
+
+        OrderHistory.Changes initial = history.poll(token);
+        assertThat("Ошибка истории заказов: вернулся код ответа, отличный от ожидаемого 200 ok", initial.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка истории заказов: первый опрос не вернул существующие заказы", initial.getAdded().isEmpty(), is(false));
+
+        OrderHistory.Changes repeated = history.poll(token);
+        assertThat("Ошибка истории заказов: неизменившийся список вернул заказы", repeated.isUnchanged(), is(true));
+        assertThat("Ошибка истории заказов: неизменившийся список не засчитан как попадание в кеш", history.getHits(), equalTo(1L));
+
+        int number = orderClient.createOrderWithTokenTyped(token, correctIngredients).getOrderNumber();
+        OrderHistory.Changes next = history.poll(token);
+        List<Order> added = next.getAdded();
+        assertThat("Ошибка истории заказов: вернулись не только новые заказы", added, hasSize(1));
+        assertThat("Ошибка истории заказов: вернулся не тот заказ", added.get(0).getNumber(), equalTo(number));
+        assertThat("Ошибка истории заказов: неизменившиеся заказы помечены как изменённые", next.getChanged().isEmpty(), is(true));
+        assertThat("Ошибка истории заказов: нового заказа нет в кеше", history.getOrders(token).stream()
+                .map(Order::getNumber).collect(Collectors.toList()), hasItem(number));
+        assertThat("Ошибка истории заказов: промахи кеша не посчитаны", history.getMisses(), equalTo(2L));
+    }
+
+    @Test
+    @DisplayName("При превышении размера кеша вытесняется история, которая дольше не опрашивалась")
+    public void shouldEvictLeastRecentlyPolledHistory() {
+        orderClient.createOrderWithTokenTyped(firstUser.getAccessToken(), correctIngredients);
+        orderClient.createOrderWithTokenTyped(secondUser.getAccessToken(), correctIngredients);
+        OrderHistory history = new OrderHistory(orderClient, 1);
+
+        history.poll(firstUser.getAccessToken());
+        history.poll(secondUser.getAccessToken());
+
+        assertThat("Ошибка истории заказов: история не вытеснена", history.getEvictions(), greaterThanOrEqualTo(1L));
+        assertThat("Ошибка истории заказов: в кеше остались лишние истории", history.getCachedTokens(), equalTo(1));
+        assertThat("Ошибка истории заказов: вытеснена не самая старая история",
+                history.getOrders(firstUser.getAccessToken()).isEmpty(), is(true));
+        assertThat("Ошибка истории заказов: после вытеснения история опрашивается заново",
+                history.poll(firstUser.getAccessToken()).getAdded().isEmpty(), is(false));
+    }
+}
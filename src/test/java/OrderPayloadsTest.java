@@ -0,0 +1,70 @@
+import com.google.gson.JsonParser;
+import fixture.IngredientCatalog;
+import fixture.OrderPayloads;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+public class OrderPayloadsTest {
+    IngredientCatalog catalog;
+    OrderPayloads payloads;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        catalog = new IngredientCatalog(IngredientCatalogTest.writeCache(folder.getRoot().toPath().resolve("ingredients.json"),
+                IngredientCatalogTest.catalogJson("bun")), TimeUnit.HOURS.toMillis(1));
+        payloads = new OrderPayloads(catalog);
+    }
+
+    @Test
+    @DisplayName("Бургер собирается из заданного числа булок, соусов и начинок каталога")
+    public void shouldBuildBurgerFromCatalog() {
+        List<String> ids = ids(payloads.of(1, 2, 3));
+
+        assertThat("Ошибка тела заказа: неверное число ингредиентов", ids, hasSize(6));
+        assertThat("Ошибка тела заказа: первой идёт не булка", ids.get(0), equalTo(IngredientCatalogTest.BUN_ID));
+        assertThat("Ошибка тела заказа: неверные соусы", ids.subList(1, 3), everyItem(equalTo(IngredientCatalogTest.SAUCE_ID)));
+        assertThat("Ошибка тела заказа: неверные начинки", ids.subList(3, 6), everyItem(equalTo(IngredientCatalogTest.MAIN_ID)));
+        assertThat("Ошибка тела заказа: большой заказ неверного размера", ids(payloads.large(100)), hasSize(100));
+        assertThat("Ошибка тела заказа: пустой заказ не пуст", ids(payloads.empty()), hasSize(0));
+    }
+
+    @Test
+    @DisplayName("Неверные тела заказа содержат идентификаторы, которых нет в каталоге")
+    public void shouldBuildInvalidPayloads() {
+        List<String> unknown = ids(payloads.unknownIds(5));
+        List<String> withOneUnknown = ids(payloads.withOneUnknownId());
+        List<String> malformed = ids(payloads.malformedIds(2));
+
+        assertThat("Ошибка тела заказа: неверное число неизвестных идентификаторов", unknown, hasSize(5));
+        for (String id : unknown) {
+            assertThat("Ошибка тела заказа: идентификатор не в формате ObjectId", id.matches("[0-9a-f]{24}"), is(true));
+            assertThat("Ошибка тела заказа: идентификатор есть в каталоге", catalog.contains(id), is(false));
+        }
+        assertThat("Ошибка тела заказа: неверное число ингредиентов", withOneUnknown, hasSize(3));
+        assertThat("Ошибка тела заказа: неизвестный идентификатор не один",
+                withOneUnknown.stream().filter(id -> !catalog.contains(id)).count(), equalTo(1L));
+        assertThat("Ошибка тела заказа: идентификатор в формате ObjectId", malformed.get(0).matches("[0-9a-f]{24}"), is(false));
+        assertThat("Ошибка тела заказа: в теле есть поле ingredients", payloads.withoutIngredients(), equalTo("{}"));
+    }
+
+    private static List<String> ids(String json) {
+        List<String> ids = new ArrayList<>();
+        JsonParser.parseString(json).getAsJsonObject().getAsJsonArray("ingredients").forEach(id -> ids.add(id.getAsString()));
+        return ids;
+    }
+}
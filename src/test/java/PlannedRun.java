@@ -0,0 +1,8 @@
+import org.junit.runner.RunWith;
+
+/**
+ * Точка входа для surefire в профилях shard и prioritized: весь набор тестов через {@link PlannedSuite}.
+ */
+@RunWith(PlannedSuite.class)
+public class PlannedRun {
+}
@@ -0,0 +1,201 @@
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Запускает тестовые классы из того же каталога классов, что и класс с {@code @RunWith(PlannedSuite.class)},
+ * и оставляет из них только тесты своего шарда. Шард задаётся свойством shard в виде k/N (по умолчанию 1/1),
+ * раскладка строится {@link ShardPlan} по длительностям из {@link TestHistory}. Тесты шарда идут в порядке
+ * {@link TestPriority}. При test.failFast=N после N-го упавшего теста оставшиеся классы помечаются пропущенными.
+ * Запуск на узле CI: mvn test -Pshard -Dshard=2/4, быстрая проверка: mvn test -Pprioritized
+ */
+public class PlannedSuite extends Suite {
+    public static final String SHARD_PROPERTY = "shard";
+    public static final String FAIL_FAST_PROPERTY = "test.failFast";
+
+    // Те же имена, что surefire берёт по умолчанию
+    private static final Pattern TEST_CLASS_NAME = Pattern.compile("Test.*|.*Test|.*Tests|.*TestCase");
+
+    private final String summary;
+    private final ClientChanges changes;
+    private final int failFast = Integer.getInteger(FAIL_FAST_PROPERTY, 0);
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public PlannedSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+        super(klass, builder.runners(klass, testClasses(klass)));
+        String[] shard = System.getProperty(SHARD_PROPERTY, "1/1").trim().split("/");
+        int index = Integer.parseInt(shard[0].trim());
+        int count = Integer.parseInt(shard[1].trim());
+        if (index < 1 || index > count) {
+            throw new InitializationError("Номер шарда вне диапазона 1.." + count + ": " + index);
+        }
+        List<String> tests = new ArrayList<>();
+        collectTests(getDescription(), tests);
+        TestHistory history = TestHistory.fromSystemProperties();
+        ShardPlan plan = ShardPlan.plan(tests, history.getDurations(), count);
+        try {
+            filter(new ShardFilter(plan, index));
+        } catch (NoTestsRemainException e) {
+            // тестов меньше, чем шардов: этому узлу ничего не досталось
+        }
+        changes = ClientChanges.detect(TestHistory.directory());
+        TestPriority priority = TestPriority.fromSystemProperties(history, changes);
+        sort(new Sorter(priority.comparator()));
+        summary = plan.describe(index) + "\n" + describeOrder(priority) + (failFast > 0
+                ? ", остановка после упавших тестов: " + failFast : "");
+    }
+
+    // План печатается при запуске: вывод из конструктора раннера surefire не показывает
+    @Override
+    public void run(RunNotifier notifier) {
+        System.out.println(summary);
+        RunListener counter = new RunListener() {
+            @Override
+            public void testFailure(Failure failure) {
+                failures.incrementAndGet();
+            }
+        };
+        notifier.addListener(counter);
+        try {
+            super.run(notifier);
+        } finally {
+            notifier.removeListener(counter);
+            changes.save(TestHistory.directory());
+        }
+    }
+
+    @Override
+    protected void runChild(Runner runner, RunNotifier notifier) {
+        if (failFast > 0 && failures.get() >= failFast) {
+            skip(runner.getDescription(), notifier);
+            return;
+        }
+        super.runChild(runner, notifier);
+    }
+
+    private static void skip(Description description, RunNotifier notifier) {
+        if (description.isTest()) {
+            notifier.fireTestIgnored(description);
+        }
+        for (Description child : description.getChildren()) {
+            skip(child, notifier);
+        }
+    }
+
+    private String describeOrder(TestPriority priority) {
+        Map<TestPriority.Rank, Integer> ranks = new EnumMap<>(TestPriority.Rank.class);
+        List<String> tests = new ArrayList<>();
+        collectTests(getDescription(), tests);
+        for (String test : tests) {
+            int separator = test.indexOf('#');
+            ranks.merge(priority.rank(test.substring(0, separator), test.substring(separator + 1)), 1, Integer::sum);
+        }
+        return "Порядок: упавших " + ranks.getOrDefault(TestPriority.Rank.FAILED, 0)
+                + ", нестабильных " + ranks.getOrDefault(TestPriority.Rank.FLAKY, 0)
+                + ", вызывающих изменённые методы " + changes.getChangedMethods() + " " + ranks.getOrDefault(TestPriority.Rank.CHANGED, 0)
+                + ", новых " + ranks.getOrDefault(TestPriority.Rank.NEW, 0)
+                + ", остальных " + ranks.getOrDefault(TestPriority.Rank.REST, 0);
+    }
+
+    static void collectTests(Description description, List<String> tests) {
+        if (description.isTest()) {
+            tests.add(TestHistory.key(description.getClassName(), description.getMethodName()));
+        }
+        for (Description child : description.getChildren()) {
+            collectTests(child, tests);
+        }
+    }
+
+    private static Class<?>[] testClasses(Class<?> suite) throws InitializationError {
+        Path root;
+        try {
+            root = Paths.get(suite.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new InitializationError(e);
+        }
+        List<Class<?>> classes = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            List<String> names = files
+                    .map(file -> root.relativize(file).toString())
+                    .filter(file -> file.endsWith(".class") && !file.contains("$"))
+                    .map(file -> file.substring(0, file.length() - ".class".length()).replace('/', '.').replace('\\', '.'))
+                    .filter(name -> TEST_CLASS_NAME.matcher(name.substring(name.lastIndexOf('.') + 1)).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (String name : names) {
+                Class<?> candidate = Class.forName(name, false, suite.getClassLoader());
+                if (candidate != suite && isTestClass(candidate)) {
+                    classes.add(candidate);
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new InitializationError(e);
+        }
+        return classes.toArray(new Class<?>[0]);
+    }
+
+    private static boolean isTestClass(Class<?> candidate) {
+        if (Modifier.isAbstract(candidate.getModifiers()) || !Modifier.isPublic(candidate.getModifiers())) {
+            return false;
+        }
+        for (Method method : candidate.getMethods()) {
+            if (method.isAnnotationPresent(Test.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class ShardFilter extends Filter {
+        private final ShardPlan plan;
+        private final int shard;
+
+        ShardFilter(ShardPlan plan, int shard) {
+            this.plan = plan;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean shouldRun(Description description) {
+            if (description.isTest()) {
+                return plan.contains(shard, TestHistory.key(description.getClassName(), description.getMethodName()));
+            }
+            for (Description child : description.getChildren()) {
+                if (shouldRun(child)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String describe() {
+            return "шард " + shard + " из " + plan.getShards();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import client.ApiClient;
+import client.IngredientClient;
+import client.RequestTimings;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class RequestTimingsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Задержки складываются по методу и эндпоинту, новые соединения считаются отдельно")
+    public void shouldAggregateTimingsByEndpoint() throws IOException {
+        RequestTimings timings = new RequestTimings();
+        timings.record("GET", "ingredients", TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(4), TimeUnit.MILLISECONDS.toNanos(10));
+        timings.record("GET", "ingredients", -1, TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(20));
+        timings.record("GET", "ingredients", -1, -1, TimeUnit.MILLISECONDS.toNanos(30));
+        timings.record("POST", "orders", -1, -1, TimeUnit.MILLISECONDS.toNanos(5));
+        Path directory = folder.getRoot().toPath();
+
+        timings.writeSummary(directory);
+
+        JsonArray rows = summary(directory);
+        assertThat("Ошибка сводки задержек: неверное число эндпоинтов", rows.size(), equalTo(2));
+        JsonObject ingredients = row(rows, "GET", "ingredients");
+        assertThat("Ошибка сводки задержек: неверное число запросов", ingredients.get("count").getAsLong(), equalTo(3L));
+        assertThat("Ошибка сводки задержек: неверное число новых соединений", ingredients.get("newConnections").getAsLong(), equalTo(1L));
+        assertThat("Ошибка сводки задержек: неверное среднее время", ingredients.getAsJsonObject("totalMs").get("mean").getAsDouble(), closeTo(20, 0.1));
+        assertThat("Ошибка сводки задержек: неверный максимум", ingredients.getAsJsonObject("totalMs").get("max").getAsDouble(), closeTo(30, 0.1));
+        assertThat("Ошибка сводки задержек: неверное среднее время до первого байта", ingredients.getAsJsonObject("ttfbMs").get("mean").getAsDouble(), closeTo(3, 0.1));
+        assertThat("Ошибка сводки задержек: неверное число запросов второго эндпоинта", row(rows, "POST", "orders").get("count").getAsLong(), equalTo(1L));
+        List<String> csv = Files.readAllLines(directory.resolve("request-timings.csv"), StandardCharsets.UTF_8);
+        assertThat("Ошибка сводки задержек: неверное число строк CSV", csv, hasSize(3));
+        assertThat("Ошибка сводки задержек: неверная строка CSV", csv.get(1), startsWith("GET,ingredients,3,1,"));
+    }
+
+    @Test
+    @DisplayName("Путь с ведущим слешем и без него учитывается как один эндпоинт")
+    public void shouldNormalizeEndpointPath() throws IOException {
+        Path before = folder.newFolder("before").toPath();
+        Path after = folder.newFolder("after").toPath();
+        new IngredientClient().getIngredients();
+        RequestTimings.shared().writeSummary(before);
+
+        new IngredientClient().getIngredients();
+        given().spec(ApiClient.getBaseSpecification()).get("/ingredients");
+        RequestTimings.shared().writeSummary(after);
+
+        long counted = row(summary(after), "GET", "ingredients").get("count").getAsLong()
+                - row(summary(before), "GET", "ingredients").get("count").getAsLong();
+        assertThat("Ошибка нормализации эндпоинта: запросы учтены не в одном эндпоинте", counted, equalTo(2L));
+        for (JsonElement row : summary(after)) {
+            assertThat("Ошибка нормализации эндпоинта: эндпоинт со слешем", row.getAsJsonObject().get("endpoint").getAsString(), not(startsWith("/")));
+        }
+    }
+
+    @Test
+    @DisplayName("Сводка задержек записывается при завершении JVM")
+    public void shouldWriteSummaryOnShutdown() throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("timings");
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-D" + RequestTimings.OUTPUT_DIRECTORY_PROPERTY + "=" + directory,
+                ShutdownRun.class.getName())
+                .inheritIO()
+                .start();
+
+        assertThat("Ошибка записи сводки: процесс не завершился", process.waitFor(60, TimeUnit.SECONDS), is(true));
+        assertThat("Ошибка записи сводки: процесс завершился с ошибкой", process.exitValue(), equalTo(0));
+        assertThat("Ошибка записи сводки: в сводке нет записанного эндпоинта",
+                row(summary(directory), "DELETE", "auth/user").get("count").getAsLong(), equalTo(1L));
+        assertThat("Ошибка записи сводки: нет CSV", Files.isRegularFile(directory.resolve("request-timings.csv")), is(true));
+    }
+
+    private static JsonArray summary(Path directory) throws IOException {
+        return JsonParser.parseString(new String(Files.readAllBytes(directory.resolve("request-timings.json")),
+                StandardCharsets.UTF_8)).getAsJsonArray();
+    }
+
+    private static JsonObject row(JsonArray rows, String method, String endpoint) {
+        for (JsonElement element : rows) {
+            JsonObject row = element.getAsJsonObject();
+            if (row.get("method").getAsString().equals(method) && row.get("endpoint").getAsString().equals(endpoint)) {
+                return row;
+            }
+        }
+        throw new AssertionError("В сводке задержек нет " + method + " " + endpoint + ": " + rows);
+    }
+
+    // Отдельная JVM: записывает один замер и завершается, сводку пишет shutdown hook
+    public static class ShutdownRun {
+        public static void main(String[] args) {
+            RequestTimings.shared().record("DELETE", "auth/user", -1, -1, TimeUnit.MILLISECONDS.toNanos(3));
+        }
+    }
+}
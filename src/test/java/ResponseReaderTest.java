@@ -0,0 +1,119 @@
+import io.qameta.allure.junit4.DisplayName;
+import model.ApiResponse;
+import model.AuthResponse;
+import model.ErrorResponse;
+import model.IngredientsResponse;
+import model.Order;
+import model.OrderResponse;
+import model.OrdersListResponse;
+import model.ResponseReader;
+import model.UserResponse;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+public class ResponseReaderTest {
+
+    @Test
+    @DisplayName("Разбор ответа входа: пользователь и токены, неизвестные поля пропускаются")
+    public void shouldReadAuthResponse() {
+        AuthResponse response = read(200, "{\"success\":true,\"extra\":{\"nested\":[1,{\"a\":null}]},"
+                + "\"user\":{\"email\":\"a@b.ru\",\"name\":\"Имя\",\"role\":\"x\"},"
+                + "\"accessToken\":\"Bearer abc.def.ghi\",\"refreshToken\":\"r1\"}", AuthResponse.class);
+
+        assertThat("Ошибка разбора: неверный код ответа", response.getStatusCode(), equalTo(200));
+        assertThat("Ошибка разбора: не прочитан success", response.isSuccess(), is(true));
+        assertThat("Ошибка разбора: не прочитан email", response.getUser().getEmail(), equalTo("a@b.ru"));
+        assertThat("Ошибка разбора: не прочитано имя", response.getUser().getName(), equalTo("Имя"));
+        assertThat("Ошибка разбора: неверный токен без префикса", response.getRawAccessToken(), equalTo("abc.def.ghi"));
+        assertThat("Ошибка разбора: не прочитан refresh-токен", response.getRefreshToken(), equalTo("r1"));
+        assertThat("Ошибка разбора: корректное тело помечено как повреждённое", response.isMalformed(), is(false));
+    }
+
+    @Test
+    @DisplayName("Разбор ответов с ошибкой и данными пользователя, null вместо объекта")
+    public void shouldReadErrorAndUserResponses() {
+        ErrorResponse error = read(403, "{\"success\":false,\"message\":\"jwt malformed\"}", ErrorResponse.class);
+        UserResponse user = read(200, "{\"success\":true,\"user\":null}", UserResponse.class);
+        ApiResponse common = read(401, "{\"success\":null,\"message\":null}", ApiResponse.class);
+
+        assertThat("Ошибка разбора: не прочитан текст ошибки", error.getMessage(), equalTo("jwt malformed"));
+        assertThat("Ошибка разбора: неверный код ответа", error.getStatusCode(), equalTo(403));
+        assertThat("Ошибка разбора: null вместо пользователя дал объект", user.getUser(), nullValue());
+        assertThat("Ошибка разбора: null вместо success не дал false", common.isSuccess(), is(false));
+        assertThat("Ошибка разбора: null вместо сообщения не дал null", common.getMessage(), nullValue());
+    }
+
+    @Test
+    @DisplayName("Разбор заказа: ингредиенты строками и объектами, владелец")
+    public void shouldReadOrderResponse() {
+        OrderResponse response = read(200, "{\"success\":true,\"name\":\"Бургер\",\"order\":{\"_id\":\"o1\",\"number\":12345,"
+                + "\"status\":\"done\",\"price\":null,\"ingredients\":[\"i1\",{\"_id\":\"i2\",\"name\":\"Булка\"}],"
+                + "\"owner\":{\"email\":\"a@b.ru\",\"name\":\"Имя\"},\"createdAt\":\"c\",\"updatedAt\":\"u\"}}", OrderResponse.class);
+
+        Order order = response.getOrder();
+        assertThat("Ошибка разбора: не прочитано название", response.getName(), equalTo("Бургер"));
+        assertThat("Ошибка разбора: не прочитан номер", response.getOrderNumber(), equalTo(12345));
+        assertThat("Ошибка разбора: не прочитан идентификатор", order.getId(), equalTo("o1"));
+        assertThat("Ошибка разбора: null вместо цены не дал null", order.getPrice(), nullValue());
+        assertThat("Ошибка разбора: неверные ингредиенты", order.getIngredients(), equalTo(Arrays.asList("i1", "i2")));
+        assertThat("Ошибка разбора: не прочитан владелец", order.getOwner().getEmail(), equalTo("a@b.ru"));
+        assertThat("Ошибка разбора: не прочитано время изменения", order.getUpdatedAt(), equalTo("u"));
+    }
+
+    @Test
+    @DisplayName("Разбор списка заказов и каталога ингредиентов")
+    public void shouldReadOrdersListAndIngredients() {
+        OrdersListResponse orders = read(200, "{\"success\":true,\"orders\":[{\"number\":1},null,{\"number\":2,\"ingredients\":null}],"
+                + "\"total\":10,\"totalToday\":null}", OrdersListResponse.class);
+        IngredientsResponse ingredients = read(200, "{\"success\":true,\"data\":[{\"_id\":\"i1\",\"name\":\"Булка\","
+                + "\"type\":\"bun\",\"price\":988,\"image\":\"x.png\"}]}", IngredientsResponse.class);
+        OrdersListResponse empty = read(200, "{\"success\":true,\"orders\":null}", OrdersListResponse.class);
+
+        assertThat("Ошибка разбора: неверное число заказов", orders.getOrders(), hasSize(3));
+        assertThat("Ошибка разбора: null вместо заказа не дал null", orders.getOrders().get(1), nullValue());
+        assertThat("Ошибка разбора: не прочитан номер заказа", orders.getOrders().get(2).getNumber(), equalTo(2));
+        assertThat("Ошибка разбора: не прочитан total", orders.getTotal(), equalTo(10));
+        assertThat("Ошибка разбора: null вместо totalToday не дал null", orders.getTotalToday(), nullValue());
+        assertThat("Ошибка разбора: неверный тип ингредиента", ingredients.getData().get(0).getType(), equalTo("bun"));
+        assertThat("Ошибка разбора: неверная цена ингредиента", ingredients.getData().get(0).getPrice(), equalTo(988));
+        assertThat("Ошибка разбора: null вместо списка заказов не дал null", empty.getOrders(), nullValue());
+    }
+
+    @Test
+    @DisplayName("Оборванное тело, значение не того типа и HTML дают пустую модель с признаком ошибки разбора")
+    public void shouldMarkMalformedBodies() {
+        OrdersListResponse truncated = read(200, "{\"success\":true,\"orders\":[{\"number\":1},{\"numb", OrdersListResponse.class);
+        OrderResponse fractional = read(200, "{\"success\":true,\"order\":{\"number\":1.5}}", OrderResponse.class);
+        OrderResponse wrongType = read(200, "{\"success\":true,\"order\":{\"number\":\"первый\"}}", OrderResponse.class);
+        AuthResponse objectInsteadOfString = read(200, "{\"success\":true,\"accessToken\":{}}", AuthResponse.class);
+        ErrorResponse html = read(500, "<html><body>Internal Server Error</body></html>", ErrorResponse.class);
+        OrdersListResponse array = read(200, "[]", OrdersListResponse.class);
+
+        for (ApiResponse response : Arrays.asList(truncated, fractional, wrongType, objectInsteadOfString, html, array)) {
+            assertThat("Ошибка разбора: повреждённое тело не помечено", response.isMalformed(), is(true));
+            assertThat("Ошибка разбора: повреждённое тело заполнило success", response.isSuccess(), is(false));
+        }
+        assertThat("Ошибка разбора: оборванное тело дало частично заполненный список", truncated.getOrders(), nullValue());
+        assertThat("Ошибка разбора: потерян код ответа", html.getStatusCode(), equalTo(500));
+    }
+
+    @Test
+    @DisplayName("Пустое тело даёт модель только с кодом ответа без признака ошибки")
+    public void shouldReadEmptyBody() {
+        OrdersListResponse response = ResponseReader.read(304, (byte[]) null, OrdersListResponse.class);
+
+        assertThat("Ошибка разбора: потерян код ответа", response.getStatusCode(), equalTo(304));
+        assertThat("Ошибка разбора: пустое тело помечено как повреждённое", response.isMalformed(), is(false));
+        assertThat("Ошибка разбора: пустое тело дало заказы", response.getOrders(), nullValue());
+    }
+
+    private static <T extends ApiResponse> T read(int statusCode, String body, Class<T> type) {
+        return ResponseReader.read(statusCode, body.getBytes(StandardCharsets.UTF_8), type);
+    }
+}
@@ -0,0 +1,102 @@
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import report.CompactResultsWriter;
+import report.ResultSummarizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Запись одних и тех же результатов с вложениями-телами запросов и ответов в allure-results по файлу на запись
+ * и в сегменты {@link CompactResultsWriter}, затем сводка по сегментам и выгрузка обратно в allure-results.
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ResultSinkBenchmark
+ * -Dbenchmark.results=20000
+ */
+public class ResultSinkBenchmark {
+    public static void main(String[] args) throws IOException {
+        int results = Integer.getInteger("benchmark.results", 20_000);
+        Path root = Paths.get("target", "result-sink-benchmark");
+        delete(root);
+        byte[] body = body();
+
+        Path files = root.resolve("allure-results");
+        Files.createDirectories(files);
+        long filesNanos = write(new FileSystemResultsWriter(files), results, body);
+        report("По файлу на запись", filesNanos, files);
+
+        Path segments = root.resolve("allure-compact");
+        CompactResultsWriter compact = new CompactResultsWriter(segments, 256L << 20);
+        long compactNanos = write(compact, results, body);
+        long start = System.nanoTime();
+        compact.close();
+        compactNanos += System.nanoTime() - start;
+        report("Сегменты", compactNanos, segments);
+
+        start = System.nanoTime();
+        ResultSummarizer.Summary summary = ResultSummarizer.summarize(segments);
+        System.out.printf("Сводка по индексам: %.1f мс%n", (System.nanoTime() - start) / 1e6);
+        summary.print(System.out);
+        start = System.nanoTime();
+        int exported = ResultSummarizer.export(segments, root.resolve("exported"));
+        System.out.printf("Выгрузка в allure-results: %d файлов, %.1f мс%n", exported, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static long write(AllureResultsWriter writer, int results, byte[] body) {
+        Status[] statuses = Status.values();
+        long start = System.nanoTime();
+        for (int i = 0; i < results; i++) {
+            String uuid = UUID.randomUUID().toString();
+            writer.write(uuid + "-request-attachment.txt", new ByteArrayInputStream(body));
+            writer.write(uuid + "-response-attachment.txt", new ByteArrayInputStream(body));
+            writer.write(new TestResult().setUuid(uuid).setName("test " + i).setFullName("Benchmark.test" + i)
+                    .setStatus(statuses[i % statuses.length]).setStart((long) i).setStop(i + 10L + i % 500));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos, Path directory) throws IOException {
+        long count;
+        long bytes;
+        try (Stream<Path> paths = Files.list(directory)) {
+            long[] totals = paths.mapToLong(path -> path.toFile().length()).collect(() -> new long[2],
+                    (acc, length) -> {
+                        acc[0]++;
+                        acc[1] += length;
+                    }, (a, b) -> {
+                        a[0] += b[0];
+                        a[1] += b[1];
+                    });
+            count = totals[0];
+            bytes = totals[1];
+        }
+        System.out.printf("%s: %.1f мс, файлов %d, %.1f МБ%n", name, nanos / 1e6, count, bytes / (1024.0 * 1024.0));
+    }
+
+    // Тело ответа GET orders, как его прикладывает allure-rest-assured при LogDetail.ALL
+    private static byte[] body() {
+        StringBuilder body = new StringBuilder("{\"success\":true,\"orders\":[");
+        for (int i = 0; i < 50; i++) {
+            body.append("{\"ingredients\":[\"61c0c5a71d1f82001bdaaa6d\",\"61c0c5a71d1f82001bdaaa6f\"],\"_id\":\"")
+                    .append(i).append("\",\"status\":\"done\",\"number\":").append(i)
+                    .append(",\"createdAt\":\"2022-06-01T10:00:00.000Z\",\"updatedAt\":\"2022-06-01T10:00:01.000Z\"},");
+        }
+        return body.append("{}],\"total\":50,\"totalToday\":50}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void delete(Path root) throws IOException {
+        if (Files.exists(root)) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
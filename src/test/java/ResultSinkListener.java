@@ -0,0 +1,25 @@
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import report.CompactResultsWriter;
+
+/**
+ * При -Dallure.results.sink=compact направляет результаты Allure в {@link CompactResultsWriter} вместо
+ * отдельных файлов в allure-results и в конце прогона сбрасывает его буферы на диск. Должен стоять в списке
+ * слушателей раньше AllureJunit4: тот запоминает AllureLifecycle при создании.
+ */
+@RunListener.ThreadSafe
+public class ResultSinkListener extends RunListener {
+    public ResultSinkListener() {
+        CompactResultsWriter.installIfEnabled();
+    }
+
+    @Override
+    public void testRunFinished(Result result) {
+        CompactResultsWriter writer = CompactResultsWriter.getInstalled();
+        if (writer != null) {
+            writer.flush();
+            System.out.println("Результаты Allure записаны в " + writer.getDirectory() + ": записей "
+                    + writer.getRecords() + ", " + writer.getStoredBytes() + " байт");
+        }
+    }
+}
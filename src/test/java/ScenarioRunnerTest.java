@@ -0,0 +1,94 @@
+import client.IngredientClient;
+import io.qameta.allure.junit4.DisplayName;
+import load.Journeys;
+import load.LoadConfig;
+import load.Scenario;
+import load.ScenarioRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ScenarioRunnerTest {
+    private final IngredientClient ingredientClient = new IngredientClient();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Смешанные пути пользователей проходят без ошибок, каждый шаг записан в файл результатов")
+    public void shouldRunMixedJourneysAndStreamResults() throws Exception {
+        Path results = folder.getRoot().toPath().resolve("results.csv");
+        ScenarioRunner runner = new ScenarioRunner(new LoadConfig().setConcurrency(4).setDurationSeconds(2), Journeys.mixed());
+
+        runner.run(results);
+
+        List<String> lines = Files.readAllLines(results, StandardCharsets.UTF_8);
+        long steps = lines.stream().skip(1).count();
+        assertThat("Ошибка сценариев: не пройдено ни одной итерации", runner.getIterations(), greaterThan(0L));
+        assertThat("Ошибка сценариев: есть проваленные шаги " + lines, runner.getFailedIterations(), equalTo(0L));
+        assertThat("Ошибка сценариев: в файле нет заголовка", lines.get(0), startsWith("timestamp_ms,scenario,step"));
+        assertThat("Ошибка сценариев: записаны не все шаги", steps, greaterThan(runner.getIterations()));
+        assertThat("Ошибка сценариев: ошибки шагов попали в файл", lines.stream().skip(1).noneMatch(line -> line.contains(",false,")), is(true));
+    }
+
+    @Test
+    @DisplayName("Прогон длится заданное время: не обрывается раньше срока и не затягивается после него")
+    public void shouldRunForConfiguredDuration() throws Exception {
+        long durationSeconds = 3;
+        Scenario scenario = Scenario.named("Каталог")
+                .step("Ингредиенты", session -> ingredientClient.getIngredients())
+                .expectStatus(200);
+        ScenarioRunner runner = new ScenarioRunner(new LoadConfig().setConcurrency(2).setDurationSeconds(durationSeconds),
+                List.of(scenario));
+
+        long elapsed = runner.run(folder.getRoot().toPath().resolve("duration.csv"));
+
+        assertThat("Ошибка сценариев: прогон закончился раньше срока", elapsed,
+                greaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(durationSeconds)));
+        assertThat("Ошибка сценариев: прогон затянулся после срока", elapsed,
+                lessThan(TimeUnit.SECONDS.toNanos(durationSeconds + 5)));
+        assertThat("Ошибка сценариев: есть проваленные итерации", runner.getFailedIterations(), equalTo(0L));
+    }
+
+    @Test
+    @DisplayName("Проваленная проверка прерывает путь, завершающий шаг выполняется")
+    public void shouldStopJourneyOnFailedCheckAndRunFinallySteps() throws Exception {
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger cleanedUp = new AtomicInteger();
+        Scenario scenario = Scenario.named("Проверка")
+                .step("Каталог", session -> ingredientClient.getIngredients())
+                .expectStatus(201)
+                .step("Недостижимый шаг", session -> {
+                    skipped.incrementAndGet();
+                    return null;
+                })
+                .finallyStep("Очистка", session -> {
+                    cleanedUp.incrementAndGet();
+                    return null;
+                });
+        Path results = folder.getRoot().toPath().resolve("failed.csv");
+        ScenarioRunner runner = new ScenarioRunner(new LoadConfig().setConcurrency(1).setDurationSeconds(1), List.of(scenario));
+
+        runner.run(results);
+
+        String content = new String(Files.readAllBytes(results), StandardCharsets.UTF_8);
+        assertThat("Ошибка сценариев: итерации не провалены", runner.getFailedIterations(), equalTo(runner.getIterations()));
+        assertThat("Ошибка сценариев: шаг после проваленной проверки выполнен", skipped.get(), equalTo(0));
+        assertThat("Ошибка сценариев: завершающий шаг выполнен не в каждой итерации", (long) cleanedUp.get(), equalTo(runner.getIterations()));
+        assertThat("Ошибка сценариев: причина провала не записана", content, containsString("ожидался статус 201, получен ответ 200"));
+        assertThat("Ошибка сценариев: нет задержки шага", runner.getRecorder().getErrors("Проверка / Каталог"), equalTo(runner.getIterations()));
+    }
+}
@@ -0,0 +1,84 @@
+import client.SchemaValidationFilter;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.Test;
+import schema.JsonSchema;
+import schema.SchemaRegistry;
+import schema.SchemaValidator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class SchemaValidationTest {
+    private static final int ORDERS = 20_000;
+    private static final int BROKEN_ORDER = 17_345;
+
+    private final String LOGIN_RESPONSE = "{\"success\":true,\"accessToken\":\"Bearer header.payload.signature\","
+            + "\"refreshToken\":\"refresh\",\"user\":{\"email\":\"user@gmail.com\",\"name\":\"User\"}}";
+
+    @Test
+    @DisplayName("Ответ, соответствующий контракту, проходит проверку")
+    public void shouldAcceptValidResponse() {
+        List<String> violations = validate(schema("POST", "auth/login", 200), LOGIN_RESPONSE);
+
+        assertThat("Ошибка проверки схемы: корректный ответ отклонён " + violations, violations.isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("Нарушение контракта указывает путь до поля")
+    public void shouldReportPathToViolation() {
+        String response = LOGIN_RESPONSE.replace("\"name\":\"User\"", "\"nickname\":\"User\"")
+                .replace("Bearer header", "header");
+
+        List<String> violations = validate(schema("POST", "auth/login", 200), response);
+
+        assertThat("Ошибка проверки схемы: не найдено отсутствие имени", violations, hasItem(containsString("$.user: нет обязательного поля name")));
+        assertThat("Ошибка проверки схемы: не проверен формат токена", violations, hasItem(startsWith("$.accessToken:")));
+        assertThat("Ошибка проверки схемы: ответ 4xx проверен не общей схемой ошибки",
+                SchemaRegistry.shared().find("POST", "auth/login", 401).get().getName(), equalTo(SchemaRegistry.ERROR_SCHEMA));
+    }
+
+    @Test
+    @DisplayName("Ошибка в глубине длинного списка заказов находится потоковой проверкой")
+    public void shouldFindViolationDeepInLargeOrderList() {
+        StringBuilder response = new StringBuilder("{\"success\":true,\"orders\":[");
+        for (int i = 0; i < ORDERS; i++) {
+            response.append(i == 0 ? "" : ",")
+                    .append("{\"_id\":\"").append(String.format("%024x", i)).append("\",")
+                    .append("\"ingredients\":[\"61c0c5a71d1f82001bdaaa6d\"],\"status\":\"done\",")
+                    .append(i == BROKEN_ORDER ? "" : "\"number\":" + i + ",")
+                    .append("\"createdAt\":\"2022-01-01T00:00:00.000Z\",\"updatedAt\":\"2022-01-01T00:00:00.000Z\"}");
+        }
+        response.append("],\"total\":").append(ORDERS).append(",\"totalToday\":1}");
+
+        List<String> violations = validate(schema("GET", "orders/all", 200), response.toString());
+
+        assertThat("Ошибка проверки схемы: найдено не одно нарушение", violations.size(), equalTo(1));
+        assertThat("Ошибка проверки схемы: неверный путь до заказа без номера", violations.get(0),
+                equalTo("$.orders[" + BROKEN_ORDER + "]: нет обязательного поля number"));
+    }
+
+    @Test
+    @DisplayName("Режим проверки схем разбирается без учёта регистра, опечатка называет допустимые значения")
+    public void shouldParseModeAndNameAllowedValuesOnTypo() {
+        assertThat("Ошибка режима проверки схем: режим не распознан", SchemaValidationFilter.parseMode(" Report "),
+                equalTo(SchemaValidationFilter.Mode.REPORT));
+
+        IllegalArgumentException error = assertThrows("Ошибка режима проверки схем: опечатка принята",
+                IllegalArgumentException.class, () -> SchemaValidationFilter.parseMode("stirct"));
+        assertThat("Ошибка режима проверки схем: в сообщении нет допустимых значений", error.getMessage(),
+                containsString("strict, report, off"));
+    }
+
+    private static JsonSchema schema(String method, String endpoint, int status) {
+        return SchemaRegistry.shared().find(method, endpoint, status)
+                .orElseThrow(() -> new AssertionError("Нет схемы для " + method + " " + endpoint + " " + status));
+    }
+
+    private static List<String> validate(JsonSchema schema, String response) {
+        return SchemaValidator.validate(schema, response.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Раскладка тестов по N шардам с выравниванием по длительности из прошлых прогонов: самые долгие тесты
+ * раскладываются первыми, каждый в наименее загруженный шард. Для нового теста длительность оценивается
+ * средним по известным тестам его класса, а если класс тоже новый — медианой по всем известным тестам.
+ * Порядок детерминирован, поэтому все узлы CI с одной и той же историей строят одинаковый план.
+ */
+public class ShardPlan {
+    static final long UNKNOWN_DURATION_MILLIS = 1000;
+
+    private final int shards;
+    private final Map<String, Integer> assignment = new HashMap<>();
+    private final long[] loads;
+    private final int[] sizes;
+
+    private ShardPlan(int shards) {
+        this.shards = shards;
+        this.loads = new long[shards];
+        this.sizes = new int[shards];
+    }
+
+    // tests — ключи Class#method, durations — длительности из TestHistory в миллисекундах
+    public static ShardPlan plan(Collection<String> tests, Map<String, Long> durations, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shards);
+        }
+        Map<String, Long> estimates = estimate(tests, durations);
+        List<String> ordered = new ArrayList<>(estimates.keySet());
+        ordered.sort(Comparator.comparing((String test) -> estimates.get(test)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        ShardPlan plan = new ShardPlan(shards);
+        for (String test : ordered) {
+            int lightest = 0;
+            for (int shard = 1; shard < shards; shard++) {
+                if (plan.loads[shard] < plan.loads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            plan.assignment.put(test, lightest);
+            plan.loads[lightest] += estimates.get(test);
+            plan.sizes[lightest]++;
+        }
+        return plan;
+    }
+
+    // Номер шарда начинается с 1, как в «шард k из N»
+    public boolean contains(int shard, String test) {
+        Integer assigned = assignment.get(test);
+        return assigned != null && assigned == shard - 1;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public long getLoadMillis(int shard) {
+        return loads[shard - 1];
+    }
+
+    public int getSize(int shard) {
+        return sizes[shard - 1];
+    }
+
+    public String describe(int shard) {
+        StringBuilder result = new StringBuilder(String.format(Locale.ROOT, "Шард %d из %d: тестов %d, ожидаемое время %.1f с",
+                shard, shards, getSize(shard), getLoadMillis(shard) / 1000.0));
+        result.append(" (по шардам:");
+        for (long load : loads) {
+            result.append(String.format(Locale.ROOT, " %.1f", load / 1000.0));
+        }
+        return result.append(" с)").toString();
+    }
+
+    private static Map<String, Long> estimate(Collection<String> tests, Map<String, Long> durations) {
+        Map<String, long[]> byClass = new HashMap<>();
+        List<Long> known = new ArrayList<>();
+        for (String test : tests) {
+            Long duration = durations.get(test);
+            if (duration != null) {
+                long[] sumAndCount = byClass.computeIfAbsent(className(test), name -> new long[2]);
+                sumAndCount[0] += duration;
+                sumAndCount[1]++;
+                known.add(duration);
+            }
+        }
+        known.sort(Comparator.naturalOrder());
+        long median = known.isEmpty() ? UNKNOWN_DURATION_MILLIS : known.get(known.size() / 2);
+        Map<String, Long> estimates = new HashMap<>();
+        for (String test : tests) {
+            Long duration = durations.get(test);
+            if (duration == null) {
+                long[] sumAndCount = byClass.get(className(test));
+                duration = sumAndCount != null ? sumAndCount[0] / sumAndCount[1] : median;
+            }
+            // Нулевая длительность не должна давать шарду бесплатных тестов
+            estimates.put(test, Math.max(duration, 1));
+        }
+        return estimates;
+    }
+
+    private static String className(String test) {
+        int separator = test.indexOf('#');
+        return separator < 0 ? test : test.substring(0, separator);
+    }
+}
@@ -0,0 +1,48 @@
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ShardPlanTest {
+    private final List<String> TESTS = List.of("SlowTest#first", "SlowTest#second", "FastTest#first", "FastTest#second",
+            "FastTest#third", "FastTest#fourth", "NewTest#first");
+    private final Map<String, Long> DURATIONS = Map.of("SlowTest#first", 6000L, "SlowTest#second", 5000L,
+            "FastTest#first", 1000L, "FastTest#second", 1000L, "FastTest#third", 1000L, "FastTest#fourth", 1000L);
+
+    @Test
+    @DisplayName("Каждый тест попадает ровно в один шард, шарды выровнены по длительности")
+    public void shouldAssignEveryTestToOneBalancedShard() {
+        ShardPlan plan = ShardPlan.plan(TESTS, DURATIONS, 2);
+
+        for (String test : TESTS) {
+            int shards = (plan.contains(1, test) ? 1 : 0) + (plan.contains(2, test) ? 1 : 0);
+            assertThat("Ошибка шардирования: тест " + test + " попал не в один шард", shards, equalTo(1));
+        }
+        assertThat("Ошибка шардирования: шарды не выровнены", Math.abs(plan.getLoadMillis(1) - plan.getLoadMillis(2)),
+                lessThanOrEqualTo(1000L));
+        assertThat("Ошибка шардирования: долгие тесты в одном шарде", plan.contains(1, "SlowTest#first"),
+                equalTo(!plan.contains(1, "SlowTest#second")));
+    }
+
+    @Test
+    @DisplayName("Новый тест оценивается по истории, план одинаков на всех узлах")
+    public void shouldEstimateNewTestsAndPlanDeterministically() {
+        ShardPlan plan = ShardPlan.plan(TESTS, DURATIONS, 3);
+        ShardPlan reversed = ShardPlan.plan(List.of(TESTS.get(6), TESTS.get(5), TESTS.get(4), TESTS.get(3),
+                TESTS.get(2), TESTS.get(1), TESTS.get(0)), DURATIONS, 3);
+
+        long total = plan.getLoadMillis(1) + plan.getLoadMillis(2) + plan.getLoadMillis(3);
+        assertThat("Ошибка шардирования: новый тест оценён не медианой истории", total, equalTo(15000L + 1000L));
+        for (String test : TESTS) {
+            for (int shard = 1; shard <= 3; shard++) {
+                assertThat("Ошибка шардирования: план зависит от порядка тестов", reversed.contains(shard, test),
+                        equalTo(plan.contains(shard, test)));
+            }
+        }
+    }
+}
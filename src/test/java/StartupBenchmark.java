@@ -0,0 +1,122 @@
+import client.LightTransport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Время запуска короткого smoke-прогона {@link LightRun} в отдельной JVM целиком, от запуска процесса до выхода:
+ * основной транспорт RestAssured с AspectJ-агентом, как в surefire, против лёгкого транспорта без архива
+ * и с AppCDS-архивом. Для AppCDS нужны jar-файлы проекта из профиля light, каталоги классов в classpath
+ * заменяются на них; архив создаётся первым прогоном, если его ещё нет.
+ * Запуск: mvn -Plight package, затем mvn exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-Dapi.target=stub -Dstartup.agent=$HOME/.m2/repository/org/aspectj/aspectjweaver/1.9.7/aspectjweaver-1.9.7.jar -classpath %classpath StartupBenchmark"
+ */
+public class StartupBenchmark {
+    private static final Path LIGHT_DIRECTORY = Paths.get("target", "light");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int warmup = Integer.getInteger("startup.warmup", 1);
+        int iterations = Integer.getInteger("startup.iterations", 5);
+        List<String> tests = Arrays.asList(System.getProperty("startup.tests", "UserLoginTest OrderGetTest").split("\\s+"));
+        String classpath = System.getProperty("java.class.path");
+        List<String> common = Arrays.asList("-XX:TieredStopAtLevel=1",
+                "-Dapi.target=" + System.getProperty("api.target", "remote"), "-Dapi.log=none");
+
+        String light = "-D" + LightTransport.TRANSPORT_PROPERTY + "=" + LightTransport.LIGHT;
+
+        String agent = System.getProperty("startup.agent");
+        if (agent != null && Files.isRegularFile(Paths.get(agent))) {
+            report("RestAssured + AspectJ-агент", run(command(classpath, tests, common,
+                    "-javaagent:" + agent), warmup, iterations));
+        } else {
+            System.out.println("RestAssured + AspectJ-агент: пропущено, не задан startup.agent");
+        }
+        report("Лёгкий транспорт", run(command(classpath, tests, common, light), warmup, iterations));
+
+        String jars = jarClasspath(classpath);
+        if (jars == null) {
+            System.out.println("Лёгкий транспорт + AppCDS: пропущено, нет jar-файлов в " + LIGHT_DIRECTORY
+                    + ", сначала mvn -Plight package");
+        } else {
+            Path archive = LIGHT_DIRECTORY.resolve("startup-cds.jsa");
+            if (!Files.exists(archive)) {
+                run(command(jars, tests, common, light, "-XX:ArchiveClassesAtExit=" + archive), 0, 1);
+            }
+            report("Лёгкий транспорт + AppCDS", run(command(jars, tests, common, light, "-Xshare:auto",
+                    "-XX:SharedArchiveFile=" + archive), warmup, iterations));
+        }
+        System.exit(0);
+    }
+
+    private static List<String> command(String classpath, List<String> tests, List<String> common, String... options) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options));
+        command.addAll(common);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("LightRun");
+        command.addAll(tests);
+        return command;
+    }
+
+    private static long[] run(List<String> command, int warmup, int iterations) throws IOException, InterruptedException {
+        for (int i = 0; i < warmup; i++) {
+            launch(command);
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            nanos[i] = launch(command);
+        }
+        return nanos;
+    }
+
+    private static long launch(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        long elapsed = System.nanoTime() - start;
+        if (exitCode != 0) {
+            throw new IllegalStateException("Прогон завершился с кодом " + exitCode + ": " + String.join(" ", command));
+        }
+        return elapsed;
+    }
+
+    // Каталоги классов проекта заменяются jar-файлами профиля light, остальные jar-файлы остаются как есть
+    private static String jarClasspath(String classpath) throws IOException {
+        if (!Files.isDirectory(LIGHT_DIRECTORY)) {
+            return null;
+        }
+        List<String> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(LIGHT_DIRECTORY)) {
+            files.filter(file -> file.toString().endsWith(".jar")).sorted().forEach(file -> entries.add(file.toString()));
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (entry.endsWith(".jar")) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-30s p50=%.0f ms min=%.0f ms max=%.0f ms%n", name,
+                sorted[sorted.length / 2] / 1_000_000.0, sorted[0] / 1_000_000.0,
+                sorted[sorted.length - 1] / 1_000_000.0);
+    }
+}
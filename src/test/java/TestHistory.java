@@ -0,0 +1,273 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Результаты тестов из прошлых прогонов: target/surefire-reports/TEST-*.xml и target/allure-results/*-result.json.
+ * Allure копит результаты между прогонами, поэтому по нему видны последний статус теста, его нестабильность
+ * и шаги клиентов, которые тест вызывал; отчёт surefire используется для тестов, которых нет в Allure.
+ * Каталог задаётся свойством test.history.directory, на CI туда кладутся отчёты предыдущего прогона всех узлов.
+ */
+public class TestHistory {
+    public static final String DIRECTORY_PROPERTY = "test.history.directory";
+
+    // Сколько последних прогонов теста смотреть при поиске нестабильных
+    static final int FLAKY_WINDOW = 10;
+
+    public enum Status {
+        PASSED,
+        FAILED,
+        FLAKY,
+        SKIPPED
+    }
+
+    private final Map<String, List<Run>> runs = new HashMap<>();
+
+    public static TestHistory fromSystemProperties() {
+        return read(directory());
+    }
+
+    public static Path directory() {
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, "target"));
+    }
+
+    public static TestHistory read(Path directory) {
+        TestHistory history = new TestHistory();
+        TestHistory surefire = new TestHistory();
+        forEachFile(directory.resolve("surefire-reports"), "TEST-*.xml", surefire::readSurefire);
+        forEachFile(directory.resolve("allure-results"), "*-result.json", history::readAllure);
+        surefire.runs.forEach(history.runs::putIfAbsent);
+        return history;
+    }
+
+    // Ключ теста в формате Class#method
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public boolean isEmpty() {
+        return runs.isEmpty();
+    }
+
+    public boolean contains(String test) {
+        return runs.containsKey(test);
+    }
+
+    public Map<String, Long> getDurations() {
+        Map<String, Long> durations = new HashMap<>();
+        runs.forEach((test, list) -> {
+            Run last = lastExecuted(list);
+            if (last != null) {
+                durations.put(test, last.durationMillis);
+            }
+        });
+        return durations;
+    }
+
+    // Тест упал в последнем прогоне, где он выполнялся
+    public boolean isFailed(String test) {
+        List<Run> list = runs.get(test);
+        Run last = list == null ? null : lastExecuted(list);
+        return last != null && last.status == Status.FAILED;
+    }
+
+    // Тест прошёл после перезапуска или за последние прогоны и падал, и проходил
+    public boolean isFlaky(String test) {
+        List<Run> list = runs.get(test);
+        if (list == null) {
+            return false;
+        }
+        boolean passed = false;
+        boolean failed = false;
+        for (Run run : list.subList(0, Math.min(FLAKY_WINDOW, list.size()))) {
+            passed |= run.status == Status.PASSED;
+            failed |= run.status == Status.FAILED;
+            if (run.status == Status.FLAKY || passed && failed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Имена шагов Allure из последнего прогона теста, в котором они записаны
+    public Set<String> getSteps(String test) {
+        List<Run> list = runs.get(test);
+        if (list != null) {
+            for (Run run : list) {
+                if (!run.steps.isEmpty()) {
+                    return run.steps;
+                }
+            }
+        }
+        return Set.of();
+    }
+
+    // Пропущенный запуск (например, после fail-fast) не несёт ни статуса, ни длительности
+    private static Run lastExecuted(List<Run> list) {
+        for (Run run : list) {
+            if (run.status != Status.SKIPPED) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    void add(String test, long finishedAt, long durationMillis, Status status, Set<String> steps) {
+        // Прогоны теста хранятся от последнего к первому
+        List<Run> list = runs.computeIfAbsent(test, key -> new ArrayList<>());
+        list.add(new Run(finishedAt, durationMillis, status, steps));
+        list.sort(Comparator.comparingLong((Run run) -> run.finishedAt).reversed());
+    }
+
+    private void readAllure(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject result = JsonParser.parseReader(reader).getAsJsonObject();
+            String className = label(result, "testClass");
+            String methodName = label(result, "testMethod");
+            if (className == null || methodName == null || !result.has("start") || !result.has("stop")) {
+                return;
+            }
+            long start = result.get("start").getAsLong();
+            long stop = result.get("stop").getAsLong();
+            Set<String> steps = new HashSet<>();
+            collectSteps(result, steps);
+            add(key(className, methodName), stop, stop - start, allureStatus(result), steps);
+        } catch (IOException | RuntimeException e) {
+            // недописанный или чужой файл в allure-results не мешает планированию
+        }
+    }
+
+    private static Status allureStatus(JsonObject result) {
+        JsonObject details = result.getAsJsonObject("statusDetails");
+        if (details != null && details.has("flaky") && details.get("flaky").getAsBoolean()) {
+            return Status.FLAKY;
+        }
+        String status = result.has("status") ? result.get("status").getAsString() : "";
+        switch (status) {
+            case "passed":
+                return Status.PASSED;
+            case "failed":
+            case "broken":
+                return Status.FAILED;
+            default:
+                return Status.SKIPPED;
+        }
+    }
+
+    private static void collectSteps(JsonObject parent, Set<String> steps) {
+        JsonArray children = parent.getAsJsonArray("steps");
+        if (children == null) {
+            return;
+        }
+        for (JsonElement child : children) {
+            JsonObject step = child.getAsJsonObject();
+            steps.add(step.get("name").getAsString());
+            collectSteps(step, steps);
+        }
+    }
+
+    private static String label(JsonObject result, String name) {
+        JsonArray labels = result.getAsJsonArray("labels");
+        if (labels == null) {
+            return null;
+        }
+        for (JsonElement label : labels) {
+            JsonObject value = label.getAsJsonObject();
+            if (name.equals(value.get("name").getAsString())) {
+                return value.get("value").getAsString();
+            }
+        }
+        return null;
+    }
+
+    private void readSurefire(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            long finishedAt = Files.getLastModifiedTime(file).toMillis();
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            String test = null;
+            long millis = 0;
+            Status status = Status.PASSED;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "testcase":
+                            String className = reader.getAttributeValue(null, "classname");
+                            String methodName = reader.getAttributeValue(null, "name");
+                            String time = reader.getAttributeValue(null, "time");
+                            test = className == null || methodName == null ? null : key(className, methodName);
+                            millis = time == null ? 0 : Math.round(Double.parseDouble(time.replace(",", "")) * 1000);
+                            status = Status.PASSED;
+                            break;
+                        case "failure":
+                        case "error":
+                            status = Status.FAILED;
+                            break;
+                        case "flakyFailure":
+                        case "flakyError":
+                            status = status == Status.FAILED ? status : Status.FLAKY;
+                            break;
+                        case "skipped":
+                            status = Status.SKIPPED;
+                            break;
+                        default:
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("testcase")
+                        && test != null) {
+                    add(test, finishedAt, millis, status, Set.of());
+                    test = null;
+                }
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            // повреждённый отчёт пропускается
+        }
+    }
+
+    private static void forEachFile(Path directory, String glob, Consumer<Path> action) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            files.forEach(action);
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать историю тестов из " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static class Run {
+        final long finishedAt;
+        final long durationMillis;
+        final Status status;
+        final Set<String> steps;
+
+        Run(long finishedAt, long durationMillis, Status status, Set<String> steps) {
+            this.finishedAt = finishedAt;
+            this.durationMillis = durationMillis;
+            this.status = status;
+            this.steps = steps;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.runner.Description;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Порядок запуска для быстрой обратной связи: сначала упавшие в прошлом прогоне, затем нестабильные, затем
+ * тесты, вызывающие изменённые методы клиентов, затем новые, затем остальные. Внутри группы короткие тесты идут
+ * раньше. Класс запускается целиком, в позиции своего самого приоритетного теста.
+ */
+public class TestPriority {
+    public static final String TEST_SOURCES_PROPERTY = "test.test-sources.directory";
+
+    public enum Rank {
+        FAILED,
+        FLAKY,
+        CHANGED,
+        NEW,
+        REST
+    }
+
+    private final TestHistory history;
+    private final ClientChanges changes;
+    private final Path testSources;
+    private final Map<String, Long> durations;
+    private final Map<String, String> sources = new HashMap<>();
+
+    public TestPriority(TestHistory history, ClientChanges changes, Path testSources) {
+        this.history = history;
+        this.changes = changes;
+        this.testSources = testSources;
+        this.durations = history.getDurations();
+    }
+
+    public static TestPriority fromSystemProperties(TestHistory history, ClientChanges changes) {
+        return new TestPriority(history, changes, Paths.get(System.getProperty(TEST_SOURCES_PROPERTY, "src/test/java")));
+    }
+
+    public Rank rank(String className, String methodName) {
+        String test = TestHistory.key(className, methodName);
+        if (history.isFailed(test)) {
+            return Rank.FAILED;
+        }
+        if (history.isFlaky(test)) {
+            return Rank.FLAKY;
+        }
+        if (changes.touches(history.getSteps(test), source(className))) {
+            return Rank.CHANGED;
+        }
+        return history.contains(test) ? Rank.REST : Rank.NEW;
+    }
+
+    // Для класса берётся его лучший тест
+    public Comparator<Description> comparator() {
+        Map<Description, long[]> keys = new HashMap<>();
+        return Comparator.comparing((Description description) -> keys.computeIfAbsent(description, this::sortKey),
+                        (left, right) -> left[0] != right[0] ? Long.compare(left[0], right[0]) : Long.compare(left[1], right[1]))
+                .thenComparing(Description::getDisplayName);
+    }
+
+    private long[] sortKey(Description description) {
+        if (description.isTest()) {
+            Long duration = durations.get(TestHistory.key(description.getClassName(), description.getMethodName()));
+            return new long[]{rank(description.getClassName(), description.getMethodName()).ordinal(),
+                    duration == null ? 0 : duration};
+        }
+        long[] best = {Rank.REST.ordinal() + 1, Long.MAX_VALUE};
+        for (Description child : description.getChildren()) {
+            long[] key = sortKey(child);
+            if (key[0] < best[0] || key[0] == best[0] && key[1] < best[1]) {
+                best = key;
+            }
+        }
+        return best;
+    }
+
+    private String source(String className) {
+        return sources.computeIfAbsent(className, name -> {
+            try {
+                return Files.readString(testSources.resolve(name.replace('.', '/') + ".java"));
+            } catch (IOException e) {
+                return null;
+            }
+        });
+    }
+}
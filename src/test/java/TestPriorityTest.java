@@ -0,0 +1,82 @@
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.Test;
+import org.junit.runner.Description;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class TestPriorityTest {
+    private final String CLIENT_SOURCE = "public class OrderClient extends ApiClient {\n"
+            + "    private static final String ORDERS_ENDPOINT = \"orders\";\n\n"
+            + "    @Step(\"Создание заказа с токеном\")\n"
+            + "    public Response createOrderWithToken(String token, String ingredient) {\n"
+            + "        return given().body(\"{\" + ingredient).post(ORDERS_ENDPOINT);\n"
+            + "    }\n\n"
+            + "    @Step(\"Получение списка заказов пользователя с токеном\")\n"
+            + "    public Response getUserOrdersListWithToken(String token) {\n"
+            + "        return given().get(ORDERS_ENDPOINT);\n"
+            + "    }\n\n"
+            + "    public OrderResponse createOrderWithTokenTyped(String token, String ingredient) {\n"
+            + "        return typed(createOrderWithToken(token, ingredient), OrderResponse.class);\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    @DisplayName("Изменение метода клиента находится по исходнику, варианты Typed относятся к базовому шагу")
+    public void shouldDetectChangedClientMethod() {
+        ClientChanges changes = changes(CLIENT_SOURCE.replace("post(ORDERS_ENDPOINT)", "put(ORDERS_ENDPOINT)"));
+
+        assertThat("Ошибка поиска изменений: неверный набор изменённых методов", changes.getChangedMethods(),
+                equalTo(Set.of("createOrderWithToken")));
+        assertThat("Ошибка поиска изменений: тест с шагом изменённого метода не найден",
+                changes.touches(Set.of("Создание заказа с токеном"), null), equalTo(true));
+        assertThat("Ошибка поиска изменений: тест без истории не найден по вызову Typed",
+                changes.touches(Set.of(), "orderClient.createOrderWithTokenTyped(token, body);"), equalTo(true));
+        assertThat("Ошибка поиска изменений: отмечен тест другого метода",
+                changes.touches(Set.of("Получение списка заказов пользователя с токеном"), null), equalTo(false));
+    }
+
+    @Test
+    @DisplayName("Упавшие и нестабильные тесты идут первыми, затем тесты изменённых методов")
+    public void shouldOrderFailedFlakyAndChangedTestsFirst() {
+        TestHistory history = new TestHistory();
+        history.add("StableTest#slow", 2, 5000, TestHistory.Status.PASSED, Set.of());
+        history.add("StableTest#fast", 2, 10, TestHistory.Status.PASSED, Set.of());
+        history.add("FlakyTest#flaky", 1, 100, TestHistory.Status.FAILED, Set.of());
+        history.add("FlakyTest#flaky", 2, 100, TestHistory.Status.PASSED, Set.of());
+        history.add("OrderTest#broken", 2, 300, TestHistory.Status.FAILED, Set.of());
+        history.add("OrderTest#changed", 2, 200, TestHistory.Status.PASSED, Set.of("Создание заказа с токеном"));
+        ClientChanges changes = changes(CLIENT_SOURCE.replace("post(ORDERS_ENDPOINT)", "put(ORDERS_ENDPOINT)"));
+        TestPriority priority = new TestPriority(history, changes, Paths.get("missing"));
+
+        List<Description> tests = new ArrayList<>(List.of(
+                Description.createTestDescription("StableTest", "slow"),
+                Description.createTestDescription("NewTest", "added"),
+                Description.createTestDescription("OrderTest", "changed"),
+                Description.createTestDescription("StableTest", "fast"),
+                Description.createTestDescription("FlakyTest", "flaky"),
+                Description.createTestDescription("OrderTest", "broken")));
+        tests.sort(priority.comparator());
+
+        List<String> order = new ArrayList<>();
+        tests.forEach(test -> order.add(test.getMethodName()));
+        assertThat("Ошибка порядка тестов", order, contains("broken", "flaky", "changed", "added", "fast", "slow"));
+    }
+
+    private ClientChanges changes(String changedSource) {
+        Map<String, String> previous = new TreeMap<>();
+        ClientChanges.fingerprint(CLIENT_SOURCE, previous, new TreeMap<>());
+        Map<String, String> current = new TreeMap<>();
+        Map<String, String> steps = new TreeMap<>();
+        ClientChanges.fingerprint(changedSource, current, steps);
+        return new ClientChanges(previous, current, steps);
+    }
+}
@@ -0,0 +1,127 @@
+import client.OrderClient;
+import client.TokenManager;
+import client.UserClient;
+import client.UserSession;
+import fixture.CleanupRegistry;
+import io.qameta.allure.junit4.DisplayName;
+import model.AuthResponse;
+import model.OrdersListResponse;
+import model.ResponseReader;
+import model.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.apache.http.HttpStatus.*;
+
+public class TokenRefreshTest {
+    User user;
+    UserClient userClient;
+    OrderClient orderClient;
+    TokenManager tokenManager;
+    UserSession session;
+
+    private final String INVALID_TOKEN_ERROR_MESSAGE = "Token is invalid";
+
+    @Before
+    public void setUp() {
+        user = User.generateUser();
+        userClient = new UserClient();
+        orderClient = new OrderClient();
+        tokenManager = new TokenManager(userClient, TimeUnit.MINUTES.toMillis(2), TimeUnit.SECONDS.toMillis(15));
+    }
+
+    @After
+    public void cleanUp() {
+        tokenManager.shutdown();
+        if (session != null) {
+            CleanupRegistry.shared().deleteLater(session.getAccessToken());
+        }
+    }
+
+    @Test
+    @DisplayName("Обновление токена доступа по refresh-токену")
+    public void shouldBePossibleToRefreshAccessToken() {
+        session = tokenManager.register(user);
+        AuthResponse login = userClient.loginUserTyped(user);
+
+        AuthResponse response = userClient.refreshTokenTyped(login.getRefreshToken());
+
+        assertThat("Ошибка обновления токена: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
+        assertThat("Ошибка обновления токена: тело ответа содержит неверно сгенерированный токен", response.getAccessToken(), containsString("Bearer"));
+        assertThat("Ошибка обновления токена: тело ответа не содержит новый refresh-токен", response.getRefreshToken(), not(equalTo(login.getRefreshToken())));
+        OrdersListResponse orders = orderClient.getUserOrdersListWithTokenTyped(response.getRawAccessToken());
+        assertThat("Ошибка обновления токена: новый токен не принимается сервером", orders.getStatusCode(), equalTo(SC_OK));
+    }
+
+    @Test
+    @DisplayName("Повторное обновление токена по уже использованному refresh-токену")
+    public void shouldBeImpossibleToReuseRefreshToken() {
+        session = tokenManager.register(user);
+        String refreshToken = userClient.loginUserTyped(user).getRefreshToken();
+        userClient.refreshTokenTyped(refreshToken);
+
+        AuthResponse response = userClient.refreshTokenTyped(refreshToken);
+
+        assertThat("Ошибка обновления токена: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления токена: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка обновления токена: тело ответа содержит текст ошибки, отличный от ожидаемого Token is invalid", response.getMessage(), equalTo(INVALID_TOKEN_ERROR_MESSAGE));
+    }
+
+    @Test
+    @DisplayName("Фоновое обновление токена до истечения срока действия")
+    public void shouldRefreshTokenAheadOfExpiryInBackground() throws InterruptedException {
+        //токен считается истекающим сразу после выдачи, поэтому фоновый поток обновляет его на первой же проверке
+        tokenManager.shutdown();
+        tokenManager = new TokenManager(userClient, TimeUnit.DAYS.toMillis(1), 100);
+        session = tokenManager.register(user);
+        String issuedToken = session.getAccessToken();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tokenManager.getStats().getRefreshes() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat("Ошибка фонового обновления токена: токен не был обновлён", tokenManager.getStats().getRefreshes(), greaterThan(0L));
+        assertThat("Ошибка фонового обновления токена: токен не изменился", session.getAccessToken(), not(equalTo(issuedToken)));
+        assertThat("Ошибка фонового обновления токена: пришлось входить заново по паролю", tokenManager.getStats().getRelogins(), equalTo(0L));
+        OrdersListResponse orders = orderClient.getUserOrdersListWithTokenTyped(session.getAccessToken());
+        assertThat("Ошибка фонового обновления токена: обновлённый токен не принимается сервером", orders.getStatusCode(), equalTo(SC_OK));
+    }
+
+    @Test
+    @DisplayName("Повторный вход того же пользователя обновляет существующую сессию, а не заменяет её")
+    public void shouldReuseSessionWhenSameUserIsTrackedAgain() {
+        session = tokenManager.register(user);
+        AuthResponse login = userClient.loginUserTyped(user);
+
+        UserSession tracked = tokenManager.track(user, login);
+
+        assertThat("Ошибка учёта сессий: для того же пользователя создана новая сессия", tracked, sameInstance(session));
+        assertThat("Ошибка учёта сессий: пользователь учтён дважды", tokenManager.size(), equalTo(1));
+        assertThat("Ошибка учёта сессий: сессия не получила токен нового входа", session.getAccessToken(),
+                equalTo(login.getRawAccessToken()));
+    }
+
+    @Test
+    @DisplayName("Запрос с отвергнутым токеном сессии обновляет токен и повторяется")
+    public void shouldRenewRejectedTokenAndRetryRequest() {
+        AuthResponse registered = userClient.createNewUserTyped(user);
+        //сессия получает испорченный токен доступа и настоящий refresh-токен
+        String body = "{\"success\":true,\"accessToken\":\"Bearer broken.access.token\",\"refreshToken\":\""
+                + registered.getRefreshToken() + "\"}";
+        session = tokenManager.track(user, ResponseReader.read(SC_OK, body.getBytes(StandardCharsets.UTF_8), AuthResponse.class));
+
+        OrdersListResponse orders = orderClient.getUserOrdersListTyped(session);
+
+        assertThat("Ошибка обновления отвергнутого токена: запрос не повторён с новым токеном", orders.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка обновления отвергнутого токена: токен не обновлён по refresh-токену", tokenManager.getStats().getRefreshes(), equalTo(1L));
+        assertThat("Ошибка обновления отвергнутого токена: токен сессии не заменён", session.getAccessToken(), not(equalTo("broken.access.token")));
+    }
+}
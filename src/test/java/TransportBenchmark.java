@@ -0,0 +1,63 @@
+import client.ApiClient;
+import client.BodyBufferingFilter;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Сравнение накладных расходов на запрос: новая спецификация и новый HTTP-клиент на каждый вызов
+ * против общей спецификации с пулом keep-alive соединений из {@link ApiClient}.
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=TransportBenchmark -Dapi.target=stub
+ */
+public class TransportBenchmark {
+    private static final String ENDPOINT = "ingredients";
+
+    public static void main(String[] args) {
+        int warmup = Integer.getInteger("benchmark.warmup", 200);
+        int iterations = Integer.getInteger("benchmark.iterations", 1000);
+
+        Supplier<RequestSpecification> perCall = () -> new RequestSpecBuilder()
+                .setContentType(ContentType.JSON)
+                .setBaseUri(ApiClient.getBaseUrl())
+                .build();
+        RequestSpecification shared = new RequestSpecBuilder()
+                .setConfig(ApiClient.getRestAssuredConfig())
+                .addFilter(new BodyBufferingFilter())
+                .setContentType(ContentType.JSON)
+                .setBaseUri(ApiClient.getBaseUrl())
+                .build();
+
+        System.out.println("Цель: " + ApiClient.getBaseUrl() + ENDPOINT);
+        report("Новая спецификация на вызов", run(perCall, warmup, iterations));
+        report("Общая спецификация с пулом", run(() -> shared, warmup, iterations));
+        System.out.println("Пул соединений: " + ApiClient.getHttpClientFactory().getPoolStats());
+        System.exit(0);
+    }
+
+    private static long[] run(Supplier<RequestSpecification> specification, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            given().spec(specification.get()).get(ENDPOINT).then().statusCode(200);
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            given().spec(specification.get()).get(ENDPOINT).then().statusCode(200);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1_000_000.0;
+        System.out.printf("%-30s mean=%.3f ms p50=%.3f ms p99=%.3f ms%n", name, mean,
+                sorted[sorted.length / 2] / 1_000_000.0,
+                sorted[(int) (sorted.length * 0.99)] / 1_000_000.0);
+    }
+}
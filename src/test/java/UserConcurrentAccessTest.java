@@ -0,0 +1,61 @@
+import client.UserClient;
+import fixture.CleanupRegistry;
+import io.qameta.allure.junit4.DisplayName;
+import model.User;
+import model.UserResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class UserConcurrentAccessTest {
+    private static final int THREADS = 8;
+    private static final int USERS = 32;
+
+    UserClient userClient = new UserClient();
+    Queue<String> authTokens = new ConcurrentLinkedQueue<>();
+
+    @After
+    public void cleanUp() {
+        authTokens.forEach(CleanupRegistry.shared()::deleteLater);
+    }
+
+    @Test
+    @DisplayName("Параллельные запросы разных пользователей не смешивают токены")
+    public void shouldKeepTokensIsolatedBetweenConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                results.add(executor.submit(changeOwnName()));
+            }
+            for (Future<String[]> result : results) {
+                String[] expectedAndActual = result.get();
+                assertThat("Ошибка параллельного доступа: ответ содержит данные другого пользователя", expectedAndActual[1], equalTo(expectedAndActual[0]));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<String[]> changeOwnName() {
+        return () -> {
+            User user = User.generateUser();
+            String authToken = userClient.createNewUserTyped(user).getRawAccessToken();
+            authTokens.add(authToken);
+            user.setName(user.getName() + "concurrent");
+            UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
+            return new String[]{user.getEmail().toLowerCase(), response.getUser().getEmail()};
+        };
+    }
+}
@@ -1,7 +1,8 @@
 import client.OrderClient;
 import client.UserClient;
+import fixture.CleanupRegistry;
 import io.qameta.allure.junit4.DisplayName;
-import io.restassured.response.Response;
+import model.AuthResponse;
 import model.User;
 import org.junit.After;
 import org.junit.Before;
@@ -27,64 +28,63 @@ public class UserCreateTest {
 
     @After
     public void cleanUp() {
-        if (authToken != null) {
-            userClient.deleteUser(authToken.substring(7));
-        }
+        CleanupRegistry.shared().deleteLater(authToken);
     }
 
     @Test
     @DisplayName("Создание уникального пользователя")
     public void shouldBePossibleToCreateUserWithCorrectData(){
-        Response response = userClient.createNewUser(user);
+        AuthResponse response = userClient.createNewUserTyped(user);
+        authToken = response.getRawAccessToken();
 
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением true", response.path("success"), equalTo(true));
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр токена авторизации", response.path("accessToken"), notNullValue());
-        assertThat("Ошибка создания пользователя: тело ответа содержит неверно сгенерированный токен", response.path("accessToken"), containsString("Bearer"));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр токена авторизации", response.getAccessToken(), notNullValue());
+        assertThat("Ошибка создания пользователя: тело ответа содержит неверно сгенерированный токен", response.getAccessToken(), containsString("Bearer"));
         //про статус ответа в документации ничего не сказано, но по сути должен быть 201. закомментила ассерт, так как тест падает - возвращается 200
-        //assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 201 created", response.statusCode(), equalTo(SC_CREATED));
+        //assertThat("Ошибка при получении списка заказов: вернулся код ответа, отличный от ожидаемого 201 created", response.getStatusCode(), equalTo(SC_CREATED));
     }
 
     @Test
     @DisplayName("Создание пользователя, который уже зарегистрирован в системе")
     public void shouldBeImpossibleToCreateAlreadyRegisteredUser(){
-        userClient.createNewUser(user);
-        Response responseSecondRequest = userClient.createNewUser(user);
+        authToken = userClient.createNewUserTyped(user).getRawAccessToken();
+        AuthResponse responseSecondRequest = userClient.createNewUserTyped(user);
 
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", responseSecondRequest.path("success"), equalTo(false));
-        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", responseSecondRequest.statusCode(), equalTo(SC_FORBIDDEN));
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением User already exists", responseSecondRequest.path("message"), equalTo(DOUBLE_USER_ERROR_MESSAGE));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", responseSecondRequest.isSuccess(), equalTo(false));
+        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", responseSecondRequest.getStatusCode(), equalTo(SC_FORBIDDEN));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением User already exists", responseSecondRequest.getMessage(), equalTo(DOUBLE_USER_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Создание пользователя без указания email")
     public void shouldBeImpossibleToCreateUserWithoutEmail(){
         user.setEmail(null);
-        Response response = userClient.createNewUser(user);
+        AuthResponse response = userClient.createNewUserTyped(user);
 
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.statusCode(), equalTo(SC_FORBIDDEN));
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.path("message"), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.getStatusCode(), equalTo(SC_FORBIDDEN));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.getMessage(), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Создание пользователя без указания пароля")
     public void shouldBeImpossibleToCreateUserWithoutPassword(){
         user.setPassword(null);
-        Response response = userClient.createNewUser(user);
+        AuthResponse response = userClient.createNewUserTyped(user);
 
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.statusCode(), equalTo(SC_FORBIDDEN));
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.path("message"), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.getStatusCode(), equalTo(SC_FORBIDDEN));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.getMessage(), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Создание пользователя без указания имени")
     public void shouldBeImpossibleToCreateUserWithoutName(){
         user.setName(null);
-        Response response = userClient.createNewUser(user);
+        AuthResponse response = userClient.createNewUserTyped(user);
 
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.statusCode(), equalTo(SC_FORBIDDEN));
-        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.path("message"), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка создания пользователя: статус ответа от сервера отличный от ожидаемого 403 forbidden", response.getStatusCode(), equalTo(SC_FORBIDDEN));
+        assertThat("Ошибка создания пользователя: тело ответа не содержит параметр message со значением Email, password and name are required fields", response.getMessage(), equalTo(REQUIRED_FIELDS_MISSING_ERROR_MESSAGE));
     }
 }
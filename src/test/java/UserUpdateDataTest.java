@@ -1,7 +1,10 @@
 import client.UserClient;
+import fixture.CleanupRegistry;
+import fixture.PooledUser;
+import fixture.UserPool;
 import io.qameta.allure.junit4.DisplayName;
-import io.restassured.response.Response;
 import model.User;
+import model.UserResponse;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,26 +15,29 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.apache.http.HttpStatus.*;
 
 public class UserUpdateDataTest {
+    PooledUser pooledUser;
     User user;
     UserClient userClient;
     String authToken;
+    String userTwoToken;
 
     private final String UNAUTHORIZED_ERROR_MESSAGE = "You should be authorised";
     private final String DOUBLE_EMAIL_ERROR_MESSAGE = "User with such email already exists";
 
     @Before
     public void setUp() {
-        user = User.generateUser();
         userClient = new UserClient();
-        Response createUserResponse = userClient.createNewUser(user);
-        authToken = createUserResponse.path("accessToken");
+        pooledUser = UserPool.shared().acquire();
+        user = pooledUser.getUser();
+        authToken = pooledUser.getAccessToken();
+        //тесты класса меняют данные пользователя на сервере, поэтому при возврате в пул их нужно восстановить
+        pooledUser.markModified();
     }
 
     @After
     public void cleanUp() {
-        if (authToken != null) {
-            userClient.deleteUser(authToken.substring(7));
-        }
+        UserPool.shared().release(pooledUser);
+        CleanupRegistry.shared().deleteLater(userTwoToken);
     }
 
     @Test
@@ -41,13 +47,13 @@ public class UserUpdateDataTest {
         user.setPassword(user.getPassword() + "somerandomletters");
         user.setName(user.getName() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithToken(authToken.substring(7), user);
+        UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.path("success"), equalTo(true));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
         //про статус ответа в документации ничего не сказано, но по сути должен быть 200
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.statusCode(), equalTo(SC_OK));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.path("user.email"), equalTo(user.getEmail().toLowerCase()));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверное имя", response.path("user.name"), equalTo(user.getName()));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.getUser().getEmail(), equalTo(user.getEmail().toLowerCase()));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверное имя", response.getUser().getName(), equalTo(user.getName()));
 
     }
 
@@ -56,12 +62,12 @@ public class UserUpdateDataTest {
     public void shouldBePossibleToChangeAuthorizedUserEmail() {
         user.setEmail(user.getEmail() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithToken(authToken.substring(7), user);
+        UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.path("success"), equalTo(true));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
         //про статус ответа в документации ничего не сказано, но по сути должен быть 200
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.statusCode(), equalTo(SC_OK));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.path("user.email"), equalTo(user.getEmail().toLowerCase()));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.getUser().getEmail(), equalTo(user.getEmail().toLowerCase()));
     }
 
     @Test
@@ -69,12 +75,12 @@ public class UserUpdateDataTest {
     public void shouldBePossibleToChangeAuthorizedUserPassword() {
         user.setPassword(user.getPassword() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithToken(authToken.substring(7), user);
+        UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.path("success"), equalTo(true));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
         //про статус ответа в документации ничего не сказано, но по сути должен быть 200
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.statusCode(), equalTo(SC_OK));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.path("user.email"), equalTo(user.getEmail().toLowerCase()));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверный email", response.getUser().getEmail(), equalTo(user.getEmail().toLowerCase()));
     }
 
     @Test
@@ -82,12 +88,12 @@ public class UserUpdateDataTest {
     public void shouldBePossibleToChangeAuthorizedUserName() {
         user.setName(user.getName() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithToken(authToken.substring(7), user);
+        UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.path("success"), equalTo(true));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением true", response.isSuccess(), equalTo(true));
         //про статус ответа в документации ничего не сказано, но по сути должен быть 200
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.statusCode(), equalTo(SC_OK));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверное имя", response.path("user.name"), equalTo(user.getName()));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 200 success", response.getStatusCode(), equalTo(SC_OK));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит неверное имя", response.getUser().getName(), equalTo(user.getName()));
     }
 
     @Test
@@ -97,11 +103,11 @@ public class UserUpdateDataTest {
         user.setPassword(user.getPassword() + "somerandomletters");
         user.setName(user.getName() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithoutToken(user);
+        UserResponse response = userClient.changeUserDataWithoutTokenTyped(user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.statusCode(), equalTo(SC_UNAUTHORIZED));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.path("message"), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.getMessage(), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
     }
 
     @Test
@@ -109,11 +115,11 @@ public class UserUpdateDataTest {
     public void shouldBeImpossibleToChangeUnauthorizedUserEmail() {
         user.setEmail(user.getEmail() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithoutToken(user);
+        UserResponse response = userClient.changeUserDataWithoutTokenTyped(user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.statusCode(), equalTo(SC_UNAUTHORIZED));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.path("message"), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.getMessage(), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
     }
 
     @Test
@@ -121,11 +127,11 @@ public class UserUpdateDataTest {
     public void shouldBeImpossibleToChangeUnauthorizedUserPassword() {
         user.setPassword(user.getPassword() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithoutToken(user);
+        UserResponse response = userClient.changeUserDataWithoutTokenTyped(user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.statusCode(), equalTo(SC_UNAUTHORIZED));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.path("message"), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.getMessage(), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
     }
 
     @Test
@@ -133,25 +139,25 @@ public class UserUpdateDataTest {
     public void shouldBeImpossibleToChangeUnauthorizedUserName() {
         user.setName(user.getName() + "somerandomletters");
 
-        Response response = userClient.changeUserDataWithoutToken(user);
+        UserResponse response = userClient.changeUserDataWithoutTokenTyped(user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.statusCode(), equalTo(SC_UNAUTHORIZED));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.path("message"), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 401 unauthorized", response.getStatusCode(), equalTo(SC_UNAUTHORIZED));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого You should be authorised", response.getMessage(), equalTo(UNAUTHORIZED_ERROR_MESSAGE));
     }
 
     @Test
     @DisplayName("Изменение email на уже существующий в системе")
     public void shouldBeImpossibleToChangeEmailOnAlreadyExisting() {
         User userTwo = User.generateUser();
-        userClient.createNewUser(userTwo);
+        userTwoToken = userClient.createNewUserTyped(userTwo).getRawAccessToken();
         user.setEmail(userTwo.getEmail());
 
-        Response response = userClient.changeUserDataWithToken(authToken.substring(7), user);
+        UserResponse response = userClient.changeUserDataWithTokenTyped(authToken, user);
 
-        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.path("success"), equalTo(false));
-        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 403 forbidden", response.statusCode(), equalTo(SC_FORBIDDEN));
-        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого User with such email already exists", response.path("message"), equalTo(DOUBLE_EMAIL_ERROR_MESSAGE));
+        assertThat("Ошибка обновления данных пользователя: тело ответа не содержит параметр success со значением false", response.isSuccess(), equalTo(false));
+        assertThat("Ошибка обновления данных пользователя: вернулся код ответа, отличный от ожидаемого 403 forbidden", response.getStatusCode(), equalTo(SC_FORBIDDEN));
+        assertThat("Ошибка обновления данных пользователя: тело ответа содержит текст ошибки, отличный от ожидаемого User with such email already exists", response.getMessage(), equalTo(DOUBLE_EMAIL_ERROR_MESSAGE));
 
     }
 }
\ No newline at end of file